@@ -0,0 +1,75 @@
+package bench;
+
+import builder.MDDBuilder;
+import dd.mdd.MDD;
+import memory.Memory;
+import org.openjdk.jmh.annotations.*;
+import structures.Domains;
+import structures.generics.MapOf;
+import structures.generics.SetOf;
+import structures.tuples.TupleOfInt;
+import utils.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the constraints with MDDBuilder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConstructionBenchmark {
+
+    @Param({"10", "20"})
+    int n;
+
+    @Param({"5", "10"})
+    int d;
+
+    private Domains domains;
+    private SetOf<Integer> V;
+
+    @Setup
+    public void setup(){
+        Logger.out.setInformation(false);
+        domains = Generator.domains(n, d);
+        V = Generator.values(0, d / 2);
+    }
+
+    @Benchmark
+    public int sum(){
+        int mean = n * (d - 1) / 2;
+        return nodes(MDDBuilder.sum(MDD.create(), mean - d, mean + d, n, domains));
+    }
+
+    @Benchmark
+    public int sequence(){
+        return nodes(MDDBuilder.sequence(MDD.create(), domains, V, 4, 1, 2, n));
+    }
+
+    @Benchmark
+    public int gcc(){
+        MapOf<Integer, TupleOfInt> couples = Memory.MapOfIntegerTupleOfInt();
+        for(int v = 0; v < d; v++) couples.put(v, TupleOfInt.create(0, n / d + 1));
+        return nodes(MDDBuilder.gcc(MDD.create(), n, couples, domains));
+    }
+
+    @Benchmark
+    public int allDifferent(){
+        return nodes(MDDBuilder.allDifferent(MDD.create(), domains, V, n));
+    }
+
+    /**
+     * Free the MDD and return its number of nodes
+     * @param mdd The MDD
+     * @return The number of nodes of the MDD
+     */
+    private static int nodes(MDD mdd){
+        int nodes = mdd.nodes();
+        Memory.free(mdd);
+        return nodes;
+    }
+}
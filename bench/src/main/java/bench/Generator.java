@@ -0,0 +1,65 @@
+package bench;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import structures.Domains;
+import structures.generics.SetOf;
+
+import java.util.Random;
+
+/**
+ * Inputs shared by the benchmarks. Everything is generated from a seed so that two runs measure the same work.
+ */
+final class Generator {
+
+    private Generator(){}
+
+    /**
+     * Build an MDD containing the given number of random paths.
+     * @param paths Number of paths
+     * @param n Number of variables
+     * @param d Size of the domain
+     * @param seed Seed of the random generator
+     * @param reduce True if the MDD must be reduced
+     * @return The MDD
+     */
+    static MDD random(int paths, int n, int d, long seed, boolean reduce){
+        Random random = new Random(seed);
+        MDD mdd = MDD.create();
+        mdd.setSize(n+1);
+        int[] path = new int[n];
+        for(int p = 0; p < paths; p++) {
+            for(int i = 0; i < n; i++) path[i] = random.nextInt(d);
+            mdd.addPath(path);
+        }
+        if(reduce) mdd.reduce();
+        return mdd;
+    }
+
+    /**
+     * Get the domains {0, ..., d-1} for n variables
+     * @param n Number of variables
+     * @param d Size of the domain
+     * @return The domains
+     */
+    static Domains domains(int n, int d){
+        Domains domains = Domains.create();
+        for(int i = 0; i < n; i++) {
+            domains.add(i);
+            for(int v = 0; v < d; v++) domains.put(i, v);
+        }
+        return domains;
+    }
+
+    /**
+     * Get the set {from, ..., to-1}
+     * @param from First value
+     * @param to Last value (excluded)
+     * @return The set
+     */
+    static SetOf<Integer> values(int from, int to){
+        SetOf<Integer> values = Memory.SetOfInteger();
+        for(int v = from; v < to; v++) values.add(v);
+        return values;
+    }
+}
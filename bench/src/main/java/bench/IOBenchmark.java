@@ -0,0 +1,84 @@
+package bench;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import org.openjdk.jmh.annotations.*;
+import utils.Logger;
+import utils.io.MDDReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading a random reduced MDD with MDDReader, in the different representations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IOBenchmark {
+
+    @Param({"BOTTOM_UP", "TOP_DOWN", "TOP_DOWN_COMPACT", "TOP_DOWN_COMPACT_DEFLATE"})
+    String mode;
+
+    @Param({"10000", "50000"})
+    int paths;
+
+    @Param({"15"})
+    int n;
+
+    @Param({"4", "8"})
+    int d;
+
+    private MDD mdd;
+    private File saved, written;
+
+    @Setup
+    public void setup() throws IOException {
+        Logger.out.setInformation(false);
+        MDDReader.setMode(mode(mode));
+        mdd = Generator.random(paths, n, d, 0, true);
+        saved = File.createTempFile("bench", ".mdd");
+        written = File.createTempFile("bench", ".mdd");
+        MDDReader.save(mdd, saved.getPath());
+    }
+
+    /**
+     * Get the mode of MDDReader corresponding to the given name
+     * @param name The name of the mode
+     * @return The mode of MDDReader
+     */
+    private static byte mode(String name){
+        switch (name) {
+            case "TOP_DOWN": return MDDReader.TOP_DOWN;
+            case "TOP_DOWN_COMPACT": return MDDReader.TOP_DOWN_COMPACT;
+            case "TOP_DOWN_COMPACT_DEFLATE": return MDDReader.TOP_DOWN_COMPACT_DEFLATE;
+            default: return MDDReader.BOTTOM_UP;
+        }
+    }
+
+    @TearDown
+    public void tearDown(){
+        MDDReader.setMode(MDDReader.BOTTOM_UP);
+        Memory.free(mdd);
+        saved.delete();
+        written.delete();
+    }
+
+    @Benchmark
+    public boolean save(){
+        return MDDReader.save(mdd, written.getPath());
+    }
+
+    @Benchmark
+    public int load(){
+        MDD loaded = MDD.create();
+        MDDReader.load(loaded, saved.getPath());
+        int nodes = loaded.nodes();
+        Memory.free(loaded);
+        return nodes;
+    }
+}
@@ -0,0 +1,89 @@
+package bench;
+
+import dd.mdd.MDD;
+import dd.operations.Operation;
+import memory.Memory;
+import org.openjdk.jmh.annotations.*;
+import structures.arrays.ArrayOfMDD;
+import utils.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary and n-ary operations between random reduced MDDs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OperationBenchmark {
+
+    private static final int OPERANDS = 4;
+
+    @Param({"10000", "50000"})
+    int paths;
+
+    @Param({"15"})
+    int n;
+
+    @Param({"4", "8"})
+    int d;
+
+    private MDD[] mdds;
+    private ArrayOfMDD operands;
+
+    @Setup
+    public void setup(){
+        Logger.out.setInformation(false);
+        mdds = new MDD[OPERANDS];
+        operands = ArrayOfMDD.create(OPERANDS);
+        for(int i = 0; i < OPERANDS; i++) {
+            mdds[i] = Generator.random(paths, n, d, i, true);
+            operands.set(i, mdds[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown(){
+        for(MDD mdd : mdds) Memory.free(mdd);
+        Memory.free(operands);
+    }
+
+    @Benchmark
+    public int intersection(){
+        return nodes(Operation.intersection(mdds[0], mdds[1]));
+    }
+
+    @Benchmark
+    public int union(){
+        return nodes(Operation.union(mdds[0], mdds[1]));
+    }
+
+    @Benchmark
+    public int minus(){
+        return nodes(Operation.minus(mdds[0], mdds[1]));
+    }
+
+    @Benchmark
+    public int intersectionNary(){
+        return nodes(Operation.intersection(operands));
+    }
+
+    @Benchmark
+    public int unionNary(){
+        return nodes(Operation.union(operands));
+    }
+
+    /**
+     * Free the MDD and return its number of nodes
+     * @param mdd The MDD
+     * @return The number of nodes of the MDD
+     */
+    private static int nodes(MDD mdd){
+        int nodes = mdd.nodes();
+        Memory.free(mdd);
+        return nodes;
+    }
+}
@@ -0,0 +1,62 @@
+package bench;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import org.openjdk.jmh.annotations.*;
+import utils.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reduction of a random trie using Pack.pReduce or HashReduce.
+ * The trie is rebuilt before each invocation : only the reduction is measured.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ReduceBenchmark {
+
+    @Param({"PACK", "HASH"})
+    String mode;
+
+    @Param({"10000", "50000"})
+    int paths;
+
+    @Param({"20"})
+    int n;
+
+    @Param({"5"})
+    int d;
+
+    private MDD trie;
+
+    @Setup(Level.Trial)
+    public void setMode(){
+        Logger.out.setInformation(false);
+        MDD.setReductionMode("HASH".equals(mode) ? MDD.HASH_REDUCE : MDD.PACK_REDUCE);
+    }
+
+    @Setup(Level.Invocation)
+    public void setup(){
+        trie = Generator.random(paths, n, d, 0, false);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown(){
+        Memory.free(trie);
+    }
+
+    @TearDown(Level.Trial)
+    public void resetMode(){
+        MDD.setReductionMode(MDD.PACK_REDUCE);
+    }
+
+    @Benchmark
+    public int reduce(){
+        trie.reduce();
+        return trie.nodes();
+    }
+}
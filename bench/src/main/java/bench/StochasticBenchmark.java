@@ -0,0 +1,84 @@
+package bench;
+
+import dd.frozen.FrozenMDD;
+import dd.mdd.MDD;
+import dd.operations.Stochastic;
+import memory.Memory;
+import org.openjdk.jmh.annotations.*;
+import structures.generics.MapOf;
+import utils.Logger;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probability of a random reduced MDD with Stochastic.probability,
+ * on the MDD and on its FrozenMDD with dense tables (sequential and parallel).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StochasticBenchmark {
+
+    private static final int PRECISION = 4;
+
+    @Param({"10000", "50000"})
+    int paths;
+
+    @Param({"15"})
+    int n;
+
+    @Param({"4", "8"})
+    int d;
+
+    private MDD mdd;
+    private MapOf<Integer, Double>[] P;
+    private FrozenMDD frozen;
+    private double[][] tables;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup(){
+        Logger.out.setInformation(false);
+        mdd = Generator.random(paths, n, d, 0, true);
+        Random random = new Random(0);
+        double divisor = Math.pow(10, PRECISION);
+        P = new MapOf[n];
+        for(int i = 0; i < n; i++) {
+            P[i] = Memory.MapOfIntegerDouble();
+            for(int v = 0; v < d; v++) P[i].put(v, (double) (1 + random.nextInt((int) divisor / d)));
+        }
+        frozen = FrozenMDD.create(mdd);
+        tables = Stochastic.probabilities(P);
+    }
+
+    @TearDown
+    public void tearDown(){
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+        Memory.free(mdd);
+    }
+
+    @Benchmark
+    public double probabilityFloor(){
+        return Stochastic.probability(mdd, P, PRECISION, false);
+    }
+
+    @Benchmark
+    public double probabilityCeil(){
+        return Stochastic.probability(mdd, P, PRECISION, true);
+    }
+
+    @Benchmark
+    public double probabilityDense(){
+        return Stochastic.probability(frozen, tables, PRECISION, false);
+    }
+
+    @Benchmark
+    public double probabilityDenseParallel(){
+        return Stochastic.probability(frozen, tables, PRECISION, false, ForkJoinPool.commonPool());
+    }
+}
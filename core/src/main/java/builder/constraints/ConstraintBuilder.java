@@ -11,6 +11,7 @@ import dd.mdd.components.StateNode;
 import dd.interfaces.IStateNode;
 import memory.Memory;
 import structures.Domains;
+import structures.StateTable;
 import structures.arrays.ArrayOfBigInteger;
 import structures.arrays.ArrayOfDouble;
 import structures.arrays.ArrayOfLong;
@@ -22,9 +23,19 @@ import structures.generics.SetOfNode;
 import structures.tuples.TupleOfInt;
 import utils.Logger;
 import utils.SmallMath;
+import utils.io.MDDReader;
+import utils.io.reader.MDDFileWriter;
+import utils.io.reader.MDDLayerWriter;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 public class ConstraintBuilder {
 
@@ -68,11 +79,26 @@ public class ConstraintBuilder {
      * @return The DD corresponding to the given constraint
      */
     public static DecisionDiagram build(DecisionDiagram result, IStateNode constraint, SuccessionRule rule, int size, boolean relaxation){
+        return build(result, constraint, rule, size, relaxation, null);
+    }
+
+    /**
+     * Build the constraint corresponding to the one held by the given SNode, bounding the width of the layers.
+     * @param result The DecisionDiagram holding the result
+     * @param constraint The given constraint
+     * @param rule The rule of succession
+     * @param size The size of the DD
+     * @param relaxation True if the constraint must be relaxed when building, false otherwise
+     * @param width The bound on the width of the layers (relaxed or restricted), null if the width is not bounded
+     * @return The DD corresponding to the given constraint
+     */
+    public static DecisionDiagram build(DecisionDiagram result, IStateNode constraint, SuccessionRule rule, int size, boolean relaxation, WidthLimit width){
         result.setSize(size+1);
         result.setRoot(constraint);
 
         CollectionOf<Integer> successors = rule.getCollection();
         HashMap<String, IStateNode> bindings = new HashMap<>();
+        StateTable table = StateTable.create();
         SetOfNode<IStateNode> currentNodesConstraint = Memory.SetOfStateNode(),
                 nextNodesConstraint = Memory.SetOfStateNode(),
                 tmp;
@@ -86,12 +112,15 @@ public class ConstraintBuilder {
                     NodeState state = x.getState();
                     if(state.isValid(value, i, result.size())) {
                         if(!x.containsLabel(value)) {
-                            String hash = state.signature(value, i, result.size());
-                            IStateNode y = bindings.get(hash);
+                            String hash = null;
+                            IStateNode y;
+                            if(state.signature(value, i, result.size(), table.key())) y = table.get();
+                            else y = bindings.get(hash = state.signature(value, i, result.size()));
                             if (y == null) {
                                 y = x.Node();
                                 y.setState(state.createState(value, i, result.size()));
-                                bindings.put(hash, y);
+                                if(hash == null) table.put(y);
+                                else bindings.put(hash, y);
                                 nextNodesConstraint.add(y);
                                 node_constraint++;
                             } else if(relaxation) y.getState().merge(state, value, i, result.size());
@@ -100,14 +129,17 @@ public class ConstraintBuilder {
                     }
                 }
             }
+            if(width != null) width.apply(result, i);
             currentNodesConstraint.clear();
             tmp = currentNodesConstraint;
             currentNodesConstraint = nextNodesConstraint;
             nextNodesConstraint = tmp;
 
             bindings.clear();
+            table.clear();
         }
         Memory.free(successors);
+        Memory.free(table);
         Memory.free(currentNodesConstraint);
         Memory.free(nextNodesConstraint);
 
@@ -115,6 +147,108 @@ public class ConstraintBuilder {
         return result;
     }
 
+    /**
+     * Build the constraint corresponding to the one held by the given SNode, directly into a file. <br>
+     * Only the layers i-1 and i are in memory : each node of the layer i-1 is written (in TOP_DOWN_COMPACT mode)
+     * as soon as its children are known, then the layer i-1 is freed.
+     * The resulting file can be loaded using MDDReader.load or reduced using MDDReader.reduce.
+     * @param filename The name of the file holding the result
+     * @param constraint The given constraint (root of the DD, not freed)
+     * @param rule The rule of succession
+     * @param size The size of the DD
+     * @param relaxation True if the constraint must be relaxed when building, false otherwise
+     * @param reduce True if the file must be reduced (bottom-up pass over the file) after the construction
+     * @return True if the operation succeed, false otherwise
+     */
+    public static boolean build(String filename, IStateNode constraint, SuccessionRule rule, int size, boolean relaxation, boolean reduce){
+        String output = reduce ? filename + ".spill" : filename;
+        CollectionOf<Integer> successors = rule.getCollection();
+        HashMap<String, IStateNode> bindings = new HashMap<>();
+        StateTable table = StateTable.create();
+        // Nodes of the current and next layers, in the order of their IDs
+        ArrayList<IStateNode> currentNodesConstraint = new ArrayList<>(),
+                nextNodesConstraint = new ArrayList<>(),
+                tmp;
+        IdentityHashMap<IStateNode, Integer> ids = new IdentityHashMap<>();
+        int[] values = new int[16], children = new int[16];
+        int node_constraint = 0;
+        boolean success = false;
+
+        currentNodesConstraint.add(constraint);
+        try {
+            try (FileOutputStream stream = new FileOutputStream(output);
+                 MDDLayerWriter writer = new MDDLayerWriter(new MDDFileWriter(stream, 4096), MDDReader.MDD, size+1, false)) {
+                writer.layer(1);
+                for(int i = 1; i < size+1; i++){
+                    Logger.out.information("\rLAYER " + i);
+                    for(IStateNode x : currentNodesConstraint){
+                        // The labels are written sorted : new children must be created in the same order
+                        int n = 0;
+                        for(int value : rule.successors(successors, i - 1, x)) {
+                            if(n == values.length) values = Arrays.copyOf(values, n << 1);
+                            values[n++] = value;
+                        }
+                        Arrays.sort(values, 0, n);
+                        if(children.length < values.length) children = new int[values.length];
+
+                        NodeState state = x.getState();
+                        int arcs = 0;
+                        for(int v = 0; v < n; v++) {
+                            int value = values[v];
+                            if(!state.isValid(value, i, size+1) || (arcs > 0 && values[arcs-1] == value)) continue;
+                            String hash = null;
+                            IStateNode y;
+                            if(state.signature(value, i, size+1, table.key())) y = table.get();
+                            else y = bindings.get(hash = state.signature(value, i, size+1));
+                            if (y == null) {
+                                y = x.Node();
+                                y.setState(state.createState(value, i, size+1));
+                                if(hash == null) table.put(y);
+                                else bindings.put(hash, y);
+                                ids.put(y, nextNodesConstraint.size());
+                                nextNodesConstraint.add(y);
+                                node_constraint++;
+                            } else if(relaxation) y.getState().merge(state, value, i, size+1);
+                            values[arcs] = value;
+                            children[arcs++] = ids.get(y);
+                        }
+                        writer.node(values, children, arcs);
+                    }
+                    writer.layer(nextNodesConstraint.size());
+                    for(IStateNode x : currentNodesConstraint) if(x != constraint) Memory.free(x);
+                    currentNodesConstraint.clear();
+                    tmp = currentNodesConstraint;
+                    currentNodesConstraint = nextNodesConstraint;
+                    nextNodesConstraint = tmp;
+
+                    bindings.clear();
+                    table.clear();
+                    ids.clear();
+                }
+                for(IStateNode ignored : currentNodesConstraint) writer.node(values, children, 0);
+            }
+            success = !reduce || MDDReader.reduce(output, filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            // The nodes still in memory if the construction stopped before the end
+            for(IStateNode x : currentNodesConstraint) if(x != constraint) Memory.free(x);
+            for(IStateNode x : nextNodesConstraint) if(x != constraint) Memory.free(x);
+            Memory.free(successors);
+            Memory.free(table);
+            // The spill file is never kept, neither is an incomplete output (built or reduced)
+            try {
+                if(reduce || !success) Files.deleteIfExists(Path.of(output));
+                if(reduce && !success) Files.deleteIfExists(Path.of(filename));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        Logger.out.information(node_constraint);
+        return success;
+    }
+
     /**
      * Build the DD corresponding to the subset constraint.
      * @param result The DecisionDiagram holding the result
@@ -7,7 +7,7 @@ import dd.mdd.components.Node;
 import dd.operations.Operation;
 import memory.Binary;
 import memory.Memory;
-import structures.Binder;
+import structures.TupleTable;
 import structures.arrays.ArrayOfMDD;
 import structures.generics.MapOf;
 import structures.generics.SetOf;
@@ -112,7 +112,7 @@ public class MDDGCC {
     public static MDD intersection(MDD result, MDD mdd, MapOf<Integer, TupleOfInt> couples){
         result.setSize(mdd.size());
 
-        Binder binder = Binder.create();
+        TupleTable binder = TupleTable.create(2);
 
         // TODO : allocation from memory
         HashMap<Node, ArrayOfInt> values = new HashMap<>(),
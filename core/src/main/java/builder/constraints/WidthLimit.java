@@ -0,0 +1,179 @@
+package builder.constraints;
+
+import builder.constraints.states.NodeState;
+import dd.DecisionDiagram;
+import dd.interfaces.INode;
+import dd.interfaces.IStateNode;
+import structures.generics.SetOfNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * <b>Bound on the width of the layers built from a constraint.</b><br>
+ * When a layer has more than W nodes, the nodes are sorted using a heuristic and only the W first are kept :<br>
+ * - <b>relaxed</b> : the other nodes are merged into the last node kept using NodeState.merge. The DD contains at least
+ * all the solutions : the states must define the merge as an over-approximation (see NodeState.isMergeable).<br>
+ * - <b>restricted</b> : the other nodes are removed, as well as the nodes that no longer have any child.
+ * The DD contains a subset of the solutions.<br>
+ * During an intersection, a node (x1, state) can only be merged with a node having the same x1 :
+ * the width of the relaxed result is therefore bounded by the width of the operand.
+ */
+public class WidthLimit {
+
+    /**
+     * Keep the nodes having the most in-going arcs first
+     */
+    public static final Comparator<INode> MOST_PARENTS = (n1, n2) -> Integer.compare(n2.numberOfParents(), n1.numberOfParents());
+
+    private final int width;
+    private final boolean relaxed;
+    private final Comparator<INode> heuristic;
+
+    private WidthLimit(int width, boolean relaxed, Comparator<INode> heuristic){
+        if(width < 1) throw new IllegalArgumentException("The width must be positive !");
+        this.width = width;
+        this.relaxed = relaxed;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Bound the width by merging the nodes in excess
+     * @param width The maximum width of a layer
+     * @param heuristic The order of the nodes : the first ones are kept unchanged
+     * @return The corresponding WidthLimit
+     */
+    public static WidthLimit relaxed(int width, Comparator<INode> heuristic){
+        return new WidthLimit(width, true, heuristic);
+    }
+
+    /**
+     * Bound the width by merging the nodes in excess, keeping the nodes having the most in-going arcs unchanged
+     * @param width The maximum width of a layer
+     * @return The corresponding WidthLimit
+     */
+    public static WidthLimit relaxed(int width){
+        return relaxed(width, MOST_PARENTS);
+    }
+
+    /**
+     * Bound the width by removing the nodes in excess
+     * @param width The maximum width of a layer
+     * @param heuristic The order of the nodes : the first ones are kept
+     * @return The corresponding WidthLimit
+     */
+    public static WidthLimit restricted(int width, Comparator<INode> heuristic){
+        return new WidthLimit(width, false, heuristic);
+    }
+
+    /**
+     * Bound the width by removing the nodes in excess, keeping the nodes having the most in-going arcs
+     * @param width The maximum width of a layer
+     * @return The corresponding WidthLimit
+     */
+    public static WidthLimit restricted(int width){
+        return restricted(width, MOST_PARENTS);
+    }
+
+    public int width(){
+        return width;
+    }
+
+    public boolean isRelaxed(){
+        return relaxed;
+    }
+
+    /**
+     * Bound the width of the given layer, whose nodes are the state nodes.
+     * The layer must have just been built : its nodes have no child yet.
+     * @param dd The DecisionDiagram being built
+     * @param layer The index of the layer
+     * @throws UnsupportedOperationException if the width is relaxed and the states can not be merged (see NodeState.isMergeable)
+     */
+    public void apply(DecisionDiagram dd, int layer){
+        apply(dd, layer, false, null);
+    }
+
+    /**
+     * Bound the width of the given layer, whose nodes are associated with (x1, state node) as in an intersection.
+     * The layer must have just been built : its nodes have no child yet.<br>
+     * A state node can be shared by several nodes : when a node is relaxed, it is associated with a new state node,
+     * added to the given set so that it is freed with the other state nodes of the layer.
+     * @param dd The DecisionDiagram being built
+     * @param layer The index of the layer
+     * @param states The state nodes of the layer
+     * @throws UnsupportedOperationException if the width is relaxed and the states can not be merged (see NodeState.isMergeable)
+     */
+    public void apply(DecisionDiagram dd, int layer, SetOfNode<IStateNode> states){
+        apply(dd, layer, true, states);
+    }
+
+    private void apply(DecisionDiagram dd, int layer, boolean product, SetOfNode<IStateNode> states){
+        if(dd.getLayerSize(layer) <= width) return;
+        ArrayList<INode> nodes = new ArrayList<>(dd.getLayerSize(layer));
+        for(INode node : dd.iterateOnLayer(layer)) nodes.add(node);
+        if(relaxed && !state(nodes.get(0), product).isMergeable())
+            throw new UnsupportedOperationException(state(nodes.get(0), product).getClass().getSimpleName() + " does not define an over-approximating merge : the width can not be relaxed !");
+        // Stable : the nodes are kept in creation order when the heuristic does not decide
+        nodes.sort(heuristic);
+
+        // Last node kept for each x1 (only one class when the nodes are the state nodes)
+        IdentityHashMap<Object, INode> representatives = new IdentityHashMap<>();
+        // Representatives associated with a state node of their own
+        Set<INode> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+        int kept = 0;
+        for(INode node : nodes) {
+            Object key = product ? node.getX1() : this;
+            INode representative = representatives.get(key);
+            if(kept < width || (relaxed && representative == null)) {
+                kept++;
+                representatives.put(key, node);
+            } else if(relaxed) {
+                if(product && owners.add(representative)) own(representative, layer, dd.size(), states);
+                NodeState state = state(representative, product);
+                for(int value : node.iterateOnParentLabels())
+                    for(INode parent : node.iterateOnParents(value)) state.merge(state(parent, product), value, layer, dd.size());
+                node.replaceParentsReferencesBy(representative);
+                dd.removeNode(node, layer);
+            } else remove(dd, node, layer);
+        }
+    }
+
+    private static NodeState state(INode node, boolean product){
+        return ((IStateNode) (product ? node.getX2() : node)).getState();
+    }
+
+    /**
+     * Associate the node with a new state node, whose state is built from the in-going arcs of the node,
+     * so that the states merged into it do not modify the state node it shares with other nodes
+     */
+    private static void own(INode node, int layer, int size, SetOfNode<IStateNode> states){
+        NodeState state = null;
+        for(int value : node.iterateOnParentLabels()) {
+            for(INode parent : node.iterateOnParents(value)) {
+                if(state == null) state = state(parent, true).createState(value, layer, size);
+                else state.merge(state(parent, true), value, layer, size);
+            }
+        }
+        IStateNode x2 = ((IStateNode) node.getX2()).Node();
+        x2.setState(state);
+        node.associate(node.getX1(), x2);
+        states.add(x2);
+    }
+
+    /**
+     * Remove the node and its ancestors that no longer have any child (except the root)
+     */
+    private static void remove(DecisionDiagram dd, INode node, int layer){
+        Set<INode> parents = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(int value : node.iterateOnParentLabels()) for(INode parent : node.iterateOnParents(value)) parents.add(parent);
+        node.remove();
+        dd.removeNode(node, layer);
+        if(layer - 1 == 0) return;
+        for(INode parent : parents) if(parent.numberOfChildren() == 0) remove(dd, parent, layer - 1);
+    }
+
+}
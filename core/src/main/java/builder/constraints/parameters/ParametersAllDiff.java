@@ -16,6 +16,8 @@ public class ParametersAllDiff extends ConstraintParameters {
 
     // References, must not be free or cleaned by the object
     private SetOf<Integer> V;
+    // Position of each constrained value, in the order of V
+    private final ValueIndex index = new ValueIndex();
 
 
     //**************************************//
@@ -46,6 +48,7 @@ public class ParametersAllDiff extends ConstraintParameters {
      */
     protected void init(SetOf<Integer> V, SetOf<Integer> scope){
         this.V = V;
+        this.index.reset(V);
         super.setScope(scope);
     }
 
@@ -82,6 +85,25 @@ public class ParametersAllDiff extends ConstraintParameters {
         return V == null || V.contains(label);
     }
 
+    /**
+     * Get the position of the value among the constrained values, used by the states to store
+     * the used values in a bitset. When all the values are constrained, the values are indexed on the fly.
+     * @param label Value of the label
+     * @return The position of the value, -1 if the value is not constrained
+     */
+    public int index(int label){
+        if(V == null) return index.add(label);
+        return index.get(label);
+    }
+
+    /**
+     * Get the number of constrained values indexed so far
+     * @return The number of constrained values indexed so far
+     */
+    public int size(){
+        return index.size();
+    }
+
     /**
      * Get the set of all constrained values
      * @return The set of all constrained values
@@ -20,6 +20,9 @@ public class ParametersGCC extends ConstraintParameters {
     // Not to free
     private MapOf<Integer, TupleOfInt> gcc;
     private int minimum, violations;
+    // Position of each constrained value, in the order of V(), and the bounds of the value at each position
+    private final ValueIndex index = new ValueIndex();
+    private int[] mins = new int[0], maxs = new int[0];
 
 
     //**************************************//
@@ -53,6 +56,16 @@ public class ParametersGCC extends ConstraintParameters {
         this.minimum = 0;
         this.violations = violations;
         for(TupleOfInt tuple : gcc.values()) minimum += tuple.getFirst();
+        index.reset(gcc.keySet());
+        if(mins.length < index.size()) {
+            mins = new int[index.size()];
+            maxs = new int[index.size()];
+        }
+        for(int k = 0; k < index.size(); k++) {
+            TupleOfInt tuple = gcc.get(index.value(k));
+            mins[k] = tuple.getFirst();
+            maxs[k] = tuple.getSecond();
+        }
         super.setScope(scope);
     }
 
@@ -110,6 +123,50 @@ public class ParametersGCC extends ConstraintParameters {
         return gcc.get(label).getSecond();
     }
 
+    /**
+     * Get the position of the value among the constrained values, used by the states to store the counters in arrays
+     * @param label Value of the label
+     * @return The position of the value, -1 if the value is not constrained
+     */
+    public int index(int label){
+        return index.get(label);
+    }
+
+    /**
+     * Get the number of constrained values
+     * @return The number of constrained values
+     */
+    public int size(){
+        return index.size();
+    }
+
+    /**
+     * Get the constrained value at the given position
+     * @param k The position of the value
+     * @return The constrained value at the given position
+     */
+    public int value(int k){
+        return index.value(k);
+    }
+
+    /**
+     * Get the minimum occurrences of the value at the given position
+     * @param k The position of the value
+     * @return The minimum occurrences of the value at the given position
+     */
+    public int minAt(int k){
+        return mins[k];
+    }
+
+    /**
+     * Get the maximum occurrences of the value at the given position
+     * @param k The position of the value
+     * @return The maximum occurrences of the value at the given position
+     */
+    public int maxAt(int k){
+        return maxs[k];
+    }
+
     /**
      * Get the minimum number of variables necessary to satisfy the constraint. <br>
      * That is, the sum of all min() of each variable.
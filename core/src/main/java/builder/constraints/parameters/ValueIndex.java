@@ -0,0 +1,92 @@
+package builder.constraints.parameters;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <b>Index of the constrained values of a constraint.</b><br>
+ * Associate each value to its position (0 .. size()-1), so that the states can store one bit or one counter
+ * per value in primitive arrays. The positions follow the order of the values when the index is built.
+ * A dense table is used when the values are close enough, a HashMap otherwise.
+ */
+final class ValueIndex {
+
+    private int[] values = new int[0];
+    private int size;
+    // Position of the value v at dense[v - low] (-1 if v is not indexed), null if the hash map is used
+    private int[] dense;
+    private int low;
+    private final HashMap<Integer, Integer> sparse = new HashMap<>();
+
+    /**
+     * Index the given values, in the given order. The previous values are removed.
+     * @param indexed The values
+     */
+    void reset(Iterable<Integer> indexed){
+        size = 0;
+        sparse.clear();
+        dense = null;
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        if(indexed != null) for(int v : indexed) {
+            if(size == values.length) values = Arrays.copyOf(values, Math.max(16, size << 1));
+            values[size++] = v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if(size > 0 && (long) max - min < 4L * size + 64) {
+            low = min;
+            dense = new int[max - min + 1];
+            Arrays.fill(dense, -1);
+            for(int k = 0; k < size; k++) dense[values[k] - low] = k;
+        } else for(int k = 0; k < size; k++) sparse.put(values[k], k);
+    }
+
+    /**
+     * Get the position of the value
+     * @param value The value
+     * @return The position of the value, -1 if the value is not indexed
+     */
+    int get(int value){
+        if(dense != null) {
+            int i = value - low;
+            return i >= 0 && i < dense.length ? dense[i] : -1;
+        }
+        Integer k = sparse.get(value);
+        return k == null ? -1 : k;
+    }
+
+    /**
+     * Get the position of the value, indexing the value if it is not indexed yet
+     * @param value The value
+     * @return The position of the value
+     */
+    int add(int value){
+        int k = get(value);
+        if(k >= 0) return k;
+        if(dense != null) {
+            for(int i = 0; i < size; i++) sparse.put(values[i], i);
+            dense = null;
+        }
+        if(size == values.length) values = Arrays.copyOf(values, Math.max(16, size << 1));
+        values[size] = value;
+        sparse.put(value, size);
+        return size++;
+    }
+
+    /**
+     * Get the value at the given position
+     * @param k The position
+     * @return The value at the given position
+     */
+    int value(int k){
+        return values[k];
+    }
+
+    /**
+     * Get the number of values indexed
+     * @return The number of values indexed
+     */
+    int size(){
+        return size;
+    }
+}
@@ -2,6 +2,7 @@ package builder.constraints.states;
 
 import memory.Allocable;
 import structures.Signature;
+import structures.StateKey;
 
 /**
  * <b>NodeState</b><br>
@@ -63,6 +64,16 @@ public abstract class NodeState implements Allocable {
         return null;
     }
 
+    /**
+     * Check if the merge function over-approximates the states :
+     * the merged state accepts at least all the completions accepted by the states merged into it.<br>
+     * Required to bound the width of a relaxed DD (see WidthLimit).
+     * @return True if merge is an over-approximation, false otherwise
+     */
+    public boolean isMergeable(){
+        return false;
+    }
+
     /**
      * Signature function.<br>
      * Two nodes are merged when their signature are the same.
@@ -73,6 +84,21 @@ public abstract class NodeState implements Allocable {
      */
     public abstract String signature(int label, int layer, int size);
 
+    /**
+     * Primitive signature function.<br>
+     * Write the signature of the state into the given key instead of building a String.
+     * Two nodes are merged when they write the same words : the key must identify the state exactly,
+     * as the String signature does. The states of a same constraint must either all support it or none.
+     * @param label Label of the arc
+     * @param layer The index of the <b>PARENT</b>'s layer
+     * @param size The total size of the DD
+     * @param key The key receiving the signature
+     * @return True if the state supports primitive signatures, false to use the String signature
+     */
+    public boolean signature(int label, int layer, int size, StateKey key){
+        return false;
+    }
+
 
     /**
      * Signature function <b>(TESTING)</b>.<br>
@@ -2,18 +2,25 @@ package builder.constraints.states;
 
 import builder.constraints.parameters.ParametersAllDiff;
 import memory.AllocatorOf;
-import memory.Memory;
-import structures.generics.SetOf;
+import structures.StateKey;
+
+import java.util.Arrays;
 
 /**
  * <b>StateAllDiff</b><br>
- * Represent the state of an All Different constraint.
+ * Represent the state of an All Different constraint. <br>
+ * The used values are stored in a bitset indexed by the position of the values in the constraint,
+ * and the hash of the bitset is updated each time a value is added.
  */
 public class StateAllDiff extends NodeState {
     // Thread safe allocator
     private final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
 
-    private SetOf<Integer> alldiff;
+    // Used values : the bit k is set if the k-th constrained value is used. The words after length are empty.
+    private long[] bits = new long[1];
+    private int length;
+    // Xor of StateKey.mix(k) for each used position k
+    private long hash;
     private ParametersAllDiff constraint;
 
     //**************************************//
@@ -33,8 +40,9 @@ public class StateAllDiff extends NodeState {
      * @param constraint Parameters of the constraint
      */
     protected void init(ParametersAllDiff constraint){
-        this.alldiff = Memory.SetOfInteger();
         this.constraint = constraint;
+        this.length = 0;
+        this.hash = 0;
     }
 
     /**
@@ -69,8 +77,11 @@ public class StateAllDiff extends NodeState {
     @Override
     public NodeState createState(int label, int layer, int size) {
         StateAllDiff state = StateAllDiff.create(constraint);
-        state.alldiff.add(alldiff);
-        if(constraint.contains(label) && constraint.inScope(layer-1)) state.alldiff.add(label);
+        if(state.bits.length < length) state.bits = new long[bits.length];
+        System.arraycopy(bits, 0, state.bits, 0, length);
+        state.length = length;
+        state.hash = hash;
+        if(constraint.contains(label) && constraint.inScope(layer-1)) state.use(constraint.index(label));
         return state;
     }
 
@@ -79,7 +90,36 @@ public class StateAllDiff extends NodeState {
      */
     @Override
     public boolean isValid(int label, int layer, int size){
-        return !constraint.inScope(layer-1) || !constraint.contains(label) || !alldiff.contains(label);
+        return !constraint.inScope(layer-1) || !constraint.contains(label) || !isUsed(constraint.index(label));
+    }
+
+    /**
+     * {@inheritDoc}
+     * A value is used by the merged state if it is used by both states : the bitsets are intersected.
+     */
+    @Override
+    public NodeState merge(NodeState state, int label, int layer, int size){
+        StateAllDiff other = (StateAllDiff) state;
+        int k = constraint.contains(label) && constraint.inScope(layer-1) ? constraint.index(label) : -1;
+        int n = 0;
+        hash = 0;
+        for(int w = 0; w < length; w++) {
+            long word = w < other.length ? other.bits[w] : 0;
+            if(k >= 0 && w == k >>> 6) word |= 1L << k;
+            bits[w] &= word;
+            if(bits[w] != 0) n = w + 1;
+            for(long b = bits[w]; b != 0; b &= b - 1) hash ^= StateKey.mix((w << 6) + Long.numberOfTrailingZeros(b));
+        }
+        length = n;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMergeable(){
+        return true;
     }
 
     /**
@@ -91,12 +131,56 @@ public class StateAllDiff extends NodeState {
         if(layer+1 == size) return "";
         StringBuilder builder = new StringBuilder();
         for(int v : constraint.set()) {
-            if((v == label && constraint.inScope(layer-1)) || alldiff.contains(v)) builder.append("1");
+            if((v == label && constraint.inScope(layer-1)) || isUsed(constraint.index(v))) builder.append("1");
             else builder.append("0");
         }
         return builder.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     * The key is the bitset of the used values, in the order of the constrained values, up to its last non-empty word.
+     * The hash of the key is the hash of the state, updated with the label.
+     */
+    @Override
+    public boolean signature(int label, int layer, int size, StateKey key) {
+        if(!constraint.isLayerRemaining(layer)) return true;
+        if(layer+1 == size) return true;
+        int k = constraint.contains(label) && constraint.inScope(layer-1) ? constraint.index(label) : -1;
+        if(k >= 0 && isUsed(k)) k = -1;
+        int words = k >= 0 ? Math.max(length, (k >>> 6) + 1) : length;
+        for(int w = 0; w < words; w++) {
+            long word = w < length ? bits[w] : 0;
+            if(k >= 0 && w == k >>> 6) word |= 1L << k;
+            key.add(word);
+        }
+        key.setHash(k >= 0 ? hash ^ StateKey.mix(k) : hash);
+        return true;
+    }
+
+    /**
+     * Check if the value at the given position is used
+     * @param k The position of the value
+     * @return True if the value is used, false otherwise
+     */
+    private boolean isUsed(int k){
+        int w = k >>> 6;
+        return w < length && (bits[w] & (1L << k)) != 0;
+    }
+
+    /**
+     * Mark the value at the given position as used
+     * @param k The position of the value
+     */
+    private void use(int k){
+        if(isUsed(k)) return;
+        int w = k >>> 6;
+        if(w >= bits.length) bits = Arrays.copyOf(bits, Math.max(w + 1, bits.length << 1));
+        if(w >= length) length = w + 1;
+        bits[w] |= 1L << k;
+        hash ^= StateKey.mix(k);
+    }
+
     //**************************************//
     //           MEMORY FUNCTIONS           //
     //**************************************//
@@ -107,7 +191,8 @@ public class StateAllDiff extends NodeState {
      */
     @Override
     public void free(){
-        Memory.free(alldiff);
+        Arrays.fill(bits, 0, length, 0);
+        this.length = 0;
         this.constraint = null;
         allocator().free(this);
     }
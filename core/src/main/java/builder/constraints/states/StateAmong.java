@@ -3,12 +3,16 @@ package builder.constraints.states;
 import builder.constraints.parameters.ParametersAmong;
 import memory.AllocatorOf;
 import memory.Memory;
+import structures.StateKey;
 import structures.arrays.ArrayOfInt;
 
 public class StateAmong extends NodeState {
     // Thread safe allocator
     private final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
 
+    // Value of a position of the window holding a 0 in a merged state and a 1 in another (see merge)
+    private static final int EITHER = 2;
+
     private ArrayOfInt among;
 
     // Must not be free
@@ -80,12 +84,39 @@ public class StateAmong extends NodeState {
     @Override
     public boolean isValid(int label, int layer, int size){
         if(!constraint.inScope(layer-1)) return true;
-        int cpt = 0;
-        for(int i = 1; i < constraint.q(); i++) cpt += among.get(i);
+        int cpt = 0, either = 0;
+        for(int i = 1; i < constraint.q(); i++) {
+            if(among.get(i) == 1) cpt++;
+            else if(among.get(i) == EITHER) either++;
+        }
         if(constraint.contains(label)) cpt++;
         int potential = constraint.q() - layer;
         if(potential < 0) potential = 0;
-        return constraint.min() <= cpt + potential && cpt <= constraint.max();
+        return constraint.min() <= cpt + either + potential && cpt <= constraint.max();
+    }
+
+    /**
+     * {@inheritDoc}
+     * A position of the window holding a 0 in a state and a 1 in the other holds EITHER in the merged state.
+     */
+    @Override
+    public NodeState merge(NodeState state, int label, int layer, int size){
+        StateAmong other = (StateAmong) state;
+        boolean inScope = constraint.inScope(layer-1);
+        int q = constraint.q();
+        for(int i = 0; i < q; i++) {
+            int value = !inScope ? 0 : i < q - 1 ? other.among.get(i+1) : (constraint.contains(label) ? 1 : 0);
+            if(value != among.get(i)) among.set(i, EITHER);
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMergeable(){
+        return true;
     }
 
     /**
@@ -94,9 +125,12 @@ public class StateAmong extends NodeState {
     @Override
     public String signature(int label, int layer, int size){
         int r = size - layer;
-        int cpt = 0;
-        for(int i = r; i < constraint.q(); i++) cpt += among.get(i);
-        if(constraint.min() <= cpt && cpt + r <= constraint.max()) return "";
+        int cpt = 0, either = 0;
+        for(int i = r; i < constraint.q(); i++) {
+            if(among.get(i) == 1) cpt++;
+            else if(among.get(i) == EITHER) either++;
+        }
+        if(constraint.min() <= cpt && cpt + either + r <= constraint.max()) return "";
 
         StringBuilder builder = new StringBuilder();
         builder.append("[");
@@ -111,6 +145,53 @@ public class StateAmong extends NodeState {
         return builder.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     * The key is the bitset of the window, the last bit being the one of the label,
+     * followed by the bitset of the EITHER positions if the state has been merged.
+     */
+    @Override
+    public boolean signature(int label, int layer, int size, StateKey key){
+        int r = size - layer;
+        int cpt = 0, either = 0;
+        for(int i = r; i < constraint.q(); i++) {
+            if(among.get(i) == 1) cpt++;
+            else if(among.get(i) == EITHER) either++;
+        }
+        if(constraint.min() <= cpt && cpt + either + r <= constraint.max()) return true;
+
+        addBits(label, 1, key);
+        for(int i = 1; i < among.length; i++) {
+            if(among.get(i) == EITHER) {
+                addBits(label, EITHER, key);
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add to the key the bitset of the positions of the window holding the given value, the last bit being the one of the label
+     * @param label Label of the arc
+     * @param value The value of the positions
+     * @param key The key receiving the bitset
+     */
+    private void addBits(int label, int value, StateKey key){
+        long word = 0;
+        int bit = 0;
+        for(int i = 1; i <= among.length; i++) {
+            int v = i < among.length ? among.get(i) : (constraint.contains(label) ? 1 : 0);
+            if(v == value) word |= 1L << bit;
+            if(++bit == 64) {
+                key.add(word);
+                word = 0;
+                bit = 0;
+            }
+        }
+        // An empty window must still differ from the empty signature
+        if(bit > 0 || among.length == 0) key.add(word);
+    }
+
     //**************************************//
     //           MEMORY FUNCTIONS           //
     //**************************************//
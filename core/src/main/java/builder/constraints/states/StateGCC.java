@@ -3,21 +3,36 @@ package builder.constraints.states;
 import builder.constraints.parameters.ParametersGCC;
 import memory.AllocatorOf;
 import memory.Memory;
-import structures.generics.MapOf;
+import structures.StateKey;
 import structures.lists.ListOfInt;
 
+import java.util.Arrays;
+
 /**
  * <b>StateGCC</b><br>
- * Represent the state of a GCC constraint.
+ * Represent the state of a GCC constraint. <br>
+ * The counters are stored in an array indexed by the position of the values in the constraint,
+ * and the hash of the tracked (value, count) pairs is updated each time a counter changes.<br>
+ * The state also holds the number of missing occurrences (below the minimums) and the number of violations
+ * (occurrences beyond the maximums) : a value is no longer tracked once both its bounds are surely satisfied.<br>
+ * A merged state (see merge) holds the interval [count, high] of the numbers of occurrences of each value,
+ * the smallest number of missing occurrences and the smallest number of violations of the states merged into it.
  */
 public class StateGCC extends NodeState {
     // Thread safe allocator
     private final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
 
-    // Private reference
-    private MapOf<Integer, Integer> count;
+    // Private reference : count[k] is the number of occurrences of the k-th constrained value, -1 if it is not tracked
+    private short[] count = new short[0];
+    // Private reference : high[k] is the largest number of occurrences of the k-th value (equal to count[k] without merge)
+    private short[] high = new short[0];
+    // Xor of entry(k, count[k], high[k]) for each tracked position k
+    private long hash;
+    // Number of occurrences missing to reach the minimums, and number of occurrences beyond the maximums
     private int minimum;
     private int violations;
+    // True if the state or one of its ancestors has been merged : minimum and violations are then part of the key
+    private boolean merged;
 
     // Shared references : constraint
     private ParametersGCC constraint;
@@ -42,15 +57,21 @@ public class StateGCC extends NodeState {
     protected void init(ParametersGCC constraint){
         this.constraint = constraint;
         this.minimum = constraint.minimum();
-        this.count = Memory.MapOfIntegerInteger();
+        if(count.length < constraint.size()) {
+            count = new short[constraint.size()];
+            high = new short[constraint.size()];
+        }
+        Arrays.fill(count, 0, constraint.size(), (short) -1);
+        this.hash = 0;
         this.violations = 0;
+        this.merged = false;
     }
 
     /**
      * Initialise to the default state
      */
     public void initV(){
-        for(int v : constraint.V()) count.put(v,0);
+        for(int k = 0; k < constraint.size(); k++) track(k, 0);
     }
 
     /**
@@ -84,48 +105,84 @@ public class StateGCC extends NodeState {
      */
     @Override
     public NodeState createState(int label, int layer, int size) {
+        if(size > Short.MAX_VALUE) throw new IllegalArgumentException("The counters of the GCC are limited to " + Short.MAX_VALUE + " variables");
         StateGCC state = StateGCC.create(constraint);
         state.minimum = minimum;
-        state.violations = 0;
+        state.violations = violations;
+        state.merged = merged;
         int potential = size - layer - 1;
-        for(int v : count) {
-            if(count.get(v) < constraint.min(v) || count.get(v) + potential > constraint.max(v)) state.count.put(v, count.get(v));
-            if(count.get(v) > constraint.max(v)) state.violations += count.get(v) - constraint.max(v);
-            if(count.get(v) + potential < constraint.min(v)) state.violations += constraint.min(v) - count.get(v);
-        }
-        if(!constraint.inScope(layer-1)) return state;
-        if(state.count.contains(label)){
-            if (count.get(label) < constraint.min(label)) state.minimum--;
-            // If we are sure that, whatever the value, we satisfy the gcc, we remove the value
-            // So we only add the value when we are not sure
-            if(count.get(label) + 1 >= constraint.min(label) && count.get(label) + potential + 1 <= constraint.max(label)) state.count.remove(label);
-            else {
-                // If we add a violation
-                if(count.get(label) >= constraint.max(label)) state.violations++;
-                else if (count.get(label) + potential + 1 < constraint.min(label)) state.violations--;
-                state.count.put(label, state.count.get(label) + 1);
+        int added = constraint.inScope(layer-1) ? constraint.index(label) : -1;
+        // Without merge, c == h : the counters of a merged state are bounded by [c, h]
+        for(int k = 0; k < constraint.size(); k++) {
+            int c = count[k];
+            if(c < 0) continue;
+            int h = high[k], min = constraint.minAt(k), max = constraint.maxAt(k);
+            if(k == added) {
+                if(c < min) state.minimum--;
+                if(c >= max) state.violations++;
+                c++;
+                h++;
             }
-            //state.count.put(label, state.count.get(label) + 1);
+            // If we are sure that, whatever the next values, the bounds of the value are satisfied, we remove the value
+            // So we only keep the value when we are not sure
+            if(c < min || h + potential > max) state.track(k, c, h);
         }
         return state;
     }
 
     /**
      * {@inheritDoc}
+     * The missing occurrences that the next variables cannot take count as violations.
      */
     @Override
     public boolean isValid(int label, int layer, int size) {
         if(!constraint.inScope(layer-1)) return true;
         int potential = size - layer - 1;
-        int minimum = this.minimum;
+        int minimum = this.minimum, violations = this.violations;
 
-        int violation = constraint.violations() - violations;
-        if(violation < 0) return false;
+        int k = constraint.index(label);
+        if(k >= 0 && count[k] >= 0) {
+            if(count[k] < constraint.minAt(k)) minimum--;
+            if(count[k] >= constraint.maxAt(k)) violations++;
+        }
+        return violations + Math.max(0, minimum - potential) <= constraint.violations();
+    }
 
-        if(!count.contains(label)) return minimum <= potential+violation;
-        int value = count.get(label);
-        if(value < constraint.min(label)) minimum--;
-        return minimum <= potential+violation && value+1 <= constraint.max(label)+violation+(value > constraint.max(label) ? value - constraint.max(label) : 0);
+    /**
+     * {@inheritDoc}
+     * The interval of occurrences of a value is the union of the intervals of the states, and a value that
+     * is not tracked by one of the states is no longer tracked : the occurrences it still misses in the other
+     * state are then removed from the minimum. The merged state keeps the smallest number of missing occurrences
+     * and the smallest number of violations.
+     */
+    @Override
+    public NodeState merge(NodeState state, int label, int layer, int size){
+        StateGCC other = (StateGCC) ((StateGCC) state).createState(label, layer, size);
+        for(int k = 0; k < constraint.size(); k++) {
+            int c = count[k], o = other.count[k];
+            if(c < 0 && o >= 0) other.minimum -= Math.max(0, constraint.minAt(k) - o);
+            else if(c >= 0 && o < 0) {
+                minimum -= Math.max(0, constraint.minAt(k) - c);
+                untrack(k);
+            } else if(c >= 0 && (o < c || other.high[k] > high[k])) {
+                int h = Math.max(high[k], other.high[k]);
+                untrack(k);
+                track(k, Math.min(c, o), h);
+            }
+        }
+        if(other.minimum < minimum) minimum = other.minimum;
+        if(other.violations < violations) violations = other.violations;
+        merged = true;
+        Memory.free(other);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMergeable(){
+        return true;
     }
 
     /**
@@ -135,22 +192,128 @@ public class StateGCC extends NodeState {
     public String signature(int label, int layer, int size){
         size += 1;
         ListOfInt integers = ListOfInt.create();
-        integers.add(count.keySet());
+        for(int k = 0; k < constraint.size(); k++) if(count[k] >= 0) integers.add(constraint.value(k));
         integers.sort();
         StringBuilder builder = new StringBuilder();
         for (int v : integers) {
-            if(v == label && count.get(label) >= constraint.min(label) && count.get(label) + size - layer <= constraint.max(label)) continue;
-            else if(count.get(v) >= constraint.min(v) && count.get(v) + (size-1) - layer <= constraint.max(v)) continue;
+            int c = count[constraint.index(v)], h = high[constraint.index(v)];
+            if(v == label && c >= constraint.min(label) && h + size - layer <= constraint.max(label)) continue;
+            else if(c >= constraint.min(v) && h + (size-1) - layer <= constraint.max(v)) continue;
+            int added = v != label || !constraint.inScope(layer-1) ? 0 : 1;
             builder.append(v);
             builder.append(" -> ");
-            if(v != label || !constraint.inScope(layer-1)) builder.append(count.get(v));
-            else builder.append(count.get(v)+1);
+            builder.append(c + added);
+            if(h != c) {
+                builder.append("..");
+                builder.append(h + added);
+            }
             builder.append("; ");
         }
+        if(merged) {
+            builder.append(minimum);
+            builder.append(" | ");
+            builder.append(violations);
+        }
         Memory.free(integers);
         return builder.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     * The key is the list of (value, count) pairs of the String signature, following the order of the
+     * constrained values instead of sorting the counted values. The hash of the key is the hash of the state,
+     * updated with the pairs that are skipped or incremented.<br>
+     * The pair of a value having an interval of occurrences is followed by the upper bound of the interval,
+     * and the key of a merged state ends with the minimum and the violations (without merge, they are given by
+     * the tracked pairs). These words are the only ones having the sign bit of their count set.
+     */
+    @Override
+    public boolean signature(int label, int layer, int size, StateKey key){
+        size += 1;
+        long h = hash;
+        for (int k = 0; k < constraint.size(); k++) {
+            int c = count[k];
+            if(c < 0) continue;
+            int top = high[k], v = constraint.value(k), min = constraint.minAt(k), max = constraint.maxAt(k);
+            if((v == label && c >= min && top + size - layer <= max) || (c >= min && top + (size-1) - layer <= max)) {
+                h ^= entry(v, c, top);
+                continue;
+            }
+            if(v == label && constraint.inScope(layer-1)) {
+                h ^= entry(v, c, top) ^ entry(v, c + 1, top + 1);
+                c++;
+                top++;
+            }
+            key.add(word(v, c));
+            if(top != c) key.add(upperWord(v, top));
+        }
+        if(merged) key.add(upperWord(minimum, violations));
+        key.setHash(h);
+        return true;
+    }
+
+    /**
+     * Get the word of the key representing the given pair
+     * @param value The value
+     * @param c The number of occurrences of the value
+     * @return The word representing the pair
+     */
+    private static long word(int value, int c){
+        return ((long) value << 32) | (c & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the word of the key representing an upper bound : the sign bit of the count is set
+     * @param value The value
+     * @param c The upper bound
+     * @return The word representing the upper bound
+     */
+    private static long upperWord(int value, int c){
+        return ((long) value << 32) | ((c | 0x80000000) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the hash of a tracked value
+     * @param value The value
+     * @param c The smallest number of occurrences of the value
+     * @param h The largest number of occurrences of the value
+     * @return The hash of the value
+     */
+    private static long entry(int value, int c, int h){
+        long entry = StateKey.mix(word(value, c));
+        return h == c ? entry : entry ^ StateKey.mix(upperWord(value, h));
+    }
+
+    /**
+     * Track the number of occurrences of the value at the given position. The value must not be tracked.
+     * @param k The position of the value
+     * @param c The number of occurrences of the value
+     */
+    private void track(int k, int c){
+        track(k, c, c);
+    }
+
+    /**
+     * Track the interval of occurrences of the value at the given position. The value must not be tracked.
+     * @param k The position of the value
+     * @param c The smallest number of occurrences of the value
+     * @param h The largest number of occurrences of the value
+     */
+    private void track(int k, int c, int h){
+        count[k] = (short) c;
+        high[k] = (short) h;
+        hash ^= entry(constraint.value(k), c, h);
+    }
+
+    /**
+     * Stop tracking the number of occurrences of the value at the given position. The value must be tracked.
+     * @param k The position of the value
+     */
+    private void untrack(int k){
+        hash ^= entry(constraint.value(k), count[k], high[k]);
+        count[k] = -1;
+    }
+
 
     //**************************************//
     //           MEMORY FUNCTIONS           //
@@ -162,7 +325,6 @@ public class StateGCC extends NodeState {
      */
     @Override
     public void free(){
-        Memory.free(count);
         this.constraint = null;
         allocator().free(this);
     }
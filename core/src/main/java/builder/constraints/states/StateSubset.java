@@ -2,6 +2,7 @@ package builder.constraints.states;
 
 import builder.constraints.parameters.ParametersSubset;
 import memory.AllocatorOf;
+import structures.StateKey;
 
 public class StateSubset extends NodeState {
     // Thread safe allocator
@@ -67,6 +68,12 @@ public class StateSubset extends NodeState {
         return Integer.toString(constraint.getNext(setID, label));
     }
 
+    @Override
+    public boolean signature(int label, int layer, int size, StateKey key) {
+        key.add(constraint.getNext(setID, label));
+        return true;
+    }
+
 
     //**************************************//
     //           MEMORY FUNCTIONS           //
@@ -2,16 +2,19 @@ package builder.constraints.states;
 
 import builder.constraints.parameters.ParametersSum;
 import memory.AllocatorOf;
+import structures.StateKey;
 
 /**
  * <b>StateSum</b><br>
- * Represent the state of a Sum constraint.
+ * Represent the state of a Sum constraint. <br>
+ * The state holds the interval [sum, high] of the partial sums of the paths merged into it
+ * (see merge) : without merge, high is equal to sum.
  */
 public class StateSum extends NodeState {
     // Thread safe allocator
     private final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
 
-    private int sum;
+    private int sum, high;
     private ParametersSum constraint;
 
     //**************************************//
@@ -33,6 +36,7 @@ public class StateSum extends NodeState {
     protected void init(ParametersSum constraint){
         this.constraint = constraint;
         this.sum = 0;
+        this.high = 0;
     }
 
     /**
@@ -66,7 +70,8 @@ public class StateSum extends NodeState {
      */
     @Override
     public String toString(){
-        return Integer.toString(sum);
+        if(sum == high) return Integer.toString(sum);
+        return sum + ".." + high;
     }
 
     /**
@@ -77,7 +82,11 @@ public class StateSum extends NodeState {
         label = constraint.value(label);
         StateSum state = StateSum.create(constraint);
         state.sum = sum;
-        if(constraint.inScope(layer-1)) state.sum += label;
+        state.high = high;
+        if(constraint.inScope(layer-1)) {
+            state.sum += label;
+            state.high += label;
+        }
         return state;
     }
 
@@ -90,12 +99,33 @@ public class StateSum extends NodeState {
             return true;
         label = constraint.value(label);
         int minPotential = sum + label + constraint.vMin(layer-1);
-        int maxPotential = sum + label + constraint.vMax(layer-1);
+        int maxPotential = high + label + constraint.vMax(layer-1);
 
 
         return maxPotential >= constraint.min() && constraint.max() >= minPotential;
     }
 
+    /**
+     * {@inheritDoc}
+     * The interval of the merged state is the union of the intervals of the states.
+     */
+    @Override
+    public NodeState merge(NodeState state, int label, int layer, int size){
+        StateSum other = (StateSum) state;
+        label = constraint.inScope(layer-1) ? constraint.value(label) : 0;
+        if(other.sum + label < sum) sum = other.sum + label;
+        if(other.high + label > high) high = other.high + label;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMergeable(){
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -104,10 +134,29 @@ public class StateSum extends NodeState {
         if(!constraint.inScope(layer-1)) label = 0;
         label = constraint.value(label);
         int minPotential = sum + label + constraint.vMin(layer-1);
-        int maxPotential = sum + label + constraint.vMax(layer-1);
+        int maxPotential = high + label + constraint.vMax(layer-1);
 
         if(constraint.min() <= minPotential && maxPotential <= constraint.max()) return "";
-        return Integer.toString(sum + label);
+        if(sum == high) return Integer.toString(sum + label);
+        return (sum + label) + ".." + (high + label);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The key is the partial sum, followed by the largest partial sum if the state is an interval.
+     */
+    @Override
+    public boolean signature(int label, int layer, int size, StateKey key){
+        if(!constraint.inScope(layer-1)) label = 0;
+        label = constraint.value(label);
+        int minPotential = sum + label + constraint.vMin(layer-1);
+        int maxPotential = high + label + constraint.vMax(layer-1);
+
+        if(constraint.min() > minPotential || maxPotential > constraint.max()) {
+            key.add(sum + label);
+            if(sum != high) key.add(high + label);
+        }
+        return true;
     }
 
 
@@ -0,0 +1,21 @@
+package dd;
+
+import dd.interfaces.INode;
+
+/**
+ * <b>The cost of the arcs of a DD, used to search the optimal paths.</b><br>
+ * For instance, (layer, node, label) -&gt; weights[label] weights the labels of a MDD,
+ * and CostMDD.ARC_COST reads the costs stored on the arcs of a CostMDD.
+ */
+@FunctionalInterface
+public interface ArcCost {
+
+    /**
+     * Get the cost of an arc
+     * @param layer The layer of the source of the arc
+     * @param source The source of the arc
+     * @param label The label of the arc
+     * @return The cost of the arc
+     */
+    long cost(int layer, INode source, int label);
+}
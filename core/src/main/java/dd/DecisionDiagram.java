@@ -1,14 +1,20 @@
 package dd;
 
+import dd.frozen.FrozenMDD;
 import dd.interfaces.INode;
 import memory.Allocable;
 import memory.Memory;
 import structures.generics.MapOf;
 import structures.lists.UnorderedListOfNodeInterface;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 public abstract class DecisionDiagram implements Allocable {
@@ -127,6 +133,15 @@ public abstract class DecisionDiagram implements Allocable {
         return copy(DD());
     }
 
+    /**
+     * Create an immutable, array-based copy of the DD.
+     * The frozen DD only supports the read operations, but uses a fraction of the memory of the DD.
+     * @return A frozen copy of the DD
+     */
+    public FrozenMDD freeze(){
+        return FrozenMDD.create(this);
+    }
+
 
     //**************************************//
     //               GETTERS                //
@@ -246,6 +261,109 @@ public abstract class DecisionDiagram implements Allocable {
         return result;
     }
 
+    /**
+     * Count the number of solutions represented by the DD (the number of paths from the root to the last layer).
+     * The counts are computed with longs, and with BigIntegers only if they do not fit in a long.<br>
+     * In a nondeterministic DD, several paths can spell the same tuple : the paths are counted, not the tuples.
+     * @return The number of solutions represented by the DD
+     */
+    public BigInteger count(){
+        return new PathIndex(this).count();
+    }
+
+    /**
+     * Count, for each variable, the number of solutions taking each value (the marginals of the solutions).
+     * As for count(), the paths of a nondeterministic DD are counted, not the tuples.
+     * @return A list containing, for each layer i &lt; size-1, the map from each label of the arcs going out
+     * of the layer i to the number of solutions using this label (sorted by label)
+     */
+    public List<Map<Integer, BigInteger>> countPerLayerValue(){
+        return new PathIndex(this).countPerLayerValue();
+    }
+
+    /**
+     * Get a lazy iterator on the solutions of the DD, in depth-first order.<br>
+     * The solutions are not materialised : the same int[] is returned by each call to next(),
+     * and must be copied to be kept. The DD must not be modified during the iteration.
+     * In a nondeterministic DD, a tuple is given once per path spelling it.
+     * @return An iterator on the solutions of the DD
+     */
+    public Iterator<int[]> solutions(){
+        return new PathIndex(this).iterator();
+    }
+
+    /**
+     * Get the cost of the best path of the DD, in one bottom-up pass.
+     * @param cost The cost of the arcs
+     * @param maximise true to get the maximum cost, false to get the minimum cost
+     * @return The cost of the best path
+     * @throws java.util.NoSuchElementException if the DD has no solution
+     * @throws ArithmeticException if the cost of a path does not fit in a long
+     */
+    public long optimum(ArcCost cost, boolean maximise){
+        return new PathIndex(this, cost).optimum(maximise);
+    }
+
+    /**
+     * Get a solution of the DD of best cost.
+     * @param cost The cost of the arcs
+     * @param maximise true to get a solution of maximum cost, false to get a solution of minimum cost
+     * @return The labels of the solution
+     * @throws java.util.NoSuchElementException if the DD has no solution
+     * @throws ArithmeticException if the cost of a path does not fit in a long
+     */
+    public int[] optimalSolution(ArcCost cost, boolean maximise){
+        return new PathIndex(this, cost).optimalPath(maximise);
+    }
+
+    /**
+     * Get a lazy iterator on the solutions of the DD ordered by cost : the k first calls to next()
+     * return the k best solutions. Only the part of the DD needed to get them is explored.
+     * The DD must not be modified during the iteration.
+     * @param cost The cost of the arcs
+     * @param maximise true to get the solutions by decreasing cost, false by increasing cost
+     * @return An iterator on the solutions and their cost, whose calls raise an ArithmeticException
+     * if the cost of a path does not fit in a long
+     */
+    public Iterator<WeightedPath> bestSolutions(ArcCost cost, boolean maximise){
+        return new PathIndex(this, cost).bestPaths(maximise);
+    }
+
+    /**
+     * Swap, in place, the variables i and i+1 of the DD : the arcs going out of the layer i
+     * and the arcs going out of the layer i+1 exchange their labels, and the layer i+1 is rebuilt.
+     * The set of solutions is the same up to the permutation of the variables, and a reduced DD stays reduced.
+     * The costs of the arcs, if any, are carried : each solution keeps its cost.<br>
+     * Only the DDs whose nodes have at most one child per label and whose layers can be rebuilt support the
+     * reordering : they make this method public.
+     * @param i The index of the first variable
+     * @throws IllegalArgumentException if there is no variable i+1
+     */
+    protected void swapVariables(int i){
+        new Reordering(this).swap(i);
+    }
+
+    /**
+     * Reorder, in place, the variables of the DD with the sifting heuristic, to minimise its number of nodes.
+     * The DD should be reduced. The variables are moved one at a time, from the largest layer to the smallest,
+     * until all of them are moved or the time limit is reached.
+     * @param timeLimit The time limit in milliseconds
+     * @return The new order : the original index of the variable labelling the arcs going out of each layer
+     */
+    protected int[] sift(long timeLimit){
+        return new Reordering(this).sift(timeLimit);
+    }
+
+    /**
+     * Get the children of the node corresponding to the given label
+     * @param node The node
+     * @param label The label of the arcs
+     * @return The children of the node corresponding to the label
+     */
+    protected Iterable<INode> iterateOnChildren(INode node, int label){
+        return Collections.singletonList(node.getChild(label));
+    }
+
     /**
      * Extract all solutions of the DD.
      * It is recommended that you check if the number of solutions is actually extractable.
@@ -327,6 +445,36 @@ public abstract class DecisionDiagram implements Allocable {
      */
     public abstract void removeNode(INode node, int layer);
 
+    /**
+     * Swap the domains of the variables i and j. Called when the variables of the DD are reordered.
+     * @param i The index of the first variable
+     * @param j The index of the second variable
+     */
+    protected void swapDomains(int i, int j){}
+
+    /**
+     * Get the cost of an arc. Called when the variables of the DD are reordered, to carry the costs of the arcs.
+     * @param source The source of the arc
+     * @param label The label of the arc
+     * @return The cost of the arc, 0 if the arcs of the DD have no cost
+     */
+    protected int getArcCost(INode source, int label){
+        return 0;
+    }
+
+    /**
+     * Add an arc with the given cost. Called when the variables of the DD are reordered, to carry the costs of the arcs.
+     * The cost is ignored if the arcs of the DD have no cost.
+     * @param source The source node (parent)
+     * @param value The value of the arc's label
+     * @param destination The destination node (child)
+     * @param cost The cost of the arc
+     * @param layer The layer of the PARENT node (source)
+     */
+    protected void addArc(INode source, int value, INode destination, int cost, int layer){
+        addArc(source, value, destination, layer);
+    }
+
     /**
      * Add an arc between the source node and the destination node with the given value as label.
      * Ensures the connection between the two nodes
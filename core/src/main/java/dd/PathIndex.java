@@ -0,0 +1,530 @@
+package dd;
+
+import dd.interfaces.INode;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * <b>Flat index of the arcs of a DD, used to count and enumerate its paths.</b><br>
+ * The nodes of each layer are numbered by their position in the layer, given in the order of their first reference
+ * as in FrozenMDD (only the nodes reachable from the root are numbered). The arcs going out of the node x of the
+ * layer i are stored in label[i][start[i][x] .. start[i][x+1][ and target[i][...] (the number of the child in the layer i+1).
+ * The counts are computed with longs, and computed again with BigIntegers only when a long overflows.
+ * A node of the last layer is a terminal node, as in nSolutions().<br>
+ * When a cost function is given, the cost of each arc is stored in cost[i][...], and the optimal paths
+ * are computed on these arrays. The costs of the paths are computed exactly : an ArithmeticException is raised
+ * when a cost does not fit in a long.
+ */
+class PathIndex {
+
+    private final int size;
+    private final int[][] start, label, target;
+    // Cost of the arcs (null if no cost function is given)
+    private final long[][] cost;
+    // True if there is a path from the node to the last layer
+    private final boolean[][] alive;
+
+    PathIndex(DecisionDiagram dd){
+        this(dd, null);
+    }
+
+    PathIndex(DecisionDiagram dd, ArcCost arcCost){
+        size = dd.size();
+        start = new int[Math.max(size - 1, 0)][];
+        label = new int[start.length][];
+        target = new int[start.length][];
+        cost = arcCost == null ? null : new long[start.length][];
+        alive = new boolean[size][];
+
+        // Nodes of the current layer and of the next one, indexed by their position in the layer
+        INode[] current = new INode[]{dd.getRoot()}, next;
+        HashMap<INode, Integer> ids = new HashMap<>();
+        if(size > 0) alive[0] = new boolean[1];
+        for(int i = 0; i < size - 1; i++) {
+            next = new INode[Math.max(dd.getLayerSize(i+1), 1)];
+            int nextSize = 0;
+            int[] s = new int[current.length + 1];
+            int[] l = new int[16], t = new int[16];
+            long[] c = arcCost == null ? null : new long[16];
+            int n = 0;
+            for(int x = 0; x < current.length; x++) {
+                s[x] = n;
+                for(int v : current[x].iterateOnChildLabels()) {
+                    for(INode child : dd.iterateOnChildren(current[x], v)) {
+                        // The children are numbered in the order of their first reference
+                        Integer y = ids.get(child);
+                        if(y == null) {
+                            if(nextSize == next.length) next = Arrays.copyOf(next, nextSize << 1);
+                            y = nextSize;
+                            ids.put(child, y);
+                            next[nextSize++] = child;
+                        }
+                        if(n == l.length) {
+                            l = Arrays.copyOf(l, n << 1);
+                            t = Arrays.copyOf(t, n << 1);
+                            if(c != null) c = Arrays.copyOf(c, n << 1);
+                        }
+                        if(c != null) c[n] = arcCost.cost(i, current[x], v);
+                        l[n] = v;
+                        t[n++] = y;
+                    }
+                }
+            }
+            s[current.length] = n;
+            start[i] = s;
+            label[i] = l;
+            target[i] = t;
+            if(cost != null) cost[i] = c;
+            ids.clear();
+            current = Arrays.copyOf(next, nextSize);
+            alive[i+1] = new boolean[nextSize];
+        }
+        if(size > 1 && dd.getRoot() != dd.getTt()) Arrays.fill(alive[size - 1], true);
+        for(int i = size - 2; i >= 0; i--) {
+            for(int x = 0; x < alive[i].length; x++) {
+                for(int a = start[i][x]; a < start[i][x+1] && !alive[i][x]; a++) alive[i][x] = alive[i+1][target[i][a]];
+            }
+        }
+    }
+
+    //**************************************//
+    //              COUNTING                //
+    //**************************************//
+
+    /**
+     * Count the number of paths from each node to the last layer
+     * @return The counts by layer and by node, null if a count does not fit in a long
+     */
+    private long[][] upLong(){
+        long[][] up = new long[size][];
+        up[size - 1] = new long[alive[size - 1].length];
+        for(int x = 0; x < up[size - 1].length; x++) up[size - 1][x] = alive[size - 1][x] ? 1 : 0;
+        try {
+            for(int i = size - 2; i >= 0; i--) {
+                up[i] = new long[alive[i].length];
+                for(int x = 0; x < up[i].length; x++) {
+                    long sum = 0;
+                    for(int a = start[i][x]; a < start[i][x+1]; a++) sum = Math.addExact(sum, up[i+1][target[i][a]]);
+                    up[i][x] = sum;
+                }
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        return up;
+    }
+
+    private BigInteger[][] upBig(){
+        BigInteger[][] up = new BigInteger[size][];
+        up[size - 1] = new BigInteger[alive[size - 1].length];
+        for(int x = 0; x < up[size - 1].length; x++) up[size - 1][x] = alive[size - 1][x] ? BigInteger.ONE : BigInteger.ZERO;
+        for(int i = size - 2; i >= 0; i--) {
+            up[i] = new BigInteger[alive[i].length];
+            for(int x = 0; x < up[i].length; x++) {
+                BigInteger sum = BigInteger.ZERO;
+                for(int a = start[i][x]; a < start[i][x+1]; a++) sum = sum.add(up[i+1][target[i][a]]);
+                up[i][x] = sum;
+            }
+        }
+        return up;
+    }
+
+    /**
+     * Count the number of paths from the root to each node
+     * @return The counts by layer and by node, null if a count does not fit in a long
+     */
+    private long[][] downLong(){
+        long[][] down = new long[size][];
+        for(int i = 0; i < size; i++) down[i] = new long[alive[i].length];
+        down[0][0] = 1;
+        try {
+            for(int i = 0; i < size - 1; i++) {
+                for(int x = 0; x < down[i].length; x++) {
+                    for(int a = start[i][x]; a < start[i][x+1]; a++) {
+                        down[i+1][target[i][a]] = Math.addExact(down[i+1][target[i][a]], down[i][x]);
+                    }
+                }
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        return down;
+    }
+
+    private BigInteger[][] downBig(){
+        BigInteger[][] down = new BigInteger[size][];
+        for(int i = 0; i < size; i++) {
+            down[i] = new BigInteger[alive[i].length];
+            Arrays.fill(down[i], BigInteger.ZERO);
+        }
+        down[0][0] = BigInteger.ONE;
+        for(int i = 0; i < size - 1; i++) {
+            for(int x = 0; x < down[i].length; x++) {
+                for(int a = start[i][x]; a < start[i][x+1]; a++) down[i+1][target[i][a]] = down[i+1][target[i][a]].add(down[i][x]);
+            }
+        }
+        return down;
+    }
+
+    /**
+     * Count the number of paths from the root to the last layer
+     * @return The number of paths
+     */
+    BigInteger count(){
+        if(size < 2) return BigInteger.ZERO;
+        long[][] up = upLong();
+        if(up != null) return BigInteger.valueOf(up[0][0]);
+        return upBig()[0][0];
+    }
+
+    /**
+     * Count, for each layer i and each label v, the number of paths whose arc going out of the layer i is labelled v
+     * @return The counts by layer (size - 1 maps from the label to the count, sorted by label)
+     */
+    List<Map<Integer, BigInteger>> countPerLayerValue(){
+        List<Map<Integer, BigInteger>> counts = new ArrayList<>(Math.max(size - 1, 0));
+        if(size < 2) return counts;
+        long[][] up = upLong(), down = downLong();
+        if(up != null && down != null) {
+            try {
+                for(int i = 0; i < size - 1; i++) {
+                    TreeMap<Integer, Long> layer = new TreeMap<>();
+                    for(int x = 0; x < down[i].length; x++) {
+                        for(int a = start[i][x]; a < start[i][x+1]; a++) {
+                            long paths = Math.multiplyExact(down[i][x], up[i+1][target[i][a]]);
+                            layer.put(label[i][a], Math.addExact(layer.getOrDefault(label[i][a], 0L), paths));
+                        }
+                    }
+                    TreeMap<Integer, BigInteger> result = new TreeMap<>();
+                    for(Map.Entry<Integer, Long> entry : layer.entrySet()) result.put(entry.getKey(), BigInteger.valueOf(entry.getValue()));
+                    counts.add(result);
+                }
+                return counts;
+            } catch (ArithmeticException e) {
+                counts.clear();
+            }
+        }
+        BigInteger[][] upBig = upBig(), downBig = downBig();
+        for(int i = 0; i < size - 1; i++) {
+            TreeMap<Integer, BigInteger> layer = new TreeMap<>();
+            for(int x = 0; x < downBig[i].length; x++) {
+                for(int a = start[i][x]; a < start[i][x+1]; a++) {
+                    layer.merge(label[i][a], downBig[i][x].multiply(upBig[i+1][target[i][a]]), BigInteger::add);
+                }
+            }
+            counts.add(layer);
+        }
+        return counts;
+    }
+
+    //**************************************//
+    //             OPTIMISATION             //
+    //**************************************//
+
+    /**
+     * Get the cost of a path made of the arc a followed by a path of the given cost.
+     * The costs are exact : a path whose cost does not fit in a long raises an ArithmeticException.
+     * @param sign 1 to minimise the cost, -1 to maximise it
+     * @param i The layer of the source of the arc
+     * @param a The arc
+     * @param rest The cost (multiplied by the sign) of the path following the arc
+     * @return The cost of the path, multiplied by the sign
+     * @throws ArithmeticException if the cost does not fit in a long
+     */
+    private long cost(int sign, int i, int a, long rest){
+        return Math.addExact(signed(sign, cost[i][a]), rest);
+    }
+
+    /**
+     * Multiply a cost by the sign
+     * @param sign 1 or -1
+     * @param value The cost
+     * @return The cost multiplied by the sign
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    private static long signed(int sign, long value){
+        return sign == 1 ? value : Math.negateExact(value);
+    }
+
+    /**
+     * Compute the cost of the best path from each node to the last layer
+     * @param sign 1 to minimise the cost, -1 to maximise it (the costs are multiplied by the sign)
+     * @return The best costs (multiplied by the sign) by layer and by node, meaningless for the dead nodes
+     */
+    private long[][] best(int sign){
+        long[][] best = new long[size][];
+        best[size - 1] = new long[alive[size - 1].length];
+        for(int i = size - 2; i >= 0; i--) {
+            best[i] = new long[alive[i].length];
+            for(int x = 0; x < best[i].length; x++) {
+                long value = Long.MAX_VALUE;
+                for(int a = start[i][x]; a < start[i][x+1]; a++) {
+                    int y = target[i][a];
+                    if(alive[i+1][y]) value = Math.min(value, cost(sign, i, a, best[i+1][y]));
+                }
+                best[i][x] = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the cost of the best path
+     * @param maximise true to get the maximum cost, false to get the minimum cost
+     * @return The cost of the best path
+     * @throws NoSuchElementException if the DD has no path
+     * @throws ArithmeticException if the cost of a path does not fit in a long
+     */
+    long optimum(boolean maximise){
+        if(size < 2 || !alive[0][0]) throw new NoSuchElementException("The DD has no solution");
+        int sign = maximise ? -1 : 1;
+        return signed(sign, best(sign)[0][0]);
+    }
+
+    /**
+     * Get a best path
+     * @param maximise true to get a path of maximum cost, false to get a path of minimum cost
+     * @return The labels of a best path
+     * @throws NoSuchElementException if the DD has no path
+     * @throws ArithmeticException if the cost of a path does not fit in a long
+     */
+    int[] optimalPath(boolean maximise){
+        if(size < 2 || !alive[0][0]) throw new NoSuchElementException("The DD has no solution");
+        int sign = maximise ? -1 : 1;
+        long[][] best = best(sign);
+        int[] path = new int[size - 1];
+        int x = 0;
+        for(int i = 0; i < size - 1; i++) {
+            int a = start[i][x];
+            while (!alive[i+1][target[i][a]] || cost(sign, i, a, best[i+1][target[i][a]]) != best[i][x]) a++;
+            path[i] = label[i][a];
+            x = target[i][a];
+        }
+        return path;
+    }
+
+    /**
+     * Get an iterator on the paths by increasing (or decreasing) cost
+     * @param maximise true to get the paths by decreasing cost, false by increasing cost
+     * @return An iterator on the paths
+     */
+    Iterator<WeightedPath> bestPaths(boolean maximise){
+        return new BestPathIterator(maximise ? -1 : 1);
+    }
+
+    /**
+     * <b>Lazy enumeration of the paths by increasing cost (recursive enumeration algorithm of Jiménez and Marzal).</b><br>
+     * The k-th best path of a node is its arc a followed by the j-th best path of the target of a.
+     * Each node visited holds its best paths found so far, and a heap of candidates (a, j) : when the candidate
+     * (a, j) becomes the next best path of the node, the candidate (a, j+1) is computed and pushed.
+     * Only the paths needed to get the k best paths of the root are computed.
+     */
+    private final class BestPathIterator implements Iterator<WeightedPath> {
+        private final int sign;
+        private final NodePaths[][] paths = new NodePaths[size][];
+        private int rank;
+
+        BestPathIterator(int sign){
+            this.sign = sign;
+            for(int i = 0; i < size; i++) paths[i] = new NodePaths[alive[i].length];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 1 && alive[0][0] && ensure(0, 0, rank);
+        }
+
+        @Override
+        public WeightedPath next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            int[] labels = new int[size - 1];
+            int x = 0, k = rank;
+            NodePaths root = paths[0][0];
+            for(int i = 0; i < size - 1; i++) {
+                NodePaths node = paths[i][x];
+                int a = node.arcs[k];
+                labels[i] = label[i][a];
+                k = node.ranks[k];
+                x = target[i][a];
+            }
+            return new WeightedPath(labels, signed(sign, root.costs[rank++]));
+        }
+
+        /**
+         * Get the best paths of a node, creating them if needed
+         * @param i The layer of the node
+         * @param x The node
+         * @return The best paths of the node
+         */
+        private NodePaths paths(int i, int x){
+            NodePaths node = paths[i][x];
+            if(node != null) return node;
+            node = paths[i][x] = new NodePaths();
+            if(i == size - 1) node.append(0, -1, -1);
+            else for(int a = start[i][x]; a < start[i][x+1]; a++) {
+                int y = target[i][a];
+                if(alive[i+1][y] && ensure(i+1, y, 0)) node.push(cost(sign, i, a, paths[i+1][y].costs[0]), a, 0);
+            }
+            return node;
+        }
+
+        /**
+         * Compute the best paths of a node until its k-th best path
+         * @param i The layer of the node
+         * @param x The node
+         * @param k The rank of the path
+         * @return true if the node has at least k+1 paths, false otherwise
+         */
+        private boolean ensure(int i, int x, int k){
+            NodePaths node = paths(i, x);
+            while (node.size <= k) {
+                if(node.heapSize == 0) return false;
+                long c = node.heapCosts[0];
+                int a = node.heapArcs[0], j = node.heapRanks[0];
+                node.pop();
+                node.append(c, a, j);
+                int y = target[i][a];
+                if(ensure(i+1, y, j+1)) node.push(cost(sign, i, a, paths[i+1][y].costs[j+1]), a, j+1);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * <b>The best paths of a node found so far, and the heap of the candidates.</b><br>
+     * A path is represented by its cost, its first arc and the rank of the rest of the path in the target of the arc.
+     */
+    private static final class NodePaths {
+        private long[] costs = new long[2], heapCosts = new long[4];
+        private int[] arcs = new int[2], ranks = new int[2], heapArcs = new int[4], heapRanks = new int[4];
+        private int size, heapSize;
+
+        void append(long c, int a, int j){
+            if(size == costs.length) {
+                costs = Arrays.copyOf(costs, size << 1);
+                arcs = Arrays.copyOf(arcs, size << 1);
+                ranks = Arrays.copyOf(ranks, size << 1);
+            }
+            costs[size] = c;
+            arcs[size] = a;
+            ranks[size++] = j;
+        }
+
+        void push(long c, int a, int j){
+            if(heapSize == heapCosts.length) {
+                heapCosts = Arrays.copyOf(heapCosts, heapSize << 1);
+                heapArcs = Arrays.copyOf(heapArcs, heapSize << 1);
+                heapRanks = Arrays.copyOf(heapRanks, heapSize << 1);
+            }
+            int k = heapSize++;
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                if(heapCosts[parent] <= c) break;
+                set(k, heapCosts[parent], heapArcs[parent], heapRanks[parent]);
+                k = parent;
+            }
+            set(k, c, a, j);
+        }
+
+        void pop(){
+            int last = --heapSize;
+            long c = heapCosts[last];
+            int a = heapArcs[last], j = heapRanks[last];
+            int k = 0;
+            while (true) {
+                int child = 2 * k + 1;
+                if(child >= heapSize) break;
+                if(child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) child++;
+                if(c <= heapCosts[child]) break;
+                set(k, heapCosts[child], heapArcs[child], heapRanks[child]);
+                k = child;
+            }
+            if(heapSize > 0) set(k, c, a, j);
+        }
+
+        private void set(int k, long c, int a, int j){
+            heapCosts[k] = c;
+            heapArcs[k] = a;
+            heapRanks[k] = j;
+        }
+    }
+
+    //**************************************//
+    //             ENUMERATION              //
+    //**************************************//
+
+    /**
+     * Get an iterator on the paths of the DD.
+     * @return An iterator on the labels of the paths
+     */
+    Iterator<int[]> iterator(){
+        return new SolutionIterator();
+    }
+
+    /**
+     * <b>Depth-first enumeration of the paths leading to the last layer.</b><br>
+     * The same array is returned by each call to next() : it must be copied to be kept.
+     * The dead ends are never explored, and no object is allocated after the creation of the iterator.
+     */
+    private final class SolutionIterator implements Iterator<int[]> {
+        private final int[] solution = new int[Math.max(size - 1, 0)];
+        private final int[] node = new int[size], arc = new int[Math.max(size - 1, 0)];
+        private boolean started, ready, hasNext;
+
+        @Override
+        public boolean hasNext() {
+            if(!ready) {
+                hasNext = advance();
+                ready = true;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public int[] next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            ready = false;
+            return solution;
+        }
+
+        /**
+         * Go to the next path
+         * @return true if there is a next path, false otherwise
+         */
+        private boolean advance(){
+            int n = solution.length, depth;
+            if(!started) {
+                started = true;
+                if(n == 0 || !alive[0][0]) return false;
+                depth = 0;
+                arc[0] = start[0][0];
+            } else {
+                if(n == 0 || !hasNext) return false;
+                depth = n - 1;
+                arc[depth]++;
+            }
+            while (depth >= 0) {
+                int end = start[depth][node[depth] + 1];
+                while (arc[depth] < end && !alive[depth+1][target[depth][arc[depth]]]) arc[depth]++;
+                if(arc[depth] == end) {
+                    if(--depth >= 0) arc[depth]++;
+                    continue;
+                }
+                solution[depth] = label[depth][arc[depth]];
+                if(depth == n - 1) return true;
+                node[depth+1] = target[depth][arc[depth]];
+                arc[depth+1] = start[depth+1][node[depth+1]];
+                depth++;
+            }
+            return false;
+        }
+    }
+}
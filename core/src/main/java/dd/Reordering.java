@@ -0,0 +1,237 @@
+package dd;
+
+import dd.interfaces.INode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <b>In place reordering of the variables of a DD.</b><br>
+ * The variable i is the one labelling the arcs going out of the layer i. Swapping the variables i and i+1
+ * only rebuilds the layer i+1 : the nodes of the layer i keep representing the same set of paths,
+ * and the new nodes of the layer i+1 are merged using a unique table keyed on their out-going arcs,
+ * so that a reduced DD stays reduced.<br>
+ * The costs of the arcs (see DecisionDiagram.getArcCost) follow the paths : the path u -a-&gt; v -b-&gt; w keeps its cost,
+ * the smallest cost of the arcs going out of a new node being moved to its in-going arc.<br>
+ * The sifting heuristic (Rudell) moves each variable, from the largest layer to the smallest, to all the positions
+ * and keeps the one minimizing the total number of nodes.
+ */
+class Reordering {
+
+    // A variable stops moving in a direction once the DD grows beyond this factor of its best size
+    private static final double MAX_GROWTH = 1.2;
+
+    private final DecisionDiagram dd;
+    // order[j] : the original index of the variable at the position j, position[v] : the position of the variable v
+    private final int[] order, position;
+    private long nodes;
+
+    Reordering(DecisionDiagram dd){
+        this.dd = dd;
+        int variables = Math.max(dd.size() - 1, 0);
+        order = new int[variables];
+        position = new int[variables];
+        for(int v = 0; v < variables; v++) order[v] = position[v] = v;
+        nodes = dd.nodes();
+    }
+
+    /**
+     * Get the current order of the variables
+     * @return The original index of the variable at each position
+     */
+    int[] order(){
+        return Arrays.copyOf(order, order.length);
+    }
+
+    //**************************************//
+    //                 SWAP                 //
+    //**************************************//
+
+    /**
+     * Swap the variables i and i+1 : each path u -a-&gt; v -b-&gt; w becomes u -b-&gt; v' -a-&gt; w.
+     * The nodes of the layer i+1 are replaced.
+     * @param i The position of the first variable
+     * @throws IllegalArgumentException if there is no variable at the position i+1
+     * @throws ArithmeticException if the cost of a path of two arcs does not fit in an int
+     */
+    void swap(int i){
+        if(i < 0 || i + 2 >= dd.size()) throw new IllegalArgumentException("Cannot swap the variables " + i + " and " + (i+1) + " of a DD of size " + dd.size());
+        IdentityHashMap<INode, Integer> ids = new IdentityHashMap<>();
+        for(INode w : iterateOnLayer(i + 2)) ids.put(w, ids.size());
+
+        // For each node of the layer i : b -> (a -> w), with the cost of the path u -a-> v -b-> w
+        List<INode> sources = new ArrayList<>();
+        List<TreeMap<Integer, TreeMap<Integer, Arc>>> paths = new ArrayList<>();
+        for(INode u : iterateOnLayer(i)) {
+            TreeMap<Integer, TreeMap<Integer, Arc>> arcs = new TreeMap<>();
+            for(int a : labels(u)) {
+                INode v = u.getChild(a);
+                int cost = dd.getArcCost(u, a);
+                for(int b : labels(v)) {
+                    Arc arc = new Arc(v.getChild(b), Math.addExact(cost, dd.getArcCost(v, b)));
+                    arcs.computeIfAbsent(b, k -> new TreeMap<>()).put(a, arc);
+                }
+            }
+            sources.add(u);
+            paths.add(arcs);
+        }
+
+        List<INode> removed = new ArrayList<>(dd.getLayerSize(i + 1));
+        for(INode v : iterateOnLayer(i + 1)) removed.add(v);
+        for(INode v : removed) dd.removeNode(v, i + 1);
+        dd.swapDomains(i, i + 1);
+
+        HashMap<ArcsKey, INode> unique = new HashMap<>();
+        for(int s = 0; s < sources.size(); s++) {
+            INode u = sources.get(s);
+            for(Map.Entry<Integer, TreeMap<Integer, Arc>> entry : paths.get(s).entrySet()) {
+                TreeMap<Integer, Arc> arcs = entry.getValue();
+                // The smallest cost goes on the arc u -b-> v', so that the nodes differing by a constant are merged
+                int min = Integer.MAX_VALUE;
+                for(Arc arc : arcs.values()) min = Math.min(min, arc.cost);
+                int[] words = new int[arcs.size() * 3];
+                int k = 0;
+                for(Map.Entry<Integer, Arc> arc : arcs.entrySet()) {
+                    words[k++] = arc.getKey();
+                    words[k++] = ids.get(arc.getValue().target);
+                    words[k++] = Math.subtractExact(arc.getValue().cost, min);
+                }
+                ArcsKey key = new ArcsKey(words);
+                INode node = unique.get(key);
+                if(node == null) {
+                    node = dd.Node();
+                    dd.addNode(node, i + 1);
+                    k = 0;
+                    for(Map.Entry<Integer, Arc> arc : arcs.entrySet()) {
+                        dd.addArc(node, arc.getKey(), arc.getValue().target, words[k + 2], i + 1);
+                        k += 3;
+                    }
+                    unique.put(key, node);
+                }
+                dd.addArc(u, entry.getKey(), node, min, i);
+            }
+        }
+
+        nodes += unique.size() - removed.size();
+        int tmp = order[i];
+        order[i] = order[i + 1];
+        order[i + 1] = tmp;
+        position[order[i]] = i;
+        position[order[i + 1]] = i + 1;
+    }
+
+    /**
+     * Get a copy of the labels of the out-going arcs of the node
+     * (the Iterable given by a BinaryNode is shared, and cannot be iterated in nested loops)
+     * @param node The node
+     * @return The labels of the out-going arcs of the node
+     */
+    private static int[] labels(INode node){
+        int[] labels = new int[node.numberOfChildren()];
+        int k = 0;
+        for(int label : node.iterateOnChildLabels()) labels[k++] = label;
+        return labels;
+    }
+
+    /**
+     * Iterable on the nodes of the ith layer (the root for the first layer)
+     * @param i The index of the layer
+     * @return Iterable on the nodes of the ith layer
+     */
+    private Iterable<INode> iterateOnLayer(int i){
+        if(i == 0) return List.of(dd.getRoot());
+        return dd.iterateOnLayer(i);
+    }
+
+
+    //**************************************//
+    //               SIFTING                //
+    //**************************************//
+
+    /**
+     * Reorder the variables using the sifting heuristic, until all the variables are sifted or the time is over.
+     * The variable being sifted when the time is over is moved back to its best position.
+     * @param timeLimit The time limit in milliseconds
+     * @return The original index of the variable at each position
+     */
+    int[] sift(long timeLimit){
+        long deadline = System.nanoTime() + timeLimit * 1_000_000L;
+        Integer[] variables = new Integer[order.length];
+        for(int v = 0; v < variables.length; v++) variables[v] = v;
+        Arrays.sort(variables, (v1, v2) -> Integer.compare(dd.getLayerSize(position[v2]), dd.getLayerSize(position[v1])));
+        if(variables.length > 1) for(int v : variables) {
+            if(System.nanoTime() > deadline) break;
+            sift(v, deadline);
+        }
+        return order();
+    }
+
+    /**
+     * Move the variable to the closest end of the DD, then to the other end, then back to the best position
+     * @param v The variable
+     * @param deadline The time (System.nanoTime()) after which the variable stops moving
+     */
+    private void sift(int v, long deadline){
+        int last = order.length - 1, start = position[v];
+        int best = start;
+        long bestNodes = nodes;
+        boolean down = start >= last - start;
+        for(int direction = 0; direction < 2; direction++, down = !down) {
+            while (down ? position[v] < last : position[v] > 0) {
+                // The positions already visited are crossed back whatever the size of the DD
+                boolean unvisited = direction == 0 || (down ? position[v] >= start : position[v] <= start);
+                if(System.nanoTime() > deadline || (unvisited && nodes > MAX_GROWTH * bestNodes)) break;
+                swap(down ? position[v] : position[v] - 1);
+                if(nodes < bestNodes) {
+                    bestNodes = nodes;
+                    best = position[v];
+                }
+            }
+        }
+        while (position[v] < best) swap(position[v]);
+        while (position[v] > best) swap(position[v] - 1);
+    }
+
+
+    /**
+     * <b>The end of a path of two arcs and its cost.</b>
+     */
+    private static final class Arc {
+        private final INode target;
+        private final int cost;
+
+        Arc(INode target, int cost){
+            this.target = target;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * <b>The out-going arcs of a node of the layer being rebuilt.</b><br>
+     * The labels, the numbers of the children and the costs, sorted by label.
+     */
+    private static final class ArcsKey {
+        private final int[] words;
+        private final int hash;
+
+        ArcsKey(int[] words){
+            this.words = words;
+            this.hash = Arrays.hashCode(words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArcsKey && Arrays.equals(words, ((ArcsKey) o).words);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package dd;
+
+import java.util.Arrays;
+
+/**
+ * <b>A path of a DD and its cost.</b>
+ */
+public final class WeightedPath {
+
+    private final int[] labels;
+    private final long cost;
+
+    public WeightedPath(int[] labels, long cost){
+        this.labels = labels;
+        this.cost = cost;
+    }
+
+    /**
+     * Get the labels of the path
+     * @return The labels of the path
+     */
+    public int[] getLabels(){
+        return labels;
+    }
+
+    /**
+     * Get the cost of the path
+     * @return The cost of the path
+     */
+    public long getCost(){
+        return cost;
+    }
+
+    @Override
+    public String toString(){
+        return Arrays.toString(labels) + " : " + cost;
+    }
+}
@@ -452,12 +452,29 @@ public class BDD extends DecisionDiagram {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void swapVariables(int i){
+        super.swapVariables(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] sift(long timeLimit){
+        return super.sift(timeLimit);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void clear(){
-        for(int i = 1; i < size(); i++) {
+        // The layers beyond the size are kept for the next use of the BDD : they must be empty too
+        for(int i = 1; i < L.length; i++) {
             for(BinaryNode node : L[i]) {
                 node.remove();
                 Memory.free(node);
@@ -485,6 +502,9 @@ public class BDD extends DecisionDiagram {
      */
     @Override
     public void free() {
+        clear();
+        if(root != null) removeNode(root, 0);
+        root = null;
         dealloc();
     }
 
@@ -0,0 +1,287 @@
+package dd.bdd;
+
+import dd.bdd.components.BinaryNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * <b>Apply engine for BDDs with a fixed number of layers.</b> <br>
+ * The nodes are integers shared by all the BDDs of the engine : a node is defined by its two children
+ * (FALSE when there is no arc) and stored in a unique table, so that a node is never created twice.
+ * A BDD is therefore always reduced on creation and two equivalent BDDs have the same root. <br>
+ * The binary operations are computed recursively and memoized in a computed table : a direct-mapped cache of
+ * fixed capacity keyed on (operation, node1, node2), where a new entry simply overwrites the previous one.
+ * Repeated operations between shared BDDs reuse the results. <br>
+ * As in the BDD class, a node of the layer i has its children in the layer i+1 (there is no skipped layer) :
+ * TRUE is the only node of the last layer. The nodes are never freed : use clear() to reset the engine.
+ */
+public class BDDApply {
+
+    public static final int FALSE = 0, TRUE = 1;
+    public static final int AND = 0, OR = 1, XOR = 2, MINUS = 3;
+
+    private final int size;
+
+    // Nodes
+    private int[] low, high, layer;
+    private int numberOfNodes;
+
+    // Unique table (open addressing, 0 is the empty slot as FALSE is never stored)
+    private int[] unique;
+    private int uniqueMask;
+
+    // Computed table (lossy)
+    private final int[] cacheOp, cacheA, cacheB, cacheResult;
+    private final int cacheMask;
+
+    /**
+     * Create an engine for BDDs of given size, with a computed table of 2^16 entries
+     * @param size The number of layers of the BDDs
+     */
+    public BDDApply(int size){
+        this(size, 16);
+    }
+
+    /**
+     * Create an engine for BDDs of given size
+     * @param size The number of layers of the BDDs
+     * @param cacheBits The log2 of the number of entries of the computed table
+     */
+    public BDDApply(int size, int cacheBits){
+        this.size = size;
+        int capacity = 1 << cacheBits;
+        cacheOp = new int[capacity];
+        cacheA = new int[capacity];
+        cacheB = new int[capacity];
+        cacheResult = new int[capacity];
+        cacheMask = capacity - 1;
+        clear();
+    }
+
+    /**
+     * Remove all the nodes (except FALSE and TRUE) and empty the computed table
+     */
+    public void clear(){
+        low = new int[1024];
+        high = new int[1024];
+        layer = new int[1024];
+        layer[FALSE] = size - 1;
+        layer[TRUE] = size - 1;
+        numberOfNodes = 2;
+        unique = new int[2048];
+        uniqueMask = unique.length - 1;
+        clearCache();
+    }
+
+    /**
+     * Empty the computed table
+     */
+    public void clearCache(){
+        Arrays.fill(cacheOp, -1);
+    }
+
+    //**************************************//
+    //               NODES                  //
+    //**************************************//
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Get the number of nodes of the engine (FALSE and TRUE included)
+     * @return The number of nodes
+     */
+    public int numberOfNodes(){
+        return numberOfNodes;
+    }
+
+    public int low(int node){
+        return low[node];
+    }
+
+    public int high(int node){
+        return high[node];
+    }
+
+    public int layer(int node){
+        return layer[node];
+    }
+
+    private static int hash(int a, int b){
+        int h = a * 0x9E3779B1 + b * 0x85EBCA6B;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Get the node having the given children, creating it if it does not exist yet
+     * @param low The child of the arc labelled 0 (FALSE if there is no arc)
+     * @param high The child of the arc labelled 1 (FALSE if there is no arc)
+     * @return The node, FALSE if both children are FALSE
+     */
+    public int node(int low, int high){
+        if(low == FALSE && high == FALSE) return FALSE;
+        int i = hash(low, high) & uniqueMask;
+        for(int node = unique[i]; node != 0; node = unique[i = (i + 1) & uniqueMask]){
+            if(this.low[node] == low && this.high[node] == high) return node;
+        }
+        if(numberOfNodes == this.low.length) {
+            int capacity = numberOfNodes << 1;
+            this.low = Arrays.copyOf(this.low, capacity);
+            this.high = Arrays.copyOf(this.high, capacity);
+            this.layer = Arrays.copyOf(this.layer, capacity);
+        }
+        int node = numberOfNodes++;
+        this.low[node] = low;
+        this.high[node] = high;
+        this.layer[node] = layer[low == FALSE ? high : low] - 1;
+        unique[i] = node;
+        if(numberOfNodes << 1 > unique.length) rehash();
+        return node;
+    }
+
+    private void rehash(){
+        unique = new int[unique.length << 1];
+        uniqueMask = unique.length - 1;
+        for(int node = 2; node < numberOfNodes; node++) {
+            int i = hash(low[node], high[node]) & uniqueMask;
+            while (unique[i] != 0) i = (i + 1) & uniqueMask;
+            unique[i] = node;
+        }
+    }
+
+    //**************************************//
+    //             OPERATIONS               //
+    //**************************************//
+
+    public int and(int a, int b){
+        return apply(AND, a, b);
+    }
+
+    public int or(int a, int b){
+        return apply(OR, a, b);
+    }
+
+    public int xor(int a, int b){
+        return apply(XOR, a, b);
+    }
+
+    public int minus(int a, int b){
+        return apply(MINUS, a, b);
+    }
+
+    /**
+     * Apply the given operation between the two BDDs (given by their roots, at the same layer)
+     * @param op The operation (AND, OR, XOR or MINUS)
+     * @param a The root of the first BDD
+     * @param b The root of the second BDD
+     * @return The root of the result
+     */
+    public int apply(int op, int a, int b){
+        // Terminal cases (at the last layer, both nodes are either FALSE or TRUE)
+        switch (op) {
+            case AND:
+                if(a == FALSE || b == FALSE) return FALSE;
+                if(a == b) return a;
+                break;
+            case OR:
+                if(a == FALSE || a == b) return b;
+                if(b == FALSE) return a;
+                break;
+            case XOR:
+                if(a == b) return FALSE;
+                if(a == FALSE) return b;
+                if(b == FALSE) return a;
+                break;
+            case MINUS:
+                if(a == FALSE || a == b) return FALSE;
+                if(b == FALSE) return a;
+                break;
+            default: throw new IllegalArgumentException("Unknown operation : " + op);
+        }
+        // Commutative operations
+        if(op != MINUS && a > b) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+
+        int i = (hash(a, b) + op) & cacheMask;
+        if(cacheOp[i] == op && cacheA[i] == a && cacheB[i] == b) return cacheResult[i];
+
+        int result = node(apply(op, low[a], low[b]), apply(op, high[a], high[b]));
+
+        // The recursive calls might have used the entry
+        cacheOp[i] = op;
+        cacheA[i] = a;
+        cacheB[i] = b;
+        cacheResult[i] = result;
+        return result;
+    }
+
+    //**************************************//
+    //             CONVERSION               //
+    //**************************************//
+
+    /**
+     * Add the given BDD to the engine
+     * @param bdd The BDD (of same size as the engine)
+     * @return The root of the BDD in the engine
+     */
+    public int load(BDD bdd){
+        if(bdd.size() != size) throw new IllegalArgumentException("The BDD must have " + size + " layers !");
+        IdentityHashMap<BinaryNode, Integer> ids = new IdentityHashMap<>();
+        for(BinaryNode node : bdd.getLayer(size - 1)) ids.put(node, TRUE);
+        for(int i = size - 2; i >= 0; i--) {
+            for(BinaryNode node : bdd.getLayer(i)) {
+                BinaryNode child0 = node.getChild(0), child1 = node.getChild(1);
+                int low = child0 == null ? FALSE : ids.get(child0);
+                int high = child1 == null ? FALSE : ids.get(child1);
+                ids.put(node, node(low, high));
+            }
+            for(BinaryNode node : bdd.getLayer(i + 1)) ids.remove(node);
+        }
+        return ids.get(bdd.getRoot());
+    }
+
+    /**
+     * Create the BDD corresponding to the given root
+     * @param root The root of the BDD in the engine
+     * @return A new BDD
+     */
+    public BDD toBDD(int root){
+        BDD bdd = BDD.create(size);
+        if(root == FALSE) return bdd;
+        ArrayList<Integer> current = new ArrayList<>(), next = new ArrayList<>(), tmp;
+        HashMap<Integer, BinaryNode> nodes = new HashMap<>(), nextNodes = new HashMap<>(), tmpNodes;
+        current.add(root);
+        nodes.put(root, bdd.getRoot());
+        for(int i = 0; i < size - 1; i++) {
+            for(int node : current) {
+                BinaryNode x = nodes.get(node);
+                for(int label = 0; label <= 1; label++) {
+                    int child = label == 0 ? low[node] : high[node];
+                    if(child == FALSE) continue;
+                    BinaryNode y = nextNodes.get(child);
+                    if(y == null) {
+                        y = bdd.Node();
+                        nextNodes.put(child, y);
+                        next.add(child);
+                        bdd.addNode(y, i + 1);
+                    }
+                    bdd.addArc(x, label, y, i);
+                }
+            }
+            current.clear();
+            nodes.clear();
+            tmp = current; current = next; next = tmp;
+            tmpNodes = nodes; nodes = nextNodes; nextNodes = tmpNodes;
+        }
+        bdd.setTT();
+        return bdd;
+    }
+
+}
@@ -0,0 +1,498 @@
+package dd.frozen;
+
+import dd.DecisionDiagram;
+import dd.interfaces.INode;
+import dd.mdd.MDD;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * <b>Immutable representation of a decision diagram, for read-only workloads.</b> <br>
+ * The diagram is stored in compressed sparse row (CSR) arrays :
+ * the nodes are numbered layer by layer (the root is the node 0), the nodes of the layer i being
+ * the ids in [layerStart(i), layerEnd(i)[. The arcs of a node are the positions in [firstArc(node), lastArc(node)[,
+ * sorted by label. An arc therefore costs two ints, and a node one int.<br>
+ * The primitive accessors (root, firstArc, label, target, child...) never allocate.
+ * The INode API is also supported (read only) through FrozenNode views, created once per node the first time
+ * they are requested, so that a FrozenMDD can be given as an operand to the operations :
+ * the result of an operation whose first operand is a FrozenMDD is an MDD (see DD()).<br>
+ * A FrozenMDD is not managed by the Memory : it is simply garbage collected.
+ */
+public class FrozenMDD extends DecisionDiagram {
+
+    private final int[] layerStart;
+    private final int[] arcStart;
+    private final int[] labels;
+    private final int[] targets;
+    // Sorted values of the domain of each variable
+    private final int[][] domains;
+    private final int maxValue;
+
+    // INode views of the nodes, created on demand
+    private final FrozenNode[] views;
+
+    //**************************************//
+    //           INITIALISATION             //
+    //**************************************//
+
+    private FrozenMDD(int size, int[] layerStart, int[] arcStart, int[] labels, int[] targets){
+        super.setSize(size);
+        this.layerStart = layerStart;
+        this.arcStart = arcStart;
+        this.labels = labels;
+        this.targets = targets;
+        this.views = new FrozenNode[layerStart[size]];
+
+        this.domains = new int[Math.max(size - 1, 0)][];
+        int max = Integer.MIN_VALUE;
+        for(int i = 0; i < size - 1; i++) {
+            int[] values = Arrays.copyOfRange(labels, arcStart[layerStart[i]], arcStart[layerStart[i+1]]);
+            Arrays.sort(values);
+            int n = 0;
+            for(int k = 0; k < values.length; k++) if(n == 0 || values[n-1] != values[k]) values[n++] = values[k];
+            domains[i] = Arrays.copyOf(values, n);
+            if(n > 0 && values[n-1] > max) max = values[n-1];
+        }
+        this.maxValue = max;
+    }
+
+    /**
+     * Create the frozen representation of the given decision diagram (MDD, BDD...).
+     * Only the nodes reachable from the root are numbered : the nodes of a layer that no arc reaches are left out.
+     * The given DD is not modified and can be freed afterwards.
+     * @param dd The decision diagram to freeze
+     * @return The frozen representation of the given decision diagram
+     */
+    public static FrozenMDD create(DecisionDiagram dd){
+        if(dd instanceof FrozenMDD) return (FrozenMDD) dd;
+        int size = dd.size();
+        // The sizes of the layers and the number of arcs of the DD bound the ones of the reachable part
+        int bound = 0;
+        for(int i = 0; i < size; i++) bound += dd.getLayerSize(i);
+        int[] layerStart = new int[size + 1];
+        int[] arcStart = new int[bound + 1];
+        int[] labels = new int[dd.arcs()];
+        int[] targets = new int[labels.length];
+
+        // Nodes of the current layer and of the next one, indexed by id
+        INode[] current = new INode[]{dd.getRoot()}, next;
+        if(size > 0) layerStart[1] = 1;
+        HashMap<INode, Integer> ids = new HashMap<>();
+        int arc = 0;
+        for(int i = 0; i < size; i++) {
+            int first = layerStart[i];
+            next = i < size - 1 ? new INode[dd.getLayerSize(i+1)] : null;
+            int nextId = layerStart[i+1];
+            for(int k = 0; k < current.length; k++) {
+                INode node = current[k];
+                arcStart[first + k] = arc;
+                if(next == null) continue;
+                int start = arc;
+                for(int label : node.iterateOnChildLabels()) {
+                    INode child = node.getChild(label);
+                    Integer id = ids.get(child);
+                    if(id == null) {
+                        id = nextId++;
+                        ids.put(child, id);
+                        next[id - layerStart[i+1]] = child;
+                    }
+                    labels[arc] = label;
+                    targets[arc] = id;
+                    arc++;
+                }
+                sortArcs(labels, targets, start, arc);
+            }
+            ids.clear();
+            if(next == null) break;
+            layerStart[i+2] = nextId;
+            current = Arrays.copyOf(next, nextId - layerStart[i+1]);
+        }
+        int nodes = layerStart[size];
+        arcStart[nodes] = arc;
+        return new FrozenMDD(size, layerStart, Arrays.copyOf(arcStart, nodes + 1), Arrays.copyOf(labels, arc), Arrays.copyOf(targets, arc));
+    }
+
+    /**
+     * Sort the arcs in [from, to[ by label
+     * @param labels The labels
+     * @param targets The targets
+     * @param from The first arc
+     * @param to The last arc (excluded)
+     */
+    private static void sortArcs(int[] labels, int[] targets, int from, int to){
+        for(int i = from + 1; i < to; i++) {
+            int label = labels[i], target = targets[i];
+            int j = i;
+            for(; j > from && labels[j-1] > label; j--) {
+                labels[j] = labels[j-1];
+                targets[j] = targets[j-1];
+            }
+            labels[j] = label;
+            targets[j] = target;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * A FrozenMDD is already frozen : return this.
+     */
+    @Override
+    public FrozenMDD freeze(){
+        return this;
+    }
+
+
+    //**************************************//
+    //         PRIMITIVE ACCESSORS          //
+    //**************************************//
+
+    /**
+     * Get the id of the root
+     * @return The id of the root
+     */
+    public int root(){
+        return 0;
+    }
+
+    /**
+     * Get the id of the tt node.<br>
+     * The last layer of a reduced DD only contains the tt node. When the last layer contains several nodes
+     * (the DD was not reduced), or none (the DD has no solution), there is no tt node : the callers must check
+     * the result before using it as an id.
+     * @return The id of the tt node, or -1 if the last layer does not contain exactly one node
+     */
+    public int tt(){
+        int last = size() - 1;
+        return layerEnd(last) - layerStart(last) == 1 ? layerStart(last) : -1;
+    }
+
+    /**
+     * Get the id of the first node of the ith layer
+     * @param i The index of the layer
+     * @return The id of the first node of the ith layer
+     */
+    public int layerStart(int i){
+        return layerStart[i];
+    }
+
+    /**
+     * Get the id following the last node of the ith layer
+     * @param i The index of the layer
+     * @return The id following the last node of the ith layer
+     */
+    public int layerEnd(int i){
+        return layerStart[i+1];
+    }
+
+    /**
+     * Get the position of the first out-going arc of the given node
+     * @param node The id of the node
+     * @return The position of the first out-going arc of the node
+     */
+    public int firstArc(int node){
+        return arcStart[node];
+    }
+
+    /**
+     * Get the position following the last out-going arc of the given node
+     * @param node The id of the node
+     * @return The position following the last out-going arc of the node
+     */
+    public int lastArc(int node){
+        return arcStart[node+1];
+    }
+
+    /**
+     * Get the number of out-going arcs of the given node
+     * @param node The id of the node
+     * @return The number of out-going arcs of the node
+     */
+    public int outDegree(int node){
+        return arcStart[node+1] - arcStart[node];
+    }
+
+    /**
+     * Get the label of the given arc
+     * @param arc The position of the arc
+     * @return The label of the arc
+     */
+    public int label(int arc){
+        return labels[arc];
+    }
+
+    /**
+     * Get the id of the destination of the given arc
+     * @param arc The position of the arc
+     * @return The id of the destination of the arc
+     */
+    public int target(int arc){
+        return targets[arc];
+    }
+
+    /**
+     * Get the position of the out-going arc of the node with the given label
+     * @param node The id of the node
+     * @param label The label of the arc
+     * @return The position of the arc, or -1 if the node has no arc with this label
+     */
+    public int arc(int node, int label){
+        int arc = Arrays.binarySearch(labels, arcStart[node], arcStart[node+1], label);
+        return arc < 0 ? -1 : arc;
+    }
+
+    /**
+     * Get the id of the child of the node with the given label
+     * @param node The id of the node
+     * @param label The label of the arc
+     * @return The id of the child, or -1 if the node has no arc with this label
+     */
+    public int child(int node, int label){
+        int arc = arc(node, label);
+        return arc < 0 ? -1 : targets[arc];
+    }
+
+    /**
+     * Check if the given assignment is a solution of the DD
+     * @param solution The values of the variables
+     * @return True if the path exists, false otherwise
+     */
+    public boolean contains(int[] solution){
+        int node = 0;
+        for(int i = 0; i < size() - 1 && node >= 0; i++) node = child(node, solution[i]);
+        return node >= 0;
+    }
+
+    /**
+     * Draw a path from the root, choosing an out-going arc uniformly at random on each node.
+     * The path is written in the given array (one value per variable).
+     * The walk stops on a node that has no out-going arc before the last layer (the DD was not reduced) :
+     * the values drawn so far are not part of any solution.
+     * @param random The random generator
+     * @param path The array receiving the path (of length at least size() - 1)
+     * @return The given array, or null if the walk reached a node without out-going arcs
+     */
+    public int[] randomWalk(Random random, int[] path){
+        int node = 0;
+        for(int i = 0; i < size() - 1; i++) {
+            if(arcStart[node] == arcStart[node+1]) return null;
+            int arc = arcStart[node] + random.nextInt(outDegree(node));
+            path[i] = labels[arc];
+            node = targets[arc];
+        }
+        return path;
+    }
+
+
+    //**************************************//
+    //               GETTERS                //
+    //**************************************//
+
+    /**
+     * Get the INode view of the given node
+     * @param node The id of the node
+     * @return The INode view of the node
+     */
+    public FrozenNode getNode(int node){
+        if(views[node] == null) views[node] = new FrozenNode(this, node);
+        return views[node];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public INode getRoot() {
+        return getNode(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public INode getTt() {
+        int tt = tt();
+        return tt < 0 ? null : getNode(tt);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<INode> iterateOnLayer(int i) {
+        int start = layerStart[i], length = layerStart[i+1] - start;
+        return new AbstractList<INode>() {
+            @Override
+            public INode get(int index) {
+                return getNode(start + index);
+            }
+
+            @Override
+            public int size() {
+                return length;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLayerSize(int i) {
+        return layerStart[i+1] - layerStart[i];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Integer> iterateOnDomain(int i) {
+        int[] domain = domains[i];
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return domain[index];
+            }
+
+            @Override
+            public int size() {
+                return domain.length;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDomainSize(int i) {
+        return domains[i].length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean domainContains(int i, int v) {
+        return Arrays.binarySearch(domains[i], v) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nodes(){
+        return layerStart[size()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int arcs(){
+        return labels.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double nSolutions(){
+        int last = size() - 1;
+        if(getLayerSize(last) == 0 || nodes() == 1) return 0;
+        double[] paths = new double[nodes()];
+        for(int node = layerStart[last]; node < layerStart[last+1]; node++) paths[node] = 1;
+        for(int node = layerStart[last] - 1; node >= 0; node--) {
+            double sum = 0;
+            for(int arc = arcStart[node]; arc < arcStart[node+1]; arc++) sum += paths[targets[arc]];
+            paths[node] = sum;
+        }
+        return paths[0];
+    }
+
+
+    //**************************************//
+    //              MANAGE DD               //
+    //**************************************//
+
+    @Override
+    public void setSize(int size){
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void setRoot(INode root) {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void setTT() {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public INode Node() {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    /**
+     * {@inheritDoc}
+     * A FrozenMDD is read only : the result is a new MDD.
+     */
+    @Override
+    public DecisionDiagram DD() {
+        return MDD.create();
+    }
+
+    @Override
+    public DecisionDiagram DD(INode root) {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void addNode(INode node, int layer) {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void removeNode(INode node, int layer) {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void reduce() {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    /**
+     * {@inheritDoc}
+     * A FrozenMDD is not managed by the Memory.
+     */
+    @Override
+    public int allocatedIndex() {
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * A FrozenMDD is not managed by the Memory : nothing to free.
+     */
+    @Override
+    public void free() {
+    }
+}
@@ -0,0 +1,177 @@
+package dd.frozen;
+
+import dd.AbstractNode;
+import dd.interfaces.INode;
+import structures.arrays.ArrayOfNodeInterface;
+import structures.successions.SuccessionOfNodeInterface;
+
+import java.util.AbstractList;
+
+/**
+ * <b>Read only view of a node of a FrozenMDD.</b> <br>
+ * The arcs are read from the CSR arrays of the FrozenMDD. The view only stores the two associations
+ * used by the operations and by the copy (x1 and x2), so that a FrozenMDD can be used as an operand.
+ */
+public class FrozenNode extends AbstractNode {
+
+    private final FrozenMDD dd;
+    private final int id;
+    private final Iterable<Integer> labels;
+
+    // Associations
+    private INode x1, x2;
+
+    FrozenNode(FrozenMDD dd, int id){
+        this.dd = dd;
+        this.id = id;
+        int first = dd.firstArc(id), length = dd.outDegree(id);
+        this.labels = new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return dd.label(first + index);
+            }
+
+            @Override
+            public int size() {
+                return length;
+            }
+        };
+    }
+
+    /**
+     * Get the id of the node in its FrozenMDD
+     * @return The id of the node
+     */
+    public int id(){
+        return id;
+    }
+
+    @Override
+    public INode getChild(int label) {
+        int child = dd.child(id, label);
+        return child < 0 ? null : dd.getNode(child);
+    }
+
+    @Override
+    public boolean containsLabel(int label){
+        return dd.arc(id, label) >= 0;
+    }
+
+    @Override
+    public int numberOfChildren() {
+        return dd.outDegree(id);
+    }
+
+    @Override
+    public Iterable<Integer> iterateOnChildLabels() {
+        return labels;
+    }
+
+    //**************************************//
+    //             ASSOCIATIONS             //
+    //**************************************//
+
+    @Override
+    public void setX(INode node, int i) {
+        if(i == 0) x1 = node;
+        else if(i == 1) x2 = node;
+        else throw new UnsupportedOperationException("FrozenNode only stores two associations !");
+    }
+
+    @Override
+    public INode getX(int i) {
+        if(i == 0) return x1;
+        if(i == 1) return x2;
+        return null;
+    }
+
+    @Override
+    public void associate(ArrayOfNodeInterface nodes) {
+        for(int i = 0; i < nodes.length(); i++) setX(nodes.get(i), i);
+    }
+
+    @Override
+    public void associate(INode x1, INode x2) {
+        this.x1 = x1;
+        this.x2 = x2;
+    }
+
+    @Override
+    public SuccessionOfNodeInterface<INode> getAssociations() {
+        throw new UnsupportedOperationException("FrozenNode only stores two associations !");
+    }
+
+    @Override
+    public void clearAssociations() {
+        x1 = null;
+        x2 = null;
+    }
+
+    //**************************************//
+    //              READ ONLY               //
+    //**************************************//
+
+    @Override
+    public INode Node() {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void addChild(int label, INode child) {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void removeChild(int label) {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public void clearChildren() {
+        throw new UnsupportedOperationException("Frozen DDs are read only !");
+    }
+
+    @Override
+    public Iterable<INode> iterateOnParents(int label) {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public Iterable<Integer> iterateOnParentLabels() {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public int numberOfParentsLabel() {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public int numberOfParents(int label) {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public void addParent(int label, INode parent) {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public void removeParent(int label, INode parent) {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public void clearParents() {
+        throw new UnsupportedOperationException("Frozen DDs do not store in-going arcs !");
+    }
+
+    @Override
+    public int allocatedIndex() {
+        return -1;
+    }
+
+    @Override
+    public void free() {
+    }
+}
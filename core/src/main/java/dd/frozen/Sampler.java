@@ -0,0 +1,224 @@
+package dd.frozen;
+
+import dd.DecisionDiagram;
+import utils.ParallelRange;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * <b>Sampler drawing solutions of a decision diagram, uniformly or according to weights on the labels.</b> <br>
+ * The mass of each node (its number of paths to the terminal layer, or the sum of the products of the weights
+ * along these paths) is computed once, bottom-up, on the FrozenMDD of the diagram. Each arc then stores the
+ * cumulative probability of the arcs of its node up to itself, so that drawing a solution only costs
+ * one binary search per layer : O(depth * log(degree)).<br>
+ * The masses are rescaled layer by layer, so that they neither overflow nor underflow
+ * (the probabilities only depend on the ratios between the masses of the nodes of a same layer).<br>
+ * A Sampler is immutable once created : it can be shared by several threads, each thread using its own
+ * SplittableRandom (obtained with SplittableRandom.split()).
+ */
+public class Sampler {
+
+    // Minimum number of samples drawn by a task of a parallel batch
+    private static final int PARALLEL_CHUNK = 4096;
+
+    private final FrozenMDD mdd;
+    private final int variables;
+    // Cumulative probability of each arc among the arcs of its node
+    private final double[] cumulative;
+    private final boolean empty;
+
+    private Sampler(FrozenMDD mdd, double[][] weights){
+        this.mdd = mdd;
+        this.variables = Math.max(mdd.size() - 1, 0);
+        int nodes = mdd.nodes();
+        this.cumulative = new double[mdd.arcs()];
+
+        double[] mass = new double[nodes];
+        if(variables > 0) for(int x = mdd.layerStart(variables); x < mdd.layerEnd(variables); x++) mass[x] = 1;
+        for(int i = variables - 1; i >= 0; i--) {
+            double max = 0;
+            for(int x = mdd.layerStart(i); x < mdd.layerEnd(i); x++) {
+                double sum = 0;
+                for(int arc = mdd.firstArc(x); arc < mdd.lastArc(x); arc++) {
+                    sum += weight(weights, i, mdd.label(arc)) * mass[mdd.target(arc)];
+                    cumulative[arc] = sum;
+                }
+                for(int arc = mdd.firstArc(x); arc < mdd.lastArc(x); arc++) cumulative[arc] = sum > 0 ? cumulative[arc] / sum : 0;
+                mass[x] = sum;
+                if(sum > max) max = sum;
+            }
+            if(max > 0) for(int x = mdd.layerStart(i); x < mdd.layerEnd(i); x++) mass[x] /= max;
+        }
+        this.empty = variables == 0 || mass[mdd.root()] == 0;
+    }
+
+    private static double weight(double[][] weights, int layer, int label){
+        if(weights == null) return 1;
+        double[] layerWeights = weights[layer];
+        return label >= 0 && label < layerWeights.length ? layerWeights[label] : 0;
+    }
+
+    /**
+     * Create a sampler drawing the solutions of the DD uniformly
+     * @param dd The decision diagram (frozen if it is not already)
+     * @return The sampler
+     */
+    public static Sampler uniform(DecisionDiagram dd){
+        return new Sampler(FrozenMDD.create(dd), null);
+    }
+
+    /**
+     * Create a sampler drawing each solution with a probability proportional to the product of the weights of its labels.
+     * @param dd The decision diagram (frozen if it is not already)
+     * @param weights The weights, indexed by layer then by label (a label out of the array has a weight of 0).
+     *                With the probabilities of independent variables, the solutions are drawn according to the
+     *                distribution of the variables conditioned on the DD.
+     *                The weights must be finite and non-negative.
+     * @return The sampler
+     */
+    public static Sampler weighted(DecisionDiagram dd, double[][] weights){
+        if(weights.length < dd.size() - 1) throw new IllegalArgumentException("A table of weights is required for each variable !");
+        // The weights of each layer are divided by their maximum : large weights do not overflow the masses
+        double[][] scaled = new double[weights.length][];
+        for(int i = 0; i < weights.length; i++) {
+            double max = 0;
+            for(double w : weights[i]) {
+                if(!(w >= 0 && w < Double.POSITIVE_INFINITY)) throw new IllegalArgumentException("The weights must be finite and non-negative !");
+                if(w > max) max = w;
+            }
+            scaled[i] = new double[weights[i].length];
+            if(max > 0) for(int label = 0; label < weights[i].length; label++) scaled[i][label] = weights[i][label] / max;
+        }
+        return new Sampler(FrozenMDD.create(dd), scaled);
+    }
+
+    /**
+     * Get the number of variables of a sample
+     * @return The number of variables
+     */
+    public int variables(){
+        return variables;
+    }
+
+    /**
+     * Check if there is a solution to draw
+     * @return True if the DD has no solution (or a mass of 0), false otherwise
+     */
+    public boolean isEmpty(){
+        return empty;
+    }
+
+    //**************************************//
+    //              SAMPLING                //
+    //**************************************//
+
+    /**
+     * Draw a solution
+     * @param random The random generator
+     * @param path The array receiving the solution (of length at least variables())
+     * @return The given array
+     */
+    public int[] sample(SplittableRandom random, int[] path){
+        draw(random, path, 0);
+        return path;
+    }
+
+    /**
+     * Draw a solution
+     * @param random The random generator
+     * @return A new array containing the solution
+     */
+    public int[] sample(SplittableRandom random){
+        return sample(random, new int[variables]);
+    }
+
+    /**
+     * Draw the given number of solutions, written one after the other in the given array
+     * (the solution k is in samples[k * variables() .. (k+1) * variables()[).
+     * @param random The random generator
+     * @param samples The array receiving the solutions (of length at least count * variables())
+     * @param count The number of solutions to draw
+     * @throws IllegalArgumentException if the array is too small for count solutions
+     */
+    public void sample(SplittableRandom random, int[] samples, int count){
+        if(length(count) > samples.length) throw new IllegalArgumentException("The array is too small for " + count + " solutions !");
+        for(int k = 0; k < count; k++) draw(random, samples, k * variables);
+    }
+
+    /**
+     * Draw the given number of solutions, giving each of them to the consumer.
+     * The same array is given at each call : it must be copied to be kept.
+     * @param random The random generator
+     * @param count The number of solutions to draw
+     * @param consumer The consumer of the solutions
+     */
+    public void sample(SplittableRandom random, int count, Consumer<int[]> consumer){
+        int[] path = new int[variables];
+        for(int k = 0; k < count; k++) consumer.accept(sample(random, path));
+    }
+
+    /**
+     * Draw the given number of solutions on the given pool. Each task uses a generator split from the given one
+     * (before the tasks are started) : for a given seed, the result does not depend on the scheduling.
+     * @param random The random generator
+     * @param count The number of solutions to draw
+     * @param pool The pool running the tasks
+     * @return The solutions, one after the other (the solution k is in [k * variables() .. (k+1) * variables()[)
+     * @throws IllegalArgumentException if count * variables() does not fit in an array
+     */
+    public int[] sampleParallel(SplittableRandom random, int count, ForkJoinPool pool){
+        int[] samples = new int[length(count)];
+        ParallelRange.compute(pool, random, SplittableRandom::split, 0, count, PARALLEL_CHUNK, (generator, from, to) -> {
+            for(int k = from; k < to; k++) draw(generator, samples, k * variables);
+        });
+        return samples;
+    }
+
+    /**
+     * Draw the given number of solutions on the common pool
+     * @param random The random generator
+     * @param count The number of solutions to draw
+     * @return The solutions, one after the other (the solution k is in [k * variables() .. (k+1) * variables()[)
+     * @throws IllegalArgumentException if count * variables() does not fit in an array
+     */
+    public int[] sampleParallel(SplittableRandom random, int count){
+        return sampleParallel(random, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get the length of the array holding the given number of solutions
+     * @param count The number of solutions
+     * @return count * variables()
+     * @throws IllegalArgumentException if count is negative or if the length does not fit in an int
+     */
+    private int length(int count){
+        if(count < 0) throw new IllegalArgumentException("The number of solutions must be positive !");
+        try {
+            return Math.multiplyExact(count, variables);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(count + " solutions of " + variables + " variables do not fit in an array !");
+        }
+    }
+
+    /**
+     * Draw a solution and write it at the given offset
+     */
+    private void draw(SplittableRandom random, int[] samples, int offset){
+        if(empty) throw new IllegalStateException("The diagram has no solution to draw !");
+        int node = mdd.root();
+        for(int i = 0; i < variables; i++) {
+            double r = random.nextDouble();
+            // First arc whose cumulative probability is greater than r
+            int lo = mdd.firstArc(node), hi = mdd.lastArc(node) - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(cumulative[mid] > r) hi = mid;
+                else lo = mid + 1;
+            }
+            samples[offset + i] = mdd.label(lo);
+            node = mdd.target(lo);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import dd.DecisionDiagram;
 import dd.interfaces.INode;
 import dd.mdd.components.Layer;
 import dd.mdd.components.Node;
+import dd.mdd.components.OutArcs;
+import dd.operations.HashReduce;
 import dd.operations.Pack;
+import dd.operations.TableCompiler;
 import memory.*;
 import representation.MDDVisitor;
 import structures.Domains;
@@ -12,9 +15,7 @@ import structures.MDDTable;
 import structures.arrays.ArrayOfInt;
 import structures.generics.MapOf;
 import structures.generics.SetOf;
-import structures.lists.ListOfInt;
 import structures.lists.ListOfLayer;
-import structures.lists.UnorderedListOfNode;
 
 import java.util.HashMap;
 import java.util.InputMismatchException;
@@ -32,6 +33,10 @@ public class MDD extends DecisionDiagram {
     // Index in Memory
     private final int allocatedIndex;
 
+    // Type of reduction
+    public static final byte PACK_REDUCE = 0, HASH_REDUCE = 1;
+    private static byte REDUCTION = PACK_REDUCE;
+
 
     // Root node
     private Node root;
@@ -43,6 +48,9 @@ public class MDD extends DecisionDiagram {
     // Domain of the MDD
     private final Domains D = Domains.create();
 
+    // Labels in [0, arcIndexBound[ are indexed using a direct-indexed array in the out-going arcs of the nodes
+    private int arcIndexBound = OutArcs.DEFAULT_DIRECT_BOUND;
+
     //**************************************//
     //           INITIALISATION             //
     //**************************************//
@@ -87,6 +95,35 @@ public class MDD extends DecisionDiagram {
         return mdd;
     }
 
+    /**
+     * Set the algorithm used by reduce() to merge equivalent nodes.
+     * PACK_REDUCE uses Pack.pReduce, HASH_REDUCE uses the hash-consing unique table of HashReduce.
+     * @param MODE The type of reduction (PACK_REDUCE or HASH_REDUCE)
+     */
+    public static void setReductionMode(byte MODE){
+        if(MODE == PACK_REDUCE || MODE == HASH_REDUCE) REDUCTION = MODE;
+    }
+
+    /**
+     * Set the bound under which the labels of the out-going arcs of the nodes are indexed using a direct-indexed array.
+     * The nodes having all their labels in [0, bound[ use an array of less than 2 * bound integers as index,
+     * the other nodes use an open-addressing table. Applies to the nodes of the MDD and to the nodes added later.
+     * The results of the operations created with DD() have the same bound.
+     * @param bound The bound of the labels indexed directly
+     */
+    public void setArcIndexBound(int bound){
+        arcIndexBound = Math.max(bound, 0);
+        for(int i = 0; i < L.size(); i++) for(Node node : L.get(i)) node.getChildren().setDirectBound(arcIndexBound);
+    }
+
+    /**
+     * Get the bound under which the labels of the out-going arcs of the nodes are indexed using a direct-indexed array
+     * @return The bound of the labels indexed directly
+     */
+    public int getArcIndexBound(){
+        return arcIndexBound;
+    }
+
     /**
      * Free the current root node and add as a root the given node
      * @param root The node to set as root
@@ -94,6 +131,7 @@ public class MDD extends DecisionDiagram {
     public void setRoot(Node root){
         L.get(0).freeAllNodes();    // remove the current root
         this.root = root;           // set the pointer
+        root.getChildren().setDirectBound(arcIndexBound);
         L.get(0).add(root);         // add the new root
     }
 
@@ -168,7 +206,9 @@ public class MDD extends DecisionDiagram {
      */
     @Override
     public MDD DD(){
-        return MDD(Node());
+        MDD mdd = MDD(Node());
+        mdd.setArcIndexBound(arcIndexBound);
+        return mdd;
     }
 
     /**
@@ -326,7 +366,7 @@ public class MDD extends DecisionDiagram {
 
     /**
      * Perform a random walk in the MDD.
-     * FOR TESTING PURPOSES
+     * FOR TESTING PURPOSES : the solutions are not drawn uniformly (use dd.frozen.Sampler).
      * @return A valid path in the MDD
      */
     public int[] randomWalk(){
@@ -494,6 +534,30 @@ public class MDD extends DecisionDiagram {
         removeNode((Node) node, layer);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void swapDomains(int i, int j){
+        D.swap(i, j);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void swapVariables(int i){
+        super.swapVariables(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] sift(long timeLimit){
+        return super.sift(timeLimit);
+    }
+
     /**
      * Add the path corresponding to the given values from the MDD's root.
      * @param values Labels of the path
@@ -534,6 +598,7 @@ public class MDD extends DecisionDiagram {
      * @param layer The index of the layer
      */
     public void addNode(Node node, int layer){
+        node.getChildren().setDirectBound(arcIndexBound);
         getLayer(layer).add(node);
     }
 
@@ -608,10 +673,14 @@ public class MDD extends DecisionDiagram {
         }
 
         // Merge similar nodes
+        if(size() <= 1 || getLayer(size() - 2).size() == 0) return;
+        if(REDUCTION == HASH_REDUCE) {
+            HashReduce.reduce(this);
+            return;
+        }
         SetOf<Integer> V = Memory.SetOfInteger();
         D.fillWithValues(V);
-        if(size() > 1 && getLayer(size() - 2).size() != 0) Pack.pReduce(L, size(), V);
-        //if(size > 1 && getLayer(size - 2).size() != 0) HashReduce.reduce(this);
+        Pack.pReduce(L, size(), V);
         Memory.free(V);
     }
 
@@ -661,70 +730,12 @@ public class MDD extends DecisionDiagram {
 
     /**
      * Create the MDD corresponding to the given <b>SORTED</b> Table.
+     * The MDD is minimized while the tuples are added (see TableCompiler) : the trie of the table is never built.
      * @param table The sorted table
      * @return The MDD corresponding to the sorted table
      */
     public static MDD createFromSortedTable(MDDTable table){
-        MDD result = MDD.create();
-
-        ListOfInt nextIndices = ListOfInt.create();
-        ListOfInt indices = ListOfInt.create();
-        ListOfInt tmp_switch_i;
-        indices.add(0);
-
-        UnorderedListOfNode nextNodes = UnorderedListOfNode.create();
-        UnorderedListOfNode nodes = UnorderedListOfNode.create();
-        UnorderedListOfNode tmp_switch_n;
-        nodes.add(result.getRoot());
-
-        int size = table.numberOfTuples();
-        int length = table.tupleSize();
-        result.setSize(length+1);
-
-        Node source;
-        int lastIndex;
-        int maxRowCurrentIndex;
-        int value;
-
-        for(int column = 0; column < size; column++) {
-            source = nodes.get(0);
-            value = table.noneValue();
-            lastIndex = 0;
-            if(indices.size() > 1) maxRowCurrentIndex = indices.get(1);
-            else maxRowCurrentIndex = Integer.MAX_VALUE;
-            for(int row = 0; row < length; row++) {
-                if(table.valueOfIndex(row, column) == value && maxRowCurrentIndex > row) continue;
-                value = table.valueOfIndex(row, column);
-
-                if(maxRowCurrentIndex <= row) {
-                    lastIndex++;
-                    if(indices.size() > lastIndex+1) maxRowCurrentIndex = indices.get(lastIndex+1);
-                    else maxRowCurrentIndex = Integer.MAX_VALUE;
-                    source = nodes.get(lastIndex);
-                }
-
-                Node elementNode = result.Node();
-                result.addArcAndNode(source, value, elementNode, column + 1);
-                nextIndices.add(row);
-                nextNodes.add(elementNode);
-            }
-            nodes.clear();
-            tmp_switch_n = nextNodes;
-            nextNodes = nodes;
-            nodes = tmp_switch_n;
-
-            indices.clear();
-            tmp_switch_i = nextIndices;
-            nextIndices = indices;
-            indices = tmp_switch_i;
-        }
-
-        Memory.free(nodes);
-        Memory.free(nextNodes);
-        Memory.free(indices);
-        Memory.free(nextIndices);
-        result.reduce();
-        return result;
+        return TableCompiler.compile(MDD.create(), table);
     }
 
 
@@ -754,8 +765,11 @@ public class MDD extends DecisionDiagram {
         L.clear();
         L.add(Layer.create());
         D.clear();
+        // The MDD is reused by the allocator : its size must match the only layer left
+        setSize(0);
         this.root = null;
         this.tt = null;
+        this.arcIndexBound = OutArcs.DEFAULT_DIRECT_BOUND;
         dealloc();
     }
 
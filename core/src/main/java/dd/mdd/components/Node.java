@@ -448,6 +448,7 @@ public class Node extends AbstractNode {
      */
     public void replace(MapOf<Integer, SetOf<Integer>> mapping, SetOf<Integer> added){
         OutArcs new_children = OutArcs.create();
+        new_children.setDirectBound(children.getDirectBound());
         for(int v : this.iterateOnChildLabels()) getChild(v).removeParent(v, this);
 
         for(int v : this.iterateOnChildLabels()) {
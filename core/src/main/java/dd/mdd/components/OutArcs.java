@@ -6,14 +6,19 @@ import memory.AllocatorOf;
 import representation.MDDVisitor;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 
 /**
  * <b>This class is used to represent the binding between a node and its children.</b> <br>
- * The out-going arcs (OutArcs) is represented using a simple map binding integer to node,
+ * The out-going arcs (OutArcs) are represented using two arrays : the labels (int) and the children (Node),
  * as the MDD is determinist by default (i.e. can only have one children with a specific label).
+ * The position of an arc in the arrays is its index (see getValue and getByIndex).<br>
+ * Small sets of arcs are searched linearly. When the number of arcs exceeds INDEX_THRESHOLD, an index binding
+ * each label to its position is built : a direct-indexed array when all labels are in [0, directBound[,
+ * an open-addressing table otherwise. No lookup allocates any object.<br>
+ * The bound is set by the MDD owning the node (see MDD.setArcIndexBound).
  */
 public class OutArcs implements Allocable, Iterable<Integer> {
 
@@ -23,9 +28,21 @@ public class OutArcs implements Allocable, Iterable<Integer> {
     // Index in Memory
     private final int allocatedIndex;
 
+    // Number of arcs above which the labels are indexed
+    private static final int INDEX_THRESHOLD = 8;
+    // Default bound of the labels indexed using a direct-indexed array
+    public static final int DEFAULT_DIRECT_BOUND = 128;
+    // Labels in [0, directBound[ are indexed using a direct-indexed array
+    private int directBound = DEFAULT_DIRECT_BOUND;
+
     private boolean isSorted = false;
-    private final HashMap<Integer, Node> arcs = new HashMap<>();
-    private final ArrayList<Integer> values = new ArrayList<>();
+    private int[] labels = new int[2];
+    private Node[] children = new Node[2];
+    private int size;
+
+    // Position (+1) of the labels. Null if the arcs are not indexed.
+    private int[] index;
+    private boolean direct;
 
     //**************************************//
     //           INITIALISATION             //
@@ -56,6 +73,27 @@ public class OutArcs implements Allocable, Iterable<Integer> {
         return allocator().allocate();
     }
 
+    /**
+     * Set the bound under which labels are indexed using a direct-indexed array.
+     * If all the labels are in [0, bound[, the index is an array of less than 2 * bound integers,
+     * otherwise it is an open-addressing table.
+     * @param bound The bound of the labels indexed directly
+     */
+    public void setDirectBound(int bound){
+        bound = Math.max(bound, 0);
+        if(directBound == bound) return;
+        directBound = bound;
+        if(index != null) buildIndex();
+    }
+
+    /**
+     * Get the bound under which labels are indexed using a direct-indexed array
+     * @return The bound of the labels indexed directly
+     */
+    public int getDirectBound(){
+        return directBound;
+    }
+
     //**************************************//
     //         SPECIAL FUNCTIONS            //
     //**************************************//
@@ -79,8 +117,9 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @param node Node to associate with the given label
      */
     public void add(int label, Node node){
-        if(!this.values.contains(label)) addValue(label);
-        this.arcs.put(label, node);
+        int pos = indexOf(label);
+        if(pos < 0) pos = insert(label);
+        children[pos] = node;
     }
 
     /**
@@ -89,7 +128,7 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return True if the label is contained in the out-going arcs, false otherwise
      */
     public boolean containsLabel(int label){
-        return this.values.contains(label);
+        return indexOf(label) >= 0;
     }
 
     /**
@@ -98,7 +137,9 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return the node associated with the given label
      */
     public Node get(int label){
-        return arcs.get(label);
+        int pos = indexOf(label);
+        if(pos < 0) return null;
+        return children[pos];
     }
 
     /**
@@ -107,7 +148,7 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return the node associated with the label corresponding to the given index
      */
     public Node getByIndex(int index){
-        return arcs.get(values.get(index));
+        return children[index];
     }
 
     /**
@@ -116,14 +157,17 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return the value corresponding to the given index
      */
     public int getValue(int index){
-        return values.get(index);
+        return labels[index];
     }
 
     /**
-     * Get all the values that are associated with a node
-     * @return Array containing all the values that are associated with a node
+     * Get all the values that are associated with a node.
+     * The list is a copy : modifying it does not modify the arcs.
+     * @return List containing all the values that are associated with a node
      */
     public ArrayList<Integer> getValues(){
+        ArrayList<Integer> values = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) values.add(labels[i]);
         return values;
     }
 
@@ -133,8 +177,14 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return true if an association is removed, false otherwise
      */
     public boolean remove(int label){
-        values.remove(Integer.valueOf(label));
-        return this.arcs.remove(label) != null;
+        int pos = indexOf(label);
+        if(pos < 0) return false;
+        boolean removed = children[pos] != null;
+        System.arraycopy(labels, pos + 1, labels, pos, size - pos - 1);
+        System.arraycopy(children, pos + 1, children, pos, size - pos - 1);
+        children[--size] = null;
+        buildIndex();
+        return removed;
     }
 
     /**
@@ -143,7 +193,7 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return true if the given value is associated with a node, false otherwise
      */
     public boolean contains(int value){
-        return arcs.containsKey(value);
+        return get(value) != null;
     }
 
     /**
@@ -152,7 +202,7 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @param outArcs The sets of outgoing arcs.
      */
     public void merge(OutArcs outArcs){
-        for(int value : outArcs) if(!this.arcs.containsKey(value)) this.arcs.put(value, outArcs.get(value));
+        for(int i = 0; i < outArcs.size; i++) if(!contains(outArcs.labels[i])) add(outArcs.labels[i], outArcs.children[i]);
     }
 
 
@@ -162,51 +212,35 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @param outArcs The sets of outgoing arcs.
      */
     public void mergeWithOverride(OutArcs outArcs){
-        for(int value : outArcs) this.arcs.put(value, outArcs.get(value));
+        for(int i = 0; i < outArcs.size; i++) add(outArcs.labels[i], outArcs.children[i]);
     }
 
     /**
      * Clear all informations
      */
     public void clear(){
-        this.values.clear();
-        this.arcs.clear();
+        Arrays.fill(children, 0, size, null);
+        size = 0;
+        index = null;
         isSorted = false;
     }
 
     /**
-     * Get the number of arcs in the set
-     * @return the number of arcs in the set
+     * Get the number of labels in the set, including the labels added by addValue that have no child yet.
+     * The labels are at the indices 0 to size()-1 (see getValue and getByIndex).
+     * @return the number of labels in the set
      */
     public int size(){
-        return arcs.size();
-    }
-
-    /**
-     * Add a value to the set of values and sort the set in increasing order.
-     * @param value Value to add
-     */
-    private void addValueAndSort(int value){
-        int bottom = 0;
-        int up = values.size();
-        int pos = 0;
-        while (bottom <= up) {
-            pos = bottom + (up - bottom) / 2;
-            if(values.get(pos) > value) up = pos - 1;
-            else if(values.get(pos) < value) bottom = pos + 1;
-            else break;
-        }
-        for(int i = pos; i < values.size() - 1; i++) values.set(i+1, values.get(i));
-        values.set(pos, value);
+        return size;
     }
 
     /**
-     * Add the label of the out-going arcs values
+     * Add the label of the out-going arcs values, without child.
+     * The label is counted by size() : getByIndex returns null at its index until a child is added.
      * @param label The label of the arc
      */
     public void addValue(int label){
-        if(isSorted) addValueAndSort(label);
-        else values.add(label);
+        if(indexOf(label) < 0) insert(label);
     }
 
     /**
@@ -214,8 +248,19 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      */
     public void sort(){
         if(isSorted) return;
-        Collections.sort(values);
+        int j;
+        for (int i = 1; i < size; i++) {
+            int label = labels[i];
+            Node child = children[i];
+            for(j = i; j > 0 && labels[j-1] > label; j--) {
+                labels[j] = labels[j-1];
+                children[j] = children[j-1];
+            }
+            labels[j] = label;
+            children[j] = child;
+        }
         isSorted = true;
+        buildIndex();
     }
 
     /**
@@ -223,19 +268,20 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @param intervalCosts The link between the children and their corresponding IntervalVariable.
      */
     public void sort(Node parent, HashMap<Node, IntervalVariable> intervalCosts){
-        int x;
-        long value;
         int j;
-        for (int i = 1; i < values.size(); i++) {
-            x = values.get(i);
-            value = intervalCosts.get(parent.getChild(x)).getMax();
-            j = i;
-            while (j > 0 && intervalCosts.get(parent.getChild(values.get(j-1))).getMax() < value){
-                values.set(j, values.get(j-1));
-                j--;
+        for (int i = 1; i < size; i++) {
+            int label = labels[i];
+            Node child = children[i];
+            long value = intervalCosts.get(child).getMax();
+            for(j = i; j > 0 && intervalCosts.get(children[j-1]).getMax() < value; j--) {
+                labels[j] = labels[j-1];
+                children[j] = children[j-1];
             }
-            values.set(j, x);
+            labels[j] = label;
+            children[j] = child;
         }
+        isSorted = false;
+        buildIndex();
     }
 
     /**
@@ -244,10 +290,113 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      * @return true if the given node is associated with a value, false otherwise
      */
     public boolean contains(Node child){
-        for(Node node : arcs.values()) if(node == child) return true;
+        for(int i = 0; i < size; i++) if(children[i] == child) return true;
         return false;
     }
 
+    //**************************************//
+    //               INDEXING               //
+    //**************************************//
+
+    /**
+     * Get the position of the given label in the arrays
+     * @param label The label
+     * @return The position of the label, -1 if the label is not in the arcs
+     */
+    private int indexOf(int label){
+        if(index == null) {
+            for(int i = 0; i < size; i++) if(labels[i] == label) return i;
+            return -1;
+        }
+        if(direct) {
+            if(label < 0 || label >= index.length) return -1;
+            return index[label] - 1;
+        }
+        int mask = index.length - 1;
+        int slot = hash(label) & mask;
+        while (index[slot] != 0) {
+            if(labels[index[slot] - 1] == label) return index[slot] - 1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Insert the given label without child. If the arcs are sorted, the label is inserted at its sorted position,
+     * otherwise it is inserted at the end.
+     * @param label The label to insert
+     * @return The position of the label
+     */
+    private int insert(int label){
+        if(size == labels.length) {
+            labels = Arrays.copyOf(labels, size * 2);
+            children = Arrays.copyOf(children, size * 2);
+        }
+        int pos = size;
+        if(isSorted) while (pos > 0 && labels[pos - 1] > label) pos--;
+        System.arraycopy(labels, pos, labels, pos + 1, size - pos);
+        System.arraycopy(children, pos, children, pos + 1, size - pos);
+        labels[pos] = label;
+        children[pos] = null;
+        size++;
+        if(pos != size - 1 || index == null || !addToIndex(label, pos)) buildIndex();
+        return pos;
+    }
+
+    /**
+     * Add the label at the given position to the current index
+     * @param label The label
+     * @param pos The position of the label
+     * @return true if the label has been added, false if the index must be rebuilt
+     */
+    private boolean addToIndex(int label, int pos){
+        if(direct) {
+            if(label < 0 || label >= index.length) return false;
+            index[label] = pos + 1;
+            return true;
+        }
+        if(2 * size > index.length) return false;
+        int mask = index.length - 1;
+        int slot = hash(label) & mask;
+        while (index[slot] != 0) slot = (slot + 1) & mask;
+        index[slot] = pos + 1;
+        return true;
+    }
+
+    /**
+     * Build the index binding the labels to their position, if there are enough arcs.
+     */
+    private void buildIndex(){
+        if(size <= INDEX_THRESHOLD) {
+            index = null;
+            return;
+        }
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for(int i = 0; i < size; i++) {
+            if(labels[i] < min) min = labels[i];
+            if(labels[i] > max) max = labels[i];
+        }
+        direct = min >= 0 && max < directBound;
+        // Both kinds of index use a power of two capacity, so that the arrays can be reused
+        int capacity = direct ? Integer.highestOneBit(Math.max(max, 1)) << 1 : Integer.highestOneBit(size) << 2;
+        if(index == null || index.length < capacity || index.length > 2 * capacity) index = new int[capacity];
+        else Arrays.fill(index, 0);
+        if(direct) for(int i = 0; i < size; i++) index[labels[i]] = i + 1;
+        else {
+            int mask = index.length - 1;
+            for(int i = 0; i < size; i++) {
+                int slot = hash(labels[i]) & mask;
+                while (index[slot] != 0) slot = (slot + 1) & mask;
+                index[slot] = i + 1;
+            }
+        }
+    }
+
+    private static int hash(int label){
+        int h = label * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
     //**************************************//
     //           MEMORY FUNCTIONS           //
     //**************************************//
@@ -272,9 +421,8 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      */
     @Override
     public void free() {
-        arcs.clear();
-        values.clear();
-        isSorted = false;
+        clear();
+        directBound = DEFAULT_DIRECT_BOUND;
         dealloc();
     }
 
@@ -319,6 +467,20 @@ public class OutArcs implements Allocable, Iterable<Integer> {
      */
     @Override
     public Iterator<Integer> iterator() {
-        return values.iterator();
+        return new OutArcsIterator();
+    }
+
+    private class OutArcsIterator implements Iterator<Integer> {
+        private int i = 0;
+
+        @Override
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        @Override
+        public Integer next() {
+            return labels[i++];
+        }
     }
 }
@@ -1,5 +1,7 @@
 package dd.mdd.costmdd;
 
+import dd.ArcCost;
+import dd.WeightedPath;
 import dd.interfaces.INode;
 import dd.mdd.costmdd.components.CostNode;
 import dd.mdd.MDD;
@@ -8,6 +10,7 @@ import dd.interfaces.ICostNode;
 import memory.AllocatorOf;
 
 import java.util.InputMismatchException;
+import java.util.Iterator;
 
 /**
  * <b>The class representing the CostMDD.</b> <br>
@@ -19,6 +22,9 @@ public class CostMDD extends MDD {
     // Thread safe allocator
     public final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
 
+    // The costs stored on the arcs
+    public final static ArcCost ARC_COST = (layer, source, label) -> ((ICostNode) source).getArcCost(label);
+
     //**************************************//
     //           INITIALISATION             //
     //**************************************//
@@ -85,7 +91,9 @@ public class CostMDD extends MDD {
      */
     @Override
     public CostMDD DD(){
-        return MDD(Node());
+        CostMDD mdd = MDD(Node());
+        mdd.setArcIndexBound(getArcIndexBound());
+        return mdd;
     }
 
     /**
@@ -147,6 +155,68 @@ public class CostMDD extends MDD {
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addArc(INode source, int value, INode destination, int cost, int layer){
+        addArc((Node) source, value, (Node) destination, cost, layer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getArcCost(INode source, int label){
+        return ((ICostNode) source).getArcCost(label);
+    }
+
+    //**************************************//
+    //            OPTIMAL PATHS             //
+    //**************************************//
+
+    /**
+     * Get the minimum cost of a path of the CostMDD
+     * @return The minimum cost of a path
+     */
+    public long minCost(){
+        return optimum(ARC_COST, false);
+    }
+
+    /**
+     * Get the maximum cost of a path of the CostMDD
+     * @return The maximum cost of a path
+     */
+    public long maxCost(){
+        return optimum(ARC_COST, true);
+    }
+
+    /**
+     * Get a solution of minimum cost
+     * @return The labels of a path of minimum cost
+     */
+    public int[] argMin(){
+        return optimalSolution(ARC_COST, false);
+    }
+
+    /**
+     * Get a solution of maximum cost
+     * @return The labels of a path of maximum cost
+     */
+    public int[] argMax(){
+        return optimalSolution(ARC_COST, true);
+    }
+
+    /**
+     * Get a lazy iterator on the solutions ordered by the costs of the arcs
+     * @param maximise true to get the solutions by decreasing cost, false by increasing cost
+     * @return An iterator on the solutions and their cost
+     */
+    public Iterator<WeightedPath> bestSolutions(boolean maximise){
+        return bestSolutions(ARC_COST, maximise);
+    }
+
+
     //**************************************//
     //           MEMORY FUNCTIONS           //
     //**************************************//
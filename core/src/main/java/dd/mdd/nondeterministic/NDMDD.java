@@ -204,6 +204,16 @@ public class NDMDD extends DecisionDiagram {
         return tt;
     }
 
+    /**
+     * {@inheritDoc}
+     * A node can have several children for the same label.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Iterable<INode> iterateOnChildren(INode node, int label){
+        return ((NDNode) node).iterateOnChildren(label);
+    }
+
     /**
      * {@inheritDoc}
      */
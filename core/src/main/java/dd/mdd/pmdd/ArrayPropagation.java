@@ -0,0 +1,113 @@
+package dd.mdd.pmdd;
+
+import dd.frozen.FrozenMDD;
+import dd.mdd.pmdd.components.properties.PropertyKernel;
+
+import utils.ParallelRange;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <b>Top-down propagation of compiled properties over the arrays of a FrozenMDD.</b><br>
+ * The states of the nodes of a layer are stored in one array of longs (width() longs per property and per node).
+ * The state of a node is pulled from its parents through the in-going arcs, so that the nodes of a layer
+ * can be computed in parallel without any synchronisation. Only two layers of states are in memory.
+ */
+final class ArrayPropagation {
+
+    private final FrozenMDD mdd;
+    private final PropertyKernel[] kernels;
+    private final int[] offsets;
+    private final int width;
+    // In-going arcs of each node : the source and the label of the arcs in [inStart[y], inStart[y+1][
+    private final int[] inStart, inSource, inLabel;
+
+    private ArrayPropagation(FrozenMDD mdd, PropertyKernel[] kernels){
+        this.mdd = mdd;
+        this.kernels = kernels;
+        offsets = new int[kernels.length];
+        int w = 0;
+        for(int k = 0; k < kernels.length; k++) {
+            offsets[k] = w;
+            w += kernels[k].width();
+        }
+        width = w;
+
+        int nodes = mdd.nodes(), arcs = mdd.arcs();
+        inStart = new int[nodes + 1];
+        inSource = new int[arcs];
+        inLabel = new int[arcs];
+        for(int arc = 0; arc < arcs; arc++) inStart[mdd.target(arc) + 1]++;
+        for(int y = 0; y < nodes; y++) inStart[y + 1] += inStart[y];
+        int[] position = Arrays.copyOf(inStart, nodes);
+        for(int x = 0; x < nodes; x++) {
+            for(int arc = mdd.firstArc(x); arc < mdd.lastArc(x); arc++) {
+                int p = position[mdd.target(arc)]++;
+                inSource[p] = x;
+                inLabel[p] = mdd.label(arc);
+            }
+        }
+    }
+
+    /**
+     * Get the sorted distinct labels of the arcs of the MDD
+     * @param mdd The FrozenMDD
+     * @return The sorted distinct labels
+     */
+    static int[] labels(FrozenMDD mdd){
+        int[] labels = new int[mdd.arcs()];
+        for(int arc = 0; arc < labels.length; arc++) labels[arc] = mdd.label(arc);
+        Arrays.sort(labels);
+        int n = 0;
+        for(int i = 0; i < labels.length; i++) if(n == 0 || labels[n-1] != labels[i]) labels[n++] = labels[i];
+        return Arrays.copyOf(labels, n);
+    }
+
+    /**
+     * Propagate the given kernels from the root to the terminal node of the MDD
+     * @param mdd The FrozenMDD (its last layer must hold a single node)
+     * @param kernels The compiled properties
+     * @param pool The pool computing the large layers, null to compute all the layers in the calling thread
+     * @return The states of the terminal node (the state of the kernel k starts at the sum of the widths of the previous kernels)
+     */
+    static long[] propagate(FrozenMDD mdd, PropertyKernel[] kernels, ForkJoinPool pool){
+        return new ArrayPropagation(mdd, kernels).propagate(pool);
+    }
+
+    private long[] propagate(ForkJoinPool pool){
+        int maxWidth = 1;
+        for(int i = 0; i < mdd.size(); i++) maxWidth = Math.max(maxWidth, mdd.getLayerSize(i));
+        long[] current = new long[maxWidth * width], next = new long[maxWidth * width], tmp;
+        for(int k = 0; k < kernels.length; k++) kernels[k].root(current, offsets[k]);
+        for(int i = 1; i < mdd.size(); i++) {
+            int layer = i;
+            long[] parents = current, states = next;
+            ParallelRange.compute(pool, mdd.layerStart(i), mdd.layerEnd(i), (from, to) -> pull(layer, parents, states, from, to));
+            tmp = current;
+            current = next;
+            next = tmp;
+        }
+        return Arrays.copyOf(current, width);
+    }
+
+    /**
+     * Compute the states of the nodes [from, to[ of the layer i from the states of the layer i-1
+     * @param i The layer
+     * @param parents The states of the layer i-1
+     * @param states The states of the layer i
+     * @param from The first node
+     * @param to The last node (excluded)
+     */
+    private void pull(int i, long[] parents, long[] states, int from, int to){
+        int parentStart = mdd.layerStart(i-1), start = mdd.layerStart(i);
+        for(int y = from; y < to; y++) {
+            int c = (y - start) * width;
+            for(int a = inStart[y]; a < inStart[y+1]; a++) {
+                int p = (inSource[a] - parentStart) * width;
+                for(int k = 0; k < kernels.length; k++)
+                    kernels[k].transfer(parents, p + offsets[k], inLabel[a], states, c + offsets[k], a == inStart[y]);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dd.mdd.pmdd;
 
+import dd.frozen.FrozenMDD;
 import dd.interfaces.INode;
 import dd.mdd.MDD;
 import dd.mdd.components.Node;
@@ -7,9 +8,12 @@ import dd.interfaces.IPropertyNode;
 import memory.AllocatorOf;
 import dd.mdd.pmdd.components.PropertyNode;
 import dd.mdd.pmdd.components.properties.NodeProperty;
+import dd.mdd.pmdd.components.properties.PropertyKernel;
+import memory.Memory;
 import structures.generics.MapOf;
 
 import java.util.InputMismatchException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <b>The MDD with added properties.</b> <br>
@@ -88,7 +92,9 @@ public class PMDD extends MDD {
      */
     @Override
     public PMDD DD(){
-        return MDD(Node());
+        PMDD mdd = MDD(Node());
+        mdd.setArcIndexBound(getArcIndexBound());
+        return mdd;
     }
 
     /**
@@ -149,6 +155,59 @@ public class PMDD extends MDD {
         return ((PropertyNode) getTt()).getProperties();
     }
 
+    /**
+     * <b>TOPDOWN PROPAGATION ON ARRAYS</b><br>
+     * Propagate all properties from the root node through the MDD to the tt node, as propagateProperties(true),
+     * without creating any intermediate property : each property of the root is compiled to a PropertyKernel whose
+     * states are stored in primitive arrays, one layer at a time. Only the properties of the tt node are created.
+     * The nodes of the large layers are computed in parallel on the given pool.<br>
+     * If a property can not be compiled (see NodeProperty.kernel), the properties are propagated by propagateProperties().
+     * @param pool The pool computing the large layers, null to compute all the layers in the calling thread
+     * @return The map of name → property of the tt node after the propagation
+     */
+    public MapOf<String, NodeProperty> propagatePropertiesOnArrays(ForkJoinPool pool){
+        PropertyNode root = (PropertyNode) getRoot();
+        if(getTt() == null || getTt() == root || getLayer(size() - 1).size() != 1) return propagateProperties();
+        FrozenMDD frozen = FrozenMDD.create(this);
+        String[] names = new String[root.getProperties().size()];
+        PropertyKernel[] kernels = kernels(root, names, ArrayPropagation.labels(frozen));
+        if(kernels == null) {
+            Memory.free(frozen);
+            return propagateProperties();
+        }
+        long[] state = ArrayPropagation.propagate(frozen, kernels, pool);
+        Memory.free(frozen);
+
+        // The results are created before the properties of the root (that they might share) are freed
+        NodeProperty[] results = new NodeProperty[kernels.length];
+        for(int k = 0, offset = 0; k < kernels.length; offset += kernels[k++].width()) results[k] = kernels[k].result(state, offset);
+        root.clearProperties();
+        PropertyNode tt = (PropertyNode) getTt();
+        tt.clearProperties();
+        for(int k = 0; k < kernels.length; k++) tt.addProperty(names[k], results[k]);
+        return tt.getProperties();
+    }
+
+    /**
+     * Compile the properties of the root to kernels
+     * @param root The root node
+     * @param names The array receiving the name of the property of each kernel
+     * @param labels The sorted labels of the MDD
+     * @return The kernels, null if the labels are too sparse or if a property can not be compiled
+     */
+    private static PropertyKernel[] kernels(PropertyNode root, String[] names, int[] labels){
+        // The labels index dense tables : too sparse labels are left to the objects
+        if(labels.length > 0 && (long) labels[labels.length - 1] - labels[0] > 8L * labels.length + 1024) return null;
+        PropertyKernel[] kernels = new PropertyKernel[names.length];
+        int n = 0;
+        for(String name : root.getProperties().keySet()) {
+            names[n] = name;
+            kernels[n] = root.getProperty(name).kernel(labels);
+            if(kernels[n++] == null) return null;
+        }
+        return kernels;
+    }
+
     /**
      * <b>BOTTOMUP PROPAGATION</b><br>
      * Propagate all properties from the tt node through the MDD to the root node.
@@ -107,6 +107,16 @@ public abstract class NodeProperty implements Allocable {
     }
 
 
+    /**
+     * Compile the property to a PropertyKernel, to propagate it on primitive arrays (see PMDD.propagatePropertiesOnArrays).
+     * @param labels The sorted labels of the arcs of the MDD
+     * @return The kernel of the property, null if the property can not be compiled
+     */
+    public PropertyKernel kernel(int[] labels){
+        return null;
+    }
+
+
     //**************************************//
     //               CHECKERS               //
     //**************************************//
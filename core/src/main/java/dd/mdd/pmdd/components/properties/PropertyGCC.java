@@ -6,6 +6,8 @@ import structures.generics.MapOf;
 import structures.tuples.TupleOfInt;
 import structures.lists.ListOfInt;
 
+import java.util.Arrays;
+
 /**
  * <b>Global Cardinality Constraint (GCC)</b><br>
  * We use an interval to represent the number of time a value is taken : [min, max].
@@ -154,6 +156,64 @@ public class PropertyGCC extends NodeProperty {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * The state of a node is the [min, max] interval of the number of occurrences of each value of the GCC.
+     */
+    @Override
+    public PropertyKernel kernel(int[] labels){
+        int[] values = new int[bounds.size()];
+        long[] initial = new long[2 * values.length];
+        int n = 0;
+        for(int v : bounds) {
+            values[n] = v;
+            initial[2 * n] = currentValues.get(v).getFirst();
+            initial[2 * n + 1] = currentValues.get(v).getSecond();
+            n++;
+        }
+        // Position of each label in the values of the GCC (-1 if the label is not constrained)
+        int low = labels.length == 0 ? 0 : labels[0];
+        int[] index = new int[labels.length == 0 ? 0 : labels[labels.length - 1] - low + 1];
+        Arrays.fill(index, -1);
+        for(int k = 0; k < values.length; k++) if(values[k] >= low && values[k] - low < index.length) index[values[k] - low] = k;
+        MapOf<Integer, TupleOfInt> bounds = this.bounds;
+        return new PropertyKernel() {
+            @Override
+            public int width() {
+                return initial.length;
+            }
+
+            @Override
+            public void root(long[] state, int offset) {
+                System.arraycopy(initial, 0, state, offset, initial.length);
+            }
+
+            @Override
+            public void transfer(long[] parent, int p, int label, long[] child, int c, boolean first) {
+                int hit = index[label - low];
+                for(int k = 0; k < values.length; k++) {
+                    long add = k == hit ? 1 : 0;
+                    long min = parent[p + 2 * k] + add, max = parent[p + 2 * k + 1] + add;
+                    if(first) {
+                        child[c + 2 * k] = min;
+                        child[c + 2 * k + 1] = max;
+                    } else {
+                        if(min < child[c + 2 * k]) child[c + 2 * k] = min;
+                        if(max > child[c + 2 * k + 1]) child[c + 2 * k + 1] = max;
+                    }
+                }
+            }
+
+            @Override
+            public NodeProperty result(long[] state, int offset) {
+                PropertyGCC gcc = PropertyGCC.create(bounds);
+                for(int k = 0; k < values.length; k++) gcc.currentValues.get(values[k]).set((int) state[offset + 2 * k], (int) state[offset + 2 * k + 1]);
+                return gcc;
+            }
+        };
+    }
+
+
     //**************************************//
     //               CHECKERS               //
     //**************************************//
@@ -0,0 +1,65 @@
+package dd.mdd.pmdd.components.properties;
+
+import structures.generics.MapOf;
+
+/**
+ * <b>PropertyKernel</b><br>
+ * A NodeProperty compiled to primitive values, used to propagate the property on arrays instead of objects.
+ * The state of a node is stored in width() consecutive longs of a per-layer array : the propagation
+ * only creates the NodeProperty of the final result.
+ */
+public abstract class PropertyKernel {
+
+    /**
+     * Get the number of longs holding the state of a node
+     * @return The number of longs holding the state of a node
+     */
+    public abstract int width();
+
+    /**
+     * Write the state of the root
+     * @param state The array of states
+     * @param offset The position of the state of the root
+     */
+    public abstract void root(long[] state, int offset);
+
+    /**
+     * Write the transition of the state of a parent with the given label into the state of a child.
+     * The first transition sets the state of the child, the next ones are merged into it.
+     * @param parent The array of states of the parent layer
+     * @param p The position of the state of the parent
+     * @param label The label of the arc
+     * @param child The array of states of the child layer
+     * @param c The position of the state of the child
+     * @param first True if this is the first transition into the child
+     */
+    public abstract void transfer(long[] parent, int p, int label, long[] child, int c, boolean first);
+
+    /**
+     * Create the NodeProperty corresponding to a state
+     * @param state The array of states
+     * @param offset The position of the state
+     * @return The NodeProperty corresponding to the state
+     */
+    public abstract NodeProperty result(long[] state, int offset);
+
+    /**
+     * Compile a label → value map to a dense table covering the given sorted labels
+     * @param bindings The map (null for the identity)
+     * @param labels The sorted labels
+     * @return The table, where the value of the label v is at v - labels[0], null if a label is not bound
+     */
+    static long[] dense(MapOf<Integer, Integer> bindings, int[] labels){
+        if(labels.length == 0) return new long[0];
+        long[] table = new long[labels[labels.length - 1] - labels[0] + 1];
+        for(int v : labels) {
+            if(bindings == null) table[v - labels[0]] = v;
+            else {
+                Integer value = bindings.get(v);
+                if(value == null) return null;
+                table[v - labels[0]] = value;
+            }
+        }
+        return table;
+    }
+}
@@ -149,6 +149,49 @@ public class PropertySum extends NodeProperty {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * The state of a node is its [min, max] interval.
+     */
+    @Override
+    public PropertyKernel kernel(int[] labels){
+        long[] weights = PropertyKernel.dense(bindings, labels);
+        if(weights == null) return null;
+        int first = labels.length == 0 ? 0 : labels[0];
+        int min = value.getFirst(), max = value.getSecond();
+        MapOf<Integer, Integer> bindings = this.bindings;
+        return new PropertyKernel() {
+            @Override
+            public int width() {
+                return 2;
+            }
+
+            @Override
+            public void root(long[] state, int offset) {
+                state[offset] = min;
+                state[offset + 1] = max;
+            }
+
+            @Override
+            public void transfer(long[] parent, int p, int label, long[] child, int c, boolean initial) {
+                long w = weights[label - first];
+                if(initial) {
+                    child[c] = parent[p] + w;
+                    child[c + 1] = parent[p + 1] + w;
+                } else {
+                    child[c] = Math.min(child[c], parent[p] + w);
+                    child[c + 1] = Math.max(child[c + 1], parent[p + 1] + w);
+                }
+            }
+
+            @Override
+            public NodeProperty result(long[] state, int offset) {
+                return PropertySum.create((int) state[offset], (int) state[offset + 1], bindings);
+            }
+        };
+    }
+
+
     //**************************************//
     //           MEMORY FUNCTIONS           //
     //**************************************//
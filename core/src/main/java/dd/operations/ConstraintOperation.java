@@ -1,6 +1,7 @@
 package dd.operations;
 
 import builder.MDDBuilder;
+import builder.constraints.WidthLimit;
 import builder.constraints.parameters.*;
 import builder.constraints.states.*;
 import dd.DecisionDiagram;
@@ -9,8 +10,9 @@ import dd.interfaces.IStateNode;
 import dd.mdd.MDD;
 import dd.mdd.components.StateNode;
 import memory.Memory;
-import structures.Binder;
 import structures.Domains;
+import structures.StateTable;
+import structures.TupleTable;
 import structures.arrays.ArrayOfDouble;
 import structures.arrays.ArrayOfLong;
 import structures.generics.MapOf;
@@ -255,11 +257,25 @@ public class ConstraintOperation {
      * @param relaxation True if you perform a relaxation on the constraint, false otherwise
      */
     public static void intersection(DecisionDiagram result, DecisionDiagram mdd, IStateNode constraint, boolean relaxation){
+        intersection(result, mdd, constraint, relaxation, null);
+    }
+
+    /**
+     * Perform the intersection operation between the given mdd and the given constraint, bounding the width of the layers.
+     * A node can only be merged with a node associated with the same node of the mdd.
+     * @param result The MDD that will store the result
+     * @param mdd The MDD on which to perform the operation
+     * @param constraint The PNode containing the constraint (= root node of the constraint)
+     * @param relaxation True if you perform a relaxation on the constraint, false otherwise
+     * @param width The bound on the width of the layers (relaxed or restricted), null if the width is not bounded
+     */
+    public static void intersection(DecisionDiagram result, DecisionDiagram mdd, IStateNode constraint, boolean relaxation, WidthLimit width){
         result.setSize(mdd.size());
         result.getRoot().associate(mdd.getRoot(), constraint);
 
-        Binder binder = Binder.create();
+        TupleTable binder = TupleTable.create(2);
         HashMap<String, IStateNode> bindings = new HashMap<>();
+        StateTable table = StateTable.create();
         SetOfNode<IStateNode> currentNodesConstraint = Memory.SetOfStateNode(),
                 nextNodesConstraint = Memory.SetOfStateNode(),
                 tmp;
@@ -275,13 +291,16 @@ public class ConstraintOperation {
                     NodeState state = x2.getState();
                     if(state.isValid(value, i, mdd.size())) {
                         if(!x2.containsLabel(value)) {
-                            String hash = state.signature(value, i, mdd.size());
-                            IStateNode y2 = bindings.get(hash);
+                            String hash = null;
+                            IStateNode y2;
+                            if(state.signature(value, i, mdd.size(), table.key())) y2 = table.get();
+                            else y2 = bindings.get(hash = state.signature(value, i, mdd.size()));
                             if (y2 == null) {
                                 y2 = x2.Node();
                                 node_constraint++;
                                 y2.setState(state.createState(value, i, mdd.size()));
-                                bindings.put(hash, y2);
+                                if(hash == null) table.put(y2);
+                                else bindings.put(hash, y2);
                                 nextNodesConstraint.add(y2);
                             } else if(relaxation) y2.getState().merge(state, value, i, result.size());
                             x2.addChild(value, y2);
@@ -290,6 +309,7 @@ public class ConstraintOperation {
                     }
                 }
             }
+            if(width != null) width.apply(result, i, nextNodesConstraint);
             for(INode node : currentNodesConstraint) Memory.free(node);
             currentNodesConstraint.clear();
             tmp = currentNodesConstraint;
@@ -298,10 +318,12 @@ public class ConstraintOperation {
 
             binder.clear();
             bindings.clear();
+            table.clear();
         }
         Memory.free(currentNodesConstraint);
         Memory.free(nextNodesConstraint);
         Memory.free(binder);
+        Memory.free(table);
 
         Logger.out.information("\rNodes constructed : " + node_constraint + "\n");
     }
@@ -312,6 +334,7 @@ public class ConstraintOperation {
         result.getRoot().setX1(dd.getRoot());
 
         HashMap<String, IStateNode> bindings = new HashMap<>();
+        StateTable table = StateTable.create();
 
         int node_constraint = 0;
 
@@ -325,14 +348,16 @@ public class ConstraintOperation {
                     if(state.isValid(value, i, dd.size())) {
                         IStateNode child = (IStateNode) node.getChild(value);
                         if(child == null) {
-                            String hash = state.signature(value, i, dd.size());
-                            child = bindings.get(hash);
+                            String hash = null;
+                            if(state.signature(value, i, dd.size(), table.key())) child = table.get();
+                            else child = bindings.get(hash = state.signature(value, i, dd.size()));
                             if (child == null) {
                                 child = stateNode.Node();
                                 node_constraint++;
                                 child.setState(state.createState(value, i, dd.size()));
                                 child.setX1(x1.getChild(value));
-                                bindings.put(hash, child);
+                                if(hash == null) table.put(child);
+                                else bindings.put(hash, child);
                                 result.addNode(child, i);
                             } else if(relaxation) child.getState().merge(state, value, i, result.size());
                         }
@@ -341,7 +366,9 @@ public class ConstraintOperation {
                 }
             }
             bindings.clear();
+            table.clear();
         }
+        Memory.free(table);
         Logger.out.information("\rNodes constructed : " + node_constraint + "\n");
     }
 
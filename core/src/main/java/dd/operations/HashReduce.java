@@ -11,11 +11,24 @@ import structures.lists.UnorderedListOfBinaryNode;
 import structures.lists.UnorderedListOfNode;
 import utils.Logger;
 
+import java.util.Arrays;
+
+/**
+ * <b>The class dedicated to reduce DDs using hash tables.</b> <br>
+ * MDDs are reduced layer by layer, bottom-up, using a hash-consing unique table keyed on the out-going arcs of the nodes.
+ */
 public class HashReduce {
 
-    private final static MapOf<String, UnorderedListOfNode> packs = new MapOf<>(null);
-    private final static MapOf<BinaryNode, Integer> ID = new MapOf<>(null);
-    private final static MapOf<Long, UnorderedListOfBinaryNode> nodes = new MapOf<>(null);
+    // Tables of the calling thread, so that DDs can be reduced on several threads at once
+    private final static ThreadLocal<Tables> localTables = ThreadLocal.withInitial(Tables::new);
+
+    private static final class Tables {
+        // Unique table used to reduce MDDs
+        private Node[] table = new Node[16];
+        private long[] keys = new long[16];
+        private final MapOf<BinaryNode, Integer> ID = new MapOf<>(null);
+        private final MapOf<Long, UnorderedListOfBinaryNode> nodes = new MapOf<>(null);
+    }
 
     public static void reduce(MDD mdd){
         for(int i = mdd.size()-2; i > 0; i--) {
@@ -25,6 +38,7 @@ public class HashReduce {
     }
 
     public static void reduce(BDD bdd){
+        MapOf<BinaryNode, Integer> ID = localTables.get().ID;
         UnorderedListOfBinaryNode L;
         // Assigning each node to an ID
         for(int i = 0; i < bdd.size(); i++) {
@@ -35,7 +49,7 @@ public class HashReduce {
 
         for(int i = bdd.size()-2; i > 0; i--) {
             Logger.out.information("\rReducing layer : " + i);
-            reduceLayer(bdd, i);
+            reduceLayer(bdd, i, ID);
         }
 
         ID.clear();
@@ -45,7 +59,8 @@ public class HashReduce {
     //                 BDDs                 //
     //**************************************//
 
-    private static void reduceLayer(BDD bdd, int layer){
+    private static void reduceLayer(BDD bdd, int layer, MapOf<BinaryNode, Integer> ID){
+        MapOf<Long, UnorderedListOfBinaryNode> nodes = localTables.get().nodes;
         long hash;
         UnorderedListOfBinaryNode L = bdd.getLayer(layer);
         UnorderedListOfBinaryNode removed = UnorderedListOfBinaryNode.create();
@@ -56,7 +71,7 @@ public class HashReduce {
         Memory.free(removed);
 
         for(BinaryNode node : L) {
-            hash = hash(node, L.size());
+            hash = hash(node, ID);
             if(!nodes.contains(hash)) nodes.put(hash, UnorderedListOfBinaryNode.create());
             nodes.get(hash).add(node);
         }
@@ -71,8 +86,10 @@ public class HashReduce {
         nodes.clear();
     }
 
-    private static long hash(BinaryNode node, int layerSize){
-        return (long) ID.get(node.getChild(0)) * layerSize + ID.get(node.getChild(1));
+    // The IDs of the children are bounded by the size of the next layer, not the one of the node's layer :
+    // each ID takes its own 32 bits so that two different couples of children never share a key
+    private static long hash(BinaryNode node, MapOf<BinaryNode, Integer> ID){
+        return ((long) ID.get(node.getChild(0)) << 32) | ID.get(node.getChild(1));
     }
 
 
@@ -80,43 +97,89 @@ public class HashReduce {
     //                 MDDs                 //
     //**************************************//
 
+    /**
+     * Reduce a layer using a hash-consing unique table.
+     * Each node is signed by a 64-bit key computed over its sorted (label, child) arcs, and stored
+     * in an open-addressing table. Nodes sharing the same key are compared arc by arc before being merged,
+     * so that a collision of keys never merges two different nodes.
+     * @param L The layer to reduce
+     */
     private static void reduceLayer(Layer L){
-        String hash;
         UnorderedListOfNode removed = UnorderedListOfNode.create();
         for(Node node : L) {
             if(node.numberOfChildren() == 0) removed.add(node);
             else node.sortChildren();
         }
         for(Node node : removed) L.removeAndFree(node);
-        Memory.free(removed);
+        removed.clear();
 
+        Tables tables = localTables.get();
+        int mask = prepareTable(tables, L.size());
+        Node[] table = tables.table;
+        long[] keys = tables.keys;
         for(Node node : L) {
-            hash = hash(node);
-            if(!packs.contains(hash)) packs.put(hash, UnorderedListOfNode.create());
-            packs.get(hash).add(node);
-        }
-        for (UnorderedListOfNode pack : packs.values()) {
-            Node ALPHA = pack.get(0);
-            for (int m = 1; m < pack.size(); m++) {
-                pack.get(m).replaceReferencesBy(ALPHA);
-                L.removeAndFree(pack.get(m));
+            long key = key(node);
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (table[slot] != null) {
+                if(keys[slot] == key && sameArcs(table[slot], node)) break;
+                slot = (slot + 1) & mask;
             }
-            Memory.free(pack);
+            if(table[slot] == null) {
+                table[slot] = node;
+                keys[slot] = key;
+            } else {
+                node.replaceReferencesBy(table[slot]);
+                removed.add(node);
+            }
+        }
+        for(Node node : removed) L.removeAndFree(node);
+        Memory.free(removed);
+        Arrays.fill(table, 0, mask + 1, null);
+    }
+
+    /**
+     * Ensure the unique table can hold the given number of nodes with a load factor of at most 0.5.
+     * @param tables The tables of the calling thread
+     * @param n The number of nodes to insert
+     * @return The mask of the table (capacity - 1)
+     */
+    private static int prepareTable(Tables tables, int n){
+        int capacity = Integer.highestOneBit(Math.max(n, 1)) << 2;
+        if(tables.table.length < capacity) {
+            tables.table = new Node[capacity];
+            tables.keys = new long[capacity];
+        }
+        return capacity - 1;
+    }
+
+    /**
+     * Compute the 64-bit key of a node from its sorted out-going arcs.
+     * @param node The node
+     * @return The key of the node
+     */
+    static long key(Node node){
+        long key = node.numberOfChildren();
+        for(int i = 0; i < node.numberOfChildren(); i++) {
+            key = (key ^ node.getValue(i)) * 0x9E3779B97F4A7C15L;
+            key = (key ^ node.getChildByIndex(i).allocatedIndex()) * 0xC2B2AE3D27D4EB4FL;
         }
-        packs.clear();
+        return key ^ (key >>> 29);
     }
 
-    private static String hash(Node node){
-        StringBuilder builder = new StringBuilder();
-        builder.append(node.numberOfChildren());
-        builder.append("/");
-        for(int label : node.getChildren()) {
-            builder.append(label);
-            builder.append(",");
-            builder.append(node.getChild(label).allocatedIndex());
-            builder.append(";");
+    /**
+     * Check if the two nodes have exactly the same out-going arcs.
+     * Both nodes must have their children sorted.
+     * @param n1 The first node
+     * @param n2 The second node
+     * @return true if the two nodes have the same out-going arcs, false otherwise
+     */
+    static boolean sameArcs(Node n1, Node n2){
+        if(n1.numberOfChildren() != n2.numberOfChildren()) return false;
+        for(int i = 0; i < n1.numberOfChildren(); i++) {
+            if(n1.getValue(i) != n2.getValue(i)) return false;
+            if(n1.getChildByIndex(i) != n2.getChildByIndex(i)) return false;
         }
-        return builder.toString();
+        return true;
     }
 
 }
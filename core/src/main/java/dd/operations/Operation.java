@@ -6,16 +6,32 @@ import dd.DecisionDiagram;
 import dd.interfaces.INode;
 import dd.mdd.MDD;
 import dd.mdd.components.Node;
+import memory.AllocatorOf;
 import memory.Memory;
-import structures.Binder;
+import structures.TupleTable;
 import structures.arrays.ArrayOfNodeInterface;
 import structures.arrays.ArrayOfBoolean;
 import structures.arrays.ArrayOfMDD;
 import structures.generics.CollectionOf;
 import structures.generics.SetOf;
+import structures.lists.UnorderedListOfNodeInterface;
 import structures.successions.SuccessionOfNodeInterface;
 import utils.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * <b>The class dedicated to perform classical operation on and between MDDs</b>
  */
@@ -25,6 +41,41 @@ public class Operation {
         UNION, INTERSECTION, DIAMOND, MINUS, INCLUSION
     }
 
+    // Threads used to perform binary operations, replaced as a whole by setParallelism
+    private static final AtomicReference<Workers> currentWorkers = new AtomicReference<>(new Workers(1));
+    // Minimum number of nodes in a layer for it to be processed in parallel
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    /**
+     * Set the number of threads used to perform binary operations between MDDs.<br>
+     * When greater than 1, the nodes of each (large enough) layer are partitioned across the threads of a ForkJoinPool.
+     * The threads only read the operands : the nodes and arcs of the result are created by the calling thread,
+     * so that all allocations stay in the allocators of the calling thread.<br>
+     * The operations running while the parallelism changes keep the previous pool, which is shut down once they are done.
+     * @param threads The number of threads (1 to perform the operations sequentially)
+     */
+    public static void setParallelism(int threads){
+        if(threads < 1) threads = 1;
+        if(currentWorkers.get().parallelism == threads) return;
+        currentWorkers.getAndSet(new Workers(threads)).retire();
+    }
+
+    /**
+     * Get the number of threads used to perform binary operations between MDDs.
+     * @return The number of threads used to perform binary operations
+     */
+    public static int getParallelism(){
+        return currentWorkers.get().parallelism;
+    }
+
+    /**
+     * Get the number of layers built in parallel with the current pool
+     * @return The number of layers built in parallel since the last change of parallelism
+     */
+    static long getParallelLayers(){
+        return currentWorkers.get().layers.sum();
+    }
+
     //**************************************//
     //           UNARY OPERATIONS           //
     //**************************************//
@@ -146,7 +197,7 @@ public class Operation {
 
         // Normal intersection
         SetOf<Integer> V = Memory.SetOfInteger();
-        Binder binder = Binder.create();
+        TupleTable binder = TupleTable.create(2);
 
         // Construction of V
         // V.add(mdd1.getV());
@@ -367,8 +418,31 @@ public class Operation {
      * @return The MDD resulting from the operation
      */
     private static DecisionDiagram perform(DecisionDiagram result, INode root1, INode root2, int size, SuccessionRule rule, Operator OP){
+        boolean parallel = OP != Operator.INCLUSION && !inPool()
+                && root1 instanceof Node && (root2 == null || root2 instanceof Node)
+                && (rule == SuccessionRule.INTERSECTION || rule == SuccessionRule.UNION);
+        if(!parallel) return perform(result, root1, root2, size, rule, OP, null);
+        Workers workers = Workers.acquire();
+        try {
+            return perform(result, root1, root2, size, rule, OP, workers.parallelism > 1 ? workers : null);
+        } finally {
+            workers.release();
+        }
+    }
+
+    /**
+     * @param result The DD that will contain the result of the operation
+     * @param root1 The root node of the first MDD
+     * @param root2 The root node of the second MDD
+     * @param size The size of the MDD result
+     * @param rule The succession rule
+     * @param OP The type of operation
+     * @param workers The threads building the large layers, null to build all the layers sequentially
+     * @return The MDD resulting from the operation
+     */
+    private static DecisionDiagram perform(DecisionDiagram result, INode root1, INode root2, int size, SuccessionRule rule, Operator OP, Workers workers){
         result.setSize(size);
-        Binder binder = Binder.create();
+        TupleTable binder = TupleTable.create(2);
 
         CollectionOf<Integer> successors = rule.getCollection();
 
@@ -376,7 +450,10 @@ public class Operation {
 
         for(int i = 1; i < size; i++){
             Logger.out.information("\rLAYER " + i);
-            for(INode x : result.iterateOnLayer(i-1)){
+            if(workers != null && result.getLayerSize(i-1) >= PARALLEL_THRESHOLD) {
+                performParallel(workers, result, i, rule == SuccessionRule.INTERSECTION, OP, i == size - 1);
+            }
+            else for(INode x : result.iterateOnLayer(i-1)){
                 INode x1 = x.getX1(), x2 = x.getX2();
                 INode y1, y2;
                 for(int v : rule.successors(successors, i-1, x)){
@@ -394,8 +471,18 @@ public class Operation {
             if(result.getLayerSize(i) == 0) {
                 binder.clear();
                 Memory.free(binder);
+                Memory.free(successors);
                 if (OP == Operator.INCLUSION) return null;
-                if (OP != Operator.MINUS) result.setSize(i);
+                // No path reaches the last layer : the result keeps its size and has no solution,
+                // as for the n-ary operations (truncating it would turn the dead ends into solutions).
+                // All the nodes above the empty layer are dead ends : they are removed bottom-up
+                UnorderedListOfNodeInterface removed = UnorderedListOfNodeInterface.create();
+                for(int j = i - 1; j > 0; j--) {
+                    for(INode node : result.iterateOnLayer(j)) removed.add(node);
+                    for(INode node : removed) result.removeNode(node, j);
+                    removed.clear();
+                }
+                Memory.free(removed);
                 result.reduce();
                 return result;
             }
@@ -408,6 +495,272 @@ public class Operation {
         return result;
     }
 
+    /**
+     * Build the layer i of the result of a binary operation in parallel.<br>
+     * The nodes of the layer i-1 are partitioned across the threads, each thread computing the arcs going out of its nodes.
+     * Then the couples (y1, y2) are partitioned by hash across the threads, each thread giving a unique id to its couples.
+     * Finally, the calling thread creates one node per couple and adds the arcs.
+     * @param workers The threads building the layer
+     * @param result The DD that will contain the result of the operation
+     * @param i The index of the layer to build
+     * @param intersectionRule true if the successors are the labels of the first node, false if they are the labels of both nodes
+     * @param OP The type of operation
+     * @param isFinalLayer Whether the given layer is the final one
+     */
+    private static void performParallel(Workers workers, DecisionDiagram result, int i, boolean intersectionRule, Operator OP, boolean isFinalLayer){
+        int parallelism = workers.parallelism;
+        INode[] sources = new INode[result.getLayerSize(i-1)];
+        int n = 0;
+        for(INode x : result.iterateOnLayer(i-1)) sources[n++] = x;
+
+        // Compute the arcs of each chunk of nodes
+        int nChunks = Math.min(parallelism * 4, sources.length);
+        ArcBuffer[] buffers = new ArcBuffer[nChunks];
+        List<Callable<Void>> tasks = new ArrayList<>(nChunks);
+        for(int c = 0; c < nChunks; c++) {
+            ArcBuffer buffer = new ArcBuffer();
+            buffers[c] = buffer;
+            int from = (int) ((long) c * sources.length / nChunks), to = (int) ((long) (c+1) * sources.length / nChunks);
+            tasks.add(() -> {
+                for(int k = from; k < to; k++) buffer.compute(sources[k], intersectionRule, OP, isFinalLayer);
+                return null;
+            });
+        }
+        workers.invokeAll(tasks);
+
+        // Give an id to each couple (y1, y2), each thread being in charge of a partition of the couples
+        PairTable[] tables = new PairTable[parallelism];
+        tasks.clear();
+        for(int p = 0; p < parallelism; p++) {
+            PairTable table = new PairTable();
+            tables[p] = table;
+            int partition = p;
+            tasks.add(() -> {
+                for(ArcBuffer buffer : buffers) {
+                    for(int k = 0; k < buffer.size; k++) {
+                        if(Math.floorMod(buffer.hash[k], parallelism) == partition) buffer.id[k] = table.id(buffer.y1[k], buffer.y2[k], buffer.hash[k]);
+                    }
+                }
+                return null;
+            });
+        }
+        workers.invokeAll(tasks);
+
+        // Create the nodes and the arcs
+        INode prototype = sources[0];
+        for(PairTable table : tables) {
+            table.nodes = new INode[table.size];
+            for(int id = 0; id < table.size; id++) {
+                INode y = prototype.Node();
+                y.associate(table.y1[id], table.y2[id]);
+                result.addNode(y, i);
+                table.nodes[id] = y;
+            }
+        }
+        for(ArcBuffer buffer : buffers) {
+            for(int k = 0; k < buffer.size; k++) {
+                INode y = tables[Math.floorMod(buffer.hash[k], parallelism)].nodes[buffer.id[k]];
+                result.addArc(buffer.source[k], buffer.label[k], y, i-1);
+            }
+        }
+        workers.layers.increment();
+    }
+
+    /**
+     * Check if the calling thread is a thread of a pool of Operation. The layers are then built sequentially :
+     * the pool is already busy with the independent operations of an n-ary intersection.
+     * @return true if the calling thread is a thread of the pool, false otherwise
+     */
+    private static boolean inPool(){
+        return Thread.currentThread() instanceof Worker;
+    }
+
+    /**
+     * <b>The thread of a pool of Operation.</b><br>
+     * Tells the operations running on the pool apart from the ones running on another ForkJoinPool.
+     */
+    private static final class Worker extends ForkJoinWorkerThread {
+        private Worker(ForkJoinPool pool){
+            super(pool);
+        }
+    }
+
+    /**
+     * <b>The pool of threads of a given parallelism.</b><br>
+     * Each operation acquires the current pool and keeps it until it is done. A pool replaced by setParallelism
+     * is retired : it is shut down as soon as the last operation using it releases it.
+     */
+    private static final class Workers {
+        private final int parallelism;
+        private final ForkJoinPool pool;
+        // Number of operations using the pool
+        private final AtomicInteger users = new AtomicInteger();
+        // Number of layers built in parallel
+        private final LongAdder layers = new LongAdder();
+        private volatile boolean retired;
+
+        private Workers(int parallelism){
+            this.parallelism = parallelism;
+            this.pool = parallelism > 1 ? new ForkJoinPool(parallelism, Worker::new, null, false) : null;
+        }
+
+        /**
+         * Get the current pool, that will not be shut down before it is released
+         * @return The current pool
+         */
+        private static Workers acquire(){
+            while (true) {
+                Workers current = currentWorkers.get();
+                current.users.incrementAndGet();
+                // The pool might have been retired before being acquired : take the new one
+                if(!current.retired) return current;
+                current.release();
+            }
+        }
+
+        /**
+         * Release the pool, shutting it down if it is retired and no longer used
+         */
+        private void release(){
+            if(users.decrementAndGet() == 0 && retired && pool != null) pool.shutdown();
+        }
+
+        /**
+         * Retire the pool : it is shut down once no operation uses it
+         */
+        private void retire(){
+            retired = true;
+            if(users.get() == 0 && pool != null) pool.shutdown();
+        }
+
+        /**
+         * Run all the tasks in the pool and wait for their completion.
+         * @param tasks The tasks to run
+         */
+        private void invokeAll(List<Callable<Void>> tasks){
+            try {
+                for(Future<Void> future : pool.invokeAll(tasks)) future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * <b>The arcs computed by a thread during a parallel operation.</b><br>
+     * Only primitive arrays and plain references are used, so that the threads never touch the allocators.
+     */
+    private static final class ArcBuffer {
+        private INode[] source = new INode[64], y1 = new INode[64], y2 = new INode[64];
+        private int[] label = new int[64], hash = new int[64], id = new int[64];
+        private int size;
+
+        /**
+         * Compute all arcs going out of the given node
+         * @param x The source node
+         * @param intersectionRule true if the successors are the labels of the first node only
+         * @param OP The type of operation
+         * @param isFinalLayer Whether the layer of the children is the final one
+         */
+        private void compute(INode x, boolean intersectionRule, Operator OP, boolean isFinalLayer){
+            Node x1 = (Node) x.getX1(), x2 = (Node) x.getX2();
+            if(x1 != null) for(int idx = 0; idx < x1.numberOfChildren(); idx++) {
+                add(x, x1.getValue(idx), x1, x2, OP, isFinalLayer);
+            }
+            if(intersectionRule || x2 == null) return;
+            for(int idx = 0; idx < x2.numberOfChildren(); idx++) {
+                int v = x2.getValue(idx);
+                if(x1 == null || !x1.containsLabel(v)) add(x, v, x1, x2, OP, isFinalLayer);
+            }
+        }
+
+        /**
+         * Add the arc with the given label if the operator accepts it
+         * @param x The source node
+         * @param v The label of the arc
+         * @param x1 The first node associated to the source node
+         * @param x2 The second node associated to the source node
+         * @param OP The type of operation
+         * @param isFinalLayer Whether the layer of the children is the final one
+         */
+        private void add(INode x, int v, Node x1, Node x2, Operator OP, boolean isFinalLayer){
+            boolean a1 = x1 != null && x1.containsLabel(v);
+            boolean a2 = x2 != null && x2.containsLabel(v);
+            if(!apply(a1, a2, OP, isFinalLayer)) return;
+            if(size == source.length) expand();
+            source[size] = x;
+            label[size] = v;
+            y1[size] = x1 == null ? null : x1.getChild(v);
+            y2[size] = x2 == null ? null : x2.getChild(v);
+            hash[size] = PairTable.hash(y1[size], y2[size]);
+            size++;
+        }
+
+        private void expand(){
+            int capacity = source.length * 2;
+            source = Arrays.copyOf(source, capacity);
+            y1 = Arrays.copyOf(y1, capacity);
+            y2 = Arrays.copyOf(y2, capacity);
+            label = Arrays.copyOf(label, capacity);
+            hash = Arrays.copyOf(hash, capacity);
+            id = Arrays.copyOf(id, capacity);
+        }
+    }
+
+    /**
+     * <b>Open-addressing table binding a couple of nodes (compared by reference) to a unique id.</b>
+     */
+    private static final class PairTable {
+        private INode[] y1 = new INode[64], y2 = new INode[64];
+        private int[] ids = new int[128];
+        private INode[] nodes;
+        private int size;
+
+        private static int hash(INode y1, INode y2){
+            int h = System.identityHashCode(y1) * 0x9E3779B9 + System.identityHashCode(y2);
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * Get the id of the given couple, giving it a new id if the couple is not in the table yet
+         * @param a The first node
+         * @param b The second node
+         * @param hash The hash of the couple
+         * @return The id of the couple
+         */
+        private int id(INode a, INode b, int hash){
+            if(2 * (size + 1) > ids.length) rehash();
+            int mask = ids.length - 1;
+            int slot = hash & mask;
+            while (ids[slot] != 0) {
+                int id = ids[slot] - 1;
+                if(y1[id] == a && y2[id] == b) return id;
+                slot = (slot + 1) & mask;
+            }
+            if(size == y1.length) {
+                y1 = Arrays.copyOf(y1, size * 2);
+                y2 = Arrays.copyOf(y2, size * 2);
+            }
+            y1[size] = a;
+            y2[size] = b;
+            ids[slot] = ++size;
+            return size - 1;
+        }
+
+        private void rehash(){
+            ids = new int[ids.length * 2];
+            int mask = ids.length - 1;
+            for(int id = 0; id < size; id++) {
+                int slot = hash(y1[id], y2[id]) & mask;
+                while (ids[slot] != 0) slot = (slot + 1) & mask;
+                ids[slot] = id + 1;
+            }
+        }
+    }
+
     /**
      * @param result The MDD that will contain the result of the operation
      * @param mdd1 The first MDD
@@ -447,24 +800,20 @@ public class Operation {
      * @param binder The binder
      * @return The node added
      */
-    public static INode addArcAndNode(DecisionDiagram mdd, INode x, INode y1, INode y2, int label, int layer, Binder binder){
+    public static INode addArcAndNode(DecisionDiagram mdd, INode x, INode y1, INode y2, int label, int layer, TupleTable binder){
         INode y;
         if(binder == null){
             y = x.Node();
             y.associate(y1, y2);
             mdd.addNode(y, layer);
         } else {
-            ArrayOfNodeInterface nodes = ArrayOfNodeInterface.create(2);
-            nodes.set(0, y1); nodes.set(1, y2);
-            Binder lastBinder = binder.path(nodes);
-            y = lastBinder.getLeaf();
+            y = binder.get(y1, y2);
             if (y == null) {
                 y = x.Node();
                 y.associate(y1, y2);
-                lastBinder.setLeaf(y);
+                binder.put(y);
                 mdd.addNode(y, layer);
             }
-            Memory.free(nodes);
         }
         mdd.addArc(x, label, y, layer-1);
         return y;
@@ -524,6 +873,112 @@ public class Operation {
         return perform(result, mdds, Operator.INTERSECTION);
     }
 
+    /**
+     * Perform the intersection of multiple MDDs as a balanced tree of binary intersections.
+     * Create a new MDD to stock the result.
+     * @param mdds The array of all MDDs
+     * @return the intersection of all the MDDs.
+     */
+    public static MDD intersectionTree(ArrayOfMDD mdds){
+        return intersectionTree(mdds.get(0).DD(), mdds);
+    }
+
+    /**
+     * Perform the intersection of multiple MDDs as a balanced tree of binary intersections.<br>
+     * The MDDs are sorted by number of nodes, so that each intersection is performed between MDDs of similar size,
+     * and each intermediate result is reduced before being used. The operation stops as soon as an intermediate
+     * result is empty. When the parallelism is greater than 1 and the allocators are in concurrent mode
+     * (see Memory.setConcurrent), the independent intersections are performed on the ForkJoinPool ;
+     * otherwise they are performed by the calling thread. The given MDDs are not modified.
+     * @param result The MDD that will stock the result of the operation
+     * @param mdds The array of all MDDs
+     * @return the intersection of all the MDDs.
+     */
+    public static MDD intersectionTree(MDD result, ArrayOfMDD mdds){
+        if(mdds.length == 1) return mdds.get(0).copy(result);
+        MDD[] sorted = new MDD[mdds.length];
+        for(int i = 0; i < sorted.length; i++) sorted[i] = mdds.get(i);
+        Arrays.sort(sorted, (mdd1, mdd2) -> Integer.compare(mdd1.nodes(), mdd2.nodes()));
+
+        boolean parallel = AllocatorOf.isConcurrent() && !inPool();
+        Workers workers = parallel ? Workers.acquire() : null;
+        IntersectionTask task;
+        try {
+            parallel = parallel && workers.parallelism > 1;
+            task = new IntersectionTask(result, sorted, 0, sorted.length, parallel, new AtomicBoolean());
+            if(parallel) workers.pool.invoke(task);
+            else task.invoke();
+        } finally {
+            if(workers != null) workers.release();
+        }
+        if(task.empty.get()) result.setSize(sorted[0].size());
+        return result;
+    }
+
+    /**
+     * Check if the result of an intersection is empty
+     * @param mdd The result of the intersection
+     * @param size The size of the operands
+     * @return true if the MDD has no solution, false otherwise
+     */
+    private static boolean isEmpty(MDD mdd, int size){
+        return mdd.size() != size || mdd.getLayerSize(size - 1) == 0;
+    }
+
+    /**
+     * <b>Intersection of the MDDs from..to-1, splitting the range in two halves.</b><br>
+     * Returns the operand itself when the range has one MDD, null when an empty intermediate result has been found.
+     */
+    @SuppressWarnings("serial")
+    private static final class IntersectionTask extends RecursiveTask<MDD> {
+        private final MDD target;
+        private final MDD[] mdds;
+        private final int from, to;
+        private final boolean parallel;
+        private final AtomicBoolean empty;
+
+        private IntersectionTask(MDD target, MDD[] mdds, int from, int to, boolean parallel, AtomicBoolean empty){
+            this.target = target;
+            this.mdds = mdds;
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+            this.empty = empty;
+        }
+
+        @Override
+        protected MDD compute() {
+            if(to - from == 1) return mdds[from];
+            int middle = (from + to) >>> 1;
+            IntersectionTask left = new IntersectionTask(null, mdds, from, middle, parallel, empty);
+            IntersectionTask right = new IntersectionTask(null, mdds, middle, to, parallel, empty);
+            MDD mdd1, mdd2;
+            if(parallel) {
+                right.fork();
+                mdd1 = left.compute();
+                mdd2 = right.join();
+            } else {
+                mdd1 = left.compute();
+                mdd2 = empty.get() ? null : right.compute();
+            }
+
+            MDD result = null;
+            if(mdd1 != null && mdd2 != null && !empty.get()) {
+                result = target == null ? mdd1.DD() : target;
+                perform(result, mdd1, mdd2, Operator.INTERSECTION);
+                if(isEmpty(result, mdds[from].size())) empty.set(true);
+            }
+            // Intermediate results
+            if(mdd1 != null && middle - from > 1) Memory.free(mdd1);
+            if(mdd2 != null && to - middle > 1) Memory.free(mdd2);
+            if(empty.get() && result != null && result != target) {
+                Memory.free(result);
+                return null;
+            }
+            return result;
+        }
+    }
+
     /**
      * Check if an arc must be created, given the different inputs.
      * @param a Existence of the arc in the different MDDs
@@ -564,7 +1019,7 @@ public class Operation {
         // Allocations : Need to be free
         ArrayOfNodeInterface ys = ArrayOfNodeInterface.create(mdds.length());
         ArrayOfBoolean a = ArrayOfBoolean.create(mdds.length());
-        Binder binder = Binder.create();
+        TupleTable binder = TupleTable.create(mdds.length());
         //
 
         if(OP != Operator.INTERSECTION && OP != Operator.UNION) {
@@ -618,19 +1073,18 @@ public class Operation {
      * @param layer index of the layer where the node will be added
      * @param binder The binder
      */
-    public static void addArcAndNode(MDD mdd, Node x, ArrayOfNodeInterface ys, int label, int layer, Binder binder){
+    public static void addArcAndNode(MDD mdd, Node x, ArrayOfNodeInterface ys, int label, int layer, TupleTable binder){
         INode y;
         if(binder == null){
             y = Node.create();
             y.associate(ys);
             mdd.addNode(y, layer);
         } else {
-            Binder lastBinder = binder.path(ys);
-            y = lastBinder.getLeaf();
+            y = binder.get(ys);
             if (y == null) {
                 y = mdd.Node();
                 y.associate(ys);
-                lastBinder.setLeaf(y);
+                binder.put(y);
                 mdd.addNode(y, layer);
             }
         }
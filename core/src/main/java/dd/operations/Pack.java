@@ -21,13 +21,18 @@ public class Pack implements Allocable {
     // Index in Memory
     private final int allocatedIndex;
 
-    static private final HashMap<Integer, UnorderedListOfNode> Va = new HashMap<>();
-    static private final HashMap<Node, UnorderedListOfNode> Na = new HashMap<>();
-    static private final UnorderedListOfNode Nlist = UnorderedListOfNode.create();
-    static private final UnorderedListOfInt Vlist = UnorderedListOfInt.create();
-    static private final Queue<Pack> Q = new LinkedList<>();
-    static private final ArrayList<Node> M = new ArrayList<>();
-    static private ListOfLayer LAYERS;
+    // Tables of the calling thread, so that DDs can be reduced on several threads at once
+    static private final ThreadLocal<Tables> localTables = ThreadLocal.withInitial(Tables::new);
+
+    private static final class Tables {
+        private final HashMap<Integer, UnorderedListOfNode> Va = new HashMap<>();
+        private final HashMap<Node, UnorderedListOfNode> Na = new HashMap<>();
+        private final UnorderedListOfNode Nlist = UnorderedListOfNode.create();
+        private final UnorderedListOfInt Vlist = UnorderedListOfInt.create();
+        private final Queue<Pack> Q = new LinkedList<>();
+        private final ArrayList<Node> M = new ArrayList<>();
+        private ListOfLayer LAYERS;
+    }
 
     private int pos, l;
     private final UnorderedListOfNode nodes = UnorderedListOfNode.create();
@@ -101,30 +106,32 @@ public class Pack implements Allocable {
      * @param V Values to consider when performing reduction
      */
     static public void pReduce(ListOfLayer L, int size, SetOf<Integer> V){
-        Va.clear();
-        for(int v : V) Va.put(v, UnorderedListOfNode.create());
-        Na.clear();
-        Vlist.clear();
-        Nlist.clear();
-        LAYERS = L;
+        Tables t = localTables.get();
+        t.Va.clear();
+        for(int v : V) t.Va.put(v, UnorderedListOfNode.create());
+        t.Na.clear();
+        t.Vlist.clear();
+        t.Nlist.clear();
+        t.LAYERS = L;
         for(int i = size-2; i > 0; i--) {
             Logger.out.information("\rReducing layer : " + i);
-            reduceLayer(L.get(i), i);
+            reduceLayer(t, L.get(i), i);
         }
 
         Logger.out.information("\rDone reducing\t\t\t\t\t");
 
-        for(UnorderedListOfNode nodes : Va.values()) Memory.free(nodes);
-        for(UnorderedListOfNode nodes : Na.values()) Memory.free(nodes);
-        LAYERS = null;
+        for(UnorderedListOfNode nodes : t.Va.values()) Memory.free(nodes);
+        for(UnorderedListOfNode nodes : t.Na.values()) Memory.free(nodes);
+        t.LAYERS = null;
     }
 
     /**
      * Reduce a layer
+     * @param t Tables of the calling thread
      * @param L Layer
      * @param i Depth of the layer
      */
-    static private void reduceLayer(Layer L, int i){
+    static private void reduceLayer(Tables t, Layer L, int i){
         UnorderedListOfNode removed = UnorderedListOfNode.create();
         for(Node node : L) {
             if(node.numberOfChildren() == 0) removed.add(node);
@@ -134,57 +141,58 @@ public class Pack implements Allocable {
         Memory.free(removed);
         Pack p = Pack.create(0, i, L);
 
-        Q.clear();
-        reducePack(p);
+        t.Q.clear();
+        reducePack(t, p);
 
-        while(!Q.isEmpty()){
-            p = Q.poll();
-            reducePack(p);
+        while(!t.Q.isEmpty()){
+            p = t.Q.poll();
+            reducePack(t, p);
             Memory.free(p);
         }
     }
 
     /**
      * Reduce nodes in the pack
+     * @param t Tables of the calling thread
      * @param p Pack
      */
-    static private void reducePack(Pack p){
+    static private void reducePack(Tables t, Pack p){
         int i = p.pos;
-        M.clear();
+        t.M.clear();
         for(Node x : p.nodes){
             int v = x.getValue(i);
-            if(Va.get(v).size() == 0) Vlist.add(v);
-            Va.get(v).add(x);
+            if(t.Va.get(v).size() == 0) t.Vlist.add(v);
+            t.Va.get(v).add(x);
         }
-        for(int v : Vlist){
-            for(Node x : Va.get(v)){
+        for(int v : t.Vlist){
+            for(Node x : t.Va.get(v)){
                 Node y = x.getChildByIndex(i);
-                if(!Na.containsKey(y)) Na.put(y, UnorderedListOfNode.create());
-                if(Na.get(y).size() == 0) Nlist.add(x.getChild(v));
-                Na.get(y).add(x);
+                if(!t.Na.containsKey(y)) t.Na.put(y, UnorderedListOfNode.create());
+                if(t.Na.get(y).size() == 0) t.Nlist.add(x.getChild(v));
+                t.Na.get(y).add(x);
             }
-            Va.get(v).clear();
-            for(Node y : Nlist){
-                if(Na.get(y).size() > 1){
+            t.Va.get(v).clear();
+            for(Node y : t.Nlist){
+                if(t.Na.get(y).size() > 1){
                     Pack p2 = Pack.create(i+1, p.l, null);
-                    M.clear();
-                    for(Node x : Na.get(y)) if(x.numberOfChildren() == i+1) M.add(x);
-                    if(M.size() > 0) {
-                        for (Node x : M) Na.get(y).removeElement(x);
-                        Node ALPHA = M.get(0);
-                        for (int m = 1; m < M.size(); m++) {
-                            M.get(m).replaceReferencesBy(ALPHA);
-                            LAYERS.get(p.l).removeAndFree(M.get(m));
+                    t.M.clear();
+                    for(Node x : t.Na.get(y)) if(x.numberOfChildren() == i+1) t.M.add(x);
+                    if(t.M.size() > 0) {
+                        for (Node x : t.M) t.Na.get(y).removeElement(x);
+                        Node ALPHA = t.M.get(0);
+                        for (int m = 1; m < t.M.size(); m++) {
+                            t.M.get(m).replaceReferencesBy(ALPHA);
+                            t.LAYERS.get(p.l).removeAndFree(t.M.get(m));
                         }
                     }
-                    p2.add(Na.get(y));
-                    Q.add(p2);
+                    p2.add(t.Na.get(y));
+                    t.Q.add(p2);
                 }
-                Na.get(y).clear();
+                t.Na.get(y).clear();
             }
-            Nlist.clear();
+            t.Nlist.clear();
         }
-        Vlist.clear();
+        t.Vlist.clear();
     }
 
 
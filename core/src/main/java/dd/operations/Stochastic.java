@@ -1,5 +1,6 @@
 package dd.operations;
 
+import dd.frozen.FrozenMDD;
 import dd.mdd.MDD;
 import dd.mdd.components.Node;
 import memory.Memory;
@@ -8,54 +9,51 @@ import structures.arrays.ArrayOfBoolean;
 import structures.arrays.ArrayOfLong;
 import structures.generics.MapOf;
 import structures.tuples.TupleOfInt;
+import utils.ParallelRange;
 import utils.SmallMath;
 
+import java.util.concurrent.ForkJoinPool;
+
 public class Stochastic {
 
     /**
      * Given a MDD and a map associating labels to probabilities (by layer), compute
-     * the probability of the whole MDD.
+     * the probability of the whole MDD.<br>
+     * The values are propagated directly on the nodes of the MDD : nothing is built beforehand. When the same MDD
+     * is queried many times, prefer {@link #probability(FrozenMDD, double[][], int, boolean)} with a FrozenMDD
+     * and tables computed once. The labels absent from a map have a probability of 0.
      * @param mdd The MDD
      * @param P The associations labels → probabilities
      * @param precision The precision of the probabilities
      * @param ceil true if the rounding must be ceil, false if floor
      * @return The probability of the MDD
+     * @throws IllegalArgumentException if there are fewer maps than layers of arcs
      */
     public static double probability(MDD mdd, MapOf<Integer, Double>[] P, int precision, boolean ceil){
         if(mdd.getTt() == null) return 0;
         if(mdd.getTt() == mdd.getRoot()) return 0;
+        checkLayers(P.length, mdd.size());
         MapOf<Node, Double> currentLayer = Memory.MapOfNodeDouble();
         MapOf<Node, Double> next = Memory.MapOfNodeDouble(), tmp;
 
         double divisor = Math.pow(10, precision);
         // First case -> multiplication (so init at *1* NOT 0 !)
         currentLayer.put(mdd.getTt(), divisor);
-        if(ceil) {
-            for (int i = mdd.size() - 2; i >= 0; i--) {
-                for (Node x : mdd.getLayer(i)) {
-                    double sum = 0;
-                    for (int arc : x.getChildren())
-                        sum += SmallMath.multiplyCeil(currentLayer.get(x.getChild(arc)), P[i].get(arc), divisor);
-                    next.put(x, sum);
-                }
-                currentLayer.clear();
-                tmp = currentLayer;
-                currentLayer = next;
-                next = tmp;
-            }
-        } else {
-            for (int i = mdd.size() - 2; i >= 0; i--) {
-                for (Node x : mdd.getLayer(i)) {
-                    double sum = 0;
-                    for (int arc : x.getChildren())
-                        sum += SmallMath.multiplyFloor(currentLayer.get(x.getChild(arc)), P[i].get(arc), divisor);
-                    next.put(x, sum);
+        for (int i = mdd.size() - 2; i >= 0; i--) {
+            for (Node x : mdd.getLayer(i)) {
+                double sum = 0;
+                for (int arc : x.getChildren()) {
+                    Double p = P[i].get(arc);
+                    if(p == null) continue;
+                    double value = currentLayer.get(x.getChild(arc));
+                    sum += ceil ? SmallMath.multiplyCeil(value, p, divisor) : SmallMath.multiplyFloor(value, p, divisor);
                 }
-                currentLayer.clear();
-                tmp = currentLayer;
-                currentLayer = next;
-                next = tmp;
+                next.put(x, sum);
             }
+            currentLayer.clear();
+            tmp = currentLayer;
+            currentLayer = next;
+            next = tmp;
         }
         double result = currentLayer.get(mdd.getRoot()) / divisor;
         Memory.free(currentLayer);
@@ -63,6 +61,106 @@ public class Stochastic {
         return result;
     }
 
+    /**
+     * Given a FrozenMDD and dense tables of probabilities (P[i][label] is the probability of the label in the layer i),
+     * compute the probability of the whole MDD.<br>
+     * The values of the nodes are stored in one array indexed by the ids of the nodes : neither a node
+     * nor a probability is boxed or hashed.
+     * @param mdd The FrozenMDD
+     * @param P The probabilities of the labels, by layer
+     * @param precision The precision of the probabilities
+     * @param ceil true if the rounding must be ceil, false if floor
+     * @return The probability of the MDD
+     * @throws IllegalArgumentException if there are fewer tables than layers of arcs
+     */
+    public static double probability(FrozenMDD mdd, double[][] P, int precision, boolean ceil){
+        return probability(mdd, P, precision, ceil, null);
+    }
+
+    /**
+     * Given a FrozenMDD and dense tables of probabilities (P[i][label] is the probability of the label in the layer i),
+     * compute the probability of the whole MDD.<br>
+     * The nodes of the large layers are split across the threads of the given pool : the value of a node
+     * only depends on the values of the next layer. A label outside of the table of its layer has a probability of 0,
+     * and every node of the last layer is a terminal node (the MDD does not need to be reduced).
+     * @param mdd The FrozenMDD
+     * @param P The probabilities of the labels, by layer
+     * @param precision The precision of the probabilities
+     * @param ceil true if the rounding must be ceil, false if floor
+     * @param pool The pool computing the large layers, null to compute all the layers in the calling thread
+     * @return The probability of the MDD
+     * @throws IllegalArgumentException if there are fewer tables than layers of arcs
+     */
+    public static double probability(FrozenMDD mdd, double[][] P, int precision, boolean ceil, ForkJoinPool pool){
+        int size = mdd.size();
+        if(size < 2 || mdd.getLayerSize(size - 1) == 0) return 0;
+        checkLayers(P.length, size);
+        double[] values = new double[mdd.nodes()];
+        double divisor = Math.pow(10, precision);
+        // First case -> multiplication (so init at *1* NOT 0 !)
+        for(int x = mdd.layerStart(size - 1); x < mdd.layerEnd(size - 1); x++) values[x] = divisor;
+        for(int i = size - 2; i >= 0; i--) {
+            double[] layer = P[i];
+            ParallelRange.compute(pool, mdd.layerStart(i), mdd.layerEnd(i), (from, to) -> propagate(mdd, layer, values, divisor, ceil, from, to));
+        }
+        return values[mdd.root()] / divisor;
+    }
+
+    /**
+     * Check that there is a table of probabilities for each layer of arcs
+     * @param tables The number of tables
+     * @param size The size of the MDD
+     * @throws IllegalArgumentException if there are fewer tables than layers of arcs
+     */
+    private static void checkLayers(int tables, int size){
+        if(tables < size - 1) throw new IllegalArgumentException("Expected the probabilities of " + (size - 1) + " layers, got " + tables);
+    }
+
+    /**
+     * Compute the values of the nodes [from, to[ of a layer from the values of the next layer
+     * @param mdd The FrozenMDD
+     * @param P The probabilities of the labels of the layer
+     * @param values The values of the nodes
+     * @param divisor The divisor corresponding to the precision
+     * @param ceil true if the rounding must be ceil, false if floor
+     * @param from The first node
+     * @param to The last node (excluded)
+     */
+    private static void propagate(FrozenMDD mdd, double[] P, double[] values, double divisor, boolean ceil, int from, int to){
+        for(int x = from; x < to; x++) {
+            double sum = 0;
+            int last = mdd.lastArc(x);
+            for(int arc = mdd.firstArc(x); arc < last; arc++) {
+                int label = mdd.label(arc);
+                // A label outside of the table has a probability of 0
+                if(label < 0 || label >= P.length) continue;
+                sum += ceil ? SmallMath.multiplyCeil(values[mdd.target(arc)], P[label], divisor)
+                        : SmallMath.multiplyFloor(values[mdd.target(arc)], P[label], divisor);
+            }
+            values[x] = sum;
+        }
+    }
+
+    /**
+     * Convert maps associating labels to probabilities (by layer) to dense tables indexed by the labels.
+     * The labels absent from a map have a probability of 0.
+     * @param P The associations labels → probabilities
+     * @return The dense tables : the probability of the label v in the layer i is at [i][v]
+     */
+    public static double[][] probabilities(MapOf<Integer, Double>[] P){
+        double[][] tables = new double[P.length][];
+        for(int i = 0; i < P.length; i++) {
+            int max = -1;
+            for(int label : P[i].keySet()) {
+                if(label < 0) throw new IllegalArgumentException("Negative label " + label + " in the layer " + i);
+                max = Math.max(max, label);
+            }
+            tables[i] = new double[max + 1];
+            for(int label : P[i].keySet()) tables[i][label] = P[i].get(label);
+        }
+        return tables;
+    }
+
     /**
      * Return the maximum quantity of flow that can be put in pivot without going below the threshold.
      * The array X should be ordered by non increasing cost.
@@ -0,0 +1,235 @@
+package dd.operations;
+
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import structures.MDDTable;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <b>The class dedicated to compile sorted tables of tuples into minimal MDDs.</b> <br>
+ * The tuples are added one by one in lexicographic order, and the MDD is minimized on the fly (Daciuk et al.) :
+ * once a tuple diverges from the previous one, the nodes of the previous tuple below the common prefix can no longer
+ * change. Each of them is either replaced by an equivalent node already registered in its layer, or registered.
+ * Only the minimal MDD and the path of the last tuple are in memory : the trie of the table is never built.
+ */
+public class TableCompiler {
+
+    private final MDD mdd;
+    private final int arity;
+    // Nodes and labels of the path of the last tuple added
+    private final Node[] path;
+    private final int[] last;
+    private boolean empty = true;
+    // Nodes registered in each layer, i.e. the nodes of the minimal MDD
+    private final Register[] registers;
+
+    //**************************************//
+    //           INITIALISATION             //
+    //**************************************//
+
+    /**
+     * Create a compiler building the MDD of tuples of given arity into the given MDD.
+     * @param mdd The MDD result (must be empty)
+     * @param arity The size of the tuples
+     */
+    public TableCompiler(MDD mdd, int arity){
+        this.mdd = mdd;
+        this.arity = arity;
+        mdd.setSize(arity + 1);
+        path = new Node[arity + 1];
+        path[0] = mdd.getRoot();
+        last = new int[arity];
+        registers = new Register[arity + 1];
+        for(int i = 1; i <= arity; i++) registers[i] = new Register();
+    }
+
+
+    //**************************************//
+    //             COMPILATION              //
+    //**************************************//
+    // add              || finish
+    // minimize
+
+    /**
+     * Add a tuple to the MDD. The tuples must be added in lexicographic order : a tuple equal to the
+     * previous one is ignored.
+     * @param tuple The tuple
+     * @throws IllegalArgumentException if the tuple is smaller than the previous one or has a wrong size
+     */
+    public void add(int[] tuple){
+        if(tuple.length != arity) throw new IllegalArgumentException("The tuple has " + tuple.length + " values, expected " + arity);
+        int prefix = 0;
+        if(!empty) {
+            while (prefix < arity && tuple[prefix] == last[prefix]) prefix++;
+            if(prefix == arity) return;
+            if(tuple[prefix] < last[prefix]) throw new IllegalArgumentException("The tuples are not sorted : " + Arrays.toString(tuple) + " after " + Arrays.toString(last));
+            minimize(prefix + 1);
+        }
+        for(int i = prefix; i < arity; i++) {
+            Node next = mdd.Node();
+            mdd.addArcAndNode(path[i], tuple[i], next, i+1);
+            path[i+1] = next;
+            last[i] = tuple[i];
+        }
+        empty = false;
+    }
+
+    /**
+     * Minimize the last path and set the terminal node of the MDD.
+     * No tuple can be added afterwards.
+     * @return The minimal MDD
+     */
+    public MDD finish(){
+        if(!empty) minimize(1);
+        mdd.setTT();
+        Arrays.fill(path, null);
+        Arrays.fill(registers, null);
+        return mdd;
+    }
+
+    /**
+     * Replace or register the nodes of the last path, from the bottom to the given depth.
+     * The children of these nodes are already registered, so that equivalent nodes have exactly the same arcs.
+     * @param depth The smallest depth to minimize
+     */
+    private void minimize(int depth){
+        for(int i = arity; i >= depth; i--) {
+            Node node = path[i];
+            node.sortChildren();
+            Node equivalent = registers[i].get(node);
+            if(equivalent == null) registers[i].add(node);
+            else {
+                node.replaceReferencesBy(equivalent);
+                mdd.removeNode(node, i);
+                path[i] = equivalent;
+            }
+        }
+    }
+
+
+    //**************************************//
+    //           STATIC FUNCTIONS           //
+    //**************************************//
+
+    /**
+     * Compile the given <b>SORTED</b> table into the given MDD.
+     * @param mdd The MDD result (must be empty)
+     * @param table The sorted table
+     * @return The minimal MDD of the table
+     */
+    public static MDD compile(MDD mdd, MDDTable table){
+        TableCompiler compiler = new TableCompiler(mdd, table.tupleSize());
+        int[] tuple = new int[table.tupleSize()];
+        for(int row = 0; row < table.numberOfTuples(); row++) {
+            for(int i = 0; i < tuple.length; i++) tuple[i] = table.valueOfIndex(row, i);
+            compiler.add(tuple);
+        }
+        return compiler.finish();
+    }
+
+    /**
+     * Compile the <b>SORTED</b> tuples of the given file into the given MDD, reading the file as a stream.
+     * The file holds one tuple per line, the values being separated by spaces, tabulations or commas.
+     * The empty lines are ignored.
+     * @param mdd The MDD result (must be empty)
+     * @param filename The name of the file
+     * @return True if the operation succeed, false otherwise
+     * @throws IllegalArgumentException if the tuples are not sorted
+     */
+    public static boolean compile(MDD mdd, String filename){
+        TableCompiler compiler = null;
+        int[] tuple = new int[16], row = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int size = 0, i = 0, length = line.length();
+                while (i < length) {
+                    char c = line.charAt(i);
+                    if(c == ' ' || c == '\t' || c == ',') { i++; continue; }
+                    boolean negative = c == '-';
+                    if(negative) i++;
+                    int value = 0, start = i;
+                    while (i < length && Character.isDigit(line.charAt(i))) value = value * 10 + (line.charAt(i++) - '0');
+                    if(i == start || (i < length && " \t,".indexOf(line.charAt(i)) < 0))
+                        throw new IOException("Invalid value in the line : " + line);
+                    if(size == tuple.length) tuple = Arrays.copyOf(tuple, size << 1);
+                    tuple[size++] = negative ? -value : value;
+                }
+                if(size == 0) continue;
+                if(compiler == null) {
+                    compiler = new TableCompiler(mdd, size);
+                    row = new int[size];
+                }
+                if(size != row.length) throw new IOException("The line has " + size + " values, expected " + row.length + " : " + line);
+                System.arraycopy(tuple, 0, row, 0, size);
+                compiler.add(row);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if(compiler == null) return false;
+        compiler.finish();
+        return true;
+    }
+
+
+    //**************************************//
+    //              REGISTER                //
+    //**************************************//
+
+    /**
+     * <b>The nodes registered in one layer.</b><br>
+     * Open-addressing table keyed on the out-going arcs of the nodes (see HashReduce).
+     */
+    private static final class Register {
+        private Node[] table = new Node[16];
+        private long[] keys = new long[16];
+        private int size;
+
+        /**
+         * Get the registered node having the same arcs as the given node
+         * @param node The node (its children must be sorted)
+         * @return The registered node having the same arcs, null if there is none
+         */
+        Node get(Node node){
+            long key = HashReduce.key(node);
+            int mask = table.length - 1;
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (table[slot] != null) {
+                if(keys[slot] == key && HashReduce.sameArcs(table[slot], node)) return table[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Register the node. No node having the same arcs must be registered.
+         * @param node The node (its children must be sorted)
+         */
+        void add(Node node){
+            if(++size << 1 > table.length) grow();
+            insert(node, HashReduce.key(node));
+        }
+
+        private void insert(Node node, long key){
+            int mask = table.length - 1;
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (table[slot] != null) slot = (slot + 1) & mask;
+            table[slot] = node;
+            keys[slot] = key;
+        }
+
+        private void grow(){
+            Node[] oldTable = table;
+            long[] oldKeys = keys;
+            table = new Node[oldTable.length << 1];
+            keys = new long[table.length];
+            for(int i = 0; i < oldTable.length; i++) if(oldTable[i] != null) insert(oldTable[i], oldKeys[i]);
+        }
+    }
+}
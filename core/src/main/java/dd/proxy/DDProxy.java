@@ -7,16 +7,32 @@ import structures.generics.MapOf;
 import structures.lists.ListOfInt;
 import utils.SmallMath;
 import utils.io.MDDReader;
+import utils.io.reader.MDDIndex;
+import utils.io.reader.MDDMappedFile;
 
 import java.io.FileInputStream;
 import java.io.IOException;
-
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <b>Read only DD backed by a top-down .mdd file.</b> <br>
+ * The file is mapped in memory (MDDMappedFile) : opening a DD is immediate whatever the size of the file,
+ * and the nodes are decoded lazily, layer by layer, when their children are requested.
+ * When the file is saved in TOP_DOWN_INDEXED mode, the requested nodes are directly sought using the index.
+ */
 public class DDProxy extends DecisionDiagram {
 
     private final int allocatedIndex;
 
-    // The MDD in byte[]
-    private byte[] DATA;
+    // The mapped file
+    private MDDMappedFile DATA;
+    // The index of the file (null if the file is not indexed)
+    private MDDIndex index;
+    // The index of the layer loaded last
+    private int layer;
 
     // The array of elements
     private byte[][] elements;
@@ -25,8 +41,8 @@ public class DDProxy extends DecisionDiagram {
     private int currentLayerNumber;
     private int nodePosition;
 
-    // The position of the reader in the DATA array
-    private int position;
+    // The position of the reader in the file
+    private long position;
     private int size;
 
     // Map between ProxyNodes and their ID
@@ -40,25 +56,54 @@ public class DDProxy extends DecisionDiagram {
         this.allocatedIndex = allocatedIndex;
     }
 
+    /**
+     * Create a DDProxy over the given file. The file is mapped : it is not read.
+     * @param file The stream of the .mdd file (saved in TOP_DOWN mode)
+     * @return The DDProxy over the given file
+     */
     public static DDProxy create(FileInputStream file){
-        DDProxy proxy = new DDProxy(0);
-
         try {
-            proxy.DATA = file.readAllBytes();
-            proxy.position = 1;
-            // Mode
-            byte b = proxy.DATA[proxy.position++];
-            if(b != MDDReader.TOP_DOWN) throw new IllegalArgumentException("The DD must be top-down defined !");
-            if(proxy.elements == null) proxy.elements = new byte[6][];
-            for(int i = 0; i < proxy.elements.length; i++){
-                b = proxy.DATA[proxy.position++];
-                proxy.elements[i] = new byte[b];
-            }
-            // Skip the size
-            proxy.size = proxy.read(MDDReader.SIZE);
+            return create(file.getChannel());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Create a DDProxy over the given file. The file is mapped : it is not read.
+     * @param filename The name of the .mdd file (saved in TOP_DOWN mode)
+     * @return The DDProxy over the given file
+     */
+    public static DDProxy create(String filename){
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            return create(channel);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
         }
+    }
+
+    /**
+     * Create a DDProxy over the file of the given channel. The mapping stays valid once the channel is closed.
+     * @param channel The channel of the .mdd file (saved in TOP_DOWN mode)
+     * @return The DDProxy over the given file
+     * @throws IOException If the file cannot be mapped
+     */
+    public static DDProxy create(FileChannel channel) throws IOException {
+        DDProxy proxy = new DDProxy(0);
+
+        proxy.DATA = new MDDMappedFile(channel);
+        proxy.position = 1;
+        // Mode
+        byte b = proxy.DATA.get(proxy.position++);
+        if(b != MDDReader.TOP_DOWN && b != MDDReader.TOP_DOWN_INDEXED) throw new IllegalArgumentException("The DD must be top-down defined !");
+        if(b == MDDReader.TOP_DOWN_INDEXED) proxy.index = MDDIndex.read(proxy.DATA);
+        proxy.layer = -1;
+        if(proxy.elements == null) proxy.elements = new byte[7][];
+        for(int i = 0; i < proxy.elements.length; i++){
+            b = proxy.DATA.get(proxy.position++);
+            proxy.elements[i] = new byte[b];
+        }
+        proxy.size = proxy.read(MDDReader.SIZE);
 
         proxy.previousNodes = Memory.MapOfIntegerNodeInterface();
         proxy.nodes = Memory.MapOfIntegerNodeInterface();
@@ -78,7 +123,7 @@ public class DDProxy extends DecisionDiagram {
      * @return The integer corresponding to the asked element.
      */
     private int read(byte element){
-        for(int i = 0; i < elements[element].length; i++) elements[element][i] = DATA[i+position];
+        DATA.read(position, elements[element]);
         position += elements[element].length;
         return SmallMath.bytesToInt(elements[element]);
     }
@@ -90,7 +135,7 @@ public class DDProxy extends DecisionDiagram {
         // MAX_OUT_DEGREE VALUE CHILD_ID
         int max_out_degree = read(MDDReader.MAX_OUT_DEGREE);
         // Skip all children
-        position += max_out_degree*(elements[MDDReader.VALUE].length + elements[MDDReader.NODE].length);
+        position += (long) max_out_degree*(elements[MDDReader.VALUE].length + elements[MDDReader.NODE].length);
         nodePosition++;
     }
 
@@ -121,19 +166,30 @@ public class DDProxy extends DecisionDiagram {
             Memory.free(node);
         }
         previousNodes.clear();
-
-        // Must go to the next layer
-        while(nodePosition < currentLayerNumber) goToNextNode();
-        nodePosition = 0;
-
-        // Number of nodes in the layer
-        currentLayerNumber = read(MDDReader.NODE);
+        layer++;
 
         // ID are ordered
         nodesID.sort();
-        for(int nodeID : nodesID){
-            while (nodePosition < nodeID) goToNextNode();
-            loadNode(nodeID);
+        if(index != null) {
+            // Directly seek each node
+            currentLayerNumber = index.layerSize(layer);
+            for(int nodeID : nodesID){
+                position = index.nodeOffset(layer, nodeID);
+                loadNode(nodeID);
+            }
+            nodePosition = currentLayerNumber;
+        } else {
+            // Must go to the next layer
+            while(nodePosition < currentLayerNumber) goToNextNode();
+            nodePosition = 0;
+
+            // Number of nodes in the layer
+            currentLayerNumber = read(MDDReader.NODE);
+
+            for(int nodeID : nodesID){
+                while (nodePosition < nodeID) goToNextNode();
+                loadNode(nodeID);
+            }
         }
         nodesID.clear();
         MapOf<Integer, INode> tmp = previousNodes;
@@ -233,6 +289,7 @@ public class DDProxy extends DecisionDiagram {
      */
     @Override
     public int getLayerSize(int i) {
+        if(index != null) return index.layerSize(i);
         return 0;
     }
 
@@ -308,6 +365,7 @@ public class DDProxy extends DecisionDiagram {
         currentLayerNumber = 0;
         nodePosition = 0;
         position = 0;
+        layer = -1;
     }
 
     /**
@@ -323,6 +381,7 @@ public class DDProxy extends DecisionDiagram {
      */
     @Override
     public void free() {
+        DATA = null;
         Memory.free(previousNodes);
         Memory.free(nodes);
         Memory.free(nodesID);
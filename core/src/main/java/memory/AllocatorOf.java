@@ -2,19 +2,81 @@ package memory;
 
 import structures.integers.StackOfInt;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * <b>AllocatorOf</b><br>
  * Memory Manager.<br>
+ * By default, the free elements are kept at their index in the allocator of the thread that created them :
+ * an element must be freed on the thread that allocated it.<br>
+ * In concurrent mode, the free elements are kept in a cache local to the thread, and the cache overflows
+ * (by batches) into a lock-free stack shared by all the allocators of the same type : an element can be freed
+ * on any thread, and the elements freed by a thread are reused by the others.<br>
+ * The number of free elements kept by an allocator can be bounded (the elements freed beyond the bound are left
+ * to the garbage collector), and the free elements can be trimmed explicitly or when they have not been needed
+ * for some time (see Memory).
  * @param <T> Type of the object managed by the AllocatorOf. Must be Allocable.
  */
 public abstract class AllocatorOf<T extends Allocable> {
 
+    // Number of free elements kept by a thread in concurrent mode (half of it is moved to the shared stack when full)
+    private static final int CACHE_CAPACITY = 256;
+    // First index of the elements created in concurrent mode
+    private static final int FIRST_INDEX = 1 << 30;
+    private static volatile boolean concurrent = false;
+    // Shared stacks, by type of allocator
+    private static final ConcurrentHashMap<Class<?>, SharedStack> sharedStacks = new ConcurrentHashMap<>();
+    // All the allocators (one per type and per thread), for the statistics
+    private static final Set<Registration> allocators = ConcurrentHashMap.newKeySet();
+    // Registrations of the allocators of the threads that have ended
+    private static final ReferenceQueue<AllocatorOf<?>> released = new ReferenceQueue<>();
+
+    // Trimming policy : maximum number of free elements kept, by default and by type, and idle delay (0 if disabled)
+    private static volatile int defaultMaxFree = Integer.MAX_VALUE;
+    private static final ConcurrentHashMap<String, Integer> maxFreeByType = new ConcurrentHashMap<>();
+    private static volatile long idleTrimNanos = 0;
+    // Incremented when the policy changes, so that the allocators read it again
+    private static volatile int policyVersion = 0;
+
     // The array of elements
     private T[] elements;
     // The stack containing all indices that are not currently in use
     private StackOfInt inactiveIndices;
     // The number of elements in the allocator
     private int size = 0;
+    // Indices whose element has been trimmed, to be used by the next created elements
+    private StackOfInt retiredIndices;
+    // Bit set for each retired index : the trimmed element is already free
+    private BitSet retired;
+    private Thread owner;
+
+    // Trimming policy of the allocator
+    private int maxFree, version = -1;
+    // Minimum number of free elements since the last idle trim, operations since the last check of the delay
+    private int lowFree, operations;
+    private long lastTrim;
+
+    // Statistics : number of elements created in sequential mode (and not trimmed), in use, and maximum number of elements in use
+    private int created, live, highWater;
+    // Number of elements held in concurrent mode (not stored in the array), counted in created
+    private int createdConcurrent;
+
+    // Concurrent mode
+    private Cache cache;
+    private SharedStack shared;
 
     /**
      * Create an array of the type T, with given capacity.
@@ -37,6 +99,14 @@ public abstract class AllocatorOf<T extends Allocable> {
     final protected void init(int capacity){
         elements = arrayCreation(capacity);
         inactiveIndices = new StackOfInt(capacity);
+        retiredIndices = new StackOfInt(16);
+        retired = new BitSet();
+        owner = Thread.currentThread();
+        lastTrim = System.nanoTime();
+        cache = new Cache();
+        shared = sharedStacks.computeIfAbsent(getClass(), type -> new SharedStack());
+        prune();
+        allocators.add(new Registration(this));
     }
 
     final protected void init(){
@@ -61,16 +131,61 @@ public abstract class AllocatorOf<T extends Allocable> {
      * @return Object of type T.
      */
     final public T allocate(){
+        if(++live > highWater) highWater = live;
+        return take();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T take(){
+        if(concurrent) {
+            if(cache.size == 0) refill();
+            if(cache.size > 0) {
+                T element = (T) cache.elements[--cache.size];
+                cache.elements[cache.size] = null;
+                shared.mark(element.allocatedIndex(), false);
+                return element;
+            }
+            createdConcurrent++;
+            return createObject(newIndex());
+        }
         if(inactiveIndices.isEmpty()) {
+            created++;
+            if(!retiredIndices.isEmpty()) {
+                int index = retiredIndices.pop();
+                retired.clear(index);
+                return createObject(index);
+            }
             if(size == elements.length) expand();
             return createObject(size++);
         }
-        return get(inactiveIndices.pop());
+        T element = get(inactiveIndices.pop());
+        if(inactiveIndices.size() < lowFree) lowFree = inactiveIndices.size();
+        return element;
     }
 
     /**
-     * The number of created elements.
-     * @return The number of created elements.
+     * Get the index of a new element in concurrent mode : an index given back by an element
+     * left to the garbage collector if any, a new index otherwise.
+     * The index only has to be unique among the existing elements of the type.
+     * @return The index of the new element
+     */
+    private int newIndex(){
+        if(cache.indicesSize == 0) {
+            int[] indices = shared.popIndices();
+            if(indices != null) {
+                cache.indices = indices;
+                cache.indicesSize = indices.length;
+            }
+        }
+        int index = cache.indicesSize > 0 ? cache.indices[--cache.indicesSize] : shared.index.getAndIncrement();
+        if(index < FIRST_INDEX) throw new IllegalStateException("Too many elements of type " + typeName() + " in concurrent mode !");
+        shared.acquire(index);
+        return index;
+    }
+
+    /**
+     * The number of free elements.
+     * @return The number of free elements.
      */
     final public int numberOfFreeElements(){
         return inactiveIndices.size();
@@ -99,9 +214,430 @@ public abstract class AllocatorOf<T extends Allocable> {
      * @param element The element to push back in the memory
      */
     final public void free(T element){
-        if(elements[element.allocatedIndex()] != null) return;
+        if(concurrent) {
+            // Element created in sequential mode : left to the garbage collector
+            if(element.allocatedIndex() < FIRST_INDEX) {
+                live--;
+                created--;
+                return;
+            }
+            // Already free
+            if(!shared.mark(element.allocatedIndex(), true)) return;
+            live--;
+            if(cache.size == CACHE_CAPACITY) {
+                int half = CACHE_CAPACITY >> 1;
+                // Beyond the bound, the batch is left to the garbage collector
+                if(shared.size.get() < maxFree()) shared.push(Arrays.copyOfRange(cache.elements, half, CACHE_CAPACITY));
+                else shared.drop(cache.elements, half, CACHE_CAPACITY);
+                Arrays.fill(cache.elements, half, CACHE_CAPACITY, null);
+                cache.size = half;
+                createdConcurrent -= half;
+            }
+            cache.elements[cache.size++] = element;
+            return;
+        }
+        // Element created in concurrent mode : left to the garbage collector, its index is given back
+        if(element.allocatedIndex() < 0 || element.allocatedIndex() >= size) {
+            if(element.allocatedIndex() >= FIRST_INDEX) shared.retire(new int[]{element.allocatedIndex()});
+            live--;
+            createdConcurrent--;
+            return;
+        }
+        // Already free (kept by the allocator or trimmed)
+        if(elements[element.allocatedIndex()] != null || retired.get(element.allocatedIndex())) return;
+        live--;
+        if(idleTrimNanos > 0 && (++operations & 255) == 0) idleTrim();
+        if(inactiveIndices.size() >= maxFree()) {
+            retiredIndices.push(element.allocatedIndex());
+            retired.set(element.allocatedIndex());
+            created--;
+            return;
+        }
         inactiveIndices.push(element.allocatedIndex());
         elements[element.allocatedIndex()] = element;
     }
-}
 
+    /**
+     * Get the maximum number of free elements kept by the allocator
+     * @return The maximum number of free elements
+     */
+    private int maxFree(){
+        if(version != policyVersion) {
+            version = policyVersion;
+            maxFree = maxFreeByType.getOrDefault(typeName(), defaultMaxFree);
+        }
+        return maxFree;
+    }
+
+    /**
+     * Trim the free elements that were not needed since the last idle trim,
+     * if the idle delay has elapsed.
+     */
+    private void idleTrim(){
+        long now = System.nanoTime();
+        if(now - lastTrim < idleTrimNanos) return;
+        trim(inactiveIndices.size() - lowFree);
+        lowFree = inactiveIndices.size();
+        lastTrim = now;
+    }
+
+    /**
+     * Leave free elements to the garbage collector, so that at most the given number of free elements is kept.
+     * Must be called by the thread owning the allocator.
+     * @param keep The number of free elements to keep
+     */
+    final public void trim(int keep){
+        while (inactiveIndices.size() > keep) {
+            int index = inactiveIndices.pop();
+            elements[index] = null;
+            retiredIndices.push(index);
+            retired.set(index);
+            created--;
+        }
+        if(cache.size > keep) {
+            shared.drop(cache.elements, keep, cache.size);
+            Arrays.fill(cache.elements, keep, cache.size, null);
+            createdConcurrent -= cache.size - keep;
+            cache.size = keep;
+        }
+        if(lowFree > inactiveIndices.size()) lowFree = inactiveIndices.size();
+    }
+
+    /**
+     * Take a batch of free elements from the shared stack
+     */
+    private void refill(){
+        Object[] batch = shared.pop();
+        if(batch == null) return;
+        System.arraycopy(batch, 0, cache.elements, 0, batch.length);
+        cache.size = batch.length;
+        createdConcurrent += batch.length;
+    }
+
+    //**************************************//
+    //              TRIMMING                //
+    //**************************************//
+
+    /**
+     * Set the maximum number of free elements kept by each allocator (by each thread) whose type has no specific bound
+     * @param maxFree The maximum number of free elements
+     */
+    public static void setMaxFree(int maxFree){
+        if(maxFree < 0) throw new IllegalArgumentException("The maximum number of free elements must be positive !");
+        defaultMaxFree = maxFree;
+        policyVersion++;
+    }
+
+    /**
+     * Set the maximum number of free elements kept by each allocator (by each thread) of the given type
+     * @param type The type of the elements
+     * @param maxFree The maximum number of free elements, negative to use the default bound
+     */
+    public static void setMaxFree(Class<? extends Allocable> type, int maxFree){
+        if(maxFree < 0) maxFreeByType.remove(type.getName());
+        else maxFreeByType.put(type.getName(), maxFree);
+        policyVersion++;
+    }
+
+    /**
+     * Set the idle delay : the free elements that have not been needed during the delay are left to the
+     * garbage collector. The delay is checked when elements are freed.
+     * @param millis The delay in milliseconds, 0 to disable the idle trimming
+     */
+    public static void setIdleTrim(long millis){
+        if(millis < 0) throw new IllegalArgumentException("The delay must be positive !");
+        idleTrimNanos = millis * 1_000_000;
+    }
+
+    /**
+     * Trim the allocators of the calling thread, and the shared stacks of the concurrent mode,
+     * so that at most the given number of free elements is kept by each of them.
+     * @param keep The number of free elements to keep
+     */
+    public static void trimAll(int keep){
+        Thread thread = Thread.currentThread();
+        for(Registration reference : allocators) {
+            AllocatorOf<?> allocator = reference.get();
+            if(allocator != null && allocator.owner == thread) allocator.trim(keep);
+        }
+        for(SharedStack stack : sharedStacks.values()) stack.trim(keep);
+    }
+
+    //**************************************//
+    //             STATISTICS               //
+    //**************************************//
+
+    /**
+     * Get the name of the type managed by the allocator
+     * @return The name of the class declaring the allocator
+     */
+    final public String typeName(){
+        Class<?> type = getClass().getEnclosingClass();
+        return type == null ? getClass().getSimpleName() : type.getName();
+    }
+
+    /**
+     * Forget the allocators of the threads that have ended.
+     * In concurrent mode, their free elements and recycled indices are given back to the shared stacks.
+     */
+    private static void prune(){
+        for(Reference<? extends AllocatorOf<?>> reference; (reference = released.poll()) != null;) {
+            allocators.remove(reference);
+            ((Registration) reference).release();
+        }
+    }
+
+    /**
+     * Get the statistics of the allocator. The allocator belongs to another thread :
+     * the values are only approximations while this thread is running.
+     * @return The statistics of the allocator
+     */
+    final public MemoryStatistics statistics(){
+        int free = inactiveIndices.size() + cache.size;
+        return new MemoryStatistics(typeName(), 1, created + createdConcurrent, live, free, elements.length + createdConcurrent, highWater);
+    }
+
+    /**
+     * Get the statistics of all the allocators of the application, merged by type
+     * (the allocators are local to the threads). The allocators of the threads that no longer exist are ignored.
+     * @return The statistics of each type of allocator, sorted by name
+     */
+    public static List<MemoryStatistics> allStatistics(){
+        return statistics(null);
+    }
+
+    /**
+     * Get the statistics of the allocators of the calling thread
+     * @return The statistics of each type of allocator, sorted by name
+     */
+    public static List<MemoryStatistics> threadStatistics(){
+        return statistics(Thread.currentThread());
+    }
+
+    /**
+     * Get the statistics of the allocators of the given thread, merged by type
+     * @param thread The thread owning the allocators, null for all the threads
+     * @return The statistics of each type of allocator, sorted by name
+     */
+    private static List<MemoryStatistics> statistics(Thread thread){
+        TreeMap<String, MemoryStatistics> statistics = new TreeMap<>();
+        prune();
+        for(Registration reference : allocators) {
+            AllocatorOf<?> allocator = reference.get();
+            if(allocator == null) continue;
+            if(thread != null && allocator.owner != thread) continue;
+            statistics.merge(allocator.typeName(), allocator.statistics(), MemoryStatistics::merge);
+        }
+        return new ArrayList<>(statistics.values());
+    }
+
+    //**************************************//
+    //           CONCURRENT MODE            //
+    //**************************************//
+
+    /**
+     * Set the concurrent mode of all the allocators. <br>
+     * In concurrent mode, an element can be freed on any thread. The mode must be changed when no construction
+     * is running : the elements created in one mode are not reused in the other one.
+     * @param concurrent True to use the concurrent mode, false otherwise
+     */
+    public static void setConcurrent(boolean concurrent){
+        AllocatorOf.concurrent = concurrent;
+    }
+
+    /**
+     * Check if the allocators are in concurrent mode
+     * @return True if the allocators are in concurrent mode, false otherwise
+     */
+    public static boolean isConcurrent(){
+        return concurrent;
+    }
+
+    /**
+     * <b>Lock-free (Treiber) stack of batches of free elements, shared by all the allocators of a type.</b><br>
+     * A batch is pushed and popped as a whole, so that there is only one CAS per batch.
+     * The stack also holds one bit per element created in concurrent mode, set while the element is free :
+     * as in the sequential mode, freeing an element twice has no effect.
+     * The indices of the elements left to the garbage collector are given back (by batches) to the next created
+     * elements, and the pages of bits that no longer hold any element are released.
+     */
+    private static final class SharedStack {
+        private static final int PAGE_BITS = 16, PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+        private final AtomicReference<Batch<Object[]>> head = new AtomicReference<>();
+        // Number of elements in the stack
+        private final AtomicInteger size = new AtomicInteger();
+        // Next new index of the elements created in concurrent mode
+        private final AtomicInteger index = new AtomicInteger(FIRST_INDEX);
+        // Indices given back by the elements left to the garbage collector
+        private final AtomicReference<Batch<int[]>> indices = new AtomicReference<>();
+        // Free bits, by pages of 2^16 elements created on demand
+        private final AtomicReferenceArray<Page> pages = new AtomicReferenceArray<>(1 << (30 - PAGE_BITS));
+
+        /**
+         * Set the free bit of the element
+         * @param index The index of the element
+         * @param free The new value of the bit
+         * @return True if the bit has changed, false if it already had the value
+         */
+        private boolean mark(int index, boolean free){
+            int i = index - FIRST_INDEX;
+            Page page = pages.get(i >>> PAGE_BITS);
+            // The element has been left to the garbage collector
+            if(page == null) return false;
+            int word = (i & PAGE_MASK) >>> 6;
+            long bit = 1L << i, old;
+            do {
+                old = page.bits.get(word);
+                if(((old & bit) != 0) == free) return false;
+            } while (!page.bits.compareAndSet(word, old, old ^ bit));
+            return true;
+        }
+
+        /**
+         * Register a new element at the given index, creating its page of bits if needed
+         * @param index The index of the new element
+         */
+        private void acquire(int index){
+            int p = (index - FIRST_INDEX) >>> PAGE_BITS;
+            while (true) {
+                Page page = pages.get(p);
+                if(page == null) {
+                    pages.compareAndSet(p, null, new Page());
+                    continue;
+                }
+                int count = page.count.get();
+                // The page is being released : it is replaced by a new one
+                if(count < 0) pages.compareAndSet(p, page, null);
+                else if(page.count.compareAndSet(count, count + 1)) return;
+            }
+        }
+
+        /**
+         * Give back the indices of elements left to the garbage collector : their free bit is cleared,
+         * and the pages that no longer hold any element are released.
+         * @param retired The indices of the elements
+         */
+        private void retire(int[] retired){
+            for(int index : retired) {
+                mark(index, false);
+                int p = (index - FIRST_INDEX) >>> PAGE_BITS;
+                Page page = pages.get(p);
+                // Unless an element has been created in the page meanwhile
+                if(page.count.decrementAndGet() == 0 && page.count.compareAndSet(0, -1)) pages.compareAndSet(p, page, null);
+            }
+            pushIndices(retired);
+        }
+
+        /**
+         * Leave free elements to the garbage collector and give back their indices
+         * @param elements The array of elements
+         * @param from The first element to leave (inclusive)
+         * @param to The last element to leave (exclusive)
+         */
+        private void drop(Object[] elements, int from, int to){
+            int[] retired = new int[to - from];
+            for(int i = from; i < to; i++) retired[i - from] = ((Allocable) elements[i]).allocatedIndex();
+            retire(retired);
+        }
+
+        private void pushIndices(int[] retired){
+            push(indices, retired);
+        }
+
+        private int[] popIndices(){
+            return pop(indices);
+        }
+
+        private void push(Object[] elements){
+            push(head, elements);
+            size.addAndGet(elements.length);
+        }
+
+        private Object[] pop(){
+            Object[] elements = pop(head);
+            if(elements != null) size.addAndGet(-elements.length);
+            return elements;
+        }
+
+        private static <E> void push(AtomicReference<Batch<E>> head, E elements){
+            Batch<E> batch = new Batch<>(elements);
+            do {
+                batch.next = head.get();
+            } while (!head.compareAndSet(batch.next, batch));
+        }
+
+        private static <E> E pop(AtomicReference<Batch<E>> head){
+            Batch<E> batch;
+            do {
+                batch = head.get();
+                if(batch == null) return null;
+            } while (!head.compareAndSet(batch, batch.next));
+            return batch.elements;
+        }
+
+        /**
+         * Remove batches until the stack holds at most the given number of elements
+         * @param keep The number of elements to keep
+         */
+        private void trim(int keep){
+            Object[] elements;
+            while (size.get() > keep && (elements = pop()) != null) drop(elements, 0, elements.length);
+        }
+
+        private static final class Page {
+            private final AtomicLongArray bits = new AtomicLongArray(1 << (PAGE_BITS - 6));
+            // Number of existing elements in the page, -1 once the page is released
+            private final AtomicInteger count = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Free elements and recycled indices held by an allocator in concurrent mode.
+     * They are kept apart from the allocator, so that they can be given back once its thread has ended.
+     */
+    private static final class Cache {
+        private final Object[] elements = new Object[CACHE_CAPACITY];
+        private int size;
+        // Indices given back by the elements left to the garbage collector, to be used by the next created elements
+        private int[] indices;
+        private int indicesSize;
+    }
+
+    /**
+     * Weak reference to an allocator, enqueued when the allocator is no longer reachable (its thread has ended)
+     */
+    private static final class Registration extends WeakReference<AllocatorOf<?>> {
+        private final Cache cache;
+        private final SharedStack shared;
+        private final String type;
+
+        private Registration(AllocatorOf<?> allocator){
+            super(allocator, released);
+            this.cache = allocator.cache;
+            this.shared = allocator.shared;
+            this.type = allocator.typeName();
+        }
+
+        /**
+         * Give the free elements and the recycled indices of the allocator back to the shared stack
+         */
+        private void release(){
+            if(cache.size > 0) {
+                Object[] elements = Arrays.copyOf(cache.elements, cache.size);
+                if(shared.size.get() < maxFreeByType.getOrDefault(type, defaultMaxFree)) shared.push(elements);
+                else shared.drop(elements, 0, elements.length);
+            }
+            if(cache.indicesSize > 0) shared.pushIndices(Arrays.copyOf(cache.indices, cache.indicesSize));
+        }
+    }
+
+    private static final class Batch<E> {
+        private final E elements;
+        private Batch<E> next;
+
+        private Batch(E elements){
+            this.elements = elements;
+        }
+    }
+}
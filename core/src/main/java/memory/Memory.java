@@ -10,11 +10,19 @@ import structures.generics.SetOfNode;
 import structures.tuples.TupleOfInt;
 import structures.lists.ListOfInt;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
 /**
  * <b>The class that allocate and manage all objects in memory.</b>
  */
 public class Memory {
 
+    public static final String MBEAN_NAME = "memory:type=MemoryMetrics";
+
     /**
      * Free the object
      * @param freeable The object to free
@@ -23,11 +31,107 @@ public class Memory {
         freeable.free();
     }
 
+    /**
+     * Set the concurrent mode of the allocators. <br>
+     * In concurrent mode, the objects can be allocated on one thread and freed on another one,
+     * so that diagrams can be built across a pool of threads. The mode must be changed when no construction is running.
+     * @param concurrent True to use the concurrent mode, false otherwise
+     */
+    public static void setConcurrent(boolean concurrent){
+        AllocatorOf.setConcurrent(concurrent);
+    }
+
+    //**************************************//
+    //              TRIMMING                //
+    //**************************************//
+
+    /**
+     * Bound the number of free objects kept for later use by each allocator (each thread has its own allocators)
+     * and by each pool of maps and sets. The objects freed beyond the bound are left to the garbage collector.
+     * @param maxFree The maximum number of free objects, Integer.MAX_VALUE for no bound
+     */
+    public static void setMaxFree(int maxFree){
+        AllocatorOf.setMaxFree(maxFree);
+        MemoryPool.setMaxFreeAll(maxFree);
+    }
+
+    /**
+     * Bound the number of free objects of the given type kept by each allocator, overriding the global bound
+     * @param type The type of the objects
+     * @param maxFree The maximum number of free objects, negative to use the global bound
+     */
+    public static void setMaxFree(Class<? extends Allocable> type, int maxFree){
+        AllocatorOf.setMaxFree(type, maxFree);
+    }
+
+    /**
+     * Set the idle delay of the allocators : the free objects that have not been needed during the delay
+     * are left to the garbage collector.
+     * @param millis The delay in milliseconds, 0 to disable the idle trimming
+     */
+    public static void setIdleTrim(long millis){
+        AllocatorOf.setIdleTrim(millis);
+    }
+
+    /**
+     * Leave all the free objects of the allocators of the calling thread, of the shared stacks
+     * and of the pools to the garbage collector. Typically called after a large operation.
+     */
+    public static void trim(){
+        trim(0);
+    }
+
+    /**
+     * Leave the free objects of the allocators of the calling thread, of the shared stacks and of the pools
+     * to the garbage collector, keeping at most the given number of free objects in each of them.
+     * @param keep The number of free objects to keep
+     */
+    public static void trim(int keep){
+        AllocatorOf.trimAll(keep);
+        MemoryPool.trimAll(keep);
+    }
+
+    //**************************************//
+    //             STATISTICS               //
+    //**************************************//
+
+    /**
+     * Get the statistics of all the allocators (merged by type) followed by the statistics of all the pools
+     * @return The statistics
+     */
+    public static List<MemoryStatistics> statistics(){
+        List<MemoryStatistics> statistics = AllocatorOf.allStatistics();
+        statistics.addAll(MemoryPool.allStatistics());
+        return statistics;
+    }
+
+    /**
+     * Get the statistics of the allocators of the calling thread (merged by type)
+     * @return The statistics
+     */
+    public static List<MemoryStatistics> threadStatistics(){
+        return AllocatorOf.threadStatistics();
+    }
+
+    /**
+     * Register the MemoryMetricsMXBean in the platform MBeanServer, under the name memory:type=MemoryMetrics.
+     * Does nothing if it is already registered.
+     */
+    public static synchronized void registerMBean(){
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if(!server.isRegistered(name)) server.registerMBean(new MemoryMetrics(), name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register the MBean " + MBEAN_NAME, e);
+        }
+    }
+
     //**************************************//
     //                MAPS                  //
     //**************************************//
 
-    private static final MemoryPool<MapOf<Integer, ListOfInt>> mapOfIntegerListOfIntegerPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, ListOfInt>> mapOfIntegerListOfIntegerPool = new MemoryPool<>("MapOf<Integer, ListOfInt>");
     public static MapOf<Integer, ListOfInt> MapOfIntegerListOfInt(){
         MapOf<Integer, ListOfInt> object = mapOfIntegerListOfIntegerPool.get();
         if(object == null){
@@ -38,7 +142,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, Integer>> mapOfIntegerIntegerPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, Integer>> mapOfIntegerIntegerPool = new MemoryPool<>("MapOf<Integer, Integer>");
     public static MapOf<Integer, Integer> MapOfIntegerInteger(){
         MapOf<Integer, Integer> object = mapOfIntegerIntegerPool.get();
         if(object == null){
@@ -49,7 +153,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, Long>> mapOfIntegerLongPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, Long>> mapOfIntegerLongPool = new MemoryPool<>("MapOf<Integer, Long>");
     public static MapOf<Integer, Long> MapOfIntegerLong(){
         MapOf<Integer, Long> object = mapOfIntegerLongPool.get();
         if(object == null){
@@ -60,7 +164,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, Node>> mapOfIntegerNodePool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, Node>> mapOfIntegerNodePool = new MemoryPool<>("MapOf<Integer, Node>");
     public static MapOf<Integer, Node> MapOfIntegerNode(){
         MapOf<Integer, Node> object = mapOfIntegerNodePool.get();
         if(object == null){
@@ -71,7 +175,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, SetOf<Integer>>> mapOfIntegerSetOfIntegerPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, SetOf<Integer>>> mapOfIntegerSetOfIntegerPool = new MemoryPool<>("MapOf<Integer, SetOf<Integer>>");
     public static MapOf<Integer, SetOf<Integer>> MapOfIntegerSetOfInteger(){
         MapOf<Integer, SetOf<Integer>> object = mapOfIntegerSetOfIntegerPool.get();
         if(object == null){
@@ -82,7 +186,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Node, Integer>> mapOfNodeIntegerPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Node, Integer>> mapOfNodeIntegerPool = new MemoryPool<>("MapOf<Node, Integer>");
     public static MapOf<Node, Integer> MapOfNodeInteger(){
         MapOf<Node, Integer> object = mapOfNodeIntegerPool.get();
         if(object == null){
@@ -93,7 +197,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, TupleOfInt>> mapOfIntegerTupleOfIntPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, TupleOfInt>> mapOfIntegerTupleOfIntPool = new MemoryPool<>("MapOf<Integer, TupleOfInt>");
     public static MapOf<Integer, TupleOfInt> MapOfIntegerTupleOfInt(){
         MapOf<Integer, TupleOfInt> object = mapOfIntegerTupleOfIntPool.get();
         if(object == null){
@@ -104,7 +208,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, Double>> mapOfIntegerDoublePool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, Double>> mapOfIntegerDoublePool = new MemoryPool<>("MapOf<Integer, Double>");
     public static MapOf<Integer, Double> MapOfIntegerDouble(){
         MapOf<Integer, Double> object = mapOfIntegerDoublePool.get();
         if(object == null){
@@ -115,7 +219,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Node, Double>> mapOfNodeDoublePool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Node, Double>> mapOfNodeDoublePool = new MemoryPool<>("MapOf<Node, Double>");
     public static MapOf<Node, Double> MapOfNodeDouble(){
         MapOf<Node, Double> object = mapOfNodeDoublePool.get();
         if(object == null){
@@ -126,7 +230,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<INode, Double>> mapOfNodeInterfaceDoublePool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<INode, Double>> mapOfNodeInterfaceDoublePool = new MemoryPool<>("MapOf<INode, Double>");
     public static MapOf<INode, Double> MapOfNodeInterfaceDouble(){
         MapOf<INode, Double> object = mapOfNodeInterfaceDoublePool.get();
         if(object == null){
@@ -138,7 +242,7 @@ public class Memory {
     }
 
 
-    private static final MemoryPool<MapOf<BinaryNode, Long>> mapOfBinaryNodeLongPool = new MemoryPool<>();
+    private static final MemoryPool<MapOf<BinaryNode, Long>> mapOfBinaryNodeLongPool = new MemoryPool<>("MapOf<BinaryNode, Long>");
     public static MapOf<BinaryNode, Long> MapOfBinaryNodeLong(){
         MapOf<BinaryNode, Long> object = mapOfBinaryNodeLongPool.get();
         if(object == null){
@@ -149,7 +253,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<MapOf<Integer, INode>> mapOfIntegerNodeInterface = new MemoryPool<>();
+    private static final MemoryPool<MapOf<Integer, INode>> mapOfIntegerNodeInterface = new MemoryPool<>("MapOf<Integer, INode>");
     public static MapOf<Integer, INode> MapOfIntegerNodeInterface() {
         MapOf<Integer, INode> object = mapOfIntegerNodeInterface.get();
         if(object == null){
@@ -164,7 +268,7 @@ public class Memory {
     //                SETS                  //
     //**************************************//
 
-    private static final MemoryPool<SetOfNode<IStateNode>> setOfStateNodePool = new MemoryPool<>();
+    private static final MemoryPool<SetOfNode<IStateNode>> setOfStateNodePool = new MemoryPool<>("SetOfNode<IStateNode>");
     public static SetOfNode<IStateNode> SetOfStateNode(){
         SetOfNode<IStateNode> object = setOfStateNodePool.get();
         if(object == null) {
@@ -175,7 +279,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<SetOfNode<Node>> setOfNodePool = new MemoryPool<>();
+    private static final MemoryPool<SetOfNode<Node>> setOfNodePool = new MemoryPool<>("SetOfNode<Node>");
     public static SetOfNode<Node> SetOfNode(){
         SetOfNode<Node> object = setOfNodePool.get();
         if(object == null) {
@@ -186,7 +290,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<SetOfNode<INode>> setOfINodePool = new MemoryPool<>();
+    private static final MemoryPool<SetOfNode<INode>> setOfINodePool = new MemoryPool<>("SetOfNode<INode>");
     public static SetOfNode<INode> SetOfINode(){
         SetOfNode<INode> object = setOfINodePool.get();
         if(object == null) {
@@ -199,7 +303,7 @@ public class Memory {
 
 
 
-    private static final MemoryPool<SetOf<BinaryNode>> setOfBinaryNodePool = new MemoryPool<>();
+    private static final MemoryPool<SetOf<BinaryNode>> setOfBinaryNodePool = new MemoryPool<>("SetOf<BinaryNode>");
     public static SetOf<BinaryNode> SetOfBinaryNode(){
         SetOf<BinaryNode> object = setOfBinaryNodePool.get();
         if(object == null) {
@@ -210,7 +314,7 @@ public class Memory {
         return object;
     }
 
-    private static final MemoryPool<SetOf<Integer>> setOfIntegerPool = new MemoryPool<>();
+    private static final MemoryPool<SetOf<Integer>> setOfIntegerPool = new MemoryPool<>("SetOf<Integer>");
     public static SetOf<Integer> SetOfInteger(){
         SetOf<Integer> object = setOfIntegerPool.get();
         if(object == null){
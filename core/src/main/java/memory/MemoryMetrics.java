@@ -0,0 +1,33 @@
+package memory;
+
+import java.util.List;
+
+/**
+ * <b>Implementation of the MemoryMetricsMXBean.</b>
+ */
+class MemoryMetrics implements MemoryMetricsMXBean {
+
+    @Override
+    public List<MemoryStatistics> getStatistics() {
+        return Memory.statistics();
+    }
+
+    @Override
+    public long getLiveObjects() {
+        long live = 0;
+        for(MemoryStatistics statistics : getStatistics()) live += statistics.getLive();
+        return live;
+    }
+
+    @Override
+    public long getFreeObjects() {
+        long free = 0;
+        for(MemoryStatistics statistics : getStatistics()) free += statistics.getFree();
+        return free;
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return AllocatorOf.isConcurrent();
+    }
+}
@@ -0,0 +1,34 @@
+package memory;
+
+import java.util.List;
+
+/**
+ * <b>Management interface exposing the statistics of the allocators and of the pools.</b><br>
+ * Registered by Memory.registerMBean() under the name memory:type=MemoryMetrics.
+ */
+public interface MemoryMetricsMXBean {
+
+    /**
+     * Get the statistics of each allocator (merged by type) and of each pool
+     * @return The statistics
+     */
+    List<MemoryStatistics> getStatistics();
+
+    /**
+     * Get the total number of objects in use
+     * @return The number of objects in use
+     */
+    long getLiveObjects();
+
+    /**
+     * Get the total number of free objects kept for later use
+     * @return The number of free objects
+     */
+    long getFreeObjects();
+
+    /**
+     * Check if the allocators are in concurrent mode (see Memory.setConcurrent)
+     * @return True if the allocators are in concurrent mode, false otherwise
+     */
+    boolean isConcurrent();
+}
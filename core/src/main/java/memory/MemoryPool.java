@@ -2,18 +2,32 @@ package memory;
 
 import structures.integers.StackOfInt;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * <b>The MemoryPool is the structure that contains all objects in the pool of memory.</b>
  * It is implemented using an array to stock the objects, and a stack to stock the indices of free objects,
- * i.e their position in the array.
+ * i.e their position in the array.<br>
+ * The pools are shared by all the threads : all accesses are synchronized.
  * @param <E> The type of the object the MemoryPool will hold
  */
 public class MemoryPool<E extends MemoryObject> {
 
     // DEBUG
     public static int objects = 0;
+    // All the pools, for the statistics
+    private static final ConcurrentLinkedQueue<MemoryPool<?>> pools = new ConcurrentLinkedQueue<>();
+
+    // Name given in the statistics to the pools created without a name
+    private static final String DEFAULT_NAME = "MemoryPool";
+
+    private final String name;
+    // Maximum number of objects in use at the same time
+    private int highWater;
 
     // The array
     private volatile AtomicReferenceArray<E> pool;
@@ -21,14 +35,30 @@ public class MemoryPool<E extends MemoryObject> {
     private final StackOfInt freeIndices;
     // The last value in the array and the size of the array
     private int size = 0;
+    // The positions whose object has been trimmed, to be used by the next objects added
+    private final StackOfInt retiredIndices = new StackOfInt(16);
+    // Bit set for each retired position : the trimmed object is already free
+    private final BitSet retired = new BitSet();
+    // Maximum number of free objects kept (the objects freed beyond are left to the garbage collector)
+    private volatile int maxFree = Integer.MAX_VALUE;
 
     //**************************************//
     //           INITIALISATION             //
     //**************************************//
 
-    public MemoryPool(int capacity){
+    public MemoryPool(String name, int capacity){
+        this.name = name;
         pool = new AtomicReferenceArray<>(capacity);
         freeIndices = new StackOfInt(capacity);
+        pools.add(this);
+    }
+
+    public MemoryPool(String name){
+        this(name, 10);
+    }
+
+    public MemoryPool(int capacity){
+        this(DEFAULT_NAME, capacity);
     }
 
     public MemoryPool(){
@@ -48,11 +78,12 @@ public class MemoryPool<E extends MemoryObject> {
      * Get a free object from the pool.
      * @return A free object from the pool if there is one available, null otherwise.
      */
-    public E get(){
+    public synchronized E get(){
         if(freeIndices.isEmpty()) return null;
         int index = freeIndices.pop();
         E object = pool.get(index);
         pool.set(index, null);
+        updateHighWater();
         return object;
     }
 
@@ -62,8 +93,15 @@ public class MemoryPool<E extends MemoryObject> {
      */
     public synchronized void add(E element){
         objects++;
-        if(size == pool.length()) expand();
-        element.setID(size++);
+        if(!retiredIndices.isEmpty()) {
+            int index = retiredIndices.pop();
+            retired.clear(index);
+            element.setID(index);
+        } else {
+            if(size == pool.length()) expand();
+            element.setID(size++);
+        }
+        updateHighWater();
     }
 
     /**
@@ -71,13 +109,49 @@ public class MemoryPool<E extends MemoryObject> {
      * @param object The object to push back to the stack
      * @param position The position of the object to free.
      */
-    public void free(E object, int position){
-        if(pool.get(position) == null) {
+    public synchronized void free(E object, int position){
+        // Already free (kept by the pool or trimmed)
+        if(pool.get(position) == null && !retired.get(position)) {
+            if(freeIndices.size() >= maxFree) {
+                retiredIndices.push(position);
+                retired.set(position);
+                return;
+            }
             freeIndices.push(position);
             pool.set(position, object);
         }
     }
 
+    private void updateHighWater(){
+        highWater = Math.max(highWater, live());
+    }
+
+    private int live(){
+        return size - freeIndices.size() - retiredIndices.size();
+    }
+
+    /**
+     * Set the maximum number of free objects kept by the pool
+     * @param maxFree The maximum number of free objects
+     */
+    public void setMaxFree(int maxFree){
+        this.maxFree = maxFree;
+        trim(maxFree);
+    }
+
+    /**
+     * Leave free objects to the garbage collector, so that at most the given number of free objects is kept
+     * @param keep The number of free objects to keep
+     */
+    public synchronized void trim(int keep){
+        while (freeIndices.size() > keep) {
+            int index = freeIndices.pop();
+            pool.set(index, null);
+            retiredIndices.push(index);
+            retired.set(index);
+        }
+    }
+
     /**
      * Expand the capacity of the pool
      */
@@ -95,4 +169,42 @@ public class MemoryPool<E extends MemoryObject> {
         return size;
     }
 
-}
\ No newline at end of file
+    //**************************************//
+    //             STATISTICS               //
+    //**************************************//
+
+    /**
+     * Get the statistics of the pool
+     * @return The statistics of the pool
+     */
+    public synchronized MemoryStatistics statistics(){
+        return new MemoryStatistics(name, 1, size - retiredIndices.size(), live(), freeIndices.size(), pool.length(), highWater);
+    }
+
+    /**
+     * Set the maximum number of free objects kept by all the pools
+     * @param maxFree The maximum number of free objects
+     */
+    public static void setMaxFreeAll(int maxFree){
+        for(MemoryPool<?> pool : pools) pool.setMaxFree(maxFree);
+    }
+
+    /**
+     * Trim all the pools
+     * @param keep The number of free objects to keep in each pool
+     */
+    public static void trimAll(int keep){
+        for(MemoryPool<?> pool : pools) pool.trim(keep);
+    }
+
+    /**
+     * Get the statistics of all the pools of the application
+     * @return The statistics of each pool
+     */
+    public static List<MemoryStatistics> allStatistics(){
+        List<MemoryStatistics> statistics = new ArrayList<>();
+        for(MemoryPool<?> pool : pools) statistics.add(pool.statistics());
+        return statistics;
+    }
+
+}
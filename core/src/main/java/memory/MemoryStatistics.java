@@ -0,0 +1,96 @@
+package memory;
+
+/**
+ * <b>Statistics of an allocator or of a MemoryPool.</b><br>
+ * The statistics of the allocators of the same type (one per thread) can be merged : the values are then summed,
+ * and the high-water mark is the sum of the high-water marks of each thread (an upper bound of the real one).
+ */
+public class MemoryStatistics {
+
+    private final String name;
+    private final int instances;
+    private final long created, live, free, capacity, highWater;
+
+    public MemoryStatistics(String name, int instances, long created, long live, long free, long capacity, long highWater){
+        this.name = name;
+        this.instances = instances;
+        this.created = created;
+        this.live = live;
+        this.free = free;
+        this.capacity = capacity;
+        this.highWater = highWater;
+    }
+
+    /**
+     * Merge the statistics of two allocators of the same type
+     * @param s1 The first statistics
+     * @param s2 The second statistics
+     * @return The merged statistics
+     */
+    public static MemoryStatistics merge(MemoryStatistics s1, MemoryStatistics s2){
+        return new MemoryStatistics(s1.name, s1.instances + s2.instances, s1.created + s2.created, s1.live + s2.live,
+                s1.free + s2.free, s1.capacity + s2.capacity, s1.highWater + s2.highWater);
+    }
+
+    /**
+     * Get the name of the type of object
+     * @return The name of the type of object
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * Get the number of allocators (or pools) merged into these statistics
+     * @return The number of allocators
+     */
+    public int getInstances(){
+        return instances;
+    }
+
+    /**
+     * Get the number of objects created and held by the structures (in use or free), i.e. not trimmed
+     * @return The number of objects created
+     */
+    public long getCreated(){
+        return created;
+    }
+
+    /**
+     * Get the number of objects in use (allocated and not freed yet)
+     * @return The number of objects in use
+     */
+    public long getLive(){
+        return live;
+    }
+
+    /**
+     * Get the number of free objects, kept for later use
+     * @return The number of free objects
+     */
+    public long getFree(){
+        return free;
+    }
+
+    /**
+     * Get the number of objects the structures can hold without expanding
+     * (the objects held in concurrent mode, which are not stored in the arrays of the allocators, are counted)
+     * @return The capacity
+     */
+    public long getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Get the maximum number of objects in use at the same time
+     * @return The high-water mark
+     */
+    public long getHighWater(){
+        return highWater;
+    }
+
+    @Override
+    public String toString(){
+        return name + " : live=" + live + ", free=" + free + ", created=" + created + ", capacity=" + capacity + ", highWater=" + highWater;
+    }
+}
@@ -38,7 +38,7 @@ public class CarSequencing {
         // Options
         ArrayOfMDD options = options();
         MDD opts = MDD.create();
-        Operation.intersection(opts, options);
+        Operation.intersectionTree(opts, options);
         for(MDD mdd : options) Memory.free(mdd);
         Memory.free(options);
 
@@ -148,7 +148,7 @@ public class CarSequencing {
         // Options
         ArrayOfMDD options = options();
         MDD opts = MDD.create();
-        Operation.intersection(opts, options);
+        Operation.intersectionTree(opts, options);
 
         for(MDD mdd : options) Memory.free(mdd);
         Memory.free(options);
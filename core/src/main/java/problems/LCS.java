@@ -25,7 +25,7 @@ public class LCS {
 
             MDD word = MDD.create();
             ConstraintBuilder.subset(word, letters, D);
-            Logger.out.information(word.nSolutions() + "\n");
+            Logger.out.information(word.count() + "\n");
             result = Operation.intersection(result, word);
             Memory.free(tmp);
             Memory.free(word);
@@ -1,11 +1,10 @@
 package problems;
 
 import builder.MDDBuilder;
+import dd.ArcCost;
 import dd.mdd.MDD;
 import dd.operations.Operation;
 import memory.Memory;
-import dd.mdd.pmdd.PMDD;
-import dd.mdd.pmdd.components.properties.PropertySum;
 import representation.MDDPrinter;
 import structures.Domains;
 import structures.generics.MapOf;
@@ -77,15 +76,9 @@ public class MKnapsack {
         }
 
         weights.clearAllAssociations();
-        PMDD solutions = PMDD.create();
-        weights.copy(solutions);
 
-        Memory.free(weights);
-
-
-
-        int profit = maximise(solutions);
-        MDD solution = getMaxResult(solutions, profit);
+        int profit = (int) weights.optimum(profit(), true);
+        MDD solution = getMaxResult(weights, profit);
 
         solution.accept(new MDDPrinter());
         Logger.out.information("\rMAX PROFIT = " + profit + "\n");
@@ -123,26 +116,11 @@ public class MKnapsack {
     }
 
     /**
-     * Get the maximum profit that can be obtained in the set of solutions
-     * @param result The MDD representing the set of all solutions
-     * @return The maximum profit
+     * Get the profit of the items : the labels are the indices of the items, -1 being the empty item
+     * @return The profit of the arcs
      */
-    @SuppressWarnings("unchecked")
-    private int maximise(PMDD result){
-        MapOf<Integer, Integer> profits = Memory.MapOfIntegerInteger();
-        for(int i = 0; i < data.length; i++) profits.put(i, data[i][1]);
-        profits.put(-1, 0);
-
-        PropertySum profitProperty = PropertySum.create(0,0, profits);
-        result.addRootProperty("profit", profitProperty);
-        MapOf<Integer, Integer> maxProfit = (MapOf<Integer, Integer>) result.propagateProperties().get("profit").getResult().getData();
-
-        int max = maxProfit.get(1);
-
-        Memory.free(maxProfit);
-        Memory.free(profits);
-
-        return max;
+    private ArcCost profit(){
+        return (layer, source, label) -> label < 0 ? 0 : data[label][1];
     }
 
     /**
@@ -4,6 +4,7 @@ import memory.*;
 import structures.generics.SetOf;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 public class Domains implements Allocable {
 
@@ -89,6 +90,16 @@ public class Domains implements Allocable {
         domains.get(index).remove(value);
     }
 
+    /**
+     * Swap the domains at the given indices
+     * @param i Index of the first domain
+     * @param j Index of the second domain
+     */
+    public void swap(int i, int j){
+        add(Math.max(i, j));
+        Collections.swap(domains, i, j);
+    }
+
     /**
      * Get all values in the domain at given index
      * @param index Index of the domain
@@ -0,0 +1,80 @@
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * <b>Primitive signature of a state.</b> <br>
+ * A key is a sequence of longs written by NodeState.signature(label, layer, size, key). Two states are merged
+ * when they write the same sequence, so the sequence must identify the state exactly (it is not a hash).
+ * The key is owned by a StateTable and reused for every lookup : it is never allocated in the hot loop.
+ */
+public final class StateKey {
+
+    long[] words = new long[8];
+    int length;
+    // Hash given by the state, valid if hashed is true
+    private long preset;
+    private boolean hashed;
+
+    StateKey(){}
+
+    /**
+     * Append a word to the key
+     * @param word The word to append
+     */
+    public void add(long word){
+        if(length == words.length) words = Arrays.copyOf(words, length << 1);
+        words[length++] = word;
+    }
+
+    /**
+     * Get the number of words of the key
+     * @return The number of words of the key
+     */
+    public int length(){
+        return length;
+    }
+
+    /**
+     * Set the hash of the key, maintained incrementally by the state, so that the words are not hashed again.
+     * The hash must only depend on the words : two keys having the same words must have the same hash.
+     * @param hash The hash of the key
+     */
+    public void setHash(long hash){
+        this.preset = hash;
+        this.hashed = true;
+    }
+
+    /**
+     * Remove all the words of the key
+     */
+    public void clear(){
+        length = 0;
+        hashed = false;
+    }
+
+    /**
+     * Mix the bits of the given value (one step of SplitMix64) : used to build hashes by xor-ing the mixes
+     * of the elements of a state (Zobrist hashing), which can be updated in O(1) when an element changes.
+     * @param x The value
+     * @return The mixed value
+     */
+    public static long mix(long x){
+        x += 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * Compute the hash of the key
+     * @return The hash of the key
+     */
+    long hash(){
+        if(hashed) return preset;
+        long hash = length * 0x9E3779B97F4A7C15L;
+        for(int i = 0; i < length; i++) hash = (hash ^ words[i]) * 0xC2B2AE3D27D4EB4FL;
+        return hash ^ (hash >>> 29);
+    }
+
+}
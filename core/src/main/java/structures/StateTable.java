@@ -0,0 +1,206 @@
+package structures;
+
+import dd.interfaces.IStateNode;
+import memory.Allocable;
+import memory.AllocatorOf;
+
+import java.util.Arrays;
+
+/**
+ * <b>Table binding primitive signatures (StateKey) to state nodes.</b> <br>
+ * This is the primitive counterpart of the HashMap&lt;String, IStateNode&gt; used when building a layer :
+ * the keys are stored contiguously in a single long array and the table uses open addressing,
+ * so that neither a lookup nor an insertion allocates once the table has reached its working size.<br>
+ * The current key is obtained with key(), filled by the state, then used by get() and put(node).
+ */
+public class StateTable implements Allocable {
+
+    // Thread safe allocator
+    private final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
+    // Index in Memory
+    private final int allocatedIndex;
+
+    private final StateKey key = new StateKey();
+    private long hash;
+
+    // Words of all the keys
+    private long[] words = new long[64];
+    private int wordsSize;
+
+    // Entries
+    private int[] starts = new int[16], lengths = new int[16];
+    private long[] hashes = new long[16];
+    private IStateNode[] values = new IStateNode[16];
+    private int size;
+
+    // Index of the entry + 1, 0 if the slot is empty
+    private int[] slots = new int[32];
+    private int mask = 31;
+
+    //**************************************//
+    //           INITIALISATION             //
+    //**************************************//
+
+    private StateTable(int allocatedIndex){
+        this.allocatedIndex = allocatedIndex;
+    }
+
+    /**
+     * Create a StateTable.
+     * The object is managed by the allocator.
+     * @return A StateTable.
+     */
+    public static StateTable create(){
+        return allocator().allocate();
+    }
+
+    /**
+     * Get the allocator. Thread safe.
+     * @return The allocator.
+     */
+    private static Allocator allocator(){
+        return localStorage.get();
+    }
+
+
+    //**************************************//
+    //             OPERATIONS               //
+    //**************************************//
+    // key              || get
+    // put              || clear
+
+    /**
+     * Get the key used for the next lookup. The key is cleared.
+     * @return The (empty) key used for the next lookup
+     */
+    public StateKey key(){
+        key.clear();
+        return key;
+    }
+
+    /**
+     * Get the node bound to the current key
+     * @return The node bound to the current key, null if there is none
+     */
+    public IStateNode get(){
+        hash = key.hash();
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if(hashes[entry] == hash && sameKey(entry)) return values[entry];
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Bind the given node to the current key.
+     * Must be called after get() returned null for the current key.
+     * @param node The node to bind
+     */
+    public void put(IStateNode node){
+        if(size == values.length) {
+            int capacity = size << 1;
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if(wordsSize + key.length > words.length) words = Arrays.copyOf(words, Math.max(words.length << 1, wordsSize + key.length));
+        System.arraycopy(key.words, 0, words, wordsSize, key.length);
+        starts[size] = wordsSize;
+        lengths[size] = key.length;
+        hashes[size] = hash;
+        values[size] = node;
+        wordsSize += key.length;
+        size++;
+        if(size << 1 > mask) rehash();
+        else insert(size - 1);
+    }
+
+    /**
+     * Remove all the bindings. The capacity is kept.
+     */
+    public void clear(){
+        Arrays.fill(slots, 0);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        wordsSize = 0;
+    }
+
+    /**
+     * Check if the key of the given entry is the current key
+     * @param entry The index of the entry
+     * @return True if the keys are the same, false otherwise
+     */
+    private boolean sameKey(int entry){
+        if(lengths[entry] != key.length) return false;
+        int start = starts[entry];
+        for(int i = 0; i < key.length; i++) if(words[start + i] != key.words[i]) return false;
+        return true;
+    }
+
+    /**
+     * Insert the given entry in the slots
+     * @param entry The index of the entry
+     */
+    private void insert(int entry){
+        long h = hashes[entry];
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (slots[slot] != 0) slot = (slot + 1) & mask;
+        slots[slot] = entry + 1;
+    }
+
+    /**
+     * Double the number of slots and insert all the entries again
+     */
+    private void rehash(){
+        slots = new int[slots.length << 1];
+        mask = slots.length - 1;
+        for(int entry = 0; entry < size; entry++) insert(entry);
+    }
+
+
+    //**************************************//
+    //           MEMORY FUNCTIONS           //
+    //**************************************//
+    // Implementation of Allocable interface
+
+    @Override
+    public int allocatedIndex() {
+        return allocatedIndex;
+    }
+
+    @Override
+    public void free() {
+        clear();
+        allocator().free(this);
+    }
+
+
+    /**
+     * <b>The allocator that is in charge of the StateTable type.</b><br>
+     * When not specified, the allocator has an initial capacity of 16. This number is arbitrary, and
+     * can be change if needed (might improve/decrease performance and/or memory usage).
+     */
+    static final class Allocator extends AllocatorOf<StateTable> {
+
+        Allocator(int capacity) {
+            super.init(capacity);
+        }
+
+        Allocator(){
+            super.init();
+        }
+
+        @Override
+        protected StateTable[] arrayCreation(int capacity) {
+            return new StateTable[capacity];
+        }
+
+        @Override
+        protected StateTable createObject(int index) {
+            return new StateTable(index);
+        }
+    }
+}
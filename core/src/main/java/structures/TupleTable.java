@@ -0,0 +1,236 @@
+package structures;
+
+import dd.interfaces.INode;
+import memory.Allocable;
+import memory.AllocatorOf;
+import structures.arrays.ArrayOfNodeInterface;
+
+import java.util.Arrays;
+
+/**
+ * <b>Table binding tuples of nodes to a node, used to build one layer of an operation.</b> <br>
+ * This is the flat counterpart of the Binder : instead of one Binder (and one map) per level of a trie,
+ * the nodes of all the tuples are stored contiguously in a single array and the table uses open addressing on
+ * the identity of the nodes, so that neither a lookup nor an insertion allocates once the table has reached its
+ * working size. The slots are stamped with the current generation : clearing the table between two layers is O(1).<br>
+ * A lookup is done with get(...), then put(node) binds the node to the tuple of the last lookup.
+ */
+public class TupleTable implements Allocable {
+
+    // Thread safe allocator
+    private final static ThreadLocal<Allocator> localStorage = ThreadLocal.withInitial(Allocator::new);
+    // Index in Memory
+    private final int allocatedIndex;
+
+    private int arity;
+
+    // Tuple of the last lookup
+    private INode[] key = new INode[2];
+    private int hash;
+
+    // Entries : the nodes of the tuple i are stored in tuples[i*arity .. (i+1)*arity[
+    private INode[] tuples = new INode[32];
+    private int[] hashes = new int[16];
+    private INode[] values = new INode[16];
+    private int size;
+
+    // Index of the entry, valid only if the stamp of the slot is the current generation
+    private int[] slots = new int[32], stamps = new int[32];
+    private int mask = 31, generation = 1;
+
+    //**************************************//
+    //           INITIALISATION             //
+    //**************************************//
+
+    private TupleTable(int allocatedIndex){
+        this.allocatedIndex = allocatedIndex;
+    }
+
+    /**
+     * Create a TupleTable for tuples of given arity.
+     * The object is managed by the allocator.
+     * @param arity The number of nodes of a tuple
+     * @return A TupleTable.
+     */
+    public static TupleTable create(int arity){
+        TupleTable table = allocator().allocate();
+        table.init(arity);
+        return table;
+    }
+
+    /**
+     * Get the allocator. Thread safe.
+     * @return The allocator.
+     */
+    private static Allocator allocator(){
+        return localStorage.get();
+    }
+
+    private void init(int arity){
+        this.arity = arity;
+        if(key.length < arity) key = new INode[arity];
+        if(tuples.length < values.length * arity) tuples = new INode[values.length * arity];
+        clear();
+    }
+
+
+    //**************************************//
+    //             OPERATIONS               //
+    //**************************************//
+    // get              || put
+    // clear
+
+    /**
+     * Get the node bound to the couple (y1, y2). The table must have an arity of 2.
+     * @param y1 The first node (can be null)
+     * @param y2 The second node (can be null)
+     * @return The node bound to the couple, null if there is none
+     */
+    public INode get(INode y1, INode y2){
+        key[0] = y1;
+        key[1] = y2;
+        return lookup();
+    }
+
+    /**
+     * Get the node bound to the given tuple. The table must have the arity of the tuple.
+     * @param ys The tuple of nodes (a node can be null)
+     * @return The node bound to the tuple, null if there is none
+     */
+    public INode get(ArrayOfNodeInterface ys){
+        for(int i = 0; i < arity; i++) key[i] = ys.get(i);
+        return lookup();
+    }
+
+    /**
+     * Bind the given node to the tuple of the last lookup.
+     * Must be called after get(...) returned null.
+     * @param node The node to bind
+     */
+    public void put(INode node){
+        if(size == values.length) {
+            int capacity = size << 1;
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+            tuples = Arrays.copyOf(tuples, capacity * arity);
+        }
+        System.arraycopy(key, 0, tuples, size * arity, arity);
+        hashes[size] = hash;
+        values[size] = node;
+        size++;
+        if(size << 1 > mask) rehash();
+        else insert(size - 1);
+    }
+
+    /**
+     * Remove all the bindings in O(1). The capacity is kept.
+     */
+    public void clear(){
+        size = 0;
+        if(++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Get the number of tuples bound
+     * @return The number of tuples bound
+     */
+    public int size(){
+        return size;
+    }
+
+    private INode lookup(){
+        int h = 0;
+        for(int i = 0; i < arity; i++) h = h * 31 + System.identityHashCode(key[i]);
+        hash = h ^ (h >>> 16);
+        int slot = hash & mask;
+        while (stamps[slot] == generation) {
+            int entry = slots[slot];
+            if(hashes[entry] == hash && sameKey(entry)) return values[entry];
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Check if the tuple of the given entry is the tuple of the last lookup
+     * @param entry The index of the entry
+     * @return True if the tuples are the same, false otherwise
+     */
+    private boolean sameKey(int entry){
+        int start = entry * arity;
+        for(int i = 0; i < arity; i++) if(tuples[start + i] != key[i]) return false;
+        return true;
+    }
+
+    /**
+     * Insert the given entry in the slots
+     * @param entry The index of the entry
+     */
+    private void insert(int entry){
+        int slot = hashes[entry] & mask;
+        while (stamps[slot] == generation) slot = (slot + 1) & mask;
+        slots[slot] = entry;
+        stamps[slot] = generation;
+    }
+
+    /**
+     * Double the number of slots and insert all the entries again
+     */
+    private void rehash(){
+        slots = new int[slots.length << 1];
+        stamps = new int[slots.length];
+        mask = slots.length - 1;
+        generation = 1;
+        for(int entry = 0; entry < size; entry++) insert(entry);
+    }
+
+
+    //**************************************//
+    //           MEMORY FUNCTIONS           //
+    //**************************************//
+    // Implementation of Allocable interface
+
+    @Override
+    public int allocatedIndex() {
+        return allocatedIndex;
+    }
+
+    @Override
+    public void free() {
+        Arrays.fill(key, null);
+        Arrays.fill(tuples, null);
+        Arrays.fill(values, null);
+        clear();
+        allocator().free(this);
+    }
+
+
+    /**
+     * <b>The allocator that is in charge of the TupleTable type.</b><br>
+     * When not specified, the allocator has an initial capacity of 16. This number is arbitrary, and
+     * can be change if needed (might improve/decrease performance and/or memory usage).
+     */
+    static final class Allocator extends AllocatorOf<TupleTable> {
+
+        Allocator(int capacity) {
+            super.init(capacity);
+        }
+
+        Allocator(){
+            super.init();
+        }
+
+        @Override
+        protected TupleTable[] arrayCreation(int capacity) {
+            return new TupleTable[capacity];
+        }
+
+        @Override
+        protected TupleTable createObject(int index) {
+            return new TupleTable(index);
+        }
+    }
+}
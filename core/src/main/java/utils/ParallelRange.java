@@ -0,0 +1,94 @@
+package utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.UnaryOperator;
+
+/**
+ * <b>Computation of a range of indices on a ForkJoinPool.</b><br>
+ * The range is split in halves until it is small enough to be computed directly.
+ * The parts of a range must be independent : they are computed without any synchronisation.
+ */
+public final class ParallelRange {
+
+    // Minimum size of a range for it to be split across the threads of the pool
+    public static final int PARALLEL_THRESHOLD = 2048;
+    // Size under which a part of a range is no longer split
+    public static final int SPLIT_THRESHOLD = 512;
+
+    private ParallelRange(){}
+
+    /**
+     * Computation of the indices [from, to[
+     */
+    @FunctionalInterface
+    public interface Body {
+        void compute(int from, int to);
+    }
+
+    /**
+     * Computation of the indices [from, to[ with a state of its own (e.g. a random generator)
+     * @param <S> The type of the state
+     */
+    @FunctionalInterface
+    public interface StatefulBody<S> {
+        void compute(S state, int from, int to);
+    }
+
+    /**
+     * Compute the indices [from, to[ : on the pool if the range is large enough, in the calling thread otherwise
+     * @param pool The pool, null to compute the range in the calling thread
+     * @param from The first index
+     * @param to The last index (excluded)
+     * @param body The computation of a part of the range
+     */
+    public static void compute(ForkJoinPool pool, int from, int to, Body body){
+        if(pool != null && to - from >= PARALLEL_THRESHOLD) pool.invoke(new Task<>(null, UnaryOperator.identity(), (state, a, b) -> body.compute(a, b), from, to, SPLIT_THRESHOLD));
+        else body.compute(from, to);
+    }
+
+    /**
+     * Compute the indices [from, to[ on the pool. Each half of a split range receives a state split from the state
+     * of the range (before the halves are started) : the result does not depend on the scheduling.
+     * @param pool The pool
+     * @param state The state of the whole range
+     * @param split The function giving a new state from the state of the range
+     * @param from The first index
+     * @param to The last index (excluded)
+     * @param grain The size under which a part of the range is no longer split
+     * @param body The computation of a part of the range
+     * @param <S> The type of the state
+     */
+    public static <S> void compute(ForkJoinPool pool, S state, UnaryOperator<S> split, int from, int to, int grain, StatefulBody<S> body){
+        pool.invoke(new Task<>(state, split, body, from, to, grain));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Task<S> extends RecursiveAction {
+        private final S state;
+        private final UnaryOperator<S> split;
+        private final StatefulBody<S> body;
+        private final int from, to, grain;
+
+        private Task(S state, UnaryOperator<S> split, StatefulBody<S> body, int from, int to, int grain){
+            this.state = state;
+            this.split = split;
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain) {
+                body.compute(state, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            Task<S> left = new Task<>(split.apply(state), split, body, from, middle, grain);
+            Task<S> right = new Task<>(split.apply(state), split, body, middle, to, grain);
+            invokeAll(left, right);
+        }
+    }
+}
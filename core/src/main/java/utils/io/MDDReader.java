@@ -11,6 +11,9 @@ import utils.io.reader.*;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * <b>MDDReader</b><br>
@@ -28,12 +31,15 @@ public abstract class MDDReader {
     // Indices of elements in the array
     public static final byte NODE = 0, VALUE = 1, PARENT_NUMBER = 2, VALUE_NUMBER = 3, SIZE = 4, MAX_OUT_DEGREE = 5, COST = 6;
     // Type of representation
-    public static final byte BOTTOM_UP = 0, TOP_DOWN = 1;
+    public static final byte BOTTOM_UP = 0, TOP_DOWN = 1, TOP_DOWN_INDEXED = 2, TOP_DOWN_COMPACT = 3, TOP_DOWN_COMPACT_DEFLATE = 4;
     // Type of DD
     public static final byte MDD = 0, BDD = 1, COST_MDD = 2;
 
     private static final DDReaderBottomUp readerBottomUp = new DDReaderBottomUp();
     private static final DDReaderTopDown readerTopDown = new DDReaderTopDown();
+    private static final DDReaderIndexed readerIndexed = new DDReaderIndexed();
+    private static final DDReaderCompact readerCompact = new DDReaderCompact(false);
+    private static final DDReaderCompact readerCompactDeflate = new DDReaderCompact(true);
     private static final DDReaderBottomUp costReaderBottomUp = new CostDDReaderBottomUp();
     private static final DDReaderTopDown costReaderTopDown = new CostDDReaderTopDown();
     private static DDReaderAbstractClass reader = readerBottomUp;
@@ -41,6 +47,9 @@ public abstract class MDDReader {
     public static void setMode(byte MODE){
         if(MODE == BOTTOM_UP) reader = readerBottomUp;
         else if(MODE == TOP_DOWN) reader = readerTopDown;
+        else if(MODE == TOP_DOWN_INDEXED) reader = readerIndexed;
+        else if(MODE == TOP_DOWN_COMPACT) reader = readerCompact;
+        else if(MODE == TOP_DOWN_COMPACT_DEFLATE) reader = readerCompactDeflate;
     }
 
     /**
@@ -54,6 +63,8 @@ public abstract class MDDReader {
         try {
             // Open the file to write
             MDDFileWriter fileWriter = new MDDFileWriter(new FileOutputStream(filename), bufferSize);
+            DDReaderAbstractClass reader = MDDReader.reader;
+            // CostMDDs are only saved using the fixed-width representations
             if(dd instanceof CostMDD) {
                 if(reader == readerBottomUp) reader = costReaderBottomUp;
                 else reader = costReaderTopDown;
@@ -107,10 +118,13 @@ public abstract class MDDReader {
                 if(TYPE == COST_MDD) costReaderBottomUp.load(dd, mddFile);
                 else readerBottomUp.load(dd, mddFile);
             }
-            else if(MODE[0] == TOP_DOWN) {
+            // The indexed representation is a top-down representation followed by its index
+            else if(MODE[0] == TOP_DOWN || MODE[0] == TOP_DOWN_INDEXED) {
                 if(TYPE == COST_MDD) costReaderTopDown.load(dd, mddFile);
                 else readerTopDown.load(dd, mddFile);
             }
+            else if(MODE[0] == TOP_DOWN_COMPACT) readerCompact.load(dd, mddFile);
+            else if(MODE[0] == TOP_DOWN_COMPACT_DEFLATE) readerCompactDeflate.load(dd, mddFile);
             else {
                 mddFile.close();
                 return false;
@@ -134,4 +148,50 @@ public abstract class MDDReader {
         return load(dd, filename, 4096);
     }
 
+    /**
+     * Load the layers from start to stop of a DecisionDiagram saved in TOP_DOWN_INDEXED mode. <br>
+     * The file is mapped and the loading directly seeks the layer start : the previous layers are not decoded.
+     * The arcs going out of the layers [start, stop[ are loaded, and the nodes are put at the same layer as in the file.
+     * @param dd The DecisionDiagram used to load the file
+     * @param filename The name of the file to load
+     * @param start The first layer to load
+     * @param stop The last layer to load
+     * @return True if the operation succeed, false otherwise
+     */
+    public static boolean loadLayers(DecisionDiagram dd, String filename, int start, int stop){
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            MDDMappedFile file = new MDDMappedFile(channel);
+            byte TYPE = file.get(0);
+            if((TYPE == MDD || TYPE == COST_MDD) && !(dd instanceof dd.mdd.MDD)) throw new ClassCastException("Given DD cannot be cast as an MDD!");
+            if(TYPE == COST_MDD) throw new UnsupportedOperationException("CostMDD cannot be saved in TOP_DOWN_INDEXED mode !");
+            if(file.get(1) != TOP_DOWN_INDEXED) {
+                Logger.out.information("The file must be saved in TOP_DOWN_INDEXED mode to load a range of layers !");
+                return false;
+            }
+            readerIndexed.loadLayers(dd, file, MDDIndex.read(file), start, stop);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Reduce a DecisionDiagram saved in TOP_DOWN_COMPACT mode, without loading it. <br>
+     * The reduction is done bottom-up over the mapped file, and only two layers are kept in memory at a time.
+     * The reduced DD is saved in TOP_DOWN_COMPACT mode.
+     * @param input The name of the file to reduce
+     * @param output The name of the reduced file
+     * @return True if the operation succeed, false otherwise
+     */
+    public static boolean reduce(String input, String output){
+        try {
+            DDReducerCompact.reduce(input, output);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
 }
@@ -0,0 +1,144 @@
+package utils.io.reader;
+
+import dd.DecisionDiagram;
+import dd.bdd.BDD;
+import dd.interfaces.INode;
+import dd.mdd.MDD;
+import utils.io.MDDReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * <b>Compact top-down representation.</b> <br>
+ * Instead of fixed-width fields, every number is written as a variable-length integer :
+ * the labels of a node are sorted and delta-coded (the first one is zig-zag coded), and a child is coded
+ * relatively to the next ID to bind in its layer (0 for a node seen for the first time, which is the most
+ * frequent case). Optionally, everything following the type and the mode is compressed using Deflate.
+ */
+public class DDReaderCompact extends DDReaderAbstractClass {
+
+    private final boolean deflate;
+    // Sorted labels of the current node
+    private int[] labels = new int[16];
+    // Next ID to bind in the next layer
+    private int fresh;
+
+    public DDReaderCompact(boolean deflate){
+        super();
+        this.deflate = deflate;
+        super.setMODE(deflate ? MDDReader.TOP_DOWN_COMPACT_DEFLATE : MDDReader.TOP_DOWN_COMPACT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveNode(INode node, int nodeID, MDDFileWriter file) throws IOException {
+        int numberOfValues = node.numberOfChildren();
+        if(labels.length < numberOfValues) labels = new int[Math.max(numberOfValues, labels.length << 1)];
+        int n = 0;
+        for(int value : node.iterateOnChildLabels()) labels[n++] = value;
+        Arrays.sort(labels, 0, n);
+
+        file.writeVarInt(n);
+        int previous = 0;
+        for(int i = 0; i < n; i++){
+            int value = labels[i];
+            // zig-zag for the first label (can be negative), delta for the others (positive)
+            file.writeVarInt(i == 0 ? (value << 1) ^ (value >> 31) : value - previous);
+            previous = value;
+            int childID = bindNextWrite(node.getChild(value));
+            if(childID == fresh) {
+                file.writeVarInt(0);
+                fresh++;
+            }
+            else file.writeVarInt(fresh - childID);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveLayer(DecisionDiagram dd, int layer, MDDFileWriter file) throws IOException {
+        int numberOfNodes = dd.getLayerSize(layer);
+        file.writeVarInt(numberOfNodes);
+        fresh = 0;
+        for(int nodeID = 0; nodeID < numberOfNodes; nodeID++) saveNode(getNode(nodeID), nodeID, file);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(DecisionDiagram dd, MDDFileWriter file) throws IOException {
+        // Type and mode are never compressed
+        if (dd instanceof MDD) file.write(MDDReader.MDD);
+        else if (dd instanceof BDD) file.write(MDDReader.BDD);
+        file.write(deflate ? MDDReader.TOP_DOWN_COMPACT_DEFLATE : MDDReader.TOP_DOWN_COMPACT);
+        if(deflate) file.startCompression(Deflater.DEFAULT_COMPRESSION);
+
+        int size = dd.size();
+        file.writeVarInt(size);
+
+        initMaps();
+        resetIDCounter();
+        firstBind(dd.getRoot());
+
+        for (int i = 0; i < size; i++) {
+            saveLayer(dd, i, file);
+            swapMaps();
+            resetIDCounter();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadNode(DecisionDiagram dd, INode node, int layer, MDDFileReader file) throws IOException {
+        int numberOfValues = file.readVarInt();
+        int value = 0;
+        for(int i = 0; i < numberOfValues; i++){
+            int code = file.readVarInt();
+            value = i == 0 ? (code >>> 1) ^ -(code & 1) : value + code;
+            int delta = file.readVarInt();
+            int childID = delta == 0 ? fresh++ : fresh - delta;
+
+            INode child = addNodeToDD(dd, layer+1, childID);
+            dd.addArc(node, value, child, layer);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadLayer(DecisionDiagram dd, int layer, MDDFileReader file) throws IOException {
+        int numberOfNodes = file.readVarInt();
+        fresh = 0;
+        for(int i = 0; i < numberOfNodes; i++) loadNode(dd, getNode(i), layer, file);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The type and the mode must have been consumed.
+     */
+    @Override
+    public void load(DecisionDiagram dd, MDDFileReader file) throws IOException {
+        if(deflate) file.startDecompression();
+        int size = file.readVarInt();
+        dd.setSize(size);
+        initMaps();
+
+        bindCurrentRead(0, dd.getRoot());
+
+        for (int i = 0; i < size; i++) {
+            loadLayer(dd, i, file);
+            swapMaps();
+        }
+        dd.setTT();
+    }
+}
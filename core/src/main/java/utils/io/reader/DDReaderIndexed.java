@@ -0,0 +1,135 @@
+package utils.io.reader;
+
+import dd.DecisionDiagram;
+import dd.interfaces.INode;
+import utils.SmallMath;
+import utils.io.MDDReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <b>Top-down representation with a random access index.</b> <br>
+ * The layers are written exactly as in the TOP_DOWN mode, followed by an index (see MDDIndex) giving
+ * the offset of each layer and of each node. A sequential load ignores the index, while DDProxy and
+ * MDDReader.loadLayers use it to seek directly to a layer or a node.
+ */
+public class DDReaderIndexed extends DDReaderTopDown {
+
+    // Offsets of the layers and of the nodes written during the save
+    private long[] layerOffsets, nodeOffsets;
+    private int[] layerSizes;
+    private int layers, nodes;
+
+    public DDReaderIndexed(){
+        super();
+        super.setMODE(MDDReader.TOP_DOWN_INDEXED);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveLayer(DecisionDiagram dd, int layer, MDDFileWriter file) throws IOException {
+        int numberOfNodes = dd.getLayerSize(layer);
+        if(layers == layerOffsets.length) {
+            layerOffsets = Arrays.copyOf(layerOffsets, layers << 1);
+            layerSizes = Arrays.copyOf(layerSizes, layers << 1);
+        }
+        layerOffsets[layers] = file.position();
+        layerSizes[layers++] = numberOfNodes;
+        writeInt(file, MDDReader.NODE, numberOfNodes);
+
+        if(nodes + numberOfNodes > nodeOffsets.length) nodeOffsets = Arrays.copyOf(nodeOffsets, Math.max(nodeOffsets.length << 1, nodes + numberOfNodes));
+        for(int nodeID = 0; nodeID < numberOfNodes; nodeID++){
+            nodeOffsets[nodes++] = file.position();
+            saveNode(getNode(nodeID), nodeID, file);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(DecisionDiagram dd, MDDFileWriter file) throws IOException {
+        layerOffsets = new long[Math.max(dd.size(), 1)];
+        layerSizes = new int[layerOffsets.length];
+        nodeOffsets = new long[16];
+        layers = 0;
+        nodes = 0;
+
+        super.save(dd, file);
+
+        // Write the index
+        long index = file.position();
+        file.writeInt(layers);
+        for(int i = 0; i < layers; i++) {
+            file.writeLong(layerOffsets[i]);
+            file.writeInt(layerSizes[i]);
+        }
+        for(int i = 0; i < nodes; i++) file.writeLong(nodeOffsets[i]);
+        file.writeLong(index);
+
+        layerOffsets = null;
+        layerSizes = null;
+        nodeOffsets = null;
+    }
+
+    /**
+     * Load the layers from start to stop of the DD stored in the given file.
+     * The arcs going out of the layers [start, stop[ are loaded, so the nodes of the layers [start, stop] are created.
+     * The nodes are put at the same layer as in the file : the layers outside of the range stay empty.
+     * If start is 0, the root of the given DD is used as the root of the file.
+     * @param dd The DecisionDiagram in which the layers are loaded
+     * @param file The mapped file (saved in TOP_DOWN_INDEXED mode)
+     * @param index The index of the file
+     * @param start The first layer to load
+     * @param stop The last layer to load
+     */
+    public void loadLayers(DecisionDiagram dd, MDDMappedFile file, MDDIndex index, int start, int stop){
+        if(start < 0 || stop >= index.size() || start > stop) throw new IllegalArgumentException("Invalid range of layers : ["+start+", "+stop+"]");
+        // Widths of the elements : TYPE MODE WIDTHS...
+        byte[][] elements = new byte[7][];
+        for(int i = 0; i < elements.length; i++) elements[i] = new byte[file.get(2 + i)];
+
+        dd.setSize(index.size());
+        HashMap<Integer, INode> current = new HashMap<>(), next = new HashMap<>(), tmp;
+        for(int id = 0; id < index.layerSize(start); id++) {
+            INode node;
+            if(start == 0) node = dd.getRoot();
+            else {
+                node = dd.Node();
+                dd.addNode(node, start);
+            }
+            current.put(id, node);
+        }
+
+        for(int layer = start; layer < stop; layer++) {
+            long position = index.layerOffset(layer) + elements[MDDReader.NODE].length;
+            for(int id = 0; id < index.layerSize(layer); id++) {
+                INode node = current.get(id);
+                int numberOfValues = SmallMath.bytesToInt(file.read(position, elements[MDDReader.MAX_OUT_DEGREE]));
+                position += elements[MDDReader.MAX_OUT_DEGREE].length;
+                for(int i = 0; i < numberOfValues; i++) {
+                    int value = SmallMath.bytesToInt(file.read(position, elements[MDDReader.VALUE]));
+                    position += elements[MDDReader.VALUE].length;
+                    int childID = SmallMath.bytesToInt(file.read(position, elements[MDDReader.NODE]));
+                    position += elements[MDDReader.NODE].length;
+                    INode child = next.get(childID);
+                    if(child == null) {
+                        child = dd.Node();
+                        next.put(childID, child);
+                        dd.addNode(child, layer+1);
+                    }
+                    dd.addArc(node, value, child, layer);
+                }
+            }
+            current.clear();
+            tmp = current;
+            current = next;
+            next = tmp;
+        }
+        if(start == 0 && stop == index.size() - 1) dd.setTT();
+    }
+}
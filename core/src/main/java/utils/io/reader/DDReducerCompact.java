@@ -0,0 +1,174 @@
+package utils.io.reader;
+
+import utils.io.MDDReader;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <b>Reduce a DD saved in TOP_DOWN_COMPACT mode without loading it.</b> <br>
+ * The file is mapped and read three times, keeping at most two layers in memory :<br>
+ * - a forward scan gives the position of each layer,<br>
+ * - a bottom-up pass merges the nodes having the same out-going arcs and removes the nodes without children.
+ * The reduced ID of each node is written in a temporary file (one int per node),<br>
+ * - a top-down pass writes the reduced layers, numbering the nodes in the order of their first reference.
+ */
+public class DDReducerCompact {
+
+    /**
+     * Reduce the DD saved in the input file and save the result in the output file (TOP_DOWN_COMPACT mode).
+     * @param input The name of the file to reduce (saved in TOP_DOWN_COMPACT mode)
+     * @param output The name of the reduced file
+     * @throws IOException
+     */
+    public static void reduce(String input, String output) throws IOException {
+        Path mapsPath = Path.of(output + ".maps");
+        boolean success = false;
+        try (FileChannel channel = FileChannel.open(Path.of(input), StandardOpenOption.READ)) {
+            MDDMappedFile file = new MDDMappedFile(channel);
+            if(file.get(1) != MDDReader.TOP_DOWN_COMPACT) throw new IllegalArgumentException("The file must be saved in TOP_DOWN_COMPACT mode to be reduced !");
+            byte type = file.get(0);
+            MDDLayerReader reader = new MDDLayerReader(file);
+            int size = reader.size();
+
+            // Forward scan : position and number of nodes of each layer
+            long[] offsets = new long[size];
+            int[] sizes = new int[size];
+            for(int i = 0; i < size; i++){
+                offsets[i] = reader.position();
+                sizes[i] = reader.layer();
+                for(int j = 0; j < sizes[i]; j++) reader.node();
+            }
+
+            // Bottom-up : ID -> reduced ID (-1 if the node is removed)
+            long[] mapOffsets = new long[size];
+            int[] reducedSizes = new int[size];
+            try (MDDFileWriter maps = new MDDFileWriter(new FileOutputStream(mapsPath.toFile()), 4096)) {
+                HashMap<Arcs, Integer> bindings = new HashMap<>();
+                int[] below = new int[0], arcs = new int[32];
+                for(int i = size - 1; i >= 0; i--){
+                    reader.seek(offsets[i]);
+                    reader.layer();
+                    int[] map = new int[sizes[i]];
+                    for(int j = 0; j < map.length; j++){
+                        int degree = reader.node(), k = 0;
+                        if(arcs.length < degree << 1) arcs = new int[degree << 1];
+                        for(int a = 0; a < degree; a++){
+                            int child = below[reader.child(a)];
+                            if(child < 0) continue;
+                            arcs[k++] = reader.label(a);
+                            arcs[k++] = child;
+                        }
+                        // The nodes of the last layer are all merged in the tt node
+                        if(k == 0 && i < size - 1) {
+                            map[j] = -1;
+                            continue;
+                        }
+                        Integer id = bindings.putIfAbsent(new Arcs(Arrays.copyOf(arcs, k)), bindings.size());
+                        map[j] = id == null ? bindings.size() - 1 : id;
+                    }
+                    reducedSizes[i] = bindings.size();
+                    mapOffsets[i] = maps.position();
+                    for(int id : map) maps.writeInt(id);
+                    bindings.clear();
+                    below = map;
+                }
+            }
+
+            // Top-down : write the reduced layers
+            try (FileChannel mapsChannel = FileChannel.open(mapsPath, StandardOpenOption.READ);
+                 MDDLayerWriter writer = new MDDLayerWriter(new MDDFileWriter(new FileOutputStream(output), 4096), type, size, false)) {
+                MDDMappedFile mapsFile = new MDDMappedFile(mapsChannel);
+
+                // Final ID of the reduced nodes of the current layer (-1 if not referenced)
+                int[] finalIDs = new int[reducedSizes[0]];
+                int count = finalIDs.length;
+                int[] map = readMap(mapsFile, mapOffsets[0], sizes[0]);
+                int[] buffer = new int[16];
+                for(int i = 0; i < size; i++){
+                    int[] next = i + 1 < size ? readMap(mapsFile, mapOffsets[i+1], sizes[i+1]) : null;
+                    int[][] labels = new int[reducedSizes[i]][], children = new int[reducedSizes[i]][];
+                    reader.seek(offsets[i]);
+                    reader.layer();
+                    for(int j = 0; j < sizes[i]; j++){
+                        int degree = reader.node(), r = map[j];
+                        if(r < 0 || labels[r] != null) continue;
+                        int k = 0;
+                        for(int a = 0; a < degree; a++) if(next[reader.child(a)] >= 0) k++;
+                        labels[r] = new int[k];
+                        children[r] = new int[k];
+                        k = 0;
+                        for(int a = 0; a < degree; a++) {
+                            int child = next[reader.child(a)];
+                            if(child < 0) continue;
+                            labels[r][k] = reader.label(a);
+                            children[r][k++] = child;
+                        }
+                    }
+
+                    int[] order = new int[count];
+                    for(int r = 0; r < finalIDs.length; r++) if(finalIDs[r] >= 0) order[finalIDs[r]] = r;
+                    int[] nextFinalIDs = new int[next == null ? 0 : reducedSizes[i+1]];
+                    Arrays.fill(nextFinalIDs, -1);
+                    int nextCount = 0;
+
+                    writer.layer(count);
+                    for(int f = 0; f < count; f++){
+                        int r = order[f], n = labels[r].length;
+                        if(buffer.length < n) buffer = new int[Math.max(n, buffer.length << 1)];
+                        for(int a = 0; a < n; a++) {
+                            int child = children[r][a];
+                            if(nextFinalIDs[child] < 0) nextFinalIDs[child] = nextCount++;
+                            buffer[a] = nextFinalIDs[child];
+                        }
+                        writer.node(labels[r], buffer, n);
+                    }
+                    finalIDs = nextFinalIDs;
+                    count = nextCount;
+                    map = next;
+                }
+            }
+            success = true;
+        } finally {
+            Files.deleteIfExists(mapsPath);
+            // An incomplete reduced file is not kept
+            if(!success) Files.deleteIfExists(Path.of(output));
+        }
+    }
+
+    private static int[] readMap(MDDMappedFile file, long position, int n){
+        int[] map = new int[n];
+        for(int i = 0; i < n; i++) map[i] = file.getInt(position + 4L * i);
+        return map;
+    }
+
+    /**
+     * Out-going arcs of a node (label, reduced ID of the child), used as key to merge the nodes
+     */
+    private static final class Arcs {
+        private final int[] arcs;
+        private final int hash;
+
+        Arcs(int[] arcs){
+            this.arcs = arcs;
+            this.hash = Arrays.hashCode(arcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Arcs && Arrays.equals(arcs, ((Arcs) o).arcs);
+        }
+    }
+
+}
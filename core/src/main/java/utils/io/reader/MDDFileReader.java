@@ -1,18 +1,22 @@
 package utils.io.reader;
 
-import utils.SmallMath;
-
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.zip.InflaterInputStream;
 
 public class MDDFileReader {
 
-    private final FileInputStream file;
+    private InputStream file;
     private final byte[] DATA;
     private final int capacity;
     private int position;
+    // Number of valid bytes in DATA
+    private int limit;
 
-    public MDDFileReader(FileInputStream file, int bufferSize) throws IOException {
+    public MDDFileReader(InputStream file, int bufferSize) throws IOException {
         this.capacity = bufferSize;
         this.file = file;
         DATA = new byte[capacity];
@@ -25,7 +29,18 @@ public class MDDFileReader {
      * @throws IOException
      */
     private void fill(int offset) throws IOException {
-        file.read(DATA, offset, capacity-offset);
+        limit = offset + file.readNBytes(DATA, offset, capacity-offset);
+    }
+
+    /**
+     * Move the unread bytes at the beginning of DATA and fill the rest of the array
+     * @throws IOException
+     */
+    private void refill() throws IOException {
+        int offset = limit - position;
+        System.arraycopy(DATA, position, DATA, 0, offset);
+        position = 0;
+        fill(offset);
     }
 
     /**
@@ -35,25 +50,43 @@ public class MDDFileReader {
      */
     public byte[] read(byte[] b) throws IOException {
         // If we are trying to read more than we can
-        if(position + b.length >= capacity) {
-            int offset = capacity - position;
-            for(int i = 0; i < offset; i++) DATA[i] = DATA[position+i];
-            fill(offset);
-            position = 0;
-        }
+        if(position + b.length > limit) refill();
         for(int i = 0; i < b.length; i++) b[i] = DATA[position+i];
         position += b.length;
         return b;
     }
 
     public byte nextByte() throws IOException {
-        if(position + 1 >= capacity) {
-            fill(0);
-            position = 0;
-        }
+        if(position >= limit) refill();
         return DATA[position++];
     }
 
+    /**
+     * Read an unsigned variable-length integer (7 bits per byte, least significant group first)
+     * @return The integer read
+     * @throws IOException
+     */
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for(int shift = 0; ; shift += 7) {
+            byte b = nextByte();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0) return value;
+        }
+    }
+
+    /**
+     * Read the rest of the file as a Deflate stream.
+     * The bytes already buffered are decompressed as well.
+     * @throws IOException
+     */
+    public void startDecompression() throws IOException {
+        byte[] buffered = Arrays.copyOfRange(DATA, position, limit);
+        file = new InflaterInputStream(new SequenceInputStream(new ByteArrayInputStream(buffered), file));
+        position = 0;
+        fill(0);
+    }
+
     public void close() throws IOException {
         this.file.close();
     }
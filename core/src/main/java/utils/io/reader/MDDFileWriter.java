@@ -1,17 +1,23 @@
 package utils.io.reader;
 
-import java.io.FileOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
-public class MDDFileWriter {
+public class MDDFileWriter implements Closeable {
 
-    private final FileOutputStream file;
+    private OutputStream file;
+    private Deflater deflater;
     private final byte[] DATA;
     private final int capacity;
 
     private int position;
+    // Number of bytes already flushed into the file
+    private long flushed;
 
-    public MDDFileWriter(FileOutputStream file, int bufferSize) throws IOException {
+    public MDDFileWriter(OutputStream file, int bufferSize) throws IOException {
         this.capacity = bufferSize;
         this.file = file;
         DATA = new byte[capacity];
@@ -23,9 +29,18 @@ public class MDDFileWriter {
      */
     public void flush() throws IOException {
         file.write(DATA, 0, position);
+        flushed += position;
         position = 0;
     }
 
+    /**
+     * Get the number of bytes written since the creation of the writer (before compression)
+     * @return The position of the next byte in the file
+     */
+    public long position(){
+        return flushed + position;
+    }
+
     /**
      * Fill the array b by consuming data from the file.
      * @param b The array to fill
@@ -51,9 +66,52 @@ public class MDDFileWriter {
         DATA[position++] = (byte) b;
     }
 
+    /**
+     * Write an int using 4 bytes (big-endian)
+     * @param value The value to write
+     * @throws IOException
+     */
+    public void writeInt(int value) throws IOException {
+        for(int shift = 24; shift >= 0; shift -= 8) write(value >>> shift);
+    }
+
+    /**
+     * Write a long using 8 bytes (big-endian)
+     * @param value The value to write
+     * @throws IOException
+     */
+    public void writeLong(long value) throws IOException {
+        for(int shift = 56; shift >= 0; shift -= 8) write((int) (value >>> shift));
+    }
+
+    /**
+     * Write an unsigned variable-length integer (7 bits per byte, least significant group first)
+     * @param value The value to write
+     * @throws IOException
+     */
+    public void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        write(value);
+    }
+
+    /**
+     * Compress everything written from now on using Deflate
+     * @param level The compression level (from 0 to 9)
+     * @throws IOException
+     */
+    public void startCompression(int level) throws IOException {
+        flush();
+        deflater = new Deflater(level);
+        file = new DeflaterOutputStream(file, deflater, capacity);
+    }
+
     public void close() throws IOException {
         flush();
         this.file.close();
+        if(deflater != null) deflater.end();
     }
 
 }
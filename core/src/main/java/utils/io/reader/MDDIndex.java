@@ -0,0 +1,83 @@
+package utils.io.reader;
+
+/**
+ * <b>Index of a .mdd file saved in TOP_DOWN_INDEXED mode.</b> <br>
+ * The index is written after the last layer :<br>
+ * int size, then for each layer (long offset of the layer, int number of nodes),
+ * then for each node of each layer the long offset of its definition, and finally the long offset of the index.
+ * <br>
+ * Only the layer table is loaded : the offsets of the nodes are read from the mapped file when needed.
+ */
+public class MDDIndex {
+
+    private final MDDMappedFile file;
+    private final long[] layerOffsets;
+    private final int[] layerSizes;
+    // Position of the offset of the first node of each layer
+    private final long[] nodeOffsets;
+
+    private MDDIndex(MDDMappedFile file, int size){
+        this.file = file;
+        this.layerOffsets = new long[size];
+        this.layerSizes = new int[size];
+        this.nodeOffsets = new long[size];
+    }
+
+    /**
+     * Read the index of the given file
+     * @param file The mapped file (saved in TOP_DOWN_INDEXED mode)
+     * @return The index of the file
+     */
+    public static MDDIndex read(MDDMappedFile file){
+        long position = file.getLong(file.length() - 8);
+        int size = file.getInt(position);
+        position += 4;
+        MDDIndex index = new MDDIndex(file, size);
+        for(int i = 0; i < size; i++) {
+            index.layerOffsets[i] = file.getLong(position);
+            index.layerSizes[i] = file.getInt(position + 8);
+            position += 12;
+        }
+        for(int i = 0; i < size; i++) {
+            index.nodeOffsets[i] = position;
+            position += 8L * index.layerSizes[i];
+        }
+        return index;
+    }
+
+    /**
+     * Get the number of layers
+     * @return The number of layers
+     */
+    public int size(){
+        return layerSizes.length;
+    }
+
+    /**
+     * Get the number of nodes in the given layer
+     * @param layer The index of the layer
+     * @return The number of nodes in the layer
+     */
+    public int layerSize(int layer){
+        return layerSizes[layer];
+    }
+
+    /**
+     * Get the offset of the given layer (position of its number of nodes)
+     * @param layer The index of the layer
+     * @return The offset of the layer
+     */
+    public long layerOffset(int layer){
+        return layerOffsets[layer];
+    }
+
+    /**
+     * Get the offset of the definition of the given node
+     * @param layer The index of the layer of the node
+     * @param nodeID The ID of the node in its layer
+     * @return The offset of the node
+     */
+    public long nodeOffset(int layer, int nodeID){
+        return file.getLong(nodeOffsets[layer] + 8L * nodeID);
+    }
+}
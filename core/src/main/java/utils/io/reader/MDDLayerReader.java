@@ -0,0 +1,112 @@
+package utils.io.reader;
+
+/**
+ * <b>Decode a mapped file saved in TOP_DOWN_COMPACT mode, one node at a time.</b> <br>
+ * Contrary to {@link DDReaderCompact}, nothing is added to a DD : the arcs of the last node read are available
+ * using label(i) and child(i), so that a file can be traversed while keeping only the current node in memory.
+ * The reader can be moved to any position, which allows to read the layers in any order once their position is known.
+ */
+public class MDDLayerReader {
+
+    private final MDDMappedFile file;
+    private long position;
+    // Next ID to bind in the next layer
+    private int fresh;
+
+    private int[] labels = new int[16], children = new int[16];
+
+    /**
+     * Create a reader positioned just after the header (type, mode and size)
+     * @param file The mapped file (saved in TOP_DOWN_COMPACT mode)
+     */
+    public MDDLayerReader(MDDMappedFile file){
+        this.file = file;
+        this.position = 2;
+    }
+
+    /**
+     * Get the current position of the reader
+     * @return The position of the next byte to read
+     */
+    public long position(){
+        return position;
+    }
+
+    /**
+     * Move the reader to the given position
+     * @param position The position of the next byte to read
+     */
+    public void seek(long position){
+        this.position = position;
+    }
+
+    /**
+     * Read an unsigned variable-length integer
+     * @return The integer read
+     */
+    public int readVarInt(){
+        int value = 0;
+        for(int shift = 0; ; shift += 7){
+            byte b = file.get(position++);
+            value |= (b & 0x7F) << shift;
+            if(b >= 0) return value;
+        }
+    }
+
+    /**
+     * Read the size of the DD. The reader must be positioned just after the header.
+     * @return The number of layers
+     */
+    public int size(){
+        return readVarInt();
+    }
+
+    /**
+     * Start reading a layer. The reader must be positioned at the beginning of the layer.
+     * @return The number of nodes of the layer
+     */
+    public int layer(){
+        fresh = 0;
+        return readVarInt();
+    }
+
+    /**
+     * Read the next node of the current layer
+     * @return The number of out-going arcs of the node
+     */
+    public int node(){
+        int n = readVarInt();
+        if(labels.length < n) {
+            labels = new int[Math.max(n, labels.length << 1)];
+            children = new int[labels.length];
+        }
+        int value = 0;
+        for(int i = 0; i < n; i++){
+            int code = readVarInt();
+            value = i == 0 ? (code >>> 1) ^ -(code & 1) : value + code;
+            labels[i] = value;
+            int delta = readVarInt();
+            children[i] = delta == 0 ? fresh++ : fresh - delta;
+        }
+        return n;
+    }
+
+    /**
+     * Get the label of the ith arc of the last node read
+     * @param i The index of the arc
+     * @return The label of the arc
+     */
+    public int label(int i){
+        return labels[i];
+    }
+
+    /**
+     * Get the ID of the child of the ith arc of the last node read
+     * @param i The index of the arc
+     * @return The ID of the child in the next layer
+     */
+    public int child(int i){
+        return children[i];
+    }
+
+}
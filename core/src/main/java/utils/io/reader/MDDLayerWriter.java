@@ -0,0 +1,75 @@
+package utils.io.reader;
+
+import utils.io.MDDReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * <b>Write a DD in TOP_DOWN_COMPACT mode without having it in memory.</b> <br>
+ * The layers are given one after the other, and the nodes of a layer are given by their out-going arcs
+ * (labels and IDs of the children in the next layer). The produced file is the same as the one written by
+ * {@link DDReaderCompact}, so it can be loaded using MDDReader.load. <br>
+ * The labels of a node must be sorted, and the IDs of the next layer must be given in the order of their
+ * first reference (the first child referenced in a layer has ID 0, the next new one has ID 1, ...).
+ */
+public class MDDLayerWriter implements Closeable {
+
+    private final MDDFileWriter file;
+    // Next ID to bind in the next layer
+    private int fresh;
+
+    /**
+     * Write the header of the file : type, mode and size
+     * @param file The file to write
+     * @param type The type of DD (MDDReader.MDD or MDDReader.BDD)
+     * @param size The number of layers
+     * @param deflate True if the layers must be compressed using Deflate
+     * @throws IOException
+     */
+    public MDDLayerWriter(MDDFileWriter file, byte type, int size, boolean deflate) throws IOException {
+        this.file = file;
+        file.write(type);
+        file.write(deflate ? MDDReader.TOP_DOWN_COMPACT_DEFLATE : MDDReader.TOP_DOWN_COMPACT);
+        if(deflate) file.startCompression(Deflater.DEFAULT_COMPRESSION);
+        file.writeVarInt(size);
+    }
+
+    /**
+     * Start a new layer
+     * @param numberOfNodes The number of nodes in the layer
+     * @throws IOException
+     */
+    public void layer(int numberOfNodes) throws IOException {
+        file.writeVarInt(numberOfNodes);
+        fresh = 0;
+    }
+
+    /**
+     * Write the next node of the current layer
+     * @param labels The sorted labels of the out-going arcs
+     * @param children The IDs of the children in the next layer
+     * @param n The number of out-going arcs
+     * @throws IOException
+     */
+    public void node(int[] labels, int[] children, int n) throws IOException {
+        file.writeVarInt(n);
+        for(int i = 0; i < n; i++){
+            int value = labels[i];
+            file.writeVarInt(i == 0 ? (value << 1) ^ (value >> 31) : value - labels[i-1]);
+            int childID = children[i];
+            if(childID == fresh) {
+                file.writeVarInt(0);
+                fresh++;
+            }
+            else if(childID < fresh) file.writeVarInt(fresh - childID);
+            else throw new IllegalArgumentException("The children must be given in the order of their first reference !");
+        }
+    }
+
+    public void close() throws IOException {
+        file.close();
+    }
+
+}
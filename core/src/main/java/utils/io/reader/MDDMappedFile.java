@@ -0,0 +1,107 @@
+package utils.io.reader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <b>Read only view of a .mdd file mapped in memory.</b> <br>
+ * The file is mapped using one MappedByteBuffer per segment of at most 1 GB, so that files larger than 2 GB
+ * can be accessed with a long position. Nothing is copied to the heap : the bytes are read from the page cache
+ * when they are accessed.
+ */
+public class MDDMappedFile {
+
+    // Size of a segment (power of 2)
+    private static int SEGMENT_SHIFT = 30;
+
+    private final MappedByteBuffer[] segments;
+    private final long length;
+    private final int shift;
+    private final long mask;
+
+    /**
+     * Map the whole file given as a FileChannel. The channel can be closed afterwards.
+     * @param channel The channel of the file
+     * @throws IOException If the file cannot be mapped
+     */
+    public MDDMappedFile(FileChannel channel) throws IOException {
+        this.length = channel.size();
+        this.shift = SEGMENT_SHIFT;
+        this.mask = (1L << shift) - 1;
+        int n = (int) ((length + mask) >>> shift);
+        segments = new MappedByteBuffer[n];
+        for(int i = 0; i < n; i++) {
+            long start = (long) i << shift;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << shift, length - start));
+        }
+    }
+
+    /**
+     * Set the size of the segments (2^shift bytes) used by the files mapped afterwards.
+     * Mainly useful to test the access across segments without a huge file.
+     * @param shift The log2 of the size of a segment (at most 30)
+     */
+    public static void setSegmentShift(int shift){
+        if(shift < 1 || shift > 30) throw new IllegalArgumentException("The segment shift must be in [1, 30]");
+        SEGMENT_SHIFT = shift;
+    }
+
+    /**
+     * Get the length of the file
+     * @return The length of the file in bytes
+     */
+    public long length(){
+        return length;
+    }
+
+    /**
+     * Get the byte at the given position
+     * @param position The position in the file
+     * @return The byte at the given position
+     */
+    public byte get(long position){
+        return segments[(int) (position >>> shift)].get((int) (position & mask));
+    }
+
+    /**
+     * Get the int (4 bytes, big-endian) at the given position
+     * @param position The position in the file
+     * @return The int at the given position
+     */
+    public int getInt(long position){
+        int value = 0;
+        for(int i = 0; i < 4; i++) value = (value << 8) | (get(position + i) & 0xFF);
+        return value;
+    }
+
+    /**
+     * Get the long (8 bytes, big-endian) at the given position
+     * @param position The position in the file
+     * @return The long at the given position
+     */
+    public long getLong(long position){
+        long value = 0;
+        for(int i = 0; i < 8; i++) value = (value << 8) | (get(position + i) & 0xFF);
+        return value;
+    }
+
+    /**
+     * Fill the array b with the bytes starting at the given position
+     * @param position The position in the file
+     * @param b The array to fill
+     * @return The filled array
+     */
+    public byte[] read(long position, byte[] b){
+        int offset = (int) (position & mask);
+        MappedByteBuffer segment = segments[(int) (position >>> shift)];
+        if(offset + b.length <= segment.limit()) {
+            for(int i = 0; i < b.length; i++) b[i] = segment.get(offset + i);
+        } else {
+            // The element is split between two segments
+            for(int i = 0; i < b.length; i++) b[i] = get(position + i);
+        }
+        return b;
+    }
+
+}
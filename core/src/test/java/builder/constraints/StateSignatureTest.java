@@ -0,0 +1,123 @@
+package builder.constraints;
+
+import builder.MDDBuilder;
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.Domains;
+import structures.generics.MapOf;
+import structures.generics.SetOf;
+import structures.tuples.TupleOfInt;
+
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The constraints are built using the primitive signatures : check that no two different states are merged
+ * by comparing the number of solutions with an enumeration.
+ */
+class StateSignatureTest {
+
+    private static final int N = 6, D = 4;
+
+    private Domains domains(){
+        Domains domains = Domains.create();
+        for(int i = 0; i < N; i++) {
+            domains.add(i);
+            for(int v = 0; v < D; v++) domains.put(i, v);
+        }
+        return domains;
+    }
+
+    private double count(Predicate<int[]> predicate){
+        int[] tuple = new int[N];
+        double count = 0;
+        for(int t = 0; t < Math.pow(D, N); t++) {
+            for(int i = 0, r = t; i < N; i++, r /= D) tuple[i] = r % D;
+            if(predicate.test(tuple)) count++;
+        }
+        return count;
+    }
+
+    @Test
+    void sum(){
+        MDD mdd = MDDBuilder.sum(MDD.create(), 7, 11, N, domains());
+        assertEquals(count(t -> {
+            int s = 0;
+            for(int v : t) s += v;
+            return 7 <= s && s <= 11;
+        }), mdd.nSolutions());
+        Memory.free(mdd);
+    }
+
+    @Test
+    void allDifferent(){
+        SetOf<Integer> V = Memory.SetOfInteger();
+        V.add(0); V.add(1); V.add(2);
+        MDD mdd = MDDBuilder.allDifferent(MDD.create(), domains(), V, N);
+        assertEquals(count(t -> {
+            boolean[] seen = new boolean[D];
+            for(int v : t) {
+                if(v <= 2 && seen[v]) return false;
+                seen[v] = true;
+            }
+            return true;
+        }), mdd.nSolutions());
+        Memory.free(mdd);
+    }
+
+    @Test
+    void sequence(){
+        SetOf<Integer> V = Memory.SetOfInteger();
+        V.add(1); V.add(3);
+        MDD mdd = MDDBuilder.sequence(MDD.create(), domains(), V, 3, 1, 2, N);
+        assertEquals(count(t -> {
+            for(int i = 0; i + 3 <= N; i++) {
+                int cpt = 0;
+                for(int j = i; j < i + 3; j++) if(t[j] == 1 || t[j] == 3) cpt++;
+                if(cpt < 1 || cpt > 2) return false;
+            }
+            return true;
+        }), mdd.nSolutions());
+        Memory.free(mdd);
+    }
+
+    @Test
+    void gcc(){
+        for(int violations = 0; violations <= 2; violations++) {
+            MapOf<Integer, TupleOfInt> couples = Memory.MapOfIntegerTupleOfInt();
+            couples.put(0, TupleOfInt.create(1, 3));
+            couples.put(1, TupleOfInt.create(2, 4));
+            couples.put(2, TupleOfInt.create(0, 1));
+            MDD mdd = MDDBuilder.gcc(MDD.create(), N, couples, violations, domains(), null);
+            int allowed = violations;
+            assertEquals(count(t -> {
+                int[] occurrences = new int[D];
+                for(int v : t) occurrences[v]++;
+                int violated = Math.max(0, 1 - occurrences[0]) + Math.max(0, occurrences[0] - 3)
+                        + Math.max(0, 2 - occurrences[1]) + Math.max(0, occurrences[1] - 4)
+                        + Math.max(0, occurrences[2] - 1);
+                return violated <= allowed;
+            }), mdd.nSolutions());
+            Memory.free(mdd);
+        }
+    }
+
+    @Test
+    void allDifferentWideDomain(){
+        // 70 values : the used values span two words of the bitset
+        int n = 3, d = 70;
+        Domains domains = Domains.create();
+        SetOf<Integer> V = Memory.SetOfInteger();
+        for(int v = 0; v < d; v++) V.add(v);
+        for(int i = 0; i < n; i++) {
+            domains.add(i);
+            for(int v = 0; v < d; v++) domains.put(i, v);
+        }
+        MDD mdd = MDDBuilder.allDifferent(MDD.create(), domains, V, n);
+        assertEquals(70.0 * 69 * 68, mdd.nSolutions());
+        Memory.free(mdd);
+    }
+
+}
@@ -0,0 +1,130 @@
+package builder.constraints;
+
+import builder.constraints.parameters.ParametersSum;
+import builder.constraints.states.StateSum;
+import builder.rules.SuccessionRuleDefault;
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import dd.mdd.components.StateNode;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.Domains;
+import structures.arrays.ArrayOfInt;
+import utils.io.MDDReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingBuildTest {
+
+    private static final int N = 8, D = 4, MIN = 9, MAX = 13;
+
+    private Domains domains(){
+        Domains domains = Domains.create();
+        for(int i = 0; i < N; i++) {
+            domains.add(i);
+            for(int v = 0; v < D; v++) domains.put(i, v);
+        }
+        return domains;
+    }
+
+    private StateNode sum(){
+        ArrayOfInt minValues = ArrayOfInt.create(N+1), maxValues = ArrayOfInt.create(N+1);
+        for(int i = 0; i <= N; i++) maxValues.set(i, (D - 1) * (N - i));
+        StateNode snode = StateNode.create();
+        snode.setState(StateSum.create(ParametersSum.create(MIN, MAX, minValues, maxValues, null)));
+        return snode;
+    }
+
+    private File file() throws IOException {
+        File file = File.createTempFile("streaming", ".mdd");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void buildAndReduce() throws IOException {
+        MDD expected = MDD.create();
+        ConstraintBuilder.build(expected, sum(), domains(), N);
+        expected.reduce();
+
+        SuccessionRuleDefault rule = SuccessionRuleDefault.create(domains());
+        File raw = file(), reduced = file();
+        assertTrue(ConstraintBuilder.build(raw.getPath(), sum(), rule, N, false, false));
+        assertTrue(ConstraintBuilder.build(reduced.getPath(), sum(), rule, N, false, true));
+        assertFalse(new File(reduced.getPath() + ".spill").exists());
+
+        MDD loaded = MDD.create();
+        assertTrue(MDDReader.load(loaded, raw.getPath()));
+        loaded.reduce();
+        assertEquals(expected.nSolutions(), loaded.nSolutions());
+        assertEquals(expected.nodes(), loaded.nodes());
+
+        MDD reducedLoaded = MDD.create();
+        assertTrue(MDDReader.load(reducedLoaded, reduced.getPath()));
+        assertEquals(expected.nSolutions(), reducedLoaded.nSolutions());
+        assertEquals(expected.nodes(), reducedLoaded.nodes());
+        assertEquals(expected.arcs(), reducedLoaded.arcs());
+        assertTrue(reduced.length() < raw.length());
+
+        Memory.free(expected);
+        Memory.free(loaded);
+        Memory.free(reducedLoaded);
+    }
+
+    @Test
+    void buildFailure() throws IOException {
+        // The output cannot be created (its parent is a file) : nothing must be left behind
+        File directory = file();
+        String output = new File(directory, "missing.mdd").getPath();
+        StateNode constraint = sum();
+        assertFalse(ConstraintBuilder.build(output, constraint, SuccessionRuleDefault.create(domains()), N, false, true));
+        assertFalse(new File(output + ".spill").exists());
+        assertFalse(new File(output).exists());
+        Memory.free(constraint);
+    }
+
+    @Test
+    void reduceFile() throws IOException {
+        // Unreduced prefix tree
+        MDD mdd = RandomMDD.trie(300, N, D, 7);
+        File raw = file(), reduced = file();
+        MDDReader.setMode(MDDReader.TOP_DOWN_COMPACT);
+        assertTrue(MDDReader.save(mdd, raw.getPath()));
+        MDDReader.setMode(MDDReader.BOTTOM_UP);
+        assertTrue(MDDReader.reduce(raw.getPath(), reduced.getPath()));
+
+        mdd.reduce();
+        MDD loaded = MDD.create();
+        assertTrue(MDDReader.load(loaded, reduced.getPath()));
+        assertEquals(mdd.nSolutions(), loaded.nSolutions());
+        assertEquals(mdd.nodes(), loaded.nodes());
+        assertEquals(mdd.arcs(), loaded.arcs());
+
+        Memory.free(mdd);
+        Memory.free(loaded);
+    }
+
+    @Test
+    void reduceFailure() throws IOException {
+        MDD mdd = RandomMDD.trie(300, N, D, 7);
+        File raw = file(), reduced = file();
+        MDDReader.setMode(MDDReader.TOP_DOWN_COMPACT);
+        assertTrue(MDDReader.save(mdd, raw.getPath()));
+        MDDReader.setMode(MDDReader.BOTTOM_UP);
+        // Truncated input : no reduced file must be left behind
+        try (RandomAccessFile file = new RandomAccessFile(raw, "rw")) {
+            file.setLength(file.length() / 2);
+        }
+        try {
+            MDDReader.reduce(raw.getPath(), reduced.getPath());
+        } catch (RuntimeException ignored) {}
+        assertFalse(reduced.exists());
+        assertFalse(new File(reduced.getPath() + ".maps").exists());
+        Memory.free(mdd);
+    }
+
+}
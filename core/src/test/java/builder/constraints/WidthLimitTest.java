@@ -0,0 +1,263 @@
+package builder.constraints;
+
+import builder.constraints.parameters.ParametersAllDiff;
+import builder.constraints.parameters.ParametersAmong;
+import builder.constraints.parameters.ParametersGCC;
+import builder.constraints.parameters.ParametersSum;
+import builder.constraints.states.*;
+import builder.rules.SuccessionRuleDefault;
+import dd.RandomMDD;
+import dd.interfaces.INode;
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import dd.mdd.components.StateNode;
+import dd.operations.ConstraintOperation;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.Domains;
+import structures.arrays.ArrayOfInt;
+import structures.generics.MapOf;
+import structures.generics.SetOf;
+import structures.tuples.TupleOfInt;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WidthLimitTest {
+
+    private static final int N = 6, D = 4, MIN = 8, MAX = 10, W = 3;
+
+    /**
+     * Sum constraint holding an interval of partial sums : the merge is the union of the intervals
+     */
+    private static class IntervalSum extends NodeState {
+        int lo, hi;
+
+        IntervalSum(int lo, int hi){
+            super(-1);
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public NodeState createState(int label, int layer, int size) {
+            return new IntervalSum(lo + label, hi + label);
+        }
+
+        @Override
+        public boolean isValid(int label, int layer, int size) {
+            return lo + label <= MAX && hi + label + (D - 1) * (size - 1 - layer) >= MIN;
+        }
+
+        @Override
+        public NodeState merge(NodeState state, int label, int layer, int size) {
+            IntervalSum other = (IntervalSum) state;
+            lo = Math.min(lo, other.lo + label);
+            hi = Math.max(hi, other.hi + label);
+            return null;
+        }
+
+        @Override
+        public boolean isMergeable() {
+            return true;
+        }
+
+        @Override
+        public String signature(int label, int layer, int size) {
+            return (lo + label) + "," + (hi + label);
+        }
+
+        @Override
+        public void free() {
+        }
+    }
+
+    /**
+     * Sum constraint without over-approximating merge
+     */
+    private static class ExactSum extends IntervalSum {
+
+        ExactSum(int sum){
+            super(sum, sum);
+        }
+
+        @Override
+        public NodeState createState(int label, int layer, int size) {
+            return new ExactSum(lo + label);
+        }
+
+        @Override
+        public boolean isMergeable() {
+            return false;
+        }
+    }
+
+    private StateNode root(){
+        StateNode root = StateNode.create();
+        root.setState(new IntervalSum(0, 0));
+        return root;
+    }
+
+    private StateNode root(NodeState state){
+        StateNode root = StateNode.create();
+        root.setState(state);
+        return root;
+    }
+
+    /**
+     * The constraints whose states are defined in the library
+     */
+    private Supplier<StateNode>[] library(){
+        ArrayOfInt minValues = ArrayOfInt.create(N+1), maxValues = ArrayOfInt.create(N+1);
+        for(int i = 0; i <= N; i++) maxValues.set(i, (D - 1) * (N - i));
+        ParametersSum sum = ParametersSum.create(MIN, MAX, minValues, maxValues, null);
+        SetOf<Integer> V = Memory.SetOfInteger();
+        V.add(0); V.add(1); V.add(2);
+        ParametersAllDiff allDiff = ParametersAllDiff.create(V, null);
+        SetOf<Integer> among = Memory.SetOfInteger();
+        among.add(0); among.add(1);
+        ParametersAmong sequence = ParametersAmong.create(3, 1, 2, among, null);
+        MapOf<Integer, TupleOfInt> values = Memory.MapOfIntegerTupleOfInt();
+        values.put(0, TupleOfInt.create(1, 2));
+        values.put(3, TupleOfInt.create(0, 2));
+        ParametersGCC gcc = ParametersGCC.create(values, null);
+        return new Supplier[]{
+                () -> root(StateSum.create(sum)),
+                () -> root(StateAllDiff.create(allDiff)),
+                () -> root(StateAmong.create(sequence)),
+                () -> {
+                    StateGCC state = StateGCC.create(gcc);
+                    state.initV();
+                    return root(state);
+                }
+        };
+    }
+
+    private Domains domains(){
+        Domains domains = Domains.create();
+        for(int i = 0; i < N; i++) {
+            domains.add(i);
+            for(int v = 0; v < D; v++) domains.put(i, v);
+        }
+        return domains;
+    }
+
+    private boolean contains(MDD mdd, int[] tuple){
+        INode node = mdd.getRoot();
+        for(int i = 0; i < tuple.length && node != null; i++) node = node.getChild(tuple[i]);
+        return node != null;
+    }
+
+    /**
+     * Check the width of the MDD and compare its solutions with the solutions of the constraint
+     */
+    private void check(MDD mdd, boolean relaxed){
+        for(int i = 0; i < mdd.size(); i++) assertTrue(mdd.getLayerSize(i) <= W);
+        int[] tuple = new int[N];
+        int exact = 0, found = 0;
+        for(int t = 0; t < Math.pow(D, N); t++) {
+            int sum = 0;
+            for(int i = 0, r = t; i < N; i++, r /= D) sum += tuple[i] = r % D;
+            boolean solution = MIN <= sum && sum <= MAX, contained = contains(mdd, tuple);
+            if(solution) exact++;
+            if(contained) found++;
+            if(relaxed && solution) assertTrue(contained);
+            if(!relaxed && contained) assertTrue(solution);
+        }
+        if(relaxed) assertTrue(found > exact);
+        else assertTrue(0 < found && found < exact);
+    }
+
+    private int width(MDD mdd){
+        int width = 0;
+        for(int i = 0; i < mdd.size(); i++) width = Math.max(width, mdd.getLayerSize(i));
+        return width;
+    }
+
+    /**
+     * Check that the relaxed MDD contains all the solutions of the exact one, and only tuples of the operand (if any)
+     */
+    private void check(MDD relaxed, MDD exact, MDD operand){
+        int[] tuple = new int[N];
+        for(int t = 0; t < Math.pow(D, N); t++) {
+            for(int i = 0, r = t; i < N; i++, r /= D) tuple[i] = r % D;
+            if(contains(exact, tuple)) assertTrue(contains(relaxed, tuple));
+            if(operand != null && contains(relaxed, tuple)) assertTrue(contains(operand, tuple));
+        }
+    }
+
+    @Test
+    void build(){
+        SuccessionRuleDefault rule = SuccessionRuleDefault.create(domains());
+        MDD relaxed = MDD.create(), restricted = MDD.create();
+        ConstraintBuilder.build(relaxed, root(), rule, N, false, WidthLimit.relaxed(W));
+        ConstraintBuilder.build(restricted, root(), rule, N, false, WidthLimit.restricted(W));
+        check(relaxed, true);
+        check(restricted, false);
+        Memory.free(rule);
+    }
+
+    @Test
+    void intersection(){
+        MDD universal = MDD.create();
+        universal.setSize(N+1);
+        Node current = universal.getRoot();
+        for(int i = 1; i <= N; i++) {
+            Node next = universal.Node();
+            universal.addNode(next, i);
+            for(int v = 0; v < D; v++) universal.addArc(current, v, next, i-1);
+            current = next;
+        }
+        MDD relaxed = MDD.create(), restricted = MDD.create();
+        ConstraintOperation.intersection(relaxed, universal, root(), false, WidthLimit.relaxed(W));
+        ConstraintOperation.intersection(restricted, universal, root(), false, WidthLimit.restricted(W));
+        check(relaxed, true);
+        check(restricted, false);
+        Memory.free(universal);
+    }
+
+    @Test
+    void buildLibrary(){
+        SuccessionRuleDefault rule = SuccessionRuleDefault.create(domains());
+        for(Supplier<StateNode> constraint : library()) {
+            MDD exact = MDD.create(), relaxed = MDD.create();
+            ConstraintBuilder.build(exact, constraint.get(), rule, N, false);
+            ConstraintBuilder.build(relaxed, constraint.get(), rule, N, false, WidthLimit.relaxed(W));
+            assertTrue(width(exact) > W);
+            assertTrue(width(relaxed) <= W);
+            check(relaxed, exact, null);
+            Memory.free(exact);
+            Memory.free(relaxed);
+        }
+        Memory.free(rule);
+    }
+
+    @Test
+    void intersectionLibrary(){
+        // Several nodes of the operand lead to the same state node : the merges must not modify it
+        MDD operand = RandomMDD.create(300, N, D, 42);
+        for(Supplier<StateNode> constraint : library()) {
+            MDD exact = MDD.create(), relaxed = MDD.create();
+            ConstraintOperation.intersection(exact, operand, constraint.get(), false);
+            ConstraintOperation.intersection(relaxed, operand, constraint.get(), false, WidthLimit.relaxed(W));
+            assertTrue(width(exact) > width(relaxed));
+            check(relaxed, exact, operand);
+            Memory.free(exact);
+            Memory.free(relaxed);
+        }
+        Memory.free(operand);
+    }
+
+    @Test
+    void unmergeable(){
+        SuccessionRuleDefault rule = SuccessionRuleDefault.create(domains());
+        assertThrows(UnsupportedOperationException.class, () -> ConstraintBuilder.build(MDD.create(), root(new ExactSum(0)), rule, N, false, WidthLimit.relaxed(W)));
+        // Restricting does not merge the states
+        MDD restricted = MDD.create();
+        ConstraintBuilder.build(restricted, root(new ExactSum(0)), rule, N, false, WidthLimit.restricted(W));
+        assertTrue(width(restricted) <= W);
+        Memory.free(rule);
+    }
+
+}
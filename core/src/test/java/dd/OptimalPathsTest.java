@@ -0,0 +1,109 @@
+package dd;
+
+import dd.mdd.MDD;
+import dd.mdd.costmdd.CostMDD;
+import dd.mdd.components.Node;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimalPathsTest {
+
+    private static final int N = 7, D = 4;
+
+    private static long cost(long[][] weights, int[] path){
+        long cost = 0;
+        for(int i = 0; i < path.length; i++) cost += weights[i][path[i]];
+        return cost;
+    }
+
+    @Test
+    void labelWeights(){
+        Random random = new Random(5);
+        MDD mdd = MDD.create();
+        mdd.setSize(N+1);
+        int[] path = new int[N];
+        for(int p = 0; p < 800; p++) {
+            for(int i = 0; i < N; i++) path[i] = random.nextInt(D);
+            mdd.addPath(path);
+        }
+        mdd.reduce();
+        long[][] weights = new long[N][D];
+        for(long[] layer : weights) for(int v = 0; v < D; v++) layer[v] = random.nextInt(21) - 10;
+        ArcCost cost = (layer, source, label) -> weights[layer][label];
+
+        List<Long> costs = new ArrayList<>();
+        for(Iterator<int[]> it = mdd.solutions(); it.hasNext();) costs.add(cost(weights, it.next()));
+        Collections.sort(costs);
+
+        assertEquals((long) costs.get(0), mdd.optimum(cost, false));
+        assertEquals((long) costs.get(costs.size() - 1), mdd.optimum(cost, true));
+        int[] argMin = mdd.optimalSolution(cost, false);
+        assertEquals((long) costs.get(0), cost(weights, argMin));
+
+        // All the solutions, by increasing then decreasing cost, each one once
+        for(boolean maximise : new boolean[]{false, true}) {
+            Set<List<Integer>> seen = new HashSet<>();
+            int k = 0;
+            for(Iterator<WeightedPath> it = mdd.bestSolutions(cost, maximise); it.hasNext(); k++) {
+                WeightedPath best = it.next();
+                assertEquals((long) costs.get(maximise ? costs.size() - 1 - k : k), best.getCost());
+                assertEquals(best.getCost(), cost(weights, best.getLabels()));
+                List<Integer> labels = new ArrayList<>();
+                for(int v : best.getLabels()) labels.add(v);
+                assertTrue(seen.add(labels));
+            }
+            assertEquals(costs.size(), k);
+        }
+        Memory.free(mdd);
+    }
+
+    @Test
+    void costMDD(){
+        // root -0/3-> a, root -1/1-> b ; a -0/2-> tt, a -1/-4-> tt ; b -0/5-> tt
+        CostMDD mdd = CostMDD.create();
+        mdd.setSize(3);
+        Node a = mdd.Node(), b = mdd.Node(), tt = mdd.Node();
+        mdd.addArcAndNode(mdd.getRoot(), 0, a, 3, 1);
+        mdd.addArcAndNode(mdd.getRoot(), 1, b, 1, 1);
+        mdd.addArcAndNode(a, 0, tt, 2, 2);
+        mdd.addArc(a, 1, tt, -4, 1);
+        mdd.addArc(b, 0, tt, 5, 1);
+        mdd.setTT();
+
+        assertEquals(-1, mdd.minCost());
+        assertEquals(6, mdd.maxCost());
+        assertArrayEquals(new int[]{0, 1}, mdd.argMin());
+        assertArrayEquals(new int[]{1, 0}, mdd.argMax());
+        Iterator<WeightedPath> best = mdd.bestSolutions(false);
+        assertEquals(-1, best.next().getCost());
+        assertEquals(5, best.next().getCost());
+        assertEquals(6, best.next().getCost());
+        assertFalse(best.hasNext());
+        Memory.free(mdd);
+
+        MDD empty = MDD.create();
+        empty.setSize(3);
+        assertThrows(NoSuchElementException.class, () -> empty.optimum((layer, source, label) -> 0, false));
+        assertFalse(empty.bestSolutions((layer, source, label) -> 0, false).hasNext());
+    }
+
+    @Test
+    void overflow(){
+        MDD mdd = MDD.create();
+        mdd.setSize(3);
+        mdd.addPath(0, 0);
+        mdd.reduce();
+        ArcCost large = (layer, source, label) -> Long.MAX_VALUE / 2 + 1;
+        assertThrows(ArithmeticException.class, () -> mdd.optimum(large, false));
+        assertThrows(ArithmeticException.class, () -> mdd.bestSolutions(large, false).next());
+        // The maximum is computed on the opposite costs
+        ArcCost smallest = (layer, source, label) -> layer == 0 ? Long.MIN_VALUE : 0;
+        assertThrows(ArithmeticException.class, () -> mdd.optimum(smallest, true));
+        assertEquals(Long.MIN_VALUE, mdd.optimum(smallest, false));
+        Memory.free(mdd);
+    }
+}
@@ -0,0 +1,62 @@
+package dd;
+
+import dd.mdd.MDD;
+
+import java.util.Random;
+
+/**
+ * <b>Random MDDs shared by the tests.</b><br>
+ * The MDDs are built by adding random paths to a prefix tree, so that a seed always gives the same MDD.
+ */
+public final class RandomMDD {
+
+    private RandomMDD(){}
+
+    /**
+     * Create the prefix tree of random paths, without reducing it
+     * @param paths The number of paths to add
+     * @param n The number of variables
+     * @param min The smallest label
+     * @param d The number of labels (from min to min+d-1)
+     * @param seed The seed of the random generator
+     * @return An unreduced MDD of size n+1
+     */
+    public static MDD trie(int paths, int n, int min, int d, long seed){
+        Random random = new Random(seed);
+        MDD mdd = MDD.create();
+        mdd.setSize(n+1);
+        int[] path = new int[n];
+        for(int p = 0; p < paths; p++) {
+            for(int i = 0; i < n; i++) path[i] = min + random.nextInt(d);
+            mdd.addPath(path);
+        }
+        return mdd;
+    }
+
+    /**
+     * Create the prefix tree of random paths with labels from 0 to d-1, without reducing it
+     * @param paths The number of paths to add
+     * @param n The number of variables
+     * @param d The number of labels
+     * @param seed The seed of the random generator
+     * @return An unreduced MDD of size n+1
+     */
+    public static MDD trie(int paths, int n, int d, long seed){
+        return trie(paths, n, 0, d, seed);
+    }
+
+    /**
+     * Create the reduced MDD of random paths with labels from 0 to d-1
+     * @param paths The number of paths to add
+     * @param n The number of variables
+     * @param d The number of labels
+     * @param seed The seed of the random generator
+     * @return A reduced MDD of size n+1
+     */
+    public static MDD create(int paths, int n, int d, long seed){
+        MDD mdd = trie(paths, n, d, seed);
+        mdd.reduce();
+        return mdd;
+    }
+
+}
@@ -0,0 +1,150 @@
+package dd;
+
+import dd.bdd.BDD;
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import dd.mdd.costmdd.CostMDD;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.arrays.ArrayOfInt;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderingTest {
+
+    private static Set<List<Integer>> solutions(DecisionDiagram dd, int[] order){
+        Set<List<Integer>> solutions = new HashSet<>();
+        for(Iterator<int[]> it = dd.solutions(); it.hasNext();) {
+            int[] solution = it.next();
+            // Values given in the original order of the variables
+            Integer[] original = new Integer[solution.length];
+            for(int j = 0; j < solution.length; j++) original[order[j]] = solution[j];
+            solutions.add(Arrays.asList(original));
+        }
+        return solutions;
+    }
+
+    private static int[] identity(int n){
+        int[] order = new int[n];
+        for(int i = 0; i < n; i++) order[i] = i;
+        return order;
+    }
+
+    @Test
+    void swap(){
+        int n = 6, d = 3;
+        MDD mdd = RandomMDD.create(200, n, d, 5);
+        Set<List<Integer>> expected = solutions(mdd, identity(n));
+        int nodes = mdd.nodes();
+
+        int[] order = identity(n);
+        for(int i = 0; i < n - 1; i++) {
+            mdd.swapVariables(i);
+            int tmp = order[i]; order[i] = order[i+1]; order[i+1] = tmp;
+            assertEquals(expected, solutions(mdd, order));
+            // The MDD stays reduced
+            MDD copy = mdd.copy();
+            copy.reduce();
+            assertEquals(copy.nodes(), mdd.nodes());
+            Memory.free(copy);
+        }
+        for(int i = n - 2; i >= 0; i--) mdd.swapVariables(i);
+        assertEquals(expected, solutions(mdd, identity(n)));
+        assertEquals(nodes, mdd.nodes());
+        assertThrows(IllegalArgumentException.class, () -> mdd.swapVariables(n - 1));
+        Memory.free(mdd);
+    }
+
+    @Test
+    void sift(){
+        // x_j = x_{k+j} : exponential in the order x_0..x_{k-1}, x_k..x_{2k-1}, linear when the pairs are adjacent
+        int k = 6;
+        MDD mdd = MDD.create();
+        mdd.setSize(2*k+1);
+        int[] path = new int[2*k];
+        for(int t = 0; t < 1 << k; t++) {
+            for(int j = 0; j < k; j++) path[j] = path[k+j] = (t >> j) & 1;
+            mdd.addPath(path);
+        }
+        mdd.reduce();
+        Set<List<Integer>> expected = solutions(mdd, identity(2*k));
+        int nodes = mdd.nodes();
+
+        int[] order = mdd.sift(60_000);
+        assertEquals(expected, solutions(mdd, order));
+        assertTrue(mdd.nodes() < nodes);
+        assertTrue(mdd.nodes() <= 3*k + 1);
+        for(int j = 0; j < 2*k; j++) assertTrue(mdd.getDomains().get(j).contains(0));
+        Memory.free(mdd);
+    }
+
+    @Test
+    void bdd(){
+        int n = 8;
+        Random random = new Random(7);
+        BDD bdd = BDD.create(n+1);
+        ArrayOfInt path = ArrayOfInt.create(n);
+        for(int p = 0; p < 60; p++) {
+            for(int i = 0; i < n; i++) path.set(i, random.nextInt(2));
+            bdd.addPath(path);
+        }
+        Memory.free(path);
+        bdd.reduce();
+        Set<List<Integer>> expected = solutions(bdd, identity(n));
+
+        int[] order = bdd.sift(60_000);
+        assertEquals(expected, solutions(bdd, order));
+        Memory.free(bdd);
+    }
+
+    @Test
+    void costs(){
+        int n = 6, d = 3;
+        Random random = new Random(11);
+        CostMDD mdd = CostMDD.create();
+        mdd.setSize(n+1);
+        Node tt = mdd.Node();
+        mdd.addNode(tt, n);
+        for(int p = 0; p < 150; p++) {
+            Node x = mdd.getRoot();
+            for(int i = 0; i < n; i++) {
+                int v = random.nextInt(d);
+                Node y = x.getChild(v);
+                if(y == null) {
+                    y = i == n - 1 ? tt : mdd.Node();
+                    if(i < n - 1) mdd.addNode(y, i + 1);
+                    mdd.addArc(x, v, y, random.nextInt(21) - 10, i);
+                }
+                x = y;
+            }
+        }
+        mdd.setTT();
+        Map<List<Integer>, Long> expected = costs(mdd, identity(n));
+
+        int[] order = identity(n);
+        for(int i = 0; i < n - 1; i++) {
+            mdd.swapVariables(i);
+            int tmp = order[i]; order[i] = order[i+1]; order[i+1] = tmp;
+            assertEquals(expected, costs(mdd, order));
+        }
+        // The order given by sift is relative to the order before the sifting
+        int[] sifted = mdd.sift(60_000), composed = new int[n];
+        for(int j = 0; j < n; j++) composed[j] = order[sifted[j]];
+        assertEquals(expected, costs(mdd, composed));
+        Memory.free(mdd);
+    }
+
+    private static Map<List<Integer>, Long> costs(CostMDD mdd, int[] order){
+        Map<List<Integer>, Long> costs = new HashMap<>();
+        for(Iterator<WeightedPath> it = mdd.bestSolutions(false); it.hasNext();) {
+            WeightedPath path = it.next();
+            Integer[] original = new Integer[path.getLabels().length];
+            for(int j = 0; j < original.length; j++) original[order[j]] = path.getLabels()[j];
+            assertNull(costs.put(Arrays.asList(original), path.getCost()));
+        }
+        return costs;
+    }
+
+}
@@ -0,0 +1,130 @@
+package dd;
+
+import dd.bdd.BDDApply;
+import dd.bdd.BDD;
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import dd.mdd.nondeterministic.NDMDD;
+import dd.mdd.nondeterministic.components.NDNode;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionsTest {
+
+    @Test
+    void mdd(){
+        int n = 7, d = 3;
+        Random random = new Random(3);
+        MDD mdd = MDD.create();
+        mdd.setSize(n+1);
+        Set<List<Integer>> paths = new HashSet<>();
+        int[] path = new int[n];
+        for(int p = 0; p < 500; p++) {
+            List<Integer> list = new ArrayList<>();
+            for(int i = 0; i < n; i++) list.add(path[i] = random.nextInt(d));
+            mdd.addPath(path);
+            paths.add(list);
+        }
+        mdd.reduce();
+
+        assertEquals(BigInteger.valueOf(paths.size()), mdd.count());
+        assertEquals(mdd.nSolutions(), mdd.count().doubleValue());
+
+        Set<List<Integer>> enumerated = new HashSet<>();
+        int[] previous = null;
+        for(Iterator<int[]> it = mdd.solutions(); it.hasNext();) {
+            int[] solution = it.next();
+            // No allocation : the same array is returned
+            if(previous != null) assertSame(previous, solution);
+            previous = solution;
+            List<Integer> list = new ArrayList<>();
+            for(int v : solution) list.add(v);
+            assertTrue(enumerated.add(list));
+        }
+        assertEquals(paths, enumerated);
+
+        List<Map<Integer, BigInteger>> marginals = mdd.countPerLayerValue();
+        assertEquals(n, marginals.size());
+        for(int i = 0; i < n; i++) {
+            for(int v = 0; v < d; v++) {
+                long expected = 0;
+                for(List<Integer> p : paths) if(p.get(i) == v) expected++;
+                assertEquals(expected, marginals.get(i).getOrDefault(v, BigInteger.ZERO).longValue());
+            }
+        }
+        Memory.free(mdd);
+    }
+
+    @Test
+    void overflow(){
+        int n = 70;
+        MDD mdd = MDD.create();
+        mdd.setSize(n+1);
+        Node current = mdd.getRoot();
+        for(int i = 1; i <= n; i++) {
+            Node next = mdd.Node();
+            mdd.addNode(next, i);
+            mdd.addArc(current, 0, next, i-1);
+            mdd.addArc(current, 1, next, i-1);
+            current = next;
+        }
+        assertEquals(BigInteger.ONE.shiftLeft(n), mdd.count());
+        for(Map<Integer, BigInteger> layer : mdd.countPerLayerValue()) {
+            assertEquals(BigInteger.ONE.shiftLeft(n - 1), layer.get(0));
+            assertEquals(BigInteger.ONE.shiftLeft(n - 1), layer.get(1));
+        }
+        Iterator<int[]> it = mdd.solutions();
+        assertArrayEquals(new int[n], it.next());
+        Memory.free(mdd);
+    }
+
+    @Test
+    void bdd(){
+        BDDApply engine = new BDDApply(5);
+        // x0 xor x1, x2 free, x3 = 1
+        int x3 = engine.node(BDDApply.FALSE, BDDApply.TRUE);
+        int x2 = engine.node(x3, x3);
+        int x1a = engine.node(BDDApply.FALSE, x2), x1b = engine.node(x2, BDDApply.FALSE);
+        int root = engine.node(x1a, x1b);
+        BDD bdd = engine.toBDD(root);
+        assertEquals(BigInteger.valueOf(4), bdd.count());
+        int solutions = 0;
+        for(Iterator<int[]> it = bdd.solutions(); it.hasNext();) {
+            int[] solution = it.next();
+            assertEquals(1, solution[0] ^ solution[1]);
+            assertEquals(1, solution[3]);
+            solutions++;
+        }
+        assertEquals(4, solutions);
+        Memory.free(bdd);
+    }
+
+    @Test
+    void ndmdd(){
+        NDMDD mdd = NDMDD.create();
+        mdd.setSize(3);
+        NDNode a = mdd.Node(), b = mdd.Node(), tt = mdd.Node();
+        mdd.addNode(a, 1);
+        mdd.addNode(b, 1);
+        mdd.addNode(tt, 2);
+        mdd.addArc(mdd.getRoot(), 0, a, 0);
+        mdd.addArc(mdd.getRoot(), 0, b, 0);
+        mdd.addArc(a, 1, tt, 1);
+        mdd.addArc(b, 1, tt, 1);
+        mdd.addArc(b, 2, tt, 1);
+        mdd.setTT();
+        // Paths : 0-1 (twice) and 0-2
+        assertEquals(BigInteger.valueOf(3), mdd.count());
+        assertEquals(BigInteger.valueOf(3), mdd.countPerLayerValue().get(0).get(0));
+        assertEquals(BigInteger.valueOf(2), mdd.countPerLayerValue().get(1).get(1));
+        int paths = 0;
+        for(Iterator<int[]> it = mdd.solutions(); it.hasNext(); it.next()) paths++;
+        assertEquals(3, paths);
+    }
+
+}
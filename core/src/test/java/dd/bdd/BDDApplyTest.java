@@ -0,0 +1,91 @@
+package dd.bdd;
+
+import dd.DecisionDiagram;
+import dd.operations.Operation;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.arrays.ArrayOfInt;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BDDApplyTest {
+
+    private static final int N = 12;
+
+    private BDD random(int paths, long seed){
+        Random random = new Random(seed);
+        BDD bdd = BDD.create(N+1);
+        ArrayOfInt path = ArrayOfInt.create(N);
+        for(int p = 0; p < paths; p++) {
+            for(int i = 0; i < N; i++) path.set(i, random.nextInt(2));
+            bdd.addPath(path);
+        }
+        Memory.free(path);
+        bdd.reduce();
+        return bdd;
+    }
+
+    @Test
+    void operations(){
+        BDD bdd1 = random(300, 1), bdd2 = random(300, 2);
+        BDDApply engine = new BDDApply(N+1);
+        int a = engine.load(bdd1), b = engine.load(bdd2);
+        assertEquals(a, engine.load(bdd1));
+
+        BDD and = engine.toBDD(engine.and(a, b)), or = engine.toBDD(engine.or(a, b));
+        DecisionDiagram intersection = Operation.intersection(bdd1, bdd2);
+        assertEquals(intersection.nSolutions(), and.nSolutions());
+        assertEquals(intersection.nodes(), and.nodes());
+        assertEquals(bdd1.nSolutions() + bdd2.nSolutions() - and.nSolutions(), or.nSolutions());
+        DecisionDiagram union = Operation.union(bdd1, bdd2);
+        assertEquals(union.nSolutions(), or.nSolutions());
+        assertEquals(union.nodes(), or.nodes());
+
+        BDD xor = engine.toBDD(engine.xor(a, b)), minus = engine.toBDD(engine.minus(a, b));
+        assertEquals(bdd1.nSolutions() + bdd2.nSolutions() - 2 * and.nSolutions(), xor.nSolutions());
+        assertEquals(bdd1.nSolutions() - and.nSolutions(), minus.nSolutions());
+        assertEquals(BDDApply.FALSE, engine.minus(a, a));
+        assertEquals(engine.or(a, b), engine.or(engine.xor(a, b), engine.and(a, b)));
+
+        // The result of a repeated operation is read from the computed table
+        int nodes = engine.numberOfNodes();
+        assertEquals(engine.and(a, b), engine.and(b, a));
+        assertEquals(nodes, engine.numberOfNodes());
+        // Reduced on creation
+        assertEquals(engine.and(a, b), engine.load(and));
+
+        Memory.free(bdd1);
+        Memory.free(bdd2);
+    }
+
+    @Test
+    void union(){
+        // Sparse BDDs : the intersections often have no solution, and the layers have different sizes
+        for(long seed = 0; seed < 50; seed++) {
+            BDD bdd1 = random(5, seed), bdd2 = random(5, seed + 100);
+            BDDApply engine = new BDDApply(N+1);
+            BDD or = engine.toBDD(engine.or(engine.load(bdd1), engine.load(bdd2)));
+            DecisionDiagram union = Operation.union(bdd1, bdd2), intersection = Operation.intersection(bdd1, bdd2);
+            assertEquals(bdd1.nSolutions() + bdd2.nSolutions() - intersection.nSolutions(), union.nSolutions());
+            assertEquals(or.nSolutions(), union.nSolutions());
+            assertEquals(or.nodes(), union.nodes());
+            Memory.free(bdd1);
+            Memory.free(bdd2);
+        }
+    }
+
+    @Test
+    void smallCache(){
+        BDD bdd1 = random(200, 3), bdd2 = random(200, 4);
+        BDDApply engine = new BDDApply(N+1, 16), lossy = new BDDApply(N+1, 2);
+        BDD expected = engine.toBDD(engine.xor(engine.load(bdd1), engine.load(bdd2)));
+        BDD result = lossy.toBDD(lossy.xor(lossy.load(bdd1), lossy.load(bdd2)));
+        assertEquals(expected.nSolutions(), result.nSolutions());
+        assertEquals(expected.nodes(), result.nodes());
+        Memory.free(bdd1);
+        Memory.free(bdd2);
+    }
+
+}
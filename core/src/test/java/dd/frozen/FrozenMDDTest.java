@@ -0,0 +1,90 @@
+package dd.frozen;
+
+import dd.DecisionDiagram;
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import dd.operations.Operation;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrozenMDDTest {
+
+    @Test
+    void sameDiagram(){
+        MDD mdd = RandomMDD.create(5000, 10, 4, 3);
+        FrozenMDD frozen = mdd.freeze();
+
+        assertEquals(mdd.size(), frozen.size());
+        assertEquals(mdd.nodes(), frozen.nodes());
+        assertEquals(mdd.arcs(), frozen.arcs());
+        assertEquals(mdd.nSolutions(), frozen.nSolutions());
+        for(int i = 0; i < mdd.size(); i++) assertEquals(mdd.getLayerSize(i), frozen.getLayerSize(i));
+        for(int i = 0; i < mdd.size() - 1; i++) assertEquals(mdd.getDomainSize(i), frozen.getDomainSize(i));
+        for(int[] solution : mdd.extractSolutions(100)) assertTrue(frozen.contains(solution));
+
+        // The frozen DD can be used as an operand, and thawed with a copy
+        assertTrue(Operation.inclusion(mdd, frozen));
+        assertTrue(Operation.inclusion(frozen, mdd));
+        MDD thawed = (MDD) frozen.copy(MDD.create());
+        assertEquals(mdd.nSolutions(), thawed.nSolutions());
+        assertTrue(Operation.inclusion(mdd, thawed));
+
+        // As the first operand, the result is an MDD
+        MDD inter = (MDD) Operation.intersection((DecisionDiagram) frozen, mdd);
+        assertEquals(mdd.nSolutions(), inter.nSolutions());
+        assertTrue(Operation.inclusion(mdd, inter));
+
+        Memory.free(inter);
+        Memory.free(thawed);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void randomWalkDeadEnd(){
+        // Unreduced : the node reached with 1 has no out-going arc
+        MDD mdd = MDD.create();
+        mdd.setSize(3);
+        mdd.addPath(new int[]{0, 0});
+        mdd.addArcAndNode(mdd.getRoot(), 1, mdd.Node(), 1);
+        FrozenMDD frozen = mdd.freeze();
+
+        Random random = new Random(0);
+        int[] path = new int[2];
+        boolean deadEnd = false;
+        for(int k = 0; k < 50; k++) {
+            int[] walk = frozen.randomWalk(random, path);
+            if(walk == null) deadEnd = true;
+            else assertArrayEquals(new int[]{0, 0}, walk);
+        }
+        assertTrue(deadEnd);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void unreachableNode(){
+        MDD mdd = MDD.create();
+        mdd.setSize(3);
+        mdd.addPath(new int[]{0, 0});
+        mdd.addPath(new int[]{1, 1});
+        mdd.reduce();
+        // A node of the layer 1 that no arc reaches
+        Node dangling = mdd.Node();
+        mdd.addNode(dangling, 1);
+        mdd.addArc(dangling, 2, mdd.getTt(), 1);
+
+        FrozenMDD frozen = mdd.freeze();
+        assertEquals(mdd.nodes() - 1, frozen.nodes());
+        assertEquals(mdd.arcs() - 1, frozen.arcs());
+        assertEquals(2, frozen.nSolutions());
+        assertEquals(2, frozen.getDomainSize(1));
+        assertTrue(frozen.contains(new int[]{1, 1}));
+        assertFalse(frozen.contains(new int[]{0, 2}));
+        Memory.free(mdd);
+    }
+
+}
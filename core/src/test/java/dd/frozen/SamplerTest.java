@@ -0,0 +1,97 @@
+package dd.frozen;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplerTest {
+
+    private static final int SAMPLES = 200_000;
+
+    /**
+     * Solutions : 00, 10, 11, 12. A uniform random walk draws 00 half of the time.
+     */
+    private MDD skewed(){
+        MDD mdd = MDD.create();
+        mdd.setSize(3);
+        mdd.addPath(new int[]{0, 0});
+        mdd.addPath(new int[]{1, 0});
+        mdd.addPath(new int[]{1, 1});
+        mdd.addPath(new int[]{1, 2});
+        mdd.reduce();
+        return mdd;
+    }
+
+    @Test
+    void uniform(){
+        MDD mdd = skewed();
+        Sampler sampler = Sampler.uniform(mdd);
+        int[] frequencies = new int[2 * 3];
+        int[] path = new int[2];
+        SplittableRandom random = new SplittableRandom(42);
+        for(int k = 0; k < SAMPLES; k++) {
+            sampler.sample(random, path);
+            frequencies[path[0] * 3 + path[1]]++;
+        }
+        for(int s : new int[]{0, 3, 4, 5}) assertEquals(0.25, frequencies[s] / (double) SAMPLES, 0.01);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void weighted(){
+        MDD mdd = MDD.create();
+        mdd.setSize(4);
+        for(int t = 0; t < 8; t++) mdd.addPath(new int[]{t & 1, (t >> 1) & 1, (t >> 2) & 1});
+        mdd.reduce();
+        double[] p = {0.2, 0.8};
+        Sampler sampler = Sampler.weighted(mdd, new double[][]{p, p, p});
+        int ones = 0;
+        SplittableRandom random = new SplittableRandom(7);
+        int[] samples = new int[SAMPLES * sampler.variables()];
+        sampler.sample(random, samples, SAMPLES);
+        for(int k = 0; k < SAMPLES; k++) if(samples[3*k] + samples[3*k+1] + samples[3*k+2] == 3) ones++;
+        assertEquals(0.512, ones / (double) SAMPLES, 0.01);
+
+        // A weight of 0 removes the label
+        Sampler zero = Sampler.weighted(mdd, new double[][]{{1, 0}, p, p});
+        for(int k = 0; k < 1000; k++) assertEquals(0, zero.sample(random)[0]);
+        assertTrue(Sampler.weighted(mdd, new double[][]{{0, 0}, p, p}).isEmpty());
+
+        // Large weights give the same distribution, infinite or negative weights are rejected
+        double[] large = {0.2 * Double.MAX_VALUE, 0.8 * Double.MAX_VALUE};
+        Sampler scaled = Sampler.weighted(mdd, new double[][]{large, large, large});
+        sampler.sample(new SplittableRandom(7), samples, SAMPLES);
+        int[] scaledSamples = new int[SAMPLES * scaled.variables()];
+        scaled.sample(new SplittableRandom(7), scaledSamples, SAMPLES);
+        assertArrayEquals(samples, scaledSamples);
+        assertThrows(IllegalArgumentException.class, () -> Sampler.weighted(mdd, new double[][]{{1, Double.POSITIVE_INFINITY}, p, p}));
+        assertThrows(IllegalArgumentException.class, () -> Sampler.weighted(mdd, new double[][]{{1, Double.NaN}, p, p}));
+        assertThrows(IllegalArgumentException.class, () -> Sampler.weighted(mdd, new double[][]{{1, -1}, p, p}));
+        Memory.free(mdd);
+    }
+
+    @Test
+    void parallel(){
+        MDD mdd = skewed();
+        FrozenMDD frozen = mdd.freeze();
+        Sampler sampler = Sampler.uniform(frozen);
+        int[] samples1 = sampler.sampleParallel(new SplittableRandom(1), SAMPLES);
+        int[] samples2 = sampler.sampleParallel(new SplittableRandom(1), SAMPLES);
+        assertArrayEquals(samples1, samples2);
+        int[] path = new int[2];
+        for(int k = 0; k < SAMPLES; k++) {
+            System.arraycopy(samples1, 2 * k, path, 0, 2);
+            assertTrue(frozen.contains(path));
+        }
+        // count * variables() overflows an int
+        assertThrows(IllegalArgumentException.class, () -> sampler.sampleParallel(new SplittableRandom(1), Integer.MAX_VALUE / 2 + 1));
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(new SplittableRandom(1), new int[4], Integer.MAX_VALUE / 2 + 1));
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(new SplittableRandom(1), new int[4], 3));
+        Memory.free(mdd);
+    }
+
+}
@@ -0,0 +1,109 @@
+package dd.mdd.components;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutArcsTest {
+
+    private void randomOperations(int bound, int offset, long seed){
+        Random random = new Random(seed);
+        OutArcs arcs = OutArcs.create();
+        HashMap<Integer, Node> expected = new HashMap<>();
+        Node[] nodes = new Node[8];
+        for(int i = 0; i < nodes.length; i++) nodes[i] = Node.create();
+
+        for(int op = 0; op < 5000; op++) {
+            int label = random.nextInt(bound) + offset;
+            int type = random.nextInt(10);
+            if(type < 6) {
+                Node node = nodes[random.nextInt(nodes.length)];
+                arcs.add(label, node);
+                expected.put(label, node);
+            } else if(type < 9) {
+                assertEquals(expected.remove(label) != null, arcs.remove(label));
+            } else arcs.sort();
+
+            assertEquals(expected.size(), arcs.size());
+            for(int i = 0; i < arcs.size(); i++) assertSame(expected.get(arcs.getValue(i)), arcs.getByIndex(i));
+            int v = random.nextInt(bound) + offset;
+            assertEquals(expected.containsKey(v), arcs.containsLabel(v));
+            assertSame(expected.get(v), arcs.get(v));
+        }
+
+        Memory.free(arcs);
+        for(Node node : nodes) Memory.free(node);
+    }
+
+    @Test
+    void directIndex(){
+        randomOperations(100, 0, 0);
+    }
+
+    @Test
+    void hashedIndex(){
+        randomOperations(300, -150, 1);
+    }
+
+    @Test
+    void directBound(){
+        OutArcs arcs = OutArcs.create();
+        Node node = Node.create();
+        for(int v = 0; v < 50; v++) arcs.add(v * 3, node);
+        // The index switches between a direct array and a hashed table, the lookups stay the same
+        for(int bound : new int[]{0, 1000, 10}) {
+            arcs.setDirectBound(bound);
+            for(int v = 0; v < 150; v++) assertEquals(v % 3 == 0, arcs.containsLabel(v));
+        }
+        Memory.free(arcs);
+        Memory.free(node);
+    }
+
+    @Test
+    void boundOfMDD(){
+        MDD mdd = MDD.create();
+        mdd.setSize(3);
+        mdd.addPath(0, 1);
+        mdd.setArcIndexBound(7);
+        mdd.addPath(1, 0);
+        for(int i = 0; i < mdd.size(); i++) for(Node node : mdd.getLayer(i)) assertEquals(7, node.getChildren().getDirectBound());
+        MDD result = mdd.DD();
+        assertEquals(7, result.getArcIndexBound());
+        assertEquals(7, result.getRoot().getChildren().getDirectBound());
+        Memory.free(result);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void placeholders(){
+        OutArcs arcs = OutArcs.create();
+        Node node = Node.create();
+        arcs.add(1, node);
+        // A label without child is counted, and has no child at its index
+        arcs.addValue(2);
+        assertEquals(2, arcs.size());
+        assertTrue(arcs.containsLabel(2));
+        assertFalse(arcs.contains(2));
+        assertNull(arcs.getByIndex(1));
+        Memory.free(arcs);
+        Memory.free(node);
+    }
+
+    @Test
+    void sortedOrder(){
+        OutArcs arcs = OutArcs.create();
+        Node node = Node.create();
+        for(int v = 20; v > 0; v -= 2) arcs.add(v, node);
+        arcs.sort();
+        for(int v = 1; v < 20; v += 2) arcs.add(v, node);
+        for(int i = 0; i < arcs.size(); i++) assertEquals(i+1, arcs.getValue(i));
+        Memory.free(arcs);
+        Memory.free(node);
+    }
+
+}
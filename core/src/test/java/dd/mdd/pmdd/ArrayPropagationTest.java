@@ -0,0 +1,70 @@
+package dd.mdd.pmdd;
+
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import dd.mdd.pmdd.components.properties.NodeProperty;
+import dd.mdd.pmdd.components.properties.PropertyGCC;
+import dd.mdd.pmdd.components.properties.PropertySum;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.generics.MapOf;
+import structures.tuples.TupleOfInt;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayPropagationTest {
+
+    private static final int N = 10, D = 6;
+
+    private PMDD randomPMDD(int paths, long seed){
+        // Labels from -1 to D-2, as the empty item of the knapsack
+        MDD mdd = RandomMDD.trie(paths, N, -1, D, seed);
+        mdd.reduce();
+        PMDD pmdd = PMDD.create();
+        mdd.copy(pmdd);
+        Memory.free(mdd);
+        return pmdd;
+    }
+
+    private void addProperties(PMDD pmdd, MapOf<Integer, Integer> weights, MapOf<Integer, TupleOfInt> gcc){
+        pmdd.addRootProperty("profit", PropertySum.create(0, 0, weights));
+        pmdd.addRootProperty("identity", PropertySum.create(0, 0));
+        pmdd.addRootProperty(NodeProperty.GCC, PropertyGCC.create(gcc));
+    }
+
+    private String results(MapOf<String, NodeProperty> properties){
+        return properties.get("profit") + " | " + properties.get("identity") + " | " + properties.get(NodeProperty.GCC);
+    }
+
+    @Test
+    void sameAsObjects(){
+        MapOf<Integer, Integer> weights = Memory.MapOfIntegerInteger();
+        for(int v = -1; v < D - 1; v++) weights.put(v, v < 0 ? 0 : 3 * v + 1);
+        MapOf<Integer, TupleOfInt> gcc = Memory.MapOfIntegerTupleOfInt();
+        gcc.put(0, TupleOfInt.create(0, 3));
+        gcc.put(2, TupleOfInt.create(1, 4));
+
+        PMDD objects = randomPMDD(30000, 1);
+        addProperties(objects, weights, gcc);
+        String expected = results(objects.propagateProperties());
+        assertFalse(expected.contains("null"));
+
+        PMDD arrays = randomPMDD(30000, 1);
+        addProperties(arrays, weights, gcc);
+        assertEquals(expected, results(arrays.propagatePropertiesOnArrays(null)));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PMDD parallel = randomPMDD(30000, 1);
+            addProperties(parallel, weights, gcc);
+            assertEquals(expected, results(parallel.propagatePropertiesOnArrays(pool)));
+            Memory.free(parallel);
+        } finally {
+            pool.shutdown();
+        }
+        Memory.free(objects);
+        Memory.free(arrays);
+    }
+}
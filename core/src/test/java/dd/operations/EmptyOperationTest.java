@@ -0,0 +1,42 @@
+package dd.operations;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmptyOperationTest {
+
+    private static MDD path(int... labels){
+        MDD mdd = MDD.create();
+        mdd.setSize(labels.length + 1);
+        mdd.addPath(labels);
+        mdd.reduce();
+        return mdd;
+    }
+
+    private static void assertEmpty(MDD result){
+        // Only the root and the tt node are left
+        assertEquals(5, result.size());
+        assertEquals(0, result.nSolutions());
+        assertEquals(2, result.nodes());
+        assertEquals(0, result.arcs());
+        Memory.free(result);
+    }
+
+    @Test
+    void disjoint(){
+        // The operands differ on the last, the third and the first variable
+        MDD a = path(0, 0, 0, 0), b = path(0, 0, 0, 1), c = path(0, 0, 1, 0), d = path(1, 0, 0, 0);
+        for(MDD other : new MDD[]{b, c, d}) {
+            assertEmpty(Operation.intersection(a, other));
+            assertEmpty(Operation.minus(other, other));
+        }
+        Memory.free(a);
+        Memory.free(b);
+        Memory.free(c);
+        Memory.free(d);
+    }
+
+}
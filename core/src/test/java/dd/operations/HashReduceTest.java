@@ -0,0 +1,40 @@
+package dd.operations;
+
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashReduceTest {
+
+    @AfterEach
+    void reset(){
+        MDD.setReductionMode(MDD.PACK_REDUCE);
+    }
+
+    @Test
+    void sameResultAsPack(){
+        for(int seed = 0; seed < 5; seed++) {
+            MDD pack = RandomMDD.trie(2000, 8, 3, seed);
+            MDD.setReductionMode(MDD.PACK_REDUCE);
+            pack.reduce();
+
+            MDD hash = RandomMDD.trie(2000, 8, 3, seed);
+            MDD.setReductionMode(MDD.HASH_REDUCE);
+            hash.reduce();
+
+            for(int i = 0; i < pack.size(); i++) assertEquals(pack.getLayerSize(i), hash.getLayerSize(i));
+            assertEquals(pack.arcs(), hash.arcs());
+            assertEquals(pack.nSolutions(), hash.nSolutions());
+            assertTrue(Operation.inclusion(pack, hash));
+            assertTrue(Operation.inclusion(hash, pack));
+
+            Memory.free(pack);
+            Memory.free(hash);
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package dd.operations;
+
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import structures.arrays.ArrayOfMDD;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionTreeTest {
+
+    private static final int N = 8, D = 3;
+
+    private ArrayOfMDD operands(int n, int paths){
+        ArrayOfMDD mdds = ArrayOfMDD.create(n);
+        for(int i = 0; i < n; i++) mdds.set(i, RandomMDD.create(paths + 300 * i, N, D, i));
+        return mdds;
+    }
+
+    private void free(ArrayOfMDD mdds){
+        for(MDD mdd : mdds) Memory.free(mdd);
+        Memory.free(mdds);
+    }
+
+    @AfterEach
+    void reset(){
+        Operation.setParallelism(1);
+        Memory.setConcurrent(false);
+    }
+
+    private void compare(ArrayOfMDD mdds){
+        MDD expected = Operation.intersection(mdds);
+        MDD tree = Operation.intersectionTree(mdds);
+        assertEquals(expected.nSolutions(), tree.nSolutions());
+        assertEquals(expected.nodes(), tree.nodes());
+        assertEquals(expected.arcs(), tree.arcs());
+        assertTrue(Operation.inclusion(expected, tree));
+        assertTrue(Operation.inclusion(tree, expected));
+        Memory.free(expected);
+        Memory.free(tree);
+    }
+
+    @Test
+    void sequential(){
+        ArrayOfMDD mdds = operands(5, 4000);
+        compare(mdds);
+        free(mdds);
+    }
+
+    @Test
+    void parallel(){
+        Memory.setConcurrent(true);
+        Operation.setParallelism(4);
+        for(int round = 0; round < 3; round++) {
+            ArrayOfMDD mdds = operands(7, 4000);
+            compare(mdds);
+            free(mdds);
+        }
+    }
+
+    @Test
+    void empty(){
+        // Two small operands with disjoint supports : they are sorted first and intersected first,
+        // so the first intermediate result is empty and the other intersections are not performed
+        ArrayOfMDD mdds = operands(3, 4000);
+        MDD zeros = MDD.create(), ones = MDD.create();
+        zeros.setSize(N+1);
+        ones.setSize(N+1);
+        zeros.addPath(new int[]{0, 0, 0, 0, 0, 0, 0, 0});
+        zeros.addPath(new int[]{0, 1, 1, 1, 1, 1, 1, 1});
+        ones.addPath(new int[]{1, 1, 1, 1, 1, 1, 1, 1});
+        ones.addPath(new int[]{1, 0, 0, 0, 0, 0, 0, 0});
+        zeros.reduce();
+        ones.reduce();
+        ArrayOfMDD all = ArrayOfMDD.create(5);
+        for(int i = 0; i < 3; i++) all.set(i, mdds.get(i));
+        all.set(3, zeros);
+        all.set(4, ones);
+        MDD tree = Operation.intersectionTree(all);
+        assertEquals(N+1, tree.size());
+        assertEquals(0, tree.arcs());
+        assertEquals(0, tree.nSolutions());
+        // The operands are not modified
+        assertEquals(2, zeros.nSolutions());
+        assertEquals(2, ones.nSolutions());
+        Memory.free(tree);
+        free(mdds);
+        Memory.free(zeros);
+        Memory.free(ones);
+        Memory.free(all);
+    }
+
+}
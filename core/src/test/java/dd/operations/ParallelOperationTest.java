@@ -0,0 +1,73 @@
+package dd.operations;
+
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelOperationTest {
+
+    private void assertSameMDD(MDD expected, MDD actual){
+        assertEquals(expected.nodes(), actual.nodes());
+        assertEquals(expected.arcs(), actual.arcs());
+        assertEquals(expected.nSolutions(), actual.nSolutions());
+        assertTrue(Operation.inclusion(expected, actual));
+        assertTrue(Operation.inclusion(actual, expected));
+    }
+
+    @AfterEach
+    void reset(){
+        Operation.setParallelism(1);
+    }
+
+    @Test
+    void intersectionAndUnion(){
+        MDD mdd1 = RandomMDD.create(20000, 12, 4, 1);
+        MDD mdd2 = RandomMDD.create(20000, 12, 4, 2);
+
+        Operation.setParallelism(1);
+        MDD inter = Operation.intersection(mdd1, mdd2);
+        MDD union = Operation.union(mdd1, mdd2);
+        MDD minus = Operation.minus(mdd1, mdd2);
+
+        Operation.setParallelism(4);
+        MDD interParallel = Operation.intersection(mdd1, mdd2);
+        MDD unionParallel = Operation.union(mdd1, mdd2);
+        MDD minusParallel = Operation.minus(mdd1, mdd2);
+        // The layers of the operands are large enough to be built in parallel
+        assertTrue(Operation.getParallelLayers() > 0);
+
+        assertSameMDD(inter, interParallel);
+        assertSameMDD(union, unionParallel);
+        assertSameMDD(minus, minusParallel);
+
+        Memory.free(inter); Memory.free(union); Memory.free(minus);
+        Memory.free(interParallel); Memory.free(unionParallel); Memory.free(minusParallel);
+        Memory.free(mdd1); Memory.free(mdd2);
+    }
+
+    @Test
+    void changeParallelism() throws InterruptedException {
+        MDD mdd1 = RandomMDD.create(20000, 12, 4, 1);
+        MDD mdd2 = RandomMDD.create(20000, 12, 4, 2);
+        Operation.setParallelism(1);
+        MDD expected = Operation.intersection(mdd1, mdd2);
+
+        // The operation keeps the pool it started with while the parallelism changes
+        Operation.setParallelism(4);
+        Thread thread = new Thread(() -> {
+            for(int threads = 2; threads < 6; threads++) Operation.setParallelism(threads);
+        });
+        thread.start();
+        MDD inter = Operation.intersection(mdd1, mdd2);
+        thread.join();
+        assertSameMDD(expected, inter);
+
+        Memory.free(expected); Memory.free(inter);
+        Memory.free(mdd1); Memory.free(mdd2);
+    }
+
+}
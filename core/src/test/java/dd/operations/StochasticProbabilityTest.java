@@ -0,0 +1,136 @@
+package dd.operations;
+
+import dd.RandomMDD;
+import dd.frozen.FrozenMDD;
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.generics.MapOf;
+import utils.SmallMath;
+
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StochasticProbabilityTest {
+
+    private static final int N = 10, D = 6, PRECISION = 4;
+
+    @SuppressWarnings("unchecked")
+    private MapOf<Integer, Double>[] randomProbabilities(long seed){
+        Random random = new Random(seed);
+        double divisor = Math.pow(10, PRECISION);
+        MapOf<Integer, Double>[] P = new MapOf[N];
+        for(int i = 0; i < N; i++) {
+            P[i] = Memory.MapOfIntegerDouble();
+            for(int v = 0; v < D; v++) P[i].put(v, (double) (1 + random.nextInt((int) divisor / D)));
+        }
+        return P;
+    }
+
+    /**
+     * The propagation layer by layer on the nodes, without any index
+     */
+    private double reference(MDD mdd, MapOf<Integer, Double>[] P, boolean ceil){
+        double divisor = Math.pow(10, PRECISION);
+        IdentityHashMap<Node, Double> values = new IdentityHashMap<>();
+        values.put(mdd.getTt(), divisor);
+        for(int i = mdd.size() - 2; i >= 0; i--) {
+            for(Node x : mdd.getLayer(i)) {
+                double sum = 0;
+                for(int arc : x.getChildren()) {
+                    double value = values.get(x.getChild(arc));
+                    sum += ceil ? SmallMath.multiplyCeil(value, P[i].get(arc), divisor) : SmallMath.multiplyFloor(value, P[i].get(arc), divisor);
+                }
+                values.put(x, sum);
+            }
+        }
+        return values.get(mdd.getRoot()) / divisor;
+    }
+
+    @Test
+    void sameAsReference(){
+        MDD mdd = RandomMDD.create(20000, N, D, 1);
+        MapOf<Integer, Double>[] P = randomProbabilities(2);
+        assertEquals(reference(mdd, P, false), Stochastic.probability(mdd, P, PRECISION, false));
+        assertEquals(reference(mdd, P, true), Stochastic.probability(mdd, P, PRECISION, true));
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void parallel(){
+        MDD mdd = RandomMDD.create(40000, N, D, 3);
+        MapOf<Integer, Double>[] P = randomProbabilities(4);
+        FrozenMDD frozen = FrozenMDD.create(mdd);
+        double[][] tables = Stochastic.probabilities(P);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for(boolean ceil : new boolean[]{false, true})
+                assertEquals(Stochastic.probability(frozen, tables, PRECISION, ceil),
+                        Stochastic.probability(frozen, tables, PRECISION, ceil, pool));
+        } finally {
+            pool.shutdown();
+        }
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void emptyAndMissingLabels(){
+        MapOf<Integer, Double>[] P = randomProbabilities(5);
+        assertEquals(0, Stochastic.probability(MDD.create(), P, PRECISION, false));
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+
+        P = randomProbabilities(6);
+        P[0].remove(0);
+        double[][] tables = Stochastic.probabilities(P);
+        assertEquals(D, tables[0].length);
+        assertEquals(0, tables[0][0]);
+        assertEquals(P[1].get(3), tables[1][3]);
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+    }
+
+    @Test
+    void labelsOutOfTheTables(){
+        MDD mdd = RandomMDD.create(2000, N, D, 7);
+        MapOf<Integer, Double>[] P = randomProbabilities(8);
+        // The largest label of the first layer is missing : its table is shorter than the domain
+        P[0].remove(D - 1);
+        P[2].remove(0);
+        double[][] tables = Stochastic.probabilities(P);
+        assertEquals(D - 1, tables[0].length);
+        FrozenMDD frozen = FrozenMDD.create(mdd);
+        for(boolean ceil : new boolean[]{false, true}) {
+            double expected = Stochastic.probability(mdd, P, PRECISION, ceil);
+            assertEquals(expected, Stochastic.probability(frozen, tables, PRECISION, ceil));
+            // Same as a probability of 0
+            P[0].put(D - 1, 0.0);
+            P[2].put(0, 0.0);
+            assertEquals(expected, Stochastic.probability(mdd, P, PRECISION, ceil));
+            P[0].remove(D - 1);
+            P[2].remove(0);
+        }
+        double[][] missing = new double[N - 1][];
+        assertThrows(IllegalArgumentException.class, () -> Stochastic.probability(frozen, missing, PRECISION, false));
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void severalLeaves(){
+        // Not reduced : the last layer holds one leaf per path, so the FrozenMDD has no tt node
+        MDD trie = RandomMDD.trie(300, N, D, 9);
+        MapOf<Integer, Double>[] P = randomProbabilities(10);
+        double[][] tables = Stochastic.probabilities(P);
+        FrozenMDD frozen = FrozenMDD.create(trie);
+        assertEquals(-1, frozen.tt());
+        trie.reduce();
+        assertEquals(Stochastic.probability(trie, P, PRECISION, false), Stochastic.probability(frozen, tables, PRECISION, false));
+        for(MapOf<Integer, Double> map : P) Memory.free(map);
+        Memory.free(trie);
+    }
+}
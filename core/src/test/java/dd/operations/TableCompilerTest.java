@@ -0,0 +1,85 @@
+package dd.operations;
+
+import dd.mdd.MDD;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import structures.MDDTable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableCompilerTest {
+
+    private static final int N = 8, D = 4;
+
+    private static MDDTable table(int[][] rows){
+        return new MDDTable() {
+            public int numberOfTuples() { return rows.length; }
+            public int tupleSize() { return N; }
+            public int valueOfIndex(int row, int column) { return rows[row][column]; }
+        };
+    }
+
+    private static int[][] sortedRows(int count, long seed){
+        Random random = new Random(seed);
+        int[][] rows = new int[count][N];
+        for(int[] row : rows) for(int i = 0; i < N; i++) row[i] = random.nextInt(D);
+        Arrays.sort(rows, Arrays::compare);
+        return rows;
+    }
+
+    private static void assertSame(MDD expected, MDD actual){
+        assertEquals(expected.nSolutions(), actual.nSolutions());
+        assertEquals(expected.nodes(), actual.nodes());
+        assertEquals(expected.arcs(), actual.arcs());
+        assertTrue(Operation.inclusion(expected, actual));
+        assertTrue(Operation.inclusion(actual, expected));
+    }
+
+    @Test
+    void minimalAsReduce(){
+        // Duplicated rows are ignored
+        MDDTable table = table(sortedRows(20000, 1));
+        MDD expected = MDD.createFromTable(table);
+        MDD compiled = MDD.createFromSortedTable(table);
+        assertSame(expected, compiled);
+        Memory.free(expected);
+        Memory.free(compiled);
+    }
+
+    @Test
+    void unsorted(){
+        int[][] rows = sortedRows(100, 2);
+        int[] tmp = rows[10];
+        rows[10] = rows[90];
+        rows[90] = tmp;
+        assertThrows(IllegalArgumentException.class, () -> TableCompiler.compile(MDD.create(), table(rows)));
+    }
+
+    @Test
+    void streaming(@TempDir Path directory) throws IOException {
+        int[][] rows = sortedRows(5000, 3);
+        Path file = directory.resolve("table.txt");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            for(int[] row : rows) {
+                StringBuilder line = new StringBuilder();
+                for(int i = 0; i < N; i++) line.append(i == 0 ? "" : i % 2 == 0 ? ", " : " ").append(row[i]);
+                writer.println(line);
+                if(row[0] == 1) writer.println();
+            }
+        }
+        MDD compiled = MDD.create();
+        assertTrue(TableCompiler.compile(compiled, file.toString()));
+        MDD expected = MDD.createFromTable(table(rows));
+        assertSame(expected, compiled);
+        Memory.free(expected);
+        Memory.free(compiled);
+    }
+}
@@ -0,0 +1,55 @@
+package dd.proxy;
+
+import dd.RandomMDD;
+import dd.mdd.MDD;
+import dd.operations.Operation;
+import memory.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import utils.io.MDDReader;
+import utils.io.reader.MDDMappedFile;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DDProxyTest {
+
+    @AfterEach
+    void reset(){
+        MDDReader.setMode(MDDReader.BOTTOM_UP);
+        MDDMappedFile.setSegmentShift(30);
+    }
+
+    @Test
+    void intersectionWithProxy() throws IOException {
+        intersectionWithProxy(MDDReader.TOP_DOWN);
+    }
+
+    @Test
+    void intersectionWithIndexedProxy() throws IOException {
+        intersectionWithProxy(MDDReader.TOP_DOWN_INDEXED);
+    }
+
+    private void intersectionWithProxy(byte mode) throws IOException {
+        // Small segments : the elements are read across the segments
+        MDDMappedFile.setSegmentShift(6);
+        MDD mdd = RandomMDD.create(2000, 8, 5, 0);
+        File file = File.createTempFile("proxy", ".mdd");
+        file.deleteOnExit();
+        MDDReader.setMode(mode);
+        assertTrue(MDDReader.save(mdd, file.getPath()));
+
+        DDProxy proxy = DDProxy.create(file.getPath());
+        assertEquals(mdd.size(), proxy.size());
+        MDD result = Operation.intersection(mdd, proxy);
+        assertEquals(mdd.nSolutions(), result.nSolutions());
+        assertTrue(Operation.inclusion(mdd, result));
+
+        Memory.free(result);
+        Memory.free(proxy);
+        Memory.free(mdd);
+    }
+
+}
@@ -0,0 +1,158 @@
+package memory;
+
+import builder.MDDBuilder;
+import dd.mdd.MDD;
+import dd.mdd.components.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import structures.generics.SetOf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentAllocatorTest {
+
+    private static final int THREADS = 4, N = 10;
+
+    @AfterEach
+    void sequential(){
+        Memory.setConcurrent(false);
+    }
+
+    private static MDD sum(int min, int max){
+        SetOf<Integer> V = Memory.SetOfInteger();
+        for(int v = 0; v < 3; v++) V.add(v);
+        MDD mdd = MDDBuilder.sum(MDD.create(), min, max, N, V);
+        Memory.free(V);
+        mdd.reduce();
+        return mdd;
+    }
+
+    @Test
+    void build() throws Exception {
+        double[] expected = new double[THREADS];
+        for(int t = 0; t < THREADS; t++) {
+            MDD mdd = sum(t + 6, t + 10);
+            expected[t] = mdd.nSolutions();
+            Memory.free(mdd);
+        }
+
+        Memory.setConcurrent(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            // The MDDs are freed on the main thread : the next rounds reuse their objects on the workers
+            for(int round = 0; round < 3; round++) {
+                List<Future<MDD>> futures = new ArrayList<>();
+                for(int t = 0; t < THREADS; t++) {
+                    int min = t + 6, max = t + 10;
+                    futures.add(executor.submit(() -> sum(min, max)));
+                }
+                for(int t = 0; t < THREADS; t++) {
+                    MDD mdd = futures.get(t).get();
+                    assertEquals(expected[t], mdd.nSolutions());
+                    Memory.free(mdd);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void crossThreadFree() throws Exception {
+        Memory.setConcurrent(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        Set<Node> live = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        try {
+            List<Future<List<Node>>> allocated = new ArrayList<>();
+            for(int round = 0; round < 20; round++) {
+                allocated.clear();
+                for(int t = 0; t < THREADS; t++) allocated.add(executor.submit(() -> {
+                    List<Node> nodes = new ArrayList<>();
+                    for(int i = 0; i < 1000; i++) {
+                        Node node = Node.create();
+                        // An object must never be handed out twice while in use
+                        assertTrue(live.add(node));
+                        nodes.add(node);
+                    }
+                    return nodes;
+                }));
+                // Free on another thread than the one that allocated
+                List<Future<?>> freed = new ArrayList<>();
+                for(int t = 0; t < THREADS; t++) {
+                    List<Node> nodes = allocated.get(t).get();
+                    freed.add(executor.submit(() -> {
+                        for(Node node : nodes) {
+                            live.remove(node);
+                            Memory.free(node);
+                        }
+                    }));
+                }
+                for(Future<?> f : freed) f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(live.isEmpty());
+    }
+
+    @Test
+    void recycledIndices(){
+        Set<Integer> indices = new HashSet<>();
+        List<Node> nodes = new ArrayList<>();
+        for(int round = 0; round < 100; round++) {
+            Memory.setConcurrent(true);
+            for(int i = 0; i < 1000; i++) {
+                Node node = Node.create();
+                indices.add(node.allocatedIndex());
+                nodes.add(node);
+            }
+            // Left to the garbage collector : their indices are given back to the next rounds
+            Memory.setConcurrent(false);
+            for(Node node : nodes) Memory.free(node);
+            nodes.clear();
+        }
+        assertTrue(indices.size() < 10000);
+    }
+
+    @Test
+    void endedThread() throws Exception {
+        Memory.setConcurrent(true);
+        Set<Node> freed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Thread thread = new Thread(() -> {
+            List<Node> nodes = new ArrayList<>();
+            for(int i = 0; i < 10; i++) nodes.add(Node.create());
+            freed.addAll(nodes);
+            // Kept in the cache of the thread
+            for(Node node : nodes) Memory.free(node);
+        });
+        thread.start();
+        thread.join();
+        Memory.trim();
+        // Once the thread has ended, its free nodes are given back to the shared stack
+        List<Node> nodes = new ArrayList<>();
+        boolean reused = false;
+        for(int attempt = 0; attempt < 50 && !reused; attempt++) {
+            System.gc();
+            Memory.statistics();
+            // The free nodes of the threads of the previous tests may be given back at the same time
+            for(int i = 0; i < 2000 && !reused; i++) {
+                Node node = Node.create();
+                reused = freed.contains(node);
+                nodes.add(node);
+            }
+        }
+        for(Node node : nodes) Memory.free(node);
+        assertTrue(reused);
+    }
+
+}
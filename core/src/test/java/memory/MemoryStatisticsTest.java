@@ -0,0 +1,85 @@
+package memory;
+
+import dd.mdd.components.Node;
+import org.junit.jupiter.api.Test;
+import structures.generics.SetOf;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryStatisticsTest {
+
+    private static MemoryStatistics find(String name){
+        for(MemoryStatistics statistics : Memory.statistics()) if(statistics.getName().equals(name)) return statistics;
+        return null;
+    }
+
+    @Test
+    void allocators(){
+        Memory.free(Node.create());
+        MemoryStatistics before = find(Node.class.getName());
+        assertNotNull(before);
+
+        List<Node> nodes = new ArrayList<>();
+        for(int i = 0; i < 100; i++) nodes.add(Node.create());
+        MemoryStatistics during = find(Node.class.getName());
+        assertEquals(before.getLive() + 100, during.getLive());
+        assertTrue(during.getHighWater() >= during.getLive());
+        assertTrue(during.getCapacity() >= during.getCreated());
+
+        for(Node node : nodes) Memory.free(node);
+        // Freeing twice has no effect
+        Memory.free(nodes.get(0));
+        MemoryStatistics after = find(Node.class.getName());
+        assertEquals(before.getLive(), after.getLive());
+        assertEquals(after.getCreated(), after.getLive() + after.getFree());
+        assertEquals(during.getHighWater(), after.getHighWater());
+    }
+
+    @Test
+    void crossMode(){
+        // Elements freed in the other mode are left to the garbage collector : they are no longer counted
+        Node sequential = Node.create();
+        Memory.setConcurrent(true);
+        Node concurrent = Node.create();
+        Memory.free(sequential);
+        Memory.setConcurrent(false);
+        Memory.free(concurrent);
+        MemoryStatistics after = find(Node.class.getName());
+        assertEquals(after.getCreated(), after.getLive() + after.getFree());
+        assertTrue(after.getCapacity() >= after.getCreated());
+    }
+
+    @Test
+    void pools(){
+        SetOf<Integer> set = Memory.SetOfInteger();
+        MemoryStatistics during = find("SetOf<Integer>");
+        assertNotNull(during);
+        Memory.free(set);
+        MemoryStatistics after = find("SetOf<Integer>");
+        assertEquals(during.getLive() - 1, after.getLive());
+        assertEquals(during.getFree() + 1, after.getFree());
+    }
+
+    @Test
+    void mbean() throws Exception {
+        Memory.registerMBean();
+        Memory.registerMBean();
+        Node node = Node.create();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Memory.MBEAN_NAME);
+        assertTrue((Long) server.getAttribute(name, "LiveObjects") > 0);
+        CompositeData[] statistics = (CompositeData[]) server.getAttribute(name, "Statistics");
+        boolean found = false;
+        for(CompositeData data : statistics) found |= Node.class.getName().equals(data.get("name"));
+        assertTrue(found);
+        Memory.free(node);
+    }
+
+}
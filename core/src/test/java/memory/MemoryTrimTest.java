@@ -0,0 +1,135 @@
+package memory;
+
+import dd.mdd.components.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import structures.generics.SetOf;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryTrimTest {
+
+    @AfterEach
+    void reset(){
+        Memory.setMaxFree(Integer.MAX_VALUE);
+        Memory.setMaxFree(Node.class, -1);
+        Memory.setIdleTrim(0);
+        Memory.setConcurrent(false);
+    }
+
+    private static MemoryStatistics find(String name){
+        // Memory.trim only trims the allocators of the calling thread
+        for(MemoryStatistics statistics : Memory.threadStatistics()) if(statistics.getName().equals(name)) return statistics;
+        for(MemoryStatistics statistics : Memory.statistics()) if(statistics.getName().equals(name)) return statistics;
+        return null;
+    }
+
+    private static void allocateAndFree(int n){
+        List<Node> nodes = new ArrayList<>();
+        for(int i = 0; i < n; i++) nodes.add(Node.create());
+        for(Node node : nodes) Memory.free(node);
+    }
+
+    @Test
+    void maxFree(){
+        allocateAndFree(1);
+        Memory.trim();
+        assertEquals(0, find(Node.class.getName()).getFree());
+
+        Memory.setMaxFree(Node.class, 10);
+        allocateAndFree(100);
+        MemoryStatistics bounded = find(Node.class.getName());
+        assertEquals(10, bounded.getFree());
+
+        // The indices of the trimmed nodes are reused : the allocator does not grow
+        allocateAndFree(100);
+        MemoryStatistics after = find(Node.class.getName());
+        assertEquals(10, after.getFree());
+        assertEquals(bounded.getCapacity(), after.getCapacity());
+        assertEquals(bounded.getLive(), after.getLive());
+    }
+
+    @Test
+    void idleTrim() throws InterruptedException {
+        allocateAndFree(2000);
+        assertTrue(find(Node.class.getName()).getFree() >= 2000);
+        Memory.setIdleTrim(1);
+        // Only one node is needed at a time : the others are trimmed after two delays
+        for(int i = 0; i < 3; i++) {
+            Thread.sleep(5);
+            for(int j = 0; j < 256; j++) Memory.free(Node.create());
+        }
+        assertTrue(find(Node.class.getName()).getFree() <= 2);
+    }
+
+    @Test
+    void pools(){
+        List<SetOf<Integer>> sets = new ArrayList<>();
+        for(int i = 0; i < 20; i++) sets.add(Memory.SetOfInteger());
+        for(SetOf<Integer> set : sets) Memory.free(set);
+        assertTrue(find("SetOf<Integer>").getFree() >= 20);
+        Memory.trim(5);
+        assertEquals(5, find("SetOf<Integer>").getFree());
+        Memory.setMaxFree(8);
+        sets.clear();
+        for(int i = 0; i < 20; i++) sets.add(Memory.SetOfInteger());
+        for(SetOf<Integer> set : sets) Memory.free(set);
+        assertEquals(8, find("SetOf<Integer>").getFree());
+    }
+
+    @Test
+    void doubleFreeAfterTrim(){
+        // Dropped when freed, then freed again once the bound allows to keep it
+        Memory.setMaxFree(Node.class, 0);
+        Node x = Node.create();
+        Memory.free(x);
+        Memory.setMaxFree(Node.class, 10);
+        Memory.free(x);
+        Node y = Node.create(), z = Node.create();
+        assertNotEquals(y.allocatedIndex(), z.allocatedIndex());
+        Memory.free(y);
+        Memory.free(z);
+
+        // Trimmed, then freed again
+        x = Node.create();
+        Memory.free(x);
+        Memory.trim();
+        Memory.free(x);
+        assertEquals(0, find(Node.class.getName()).getFree());
+
+        SetOf<Integer> set = Memory.SetOfInteger();
+        Memory.free(set);
+        Memory.trim();
+        Memory.free(set);
+        assertEquals(0, find("SetOf<Integer>").getFree());
+    }
+
+    @Test
+    void concurrentTrim(){
+        Memory.setConcurrent(true);
+        Set<Integer> indices = new HashSet<>();
+        List<Node> nodes = new ArrayList<>();
+        long live = find(Node.class.getName()).getLive();
+        for(int round = 0; round < 100; round++) {
+            // Dropped beyond the bound, or by the trimming : the indices are given back to the next rounds
+            Memory.setMaxFree(Node.class, round % 2 == 0 ? 0 : -1);
+            for(int i = 0; i < 1000; i++) {
+                Node node = Node.create();
+                indices.add(node.allocatedIndex());
+                nodes.add(node);
+            }
+            for(Node node : nodes) Memory.free(node);
+            nodes.clear();
+            if(round % 2 == 1) Memory.trim();
+        }
+        assertTrue(indices.size() < 10000);
+        // The free bits of the dropped nodes are cleared : the nodes created at their indices are freed normally
+        assertEquals(live, find(Node.class.getName()).getLive());
+    }
+
+}
@@ -0,0 +1,61 @@
+package structures;
+
+import dd.interfaces.INode;
+import dd.mdd.components.Node;
+import memory.Memory;
+import org.junit.jupiter.api.Test;
+import structures.arrays.ArrayOfNodeInterface;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TupleTableTest {
+
+    @Test
+    void couples(){
+        Node[] nodes = new Node[100];
+        for(int i = 0; i < nodes.length; i++) nodes[i] = Node.create();
+        TupleTable table = TupleTable.create(2);
+        for(int layer = 0; layer < 3; layer++) {
+            for(int i = 0; i < nodes.length; i++) {
+                for(int j = 0; j < nodes.length; j += 7) {
+                    assertNull(table.get(nodes[i], nodes[j]));
+                    table.put(nodes[(i + j) % nodes.length]);
+                }
+                assertNull(table.get(nodes[i], null));
+                table.put(nodes[i]);
+            }
+            for(int i = 0; i < nodes.length; i++) {
+                for(int j = 0; j < nodes.length; j += 7) assertSame(nodes[(i + j) % nodes.length], table.get(nodes[i], nodes[j]));
+                assertSame(nodes[i], table.get(nodes[i], null));
+                assertNull(table.get(null, nodes[i]));
+            }
+            // Clearing between two layers
+            table.clear();
+            assertEquals(0, table.size());
+            assertNull(table.get(nodes[0], nodes[0]));
+        }
+        Memory.free(table);
+        for(Node node : nodes) Memory.free(node);
+    }
+
+    @Test
+    void tuples(){
+        Node a = Node.create(), b = Node.create(), c = Node.create();
+        TupleTable table = TupleTable.create(3);
+        ArrayOfNodeInterface ys = ArrayOfNodeInterface.create(3);
+        ys.set(0, a); ys.set(1, b); ys.set(2, c);
+        assertNull(table.get(ys));
+        table.put(a);
+        ys.set(2, null);
+        assertNull(table.get(ys));
+        table.put(b);
+        ys.set(2, c);
+        INode y = table.get(ys);
+        assertSame(a, y);
+        ys.set(2, null);
+        assertSame(b, table.get(ys));
+        Memory.free(ys);
+        Memory.free(table);
+    }
+
+}
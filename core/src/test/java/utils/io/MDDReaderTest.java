@@ -0,0 +1,86 @@
+package utils.io;
+
+import dd.RandomMDD;
+import dd.mdd.components.Node;
+import dd.mdd.MDD;
+import dd.operations.Operation;
+import memory.Memory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MDDReaderTest {
+
+    private File save(MDD mdd, byte mode) throws IOException {
+        File file = File.createTempFile("reader", ".mdd");
+        file.deleteOnExit();
+        MDDReader.setMode(mode);
+        assertTrue(MDDReader.save(mdd, file.getPath()));
+        return file;
+    }
+
+    @AfterEach
+    void reset(){
+        MDDReader.setMode(MDDReader.BOTTOM_UP);
+    }
+
+    @Test
+    void saveAndLoad() throws IOException {
+        MDD mdd = RandomMDD.create(3000, 10, 6, 0);
+        for(byte mode : new byte[]{MDDReader.BOTTOM_UP, MDDReader.TOP_DOWN, MDDReader.TOP_DOWN_INDEXED,
+                MDDReader.TOP_DOWN_COMPACT, MDDReader.TOP_DOWN_COMPACT_DEFLATE}) {
+            File file = save(mdd, mode);
+            MDD loaded = MDD.create();
+            assertTrue(MDDReader.load(loaded, file.getPath()));
+            assertEquals(mdd.nodes(), loaded.nodes());
+            assertEquals(mdd.arcs(), loaded.arcs());
+            assertTrue(Operation.inclusion(mdd, loaded));
+            assertTrue(Operation.inclusion(loaded, mdd));
+            Memory.free(loaded);
+        }
+        Memory.free(mdd);
+    }
+
+    @Test
+    void compactEncoding() throws IOException {
+        MDD mdd = RandomMDD.create(3000, 10, 6, 0);
+        long fixed = save(mdd, MDDReader.TOP_DOWN).length();
+        long compact = save(mdd, MDDReader.TOP_DOWN_COMPACT).length();
+        long deflate = save(mdd, MDDReader.TOP_DOWN_COMPACT_DEFLATE).length();
+        assertTrue(compact < fixed);
+        assertTrue(deflate < compact);
+        Memory.free(mdd);
+    }
+
+    @Test
+    void loadLayers() throws IOException {
+        MDD mdd = RandomMDD.create(3000, 10, 6, 0);
+        File file = save(mdd, MDDReader.TOP_DOWN_INDEXED);
+
+        // Whole DD
+        MDD loaded = MDD.create();
+        assertTrue(MDDReader.loadLayers(loaded, file.getPath(), 0, mdd.size() - 1));
+        assertEquals(mdd.nSolutions(), loaded.nSolutions());
+        Memory.free(loaded);
+
+        // Range of layers
+        loaded = MDD.create();
+        assertTrue(MDDReader.loadLayers(loaded, file.getPath(), 4, 7));
+        for(int i = 0; i < mdd.size(); i++) {
+            // The root of an MDD always exists
+            if(i == 0) assertEquals(1, loaded.getLayerSize(i));
+            else if(i < 4 || i > 7) assertEquals(0, loaded.getLayerSize(i));
+            else assertEquals(mdd.getLayerSize(i), loaded.getLayerSize(i));
+        }
+        int arcs = 0;
+        for(int i = 4; i < 7; i++) for(Node node : mdd.getLayer(i)) arcs += node.numberOfChildren();
+        assertEquals(arcs, loaded.arcs());
+        Memory.free(loaded);
+        Memory.free(mdd);
+    }
+
+}